@@ -0,0 +1,109 @@
+package de.widemeadows.projectcore.animation;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Vertexdaten eines gehäuteten Meshes in flachen Arrays.
+ * <p/>
+ * Positionen und Normalen liegen als <code>{x0, y0, z0, x1, y1, z1, ...}</code> vor. Jeder Vertex
+ * besitzt genau {@link #influences} Einflüsse; Knochenindizes und Gewichte des Vertex <code>i</code>
+ * liegen an den Stellen <code>i * influences .. (i + 1) * influences - 1</code>. Ungenutzte Einflüsse
+ * erhalten das Gewicht 0. Die Gewichte eines Vertex müssen sich zu 1 summieren.
+ *
+ * @see SkinningEngine
+ */
+public final class SkinnedMesh {
+
+	/**
+	 * Die Anzahl der Vertices
+	 */
+	public final int vertexCount;
+
+	/**
+	 * Die Anzahl der Knocheneinflüsse je Vertex
+	 */
+	public final int influences;
+
+	/**
+	 * Die Positionen in Bind-Pose
+	 */
+	@NotNull
+	public final float[] bindPositions;
+
+	/**
+	 * Die Normalen in Bind-Pose oder <code>null</code>, wenn keine Normalen gehäutet werden sollen
+	 */
+	@Nullable
+	public final float[] bindNormals;
+
+	/**
+	 * Die Knochenindizes je Einfluss
+	 */
+	@NotNull
+	public final int[] boneIndices;
+
+	/**
+	 * Die Gewichte je Einfluss
+	 */
+	@NotNull
+	public final float[] boneWeights;
+
+	/**
+	 * Die gehäuteten Positionen
+	 */
+	@NotNull
+	public final float[] skinnedPositions;
+
+	/**
+	 * Die gehäuteten Normalen oder <code>null</code>, wenn keine Normalen gehäutet werden
+	 */
+	@Nullable
+	public final float[] skinnedNormals;
+
+	/**
+	 * Erzeugt ein neues Mesh; die Ausgabepuffer werden angelegt.
+	 *
+	 * @param influences Die Anzahl der Knocheneinflüsse je Vertex (1..n)
+	 * @param bindPositions Die Positionen in Bind-Pose
+	 * @param bindNormals Die Normalen in Bind-Pose oder <code>null</code>
+	 * @param boneIndices Die Knochenindizes je Einfluss
+	 * @param boneWeights Die Gewichte je Einfluss
+	 */
+	public SkinnedMesh(final int influences, @NotNull final float[] bindPositions, @Nullable final float[] bindNormals,
+	                   @NotNull final int[] boneIndices, @NotNull final float[] boneWeights) {
+		this(influences, bindPositions, bindNormals, boneIndices, boneWeights,
+				new float[bindPositions.length], bindNormals == null ? null : new float[bindNormals.length]);
+	}
+
+	/**
+	 * Erzeugt ein neues Mesh mit vorgegebenen Ausgabepuffern
+	 *
+	 * @param influences Die Anzahl der Knocheneinflüsse je Vertex (1..n)
+	 * @param bindPositions Die Positionen in Bind-Pose
+	 * @param bindNormals Die Normalen in Bind-Pose oder <code>null</code>
+	 * @param boneIndices Die Knochenindizes je Einfluss
+	 * @param boneWeights Die Gewichte je Einfluss
+	 * @param skinnedPositions Der Ausgabepuffer für Positionen
+	 * @param skinnedNormals Der Ausgabepuffer für Normalen oder <code>null</code>
+	 */
+	public SkinnedMesh(final int influences, @NotNull final float[] bindPositions, @Nullable final float[] bindNormals,
+	                   @NotNull final int[] boneIndices, @NotNull final float[] boneWeights,
+	                   @NotNull final float[] skinnedPositions, @Nullable final float[] skinnedNormals) {
+		assert influences > 0;
+		assert bindPositions.length % 3 == 0;
+		assert boneIndices.length == bindPositions.length / 3 * influences;
+		assert boneWeights.length == boneIndices.length;
+		assert skinnedPositions.length >= bindPositions.length;
+		assert bindNormals == null || (bindNormals.length == bindPositions.length && skinnedNormals != null && skinnedNormals.length >= bindNormals.length);
+
+		this.vertexCount = bindPositions.length / 3;
+		this.influences = influences;
+		this.bindPositions = bindPositions;
+		this.bindNormals = bindNormals;
+		this.boneIndices = boneIndices;
+		this.boneWeights = boneWeights;
+		this.skinnedPositions = skinnedPositions;
+		this.skinnedNormals = bindNormals == null ? null : skinnedNormals;
+	}
+}
@@ -0,0 +1,262 @@
+package de.widemeadows.projectcore.animation;
+
+import de.widemeadows.projectcore.math.DualQuaternion;
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.Quaternion;
+import de.widemeadows.projectcore.utils.ChunkDispatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * CPU-Skinning über eine Knochenpalette in einem Durchlauf.
+ * <p/>
+ * Statt je Einfluss und Vertex eine Transformation über gecachte Hilfsobjekte auszuführen, werden die
+ * Knochentransformationen je Vertex gewichtet überblendet und Position sowie Normale anschließend
+ * einmalig transformiert. Es werden keine Objekte angefordert.
+ *
+ * <h3>Verfahren</h3>
+ * <ul>
+ *     <li>{@link #skinLinear(SkinnedMesh, Matrix4[])} - Linear Blend Skinning über {@link Matrix4}-Paletten
+ *     (Zeilenvektor-Konvention, affin). Normalen werden mit dem überblendeten 3x3-Anteil transformiert und
+ *     nicht renormalisiert; bei nicht-uniformer Skalierung ist dies nur eine Näherung.</li>
+ *     <li>{@link #skinDualQuaternion(SkinnedMesh, DualQuaternion[])} - Dual Quaternion Skinning über starre
+ *     Knochentransformationen; vermeidet den Volumenverlust (Candy-Wrapper-Effekt) des linearen Verfahrens.</li>
+ * </ul>
+ *
+ * <h3>Parallelisierung</h3>
+ * Wird ein {@link ExecutorService} übergeben, werden Meshes ab {@link #getMinimumChunkSize()} Vertices
+ * in Blöcke zerlegt und parallel verarbeitet. Der aufrufende Thread bearbeitet den ersten Block selbst.
+ *
+ * @see SkinnedMesh
+ */
+public final class SkinningEngine {
+
+	/**
+	 * Standardgröße eines parallel verarbeiteten Blocks
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+	/**
+	 * Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 */
+	@Nullable
+	private final ExecutorService executor;
+
+	/**
+	 * Die Mindestanzahl an Vertices je Block
+	 */
+	private final int minimumChunkSize;
+
+	/**
+	 * Erzeugt eine neue Instanz, die ausschließlich im aufrufenden Thread arbeitet
+	 */
+	public SkinningEngine() {
+		this(null, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Erzeugt eine neue Instanz
+	 *
+	 * @param executor Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 */
+	public SkinningEngine(@Nullable final ExecutorService executor) {
+		this(executor, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Erzeugt eine neue Instanz
+	 *
+	 * @param executor Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 * @param minimumChunkSize Die Mindestanzahl an Vertices je Block (1..n)
+	 */
+	public SkinningEngine(@Nullable final ExecutorService executor, final int minimumChunkSize) {
+		assert minimumChunkSize > 0;
+		this.executor = executor;
+		this.minimumChunkSize = minimumChunkSize;
+	}
+
+	/**
+	 * Liefert die Mindestanzahl an Vertices je parallel verarbeitetem Block
+	 *
+	 * @return Die Blockgröße
+	 */
+	public int getMinimumChunkSize() {
+		return minimumChunkSize;
+	}
+
+	/**
+	 * Häutet ein Mesh mittels Linear Blend Skinning
+	 *
+	 * @param mesh Das Mesh
+	 * @param palette Die Knochenpalette (affine Matrizen, Zeilenvektor-Konvention)
+	 */
+	public void skinLinear(@NotNull final SkinnedMesh mesh, @NotNull final Matrix4[] palette) {
+		dispatch(mesh.vertexCount, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				skinLinear(mesh, palette, from, to);
+				return 0;
+			}
+		});
+	}
+
+	/**
+	 * Häutet ein Mesh mittels Dual Quaternion Skinning
+	 *
+	 * @param mesh Das Mesh
+	 * @param palette Die Knochenpalette (normierte, starre Transformationen)
+	 */
+	public void skinDualQuaternion(@NotNull final SkinnedMesh mesh, @NotNull final DualQuaternion[] palette) {
+		dispatch(mesh.vertexCount, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				skinDualQuaternion(mesh, palette, from, to);
+				return 0;
+			}
+		});
+	}
+
+	/**
+	 * Häutet einen Vertexbereich mittels Linear Blend Skinning
+	 *
+	 * @param mesh Das Mesh
+	 * @param palette Die Knochenpalette
+	 * @param from Der erste Vertex (inklusiv)
+	 * @param to Der letzte Vertex (exklusiv)
+	 */
+	public static void skinLinear(@NotNull final SkinnedMesh mesh, @NotNull final Matrix4[] palette, final int from, final int to) {
+		assert from >= 0 && to <= mesh.vertexCount;
+
+		final int influences = mesh.influences;
+		final int[] indices = mesh.boneIndices;
+		final float[] weights = mesh.boneWeights;
+		final float[] positions = mesh.bindPositions;
+		final float[] normals = mesh.bindNormals;
+		final float[] outPositions = mesh.skinnedPositions;
+		final float[] outNormals = mesh.skinnedNormals;
+
+		for (int vertex = from; vertex < to; ++vertex) {
+
+			// Affine 4x3-Anteile der Knochen gewichtet überblenden
+			float m11 = 0, m12 = 0, m13 = 0;
+			float m21 = 0, m22 = 0, m23 = 0;
+			float m31 = 0, m32 = 0, m33 = 0;
+			float m41 = 0, m42 = 0, m43 = 0;
+
+			final int base = vertex * influences;
+			for (int i = 0; i < influences; ++i) {
+				final float w = weights[base + i];
+				if (w == 0) continue;
+
+				final float[] m = palette[indices[base + i]].values;
+				m11 += w * m[Matrix4.M11]; m12 += w * m[Matrix4.M12]; m13 += w * m[Matrix4.M13];
+				m21 += w * m[Matrix4.M21]; m22 += w * m[Matrix4.M22]; m23 += w * m[Matrix4.M23];
+				m31 += w * m[Matrix4.M31]; m32 += w * m[Matrix4.M32]; m33 += w * m[Matrix4.M33];
+				m41 += w * m[Matrix4.M41]; m42 += w * m[Matrix4.M42]; m43 += w * m[Matrix4.M43];
+			}
+
+			final int p = vertex * 3;
+			final float px = positions[p], py = positions[p + 1], pz = positions[p + 2];
+			outPositions[p]     = px * m11 + py * m21 + pz * m31 + m41;
+			outPositions[p + 1] = px * m12 + py * m22 + pz * m32 + m42;
+			outPositions[p + 2] = px * m13 + py * m23 + pz * m33 + m43;
+
+			if (normals != null) {
+				assert outNormals != null;
+				final float nx = normals[p], ny = normals[p + 1], nz = normals[p + 2];
+				outNormals[p]     = nx * m11 + ny * m21 + nz * m31;
+				outNormals[p + 1] = nx * m12 + ny * m22 + nz * m32;
+				outNormals[p + 2] = nx * m13 + ny * m23 + nz * m33;
+			}
+		}
+	}
+
+	/**
+	 * Häutet einen Vertexbereich mittels Dual Quaternion Skinning
+	 *
+	 * @param mesh Das Mesh
+	 * @param palette Die Knochenpalette
+	 * @param from Der erste Vertex (inklusiv)
+	 * @param to Der letzte Vertex (exklusiv)
+	 */
+	public static void skinDualQuaternion(@NotNull final SkinnedMesh mesh, @NotNull final DualQuaternion[] palette, final int from, final int to) {
+		assert from >= 0 && to <= mesh.vertexCount;
+
+		final int influences = mesh.influences;
+		final int[] indices = mesh.boneIndices;
+		final float[] weights = mesh.boneWeights;
+		final float[] positions = mesh.bindPositions;
+		final float[] normals = mesh.bindNormals;
+		final float[] outPositions = mesh.skinnedPositions;
+		final float[] outNormals = mesh.skinnedNormals;
+
+		for (int vertex = from; vertex < to; ++vertex) {
+			final int base = vertex * influences;
+
+			// Referenz für die Hemisphäre ist der erste Einfluss
+			final Quaternion pivot = palette[indices[base]].real;
+
+			float rx = 0, ry = 0, rz = 0, rw = 0;
+			float dx = 0, dy = 0, dz = 0, dw = 0;
+			for (int i = 0; i < influences; ++i) {
+				float w = weights[base + i];
+				if (w == 0) continue;
+
+				final DualQuaternion dq = palette[indices[base + i]];
+				final Quaternion r = dq.real;
+				final Quaternion d = dq.dual;
+
+				// Antipodale Quaternionen beschreiben dieselbe Rotation; kürzesten Weg wählen
+				if (r.x * pivot.x + r.y * pivot.y + r.z * pivot.z + r.w * pivot.w < 0) w = -w;
+
+				rx += w * r.x; ry += w * r.y; rz += w * r.z; rw += w * r.w;
+				dx += w * d.x; dy += w * d.y; dz += w * d.z; dw += w * d.w;
+			}
+
+			// Normieren
+			final float invLength = 1.0f / (float)Math.sqrt(rx * rx + ry * ry + rz * rz + rw * rw);
+			rx *= invLength; ry *= invLength; rz *= invLength; rw *= invLength;
+			dx *= invLength; dy *= invLength; dz *= invLength; dw *= invLength;
+
+			// Translation: t = 2 * dual * conj(real)
+			final float tx = 2.0f * (rw * dx - dw * rx + (ry * dz - rz * dy));
+			final float ty = 2.0f * (rw * dy - dw * ry + (rz * dx - rx * dz));
+			final float tz = 2.0f * (rw * dz - dw * rz + (rx * dy - ry * dx));
+
+			// Rotation: v' = v + w*c + r x c mit c = 2 * (r x v)
+			final int p = vertex * 3;
+			final float px = positions[p], py = positions[p + 1], pz = positions[p + 2];
+			float cx = 2.0f * (ry * pz - rz * py);
+			float cy = 2.0f * (rz * px - rx * pz);
+			float cz = 2.0f * (rx * py - ry * px);
+			outPositions[p]     = px + rw * cx + (ry * cz - rz * cy) + tx;
+			outPositions[p + 1] = py + rw * cy + (rz * cx - rx * cz) + ty;
+			outPositions[p + 2] = pz + rw * cz + (rx * cy - ry * cx) + tz;
+
+			if (normals != null) {
+				assert outNormals != null;
+				final float nx = normals[p], ny = normals[p + 1], nz = normals[p + 2];
+				cx = 2.0f * (ry * nz - rz * ny);
+				cy = 2.0f * (rz * nx - rx * nz);
+				cz = 2.0f * (rx * ny - ry * nx);
+				outNormals[p]     = nx + rw * cx + (ry * cz - rz * cy);
+				outNormals[p + 1] = ny + rw * cy + (rz * cx - rx * cz);
+				outNormals[p + 2] = nz + rw * cz + (rx * cy - ry * cx);
+			}
+		}
+	}
+
+	/**
+	 * Verteilt die Verarbeitung auf Blöcke
+	 *
+	 * @param vertexCount Die Anzahl der Vertices
+	 * @param kernel Die Verarbeitung
+	 */
+	private void dispatch(final int vertexCount, @NotNull final ChunkDispatcher.RangeKernel kernel) {
+		final int chunks = executor == null || vertexCount < 2 * minimumChunkSize ? 1 : vertexCount / minimumChunkSize;
+		final int chunkSize = Math.max(1, (vertexCount + chunks - 1) / chunks);
+		ChunkDispatcher.dispatch(executor, vertexCount, chunks, chunkSize, kernel, "skinning");
+	}
+}
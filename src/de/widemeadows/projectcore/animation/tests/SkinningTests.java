@@ -0,0 +1,170 @@
+package de.widemeadows.projectcore.animation.tests;
+
+import de.widemeadows.projectcore.animation.SkinnedMesh;
+import de.widemeadows.projectcore.animation.SkinningEngine;
+import de.widemeadows.projectcore.math.DualQuaternion;
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.MatrixFactory;
+import de.widemeadows.projectcore.math.Quaternion;
+import de.widemeadows.projectcore.math.Vector3;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static de.widemeadows.projectcore.math.MathUtils.deg2rad;
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Tests für {@link SkinningEngine}
+ */
+public class SkinningTests {
+
+	/**
+	 * Deltawert für Vergleiche
+	 */
+	private static final float EPSILON = 0.0001f;
+
+	/**
+	 * Erzeugt die Knochenpalette: Rotation um Y, verschoben
+	 *
+	 * @return Die Palette
+	 */
+	private static Matrix4[] createMatrixPalette() {
+		Matrix4 rotation = MatrixFactory.getRotationY(deg2rad(90));
+		Matrix4 translation = MatrixFactory.getTranslation(10, 20, 30);
+		return new Matrix4[] { Matrix4.createNew(), rotation.mul(translation) };
+	}
+
+	/**
+	 * Bildet eine Matrixpalette auf duale Quaternionen ab
+	 *
+	 * @param palette Die Matrizen
+	 * @return Die dualen Quaternionen
+	 */
+	private static DualQuaternion[] toDualQuaternions(Matrix4[] palette) {
+		DualQuaternion[] result = new DualQuaternion[palette.length];
+		for (int i = 0; i < palette.length; ++i) {
+			result[i] = DualQuaternion.createNew().set(palette[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Ein Vertex mit vollem Gewicht auf einem Knochen wird exakt mit dessen Matrix transformiert
+	 */
+	@Test
+	public void singleInfluence() {
+		Matrix4[] palette = createMatrixPalette();
+		SkinnedMesh mesh = new SkinnedMesh(2,
+				new float[] { 1, 2, 3 },
+				new float[] { 0, 0, 1 },
+				new int[] { 1, 0 },
+				new float[] { 1, 0 });
+
+		Vector3 expected = palette[1].transformPoint(Vector3.createNew(1, 2, 3));
+		Vector3 expectedNormal = palette[1].transformVector(Vector3.createNew(0, 0, 1));
+
+		new SkinningEngine().skinLinear(mesh, palette);
+		assertEquals(expected.x, mesh.skinnedPositions[0], EPSILON);
+		assertEquals(expected.y, mesh.skinnedPositions[1], EPSILON);
+		assertEquals(expected.z, mesh.skinnedPositions[2], EPSILON);
+		assertEquals(expectedNormal.x, mesh.skinnedNormals[0], EPSILON);
+		assertEquals(expectedNormal.y, mesh.skinnedNormals[1], EPSILON);
+		assertEquals(expectedNormal.z, mesh.skinnedNormals[2], EPSILON);
+
+		new SkinningEngine().skinDualQuaternion(mesh, toDualQuaternions(palette));
+		assertEquals(expected.x, mesh.skinnedPositions[0], EPSILON);
+		assertEquals(expected.y, mesh.skinnedPositions[1], EPSILON);
+		assertEquals(expected.z, mesh.skinnedPositions[2], EPSILON);
+		assertEquals(expectedNormal.x, mesh.skinnedNormals[0], EPSILON);
+		assertEquals(expectedNormal.y, mesh.skinnedNormals[1], EPSILON);
+		assertEquals(expectedNormal.z, mesh.skinnedNormals[2], EPSILON);
+	}
+
+	/**
+	 * Dual Quaternion Skinning erhält die Länge bei gegenläufigen Rotationen, Linear Blend Skinning nicht
+	 */
+	@Test
+	public void blendedInfluence() {
+		Quaternion left = Quaternion.createNew().setRotationZ(deg2rad(90));
+		Quaternion right = Quaternion.createNew().setRotationZ(deg2rad(-90));
+		DualQuaternion[] dqPalette = new DualQuaternion[] {
+				DualQuaternion.createNew(left, Vector3.ZERO),
+				DualQuaternion.createNew(right, Vector3.ZERO)
+		};
+		Matrix4[] matrixPalette = new Matrix4[] { left.toMatrix4(), right.toMatrix4() };
+
+		SkinnedMesh mesh = new SkinnedMesh(2,
+				new float[] { 1, 0, 0 },
+				null,
+				new int[] { 0, 1 },
+				new float[] { 0.5f, 0.5f });
+
+		new SkinningEngine().skinLinear(mesh, matrixPalette);
+		assertEquals(0, mesh.skinnedPositions[0], EPSILON);
+		assertEquals(0, mesh.skinnedPositions[1], EPSILON);
+
+		new SkinningEngine().skinDualQuaternion(mesh, dqPalette);
+		float length = (float) Math.sqrt(mesh.skinnedPositions[0] * mesh.skinnedPositions[0]
+				+ mesh.skinnedPositions[1] * mesh.skinnedPositions[1]
+				+ mesh.skinnedPositions[2] * mesh.skinnedPositions[2]);
+		assertEquals(1, length, EPSILON);
+	}
+
+	/**
+	 * Die parallele Verarbeitung liefert dieselben Ergebnisse wie die serielle
+	 */
+	@Test
+	public void parallelMatchesSerial() throws InterruptedException {
+		final int vertexCount = 10000;
+		final int influences = 3;
+		Random random = new Random(42);
+
+		float[] positions = new float[vertexCount * 3];
+		float[] normals = new float[vertexCount * 3];
+		int[] indices = new int[vertexCount * influences];
+		float[] weights = new float[vertexCount * influences];
+		for (int i = 0; i < positions.length; ++i) {
+			positions[i] = random.nextFloat() * 10 - 5;
+			normals[i] = random.nextFloat() * 2 - 1;
+		}
+		for (int v = 0; v < vertexCount; ++v) {
+			float a = random.nextFloat(), b = random.nextFloat() * (1 - a);
+			weights[v * influences] = a;
+			weights[v * influences + 1] = b;
+			weights[v * influences + 2] = 1 - a - b;
+			for (int i = 0; i < influences; ++i) {
+				indices[v * influences + i] = random.nextInt(2);
+			}
+		}
+
+		Matrix4[] palette = createMatrixPalette();
+		DualQuaternion[] dqPalette = toDualQuaternions(palette);
+		SkinnedMesh serial = new SkinnedMesh(influences, positions, normals, indices, weights);
+		SkinnedMesh parallel = new SkinnedMesh(influences, positions, normals, indices, weights);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			SkinningEngine parallelEngine = new SkinningEngine(executor, 1000);
+
+			new SkinningEngine().skinLinear(serial, palette);
+			parallelEngine.skinLinear(parallel, palette);
+			for (int i = 0; i < positions.length; ++i) {
+				assertEquals(serial.skinnedPositions[i], parallel.skinnedPositions[i], 0);
+				assertEquals(serial.skinnedNormals[i], parallel.skinnedNormals[i], 0);
+			}
+
+			new SkinningEngine().skinDualQuaternion(serial, dqPalette);
+			parallelEngine.skinDualQuaternion(parallel, dqPalette);
+			for (int i = 0; i < positions.length; ++i) {
+				assertEquals(serial.skinnedPositions[i], parallel.skinnedPositions[i], 0);
+				assertEquals(serial.skinnedNormals[i], parallel.skinnedNormals[i], 0);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -244,12 +244,24 @@ public final class AxisAlignedBox {
 	 */
 	@ReturnsCachedValue @NotNull
 	public final Vector3 getCornerPoint(@NotNull final BoxPoint point) {
+		return getCornerPoint(point, Vector3.createNew());
+	}
+
+	/**
+	 * Schreibt den Punkt mit dem angegebenen Index in einen Zielvektor
+	 *
+	 * @param point Der Punkt
+	 * @param target Der Zielvektor
+	 * @return Der Zielvektor für method chaining
+	 */
+	@NotNull
+	public final Vector3 getCornerPoint(@NotNull final BoxPoint point, @NotNull final Vector3 target) {
 		assert extent.x >= 0;
 		assert extent.y >= 0;
 		assert extent.z >= 0;
 
 		final int id = point.pointId;
-		return Vector3.createNew(
+		return target.set(
 				((id & 1) == 0) ? (center.x - extent.x) : (center.x + extent.x),
 				((id & 2) == 0) ? (center.y - extent.y) : (center.y + extent.y),
 				((id & 4) == 0) ? (center.z + extent.z) : (center.z - extent.z) // NOTE: OpenGL macht's andersrum!
@@ -322,94 +334,91 @@ public final class AxisAlignedBox {
 	 * Überprüft, ob ein Strahl die Box schneidet und liefert den Schnittpunkt
 	 * in Form eines Skalars t, so dass <code>ray.getPoint(t)}</code> den Vektor ergibt.
 	 *
+	 * <p/>
+	 * Liegt der Ursprung in der Box, ist die gelieferte Distanz negativ. Verläuft der Strahl in einer Begrenzungsebene
+	 * der Box (Richtungskomponente 0, Ursprung auf der Ebene), ist der Slab-Test unbestimmt (<code>0 * ∞</code>) und
+	 * wird wie in {@link BatchMath} und {@link RayPacket} als Fehlschlag gewertet.
+	 *
 	 * @param ray       Der Strahl
 	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Box nicht schneidet, ansonsten die Distanz vom Ursprung des Strahles
 	 */
 	public final float getIntersectionF(@NotNull final Ray3 ray) {
-
-		float txmin, txmax, tymin, tymax, tzmin, tzmax;
-		final float divX = ray.invDirection.x;
-		final float divY = ray.invDirection.y;
-		final float divZ = ray.invDirection.z;
-
-		if (divX >= 0) {
-			txmin = (center.x - extent.x - ray.origin.x) * divX;
-			txmax = (center.x + extent.x - ray.origin.x) * divX;
-		} else {
-			txmin = (center.x + extent.x - ray.origin.x) * divX;
-			txmax = (center.x - extent.x - ray.origin.x) * divX;
-		}
-		if (divY >= 0) {
-			tymin = (center.y - extent.y - ray.origin.y) * divY;
-			tymax = (center.y + extent.y - ray.origin.y) * divY;
-		} else {
-			tymin = (center.y + extent.y - ray.origin.y) * divY;
-			tymax = (center.y - extent.y - ray.origin.y) * divY;
-		}
-		if ((txmin > tymax) || (tymin > txmax)) return Float.NaN;
-		if (tymin > txmin) txmin = tymin; // TODO: max() verwenden
-		if (tymax < txmax) txmax = tymax; // TODO: min() verwenden
-
-		if (divZ >= 0) {
-			tzmin = (center.z - extent.z - ray.origin.z) * divZ;
-			tzmax = (center.z + extent.z - ray.origin.z) * divZ;
-		} else {
-			tzmin = (center.z + extent.z - ray.origin.z) * divZ;
-			tzmax = (center.z - extent.z - ray.origin.z) * divZ;
-		}
-
-		if ((txmin > tzmax) || (tzmin > txmax)) return Float.NaN;
-		if (tzmin > txmin) txmin = tzmin; // TODO: max() verwenden
-		return txmin;
+		final Vector3 o = ray.origin, inv = ray.invDirection;
+		final float tx1 = (center.x - extent.x - o.x) * inv.x, tx2 = (center.x + extent.x - o.x) * inv.x;
+		final float ty1 = (center.y - extent.y - o.y) * inv.y, ty2 = (center.y + extent.y - o.y) * inv.y;
+		final float tz1 = (center.z - extent.z - o.z) * inv.z, tz2 = (center.z + extent.z - o.z) * inv.z;
+
+		// Slab-Test ohne Vorzeichenverzweigungen
+		final float tNear = Math.max(Math.max(Math.min(tx1, tx2), Math.min(ty1, ty2)), Math.min(tz1, tz2));
+		final float tFar = Math.min(Math.min(Math.max(tx1, tx2), Math.max(ty1, ty2)), Math.max(tz1, tz2));
+		return tNear <= tFar ? tNear : Float.NaN;
 	}
 	
 	/**
 	 * Überprüft, ob ein Strahl die Box schneidet und liefert den Schnittpunkt
 	 * in Form eines Skalars t, so dass <code>ray.getPoint(t)}</code> den Vektor ergibt.
 	 *
+	 * <p/>
+	 * Gewertet wird nur der Eintritt in die Box. Liegt der Ursprung in der Box (Eintritt vor <code>nearBound</code>),
+	 * wird {@link Float#NaN} geliefert; der Austritt ist über {@link #getIntersectionF(Ray3, float, float, RayHit)}
+	 * erhältlich. Die Stapeltests {@link BatchMath#intersect(Ray3, float[], float[], float[], float[], float[], float[], float, float, float[], int)}
+	 * und {@link RayPacket#intersect(AxisAlignedBox, float, float, int, float[])} prüfen dagegen die Überlappung des
+	 * Strahlabschnittes mit der Box für die Traversierung und liefern in diesem Fall <code>nearBound</code>.
+	 *
 	 * @param ray       Der Strahl
 	 * @param nearBound Der nähste, gültige Punkt
 	 * @param farBound  Der weiteste, gültige Punkt
 	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Box nicht innerhalb der Range schneidet, ansonsten die Distanz vom Ursprung des Strahles
 	 */
 	public final float getIntersectionF(@NotNull final Ray3 ray, final float nearBound, final float farBound) {
+		final float t = getIntersectionF(ray);
+		return ((t >= nearBound) && (t <= farBound)) ? t : Float.NaN;
+	}
 
-		float txmin, txmax, tymin, tymax, tzmin, tzmax;
-		final float divX = ray.invDirection.x;
-		final float divY = ray.invDirection.y;
-		final float divZ = ray.invDirection.z;
-
-		if (divX >= 0) {
-			txmin = (center.x - extent.x - ray.origin.x) * divX;
-			txmax = (center.x + extent.x - ray.origin.x) * divX;
-		} else {
-			txmin = (center.x + extent.x - ray.origin.x) * divX;
-			txmax = (center.x - extent.x - ray.origin.x) * divX;
-		}
-		if (divY >= 0) {
-			tymin = (center.y - extent.y - ray.origin.y) * divY;
-			tymax = (center.y + extent.y - ray.origin.y) * divY;
-		} else {
-			tymin = (center.y + extent.y - ray.origin.y) * divY;
-			tymax = (center.y - extent.y - ray.origin.y) * divY;
-		}
-		if ((txmin > tymax) || (tymin > txmax)) return Float.NaN;
-		if (tymin > txmin) txmin = tymin; // TODO: max() verwenden
-		if (tymax < txmax) txmax = tymax; // TODO: min() verwenden
-
-		if (divZ >= 0) {
-			tzmin = (center.z - extent.z - ray.origin.z) * divZ;
-			tzmax = (center.z + extent.z - ray.origin.z) * divZ;
-		} else {
-			tzmin = (center.z + extent.z - ray.origin.z) * divZ;
-			tzmax = (center.z - extent.z - ray.origin.z) * divZ;
+	/**
+	 * Schneidet einen Strahl mit der Box
+	 * <p/>
+	 * Geliefert wird der erste Durchgang durch die Oberfläche innerhalb von <code>[nearBound, farBound]</code>:
+	 * der Eintritt oder, wenn der Strahl dort bereits in der Box liegt, der Austritt. Die Normale ist die
+	 * Flächennormale der getroffenen Seite.
+	 *
+	 * @param ray       Der Strahl
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound  Der weiteste, gültige Punkt
+	 * @param hit       Empfängt bei einem Treffer Distanzen und Normale oder <code>null</code>
+	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Box nicht innerhalb der Range trifft, ansonsten die Distanz vom Ursprung des Strahles
+	 */
+	public final float getIntersectionF(@NotNull final Ray3 ray, final float nearBound, final float farBound, @Nullable final RayHit hit) {
+		final Vector3 o = ray.origin, inv = ray.invDirection;
+
+		final float tx1 = (center.x - extent.x - o.x) * inv.x, tx2 = (center.x + extent.x - o.x) * inv.x;
+		final float ty1 = (center.y - extent.y - o.y) * inv.y, ty2 = (center.y + extent.y - o.y) * inv.y;
+		final float tz1 = (center.z - extent.z - o.z) * inv.z, tz2 = (center.z + extent.z - o.z) * inv.z;
+
+		// Slabs wie in getIntersectionF(Ray3) schneiden, damit unbestimmte Slabs (NaN) ebenso verwerfen
+		final float txNear = Math.min(tx1, tx2), txFar = Math.max(tx1, tx2);
+		final float tyNear = Math.min(ty1, ty2), tyFar = Math.max(ty1, ty2);
+		final float tzNear = Math.min(tz1, tz2), tzFar = Math.max(tz1, tz2);
+		final float entry = Math.max(Math.max(txNear, tyNear), tzNear);
+		final float exit = Math.min(Math.min(txFar, tyFar), tzFar);
+		if (!(entry <= exit)) return Float.NaN;
+
+		// Die begrenzenden Achsen
+		final int entryAxis = entry == txNear ? 0 : entry == tyNear ? 1 : 2;
+		final int exitAxis = exit == txFar ? 0 : exit == tyFar ? 1 : 2;
+
+		final boolean entering = entry >= nearBound;
+		final float t = entering ? entry : exit;
+		if (!(t >= nearBound && t <= farBound)) return Float.NaN;
+
+		if (hit != null) {
+			// Eintrittsflächen zeigen gegen, Austrittsflächen mit der Richtung
+			final int axis = entering ? entryAxis : exitAxis;
+			final float component = axis == 0 ? inv.x : axis == 1 ? inv.y : inv.z;
+			final float sign = (component < 0) == entering ? 1 : -1;
+			hit.set(t, exit, axis == 0 ? sign : 0, axis == 1 ? sign : 0, axis == 2 ? sign : 0);
 		}
-
-		if ((txmin > tzmax) || (tzmin > txmax)) return Float.NaN;
-		if (tzmin > txmin) txmin = tzmin; // TODO: max() verwenden
-		//if (tzmax < txmax) txmax = tzmax;
-		//return ((txmin >= nearBound) && (txmax <= farBound)) ? txmin : Float.NaN;
-		return ((txmin >= nearBound) && (txmin <= farBound)) ? txmin : Float.NaN;
+		return t;
 	}
 
 	/**
@@ -448,9 +457,21 @@ public final class AxisAlignedBox {
      */
     @NotNull @ReturnsCachedValue
     public AxisAlignedBox transform(@NotNull final Matrix4 transformation) {
-        AxisAlignedBox box = AxisAlignedBox.createNew(this);
-        box.transformInPlace(transformation);
-        return box;
+        return transform(transformation, AxisAlignedBox.createNew());
+    }
+
+    /**
+     * Transformiert die Box mittels der Matrix und schreibt das Ergebnis in eine Zielbox
+     *
+     * @param transformation Die anzuwendende Transformation
+     * @param target Die Zielbox (darf diese Instanz sein)
+     * @return Die Zielbox für method chaining
+     */
+    @NotNull
+    public AxisAlignedBox transform(@NotNull final Matrix4 transformation, @NotNull final AxisAlignedBox target) {
+        target.set(this);
+        target.transformInPlace(transformation);
+        return target;
     }
 
     /**
@@ -461,9 +482,10 @@ public final class AxisAlignedBox {
     public void transformInPlace(@NotNull final Matrix4 transformation) {
 
 	    // Kudos: http://zeuxcg.org/2010/10/17/aabb-from-obb-with-component-wise-abs/
-	    final float x = Math.abs(transformation.getAt(Matrix4.M11)) * extent.x + Math.abs(transformation.getAt(Matrix4.M12)) * extent.y + Math.abs(transformation.getAt(Matrix4.M13)) * extent.z;
-	    final float y = Math.abs(transformation.getAt(Matrix4.M21)) * extent.x + Math.abs(transformation.getAt(Matrix4.M22)) * extent.y + Math.abs(transformation.getAt(Matrix4.M23)) * extent.z;
-	    final float z = Math.abs(transformation.getAt(Matrix4.M31)) * extent.x + Math.abs(transformation.getAt(Matrix4.M32)) * extent.y + Math.abs(transformation.getAt(Matrix4.M33)) * extent.z;
+	    // Zeilenvektor-Konvention: Die Ausdehnung entlang einer Achse ergibt sich aus der jeweiligen Spalte
+	    final float x = Math.abs(transformation.getAt(Matrix4.M11)) * extent.x + Math.abs(transformation.getAt(Matrix4.M21)) * extent.y + Math.abs(transformation.getAt(Matrix4.M31)) * extent.z;
+	    final float y = Math.abs(transformation.getAt(Matrix4.M12)) * extent.x + Math.abs(transformation.getAt(Matrix4.M22)) * extent.y + Math.abs(transformation.getAt(Matrix4.M32)) * extent.z;
+	    final float z = Math.abs(transformation.getAt(Matrix4.M13)) * extent.x + Math.abs(transformation.getAt(Matrix4.M23)) * extent.y + Math.abs(transformation.getAt(Matrix4.M33)) * extent.z;
 
 	    extent.set(x, y, z);
 	    transformation.transformPointInPlace(center);
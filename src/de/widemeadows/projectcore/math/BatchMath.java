@@ -0,0 +1,319 @@
+package de.widemeadows.projectcore.math;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stapelverarbeitung für Matrizen, Vektoren und Boxen auf flachen Arrays
+ * <p>
+ *     Im Gegensatz zu den objektbasierten Methoden von {@link Matrix4}, {@link Vector3} und
+ *     {@link AxisAlignedBox} arbeiten diese Kernel ohne Objekt-Cache direkt auf <code>float</code>-Arrays.
+ *     Vektoren und Boxen liegen als Structure of Arrays (getrennte Arrays je Komponente) vor, so dass die
+ *     Schleifenrümpfe verzweigungsfrei über aufeinanderfolgende Elemente laufen und vom JIT-Compiler
+ *     vektorisiert werden können.
+ * </p>
+ *
+ * <h3>Speicherlayout</h3>
+ * <ul>
+ *     <li>Matrizen: je 16 aufeinanderfolgende Werte im Layout von {@link Matrix4#values}</li>
+ *     <li>Vektoren: je ein Array für X, Y und Z</li>
+ *     <li>Boxen: Minimum und Maximum je Achse in getrennten Arrays</li>
+ * </ul>
+ */
+public final class BatchMath {
+
+	/**
+	 * Anzahl der Werte einer Matrix
+	 */
+	public static final int MATRIX_STRIDE = 16;
+
+	/**
+	 * Versteckter Konstruktor
+	 */
+	private BatchMath() {}
+
+	/**
+	 * Multipliziert paarweise Matrizen (<code>out[i] = a[i] * b[i]</code>)
+	 * <p/>
+	 * <code>out</code> darf weder <code>a</code> noch <code>b</code> sein.
+	 *
+	 * @param a Die linken Operanden
+	 * @param b Die rechten Operanden
+	 * @param out Das Ziel
+	 * @param count Die Anzahl der Matrizen
+	 * @see Matrix4#mul(Matrix4)
+	 */
+	public static void mul(@NotNull final float[] a, @NotNull final float[] b, @NotNull final float[] out, final int count) {
+		assert a.length >= count * MATRIX_STRIDE && b.length >= count * MATRIX_STRIDE && out.length >= count * MATRIX_STRIDE;
+		assert out != a && out != b;
+
+		for (int m = 0, o = 0; m < count; ++m, o += MATRIX_STRIDE) {
+			for (int row = 0; row < 16; row += 4) {
+				final float a1 = a[o + row], a2 = a[o + row + 1], a3 = a[o + row + 2], a4 = a[o + row + 3];
+				out[o + row]     = a1 * b[o]     + a2 * b[o + 4] + a3 * b[o + 8]  + a4 * b[o + 12];
+				out[o + row + 1] = a1 * b[o + 1] + a2 * b[o + 5] + a3 * b[o + 9]  + a4 * b[o + 13];
+				out[o + row + 2] = a1 * b[o + 2] + a2 * b[o + 6] + a3 * b[o + 10] + a4 * b[o + 14];
+				out[o + row + 3] = a1 * b[o + 3] + a2 * b[o + 7] + a3 * b[o + 11] + a4 * b[o + 15];
+			}
+		}
+	}
+
+	/**
+	 * Multipliziert eine Reihe von Matrizen von links mit einer gemeinsamen Matrix (<code>out[i] = a[i] * b</code>),
+	 * z.B. um lokale Transformationen in ein gemeinsames Elternsystem zu überführen
+	 * <p/>
+	 * <code>out</code> darf <code>a</code> sein.
+	 *
+	 * @param a Die linken Operanden
+	 * @param b Der gemeinsame rechte Operand
+	 * @param out Das Ziel
+	 * @param count Die Anzahl der Matrizen
+	 * @see Matrix4#mul(Matrix4)
+	 */
+	public static void mul(@NotNull final float[] a, @NotNull final Matrix4 b, @NotNull final float[] out, final int count) {
+		assert a.length >= count * MATRIX_STRIDE && out.length >= count * MATRIX_STRIDE;
+
+		final float[] v = b.values;
+		final float b11 = v[Matrix4.M11], b12 = v[Matrix4.M12], b13 = v[Matrix4.M13], b14 = v[Matrix4.M14];
+		final float b21 = v[Matrix4.M21], b22 = v[Matrix4.M22], b23 = v[Matrix4.M23], b24 = v[Matrix4.M24];
+		final float b31 = v[Matrix4.M31], b32 = v[Matrix4.M32], b33 = v[Matrix4.M33], b34 = v[Matrix4.M34];
+		final float b41 = v[Matrix4.M41], b42 = v[Matrix4.M42], b43 = v[Matrix4.M43], b44 = v[Matrix4.M44];
+
+		final int length = count * MATRIX_STRIDE;
+		for (int row = 0; row < length; row += 4) {
+			final float a1 = a[row], a2 = a[row + 1], a3 = a[row + 2], a4 = a[row + 3];
+			out[row]     = a1 * b11 + a2 * b21 + a3 * b31 + a4 * b41;
+			out[row + 1] = a1 * b12 + a2 * b22 + a3 * b32 + a4 * b42;
+			out[row + 2] = a1 * b13 + a2 * b23 + a3 * b33 + a4 * b43;
+			out[row + 3] = a1 * b14 + a2 * b24 + a3 * b34 + a4 * b44;
+		}
+	}
+
+	/**
+	 * Transformiert eine Reihe von Punkten mit einer affinen Matrix (w=1, ohne perspektivische Division)
+	 * <p/>
+	 * Die Ausgabearrays dürfen die Eingabearrays sein.
+	 *
+	 * @param matrix Die affine Transformationsmatrix
+	 * @param x Die X-Komponenten
+	 * @param y Die Y-Komponenten
+	 * @param z Die Z-Komponenten
+	 * @param outX Die transformierten X-Komponenten
+	 * @param outY Die transformierten Y-Komponenten
+	 * @param outZ Die transformierten Z-Komponenten
+	 * @param count Die Anzahl der Punkte
+	 * @see Matrix4#transformPointInPlace(Vector3)
+	 */
+	public static void transformPoints(@NotNull final Matrix4 matrix,
+	                                   @NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                                   @NotNull final float[] outX, @NotNull final float[] outY, @NotNull final float[] outZ,
+	                                   final int count) {
+		final float[] m = matrix.values;
+		final float m11 = m[Matrix4.M11], m12 = m[Matrix4.M12], m13 = m[Matrix4.M13];
+		final float m21 = m[Matrix4.M21], m22 = m[Matrix4.M22], m23 = m[Matrix4.M23];
+		final float m31 = m[Matrix4.M31], m32 = m[Matrix4.M32], m33 = m[Matrix4.M33];
+		final float m41 = m[Matrix4.M41], m42 = m[Matrix4.M42], m43 = m[Matrix4.M43];
+
+		for (int i = 0; i < count; ++i) {
+			final float px = x[i], py = y[i], pz = z[i];
+			outX[i] = px * m11 + py * m21 + pz * m31 + m41;
+			outY[i] = px * m12 + py * m22 + pz * m32 + m42;
+			outZ[i] = px * m13 + py * m23 + pz * m33 + m43;
+		}
+	}
+
+	/**
+	 * Transformiert eine Reihe von Richtungsvektoren (w=0)
+	 * <p/>
+	 * Die Ausgabearrays dürfen die Eingabearrays sein.
+	 *
+	 * @param matrix Die Transformationsmatrix
+	 * @param x Die X-Komponenten
+	 * @param y Die Y-Komponenten
+	 * @param z Die Z-Komponenten
+	 * @param outX Die transformierten X-Komponenten
+	 * @param outY Die transformierten Y-Komponenten
+	 * @param outZ Die transformierten Z-Komponenten
+	 * @param count Die Anzahl der Vektoren
+	 * @see Matrix4#transformVectorInPlace(Vector3)
+	 */
+	public static void transformVectors(@NotNull final Matrix4 matrix,
+	                                    @NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                                    @NotNull final float[] outX, @NotNull final float[] outY, @NotNull final float[] outZ,
+	                                    final int count) {
+		final float[] m = matrix.values;
+		final float m11 = m[Matrix4.M11], m12 = m[Matrix4.M12], m13 = m[Matrix4.M13];
+		final float m21 = m[Matrix4.M21], m22 = m[Matrix4.M22], m23 = m[Matrix4.M23];
+		final float m31 = m[Matrix4.M31], m32 = m[Matrix4.M32], m33 = m[Matrix4.M33];
+
+		for (int i = 0; i < count; ++i) {
+			final float vx = x[i], vy = y[i], vz = z[i];
+			outX[i] = vx * m11 + vy * m21 + vz * m31;
+			outY[i] = vx * m12 + vy * m22 + vz * m32;
+			outZ[i] = vx * m13 + vy * m23 + vz * m33;
+		}
+	}
+
+	/**
+	 * Berechnet paarweise Skalarprodukte
+	 *
+	 * @param ax Die X-Komponenten der ersten Vektoren
+	 * @param ay Die Y-Komponenten der ersten Vektoren
+	 * @param az Die Z-Komponenten der ersten Vektoren
+	 * @param bx Die X-Komponenten der zweiten Vektoren
+	 * @param by Die Y-Komponenten der zweiten Vektoren
+	 * @param bz Die Z-Komponenten der zweiten Vektoren
+	 * @param out Die Skalarprodukte
+	 * @param count Die Anzahl der Vektoren
+	 * @see Vector3#dot(Vector3)
+	 */
+	public static void dot(@NotNull final float[] ax, @NotNull final float[] ay, @NotNull final float[] az,
+	                       @NotNull final float[] bx, @NotNull final float[] by, @NotNull final float[] bz,
+	                       @NotNull final float[] out, final int count) {
+		for (int i = 0; i < count; ++i) {
+			out[i] = ax[i] * bx[i] + ay[i] * by[i] + az[i] * bz[i];
+		}
+	}
+
+	/**
+	 * Normalisiert eine Reihe von Vektoren
+	 * <p/>
+	 * Nullvektoren ergeben NaN-Komponenten, da die Schleife keine Verzweigungen enthält.
+	 *
+	 * @param x Die X-Komponenten
+	 * @param y Die Y-Komponenten
+	 * @param z Die Z-Komponenten
+	 * @param count Die Anzahl der Vektoren
+	 * @see Vector3#normalize()
+	 */
+	public static void normalize(@NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z, final int count) {
+		for (int i = 0; i < count; ++i) {
+			final float vx = x[i], vy = y[i], vz = z[i];
+			final float invLength = 1.0f / (float) Math.sqrt(vx * vx + vy * vy + vz * vz);
+			x[i] = vx * invLength;
+			y[i] = vy * invLength;
+			z[i] = vz * invLength;
+		}
+	}
+
+	/**
+	 * Normalisiert eine Reihe von Vektoren genähert über eine reziproke Quadratwurzel,
+	 * z.B. zur Renormalisierung von Normalen nach Skinning oder Interpolation
+	 * <p/>
+	 * Die Längen der Ergebnisse weichen um höchstens {@link MathUtils#INV_SQRT_FAST_ERROR} bzw.
+	 * {@link MathUtils#INV_SQRT_REFINED_ERROR} von 1 ab. Nullvektoren werden nicht unterstützt.
+	 *
+	 * @param x Die X-Komponenten
+	 * @param y Die Y-Komponenten
+	 * @param z Die Z-Komponenten
+	 * @param count Die Anzahl der Vektoren
+	 * @param refine <code>true</code>, wenn die Näherung um einen Newton-Schritt verfeinert werden soll
+	 * @see MathUtils#invSqrtFast(float, boolean)
+	 */
+	public static void normalizeFast(@NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                                 final int count, final boolean refine) {
+		if (refine) {
+			for (int i = 0; i < count; ++i) {
+				final float vx = x[i], vy = y[i], vz = z[i];
+				final float lengthSquared = vx * vx + vy * vy + vz * vz;
+				final float halfSquared = 0.5f * lengthSquared;
+				float r = Float.intBitsToFloat(0x5f375a86 - (Float.floatToRawIntBits(lengthSquared) >> 1));
+				r *= 1.5f - halfSquared * r * r;
+				r *= 1.5f - halfSquared * r * r;
+				x[i] = vx * r;
+				y[i] = vy * r;
+				z[i] = vz * r;
+			}
+		}
+		else {
+			for (int i = 0; i < count; ++i) {
+				final float vx = x[i], vy = y[i], vz = z[i];
+				final float lengthSquared = vx * vx + vy * vy + vz * vz;
+				final float halfSquared = 0.5f * lengthSquared;
+				float r = Float.intBitsToFloat(0x5f375a86 - (Float.floatToRawIntBits(lengthSquared) >> 1));
+				r *= 1.5f - halfSquared * r * r;
+				x[i] = vx * r;
+				y[i] = vy * r;
+				z[i] = vz * r;
+			}
+		}
+	}
+
+	/**
+	 * Testet einen Strahl gegen eine Reihe von Boxen (Slab-Test)
+	 * <p/>
+	 * Für jede Box wird die Eintrittsdistanz in <code>outT</code> geschrieben, bzw. {@link Float#POSITIVE_INFINITY},
+	 * wenn der Strahl die Box innerhalb von <code>[nearBound, farBound]</code> nicht trifft.
+	 * <p/>
+	 * Geprüft wird die Überlappung des Strahlabschnittes mit der Box: Liegt der Punkt bei <code>nearBound</code>
+	 * innerhalb einer Box (z.B. der Strahlursprung), wird <code>nearBound</code> geliefert. Hierin unterscheidet
+	 * sich der Test von {@link AxisAlignedBox#getIntersectionF(Ray3, float, float)}, der nur Eintritte wertet und in
+	 * diesem Fall {@link Float#NaN} liefert. Verläuft der Strahl in einer Begrenzungsebene einer Box, gilt die Box wie
+	 * bei {@link AxisAlignedBox#getIntersectionF(Ray3)} als nicht getroffen.
+	 *
+	 * @param ray Der Strahl
+	 * @param minX Die minimalen X-Koordinaten der Boxen
+	 * @param minY Die minimalen Y-Koordinaten der Boxen
+	 * @param minZ Die minimalen Z-Koordinaten der Boxen
+	 * @param maxX Die maximalen X-Koordinaten der Boxen
+	 * @param maxY Die maximalen Y-Koordinaten der Boxen
+	 * @param maxZ Die maximalen Z-Koordinaten der Boxen
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @param outT Die Eintrittsdistanzen
+	 * @param count Die Anzahl der Boxen
+	 * @return Die Anzahl der getroffenen Boxen
+	 * @see AxisAlignedBox#getIntersectionF(Ray3, float, float)
+	 */
+	public static int intersect(@NotNull final Ray3 ray,
+	                            @NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                            @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                            final float nearBound, final float farBound,
+	                            @NotNull final float[] outT, final int count) {
+		return intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, nearBound, farBound, outT, 0, count);
+	}
+
+	/**
+	 * Testet einen Strahl gegen einen zusammenhängenden Bereich von Boxen (Slab-Test)
+	 * <p/>
+	 * Wie {@link #intersect(Ray3, float[], float[], float[], float[], float[], float[], float, float, float[], int)},
+	 * jedoch ab einem Versatz, z.B. für die Boxen eines Blattes, die in Blattreihenfolge abgelegt sind.
+	 * Die Distanz der Box <code>i</code> wird nach <code>outT[i]</code> geschrieben.
+	 *
+	 * @param ray Der Strahl
+	 * @param minX Die minimalen X-Koordinaten der Boxen
+	 * @param minY Die minimalen Y-Koordinaten der Boxen
+	 * @param minZ Die minimalen Z-Koordinaten der Boxen
+	 * @param maxX Die maximalen X-Koordinaten der Boxen
+	 * @param maxY Die maximalen Y-Koordinaten der Boxen
+	 * @param maxZ Die maximalen Z-Koordinaten der Boxen
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @param outT Die Eintrittsdistanzen
+	 * @param offset Der Index der ersten Box
+	 * @param count Die Anzahl der Boxen
+	 * @return Die Anzahl der getroffenen Boxen
+	 */
+	public static int intersect(@NotNull final Ray3 ray,
+	                            @NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                            @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                            final float nearBound, final float farBound,
+	                            @NotNull final float[] outT, final int offset, final int count) {
+		final float ox = ray.origin.x, oy = ray.origin.y, oz = ray.origin.z;
+		final float ix = ray.invDirection.x, iy = ray.invDirection.y, iz = ray.invDirection.z;
+
+		int hits = 0;
+		for (int i = offset, end = offset + count; i < end; ++i) {
+			final float tx1 = (minX[i] - ox) * ix, tx2 = (maxX[i] - ox) * ix;
+			final float ty1 = (minY[i] - oy) * iy, ty2 = (maxY[i] - oy) * iy;
+			final float tz1 = (minZ[i] - oz) * iz, tz2 = (maxZ[i] - oz) * iz;
+
+			final float tNear = Math.max(Math.max(Math.min(tx1, tx2), Math.min(ty1, ty2)), Math.max(Math.min(tz1, tz2), nearBound));
+			final float tFar = Math.min(Math.min(Math.max(tx1, tx2), Math.max(ty1, ty2)), Math.min(Math.max(tz1, tz2), farBound));
+
+			final boolean hit = tNear <= tFar;
+			outT[i] = hit ? tNear : Float.POSITIVE_INFINITY;
+			hits += hit ? 1 : 0;
+		}
+		return hits;
+	}
+}
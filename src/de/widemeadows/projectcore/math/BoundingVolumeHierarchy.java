@@ -0,0 +1,1337 @@
+package de.widemeadows.projectcore.math;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hüllkörperhierarchie (BVH) über achsenparallele Boxen
+ * <p/>
+ * Ersetzt die lineare Suche über {@link AxisAlignedBox#getIntersectionF(Ray3, float, float)} bei Picking,
+ * Sichtlinien- und Überlappungstests durch eine logarithmische Traversierung.
+ *
+ * <h3>Aufbau</h3>
+ * Die Hierarchie wird top-down über die Surface Area Heuristic (SAH) mit {@link #BIN_COUNT} Bins je Achse
+ * gebaut. Knoten liegen in flachen Feldern, der Wurzelknoten hat den Index 0. Blätter verweisen auf einen
+ * zusammenhängenden Bereich der umsortierten Primitivindizes. Für Neuaufbauten in jedem Frame erzeugt der
+ * {@link LinearBvhBuilder} dasselbe Layout deutlich schneller, aber mit geringerer Qualität.
+ *
+ * <h3>Aktualisierung</h3>
+ * Bewegen sich Objekte nur wenig, werden ihre Grenzen über {@link #updatePrimitive} gesetzt und mit
+ * {@link #refit()} ausgehend von den betroffenen Blättern aufwärts nachgeführt. {@link #rotate()} stellt die
+ * Qualität der Hierarchie über lokale Baumrotationen an den dabei veränderten Knoten wieder her.
+ *
+ * <h3>Anfragen</h3>
+ * Alle Anfragen arbeiten mit einem threadlokalen Stapel und fordern nach dem ersten Aufruf je Thread keine
+ * Objekte an. Gleichzeitige Anfragen aus mehreren Threads sind zulässig, solange nicht gebaut wird.
+ * Strahltests verwenden die Slab-Semantik von {@link BatchMath#intersect}: liegt der Ursprung in einer Box,
+ * ist die Distanz <code>nearBound</code>.
+ */
+public final class BoundingVolumeHierarchy {
+
+	/**
+	 * Index, der keinen Treffer bezeichnet
+	 */
+	public static final int NO_HIT = -1;
+
+	/**
+	 * Die Anzahl der Bins je Achse beim Aufbau
+	 */
+	public static final int BIN_COUNT = 16;
+
+	/**
+	 * Standardwert der maximalen Primitivanzahl je Blatt
+	 */
+	public static final int DEFAULT_MAX_LEAF_SIZE = 4;
+
+	/**
+	 * Kosten eines Traversierungsschrittes relativ zu einem Primitivtest
+	 */
+	private static final float TRAVERSAL_COST = 1.0f;
+
+	/**
+	 * Markierung: Blatt steht in {@link #refitQueue}
+	 */
+	private static final byte FLAG_REFIT = 1;
+
+	/**
+	 * Markierung: Knoten steht in {@link #rotationQueue}
+	 */
+	private static final byte FLAG_ROTATE = 2;
+
+	/**
+	 * Die maximale Primitivanzahl je Blatt
+	 */
+	private final int maxLeafSize;
+
+	/**
+	 * Die Anzahl der Primitive
+	 */
+	int primitiveCount;
+
+	/**
+	 * Die Anzahl der Knoten
+	 */
+	int nodeCount;
+
+	/**
+	 * Die Tiefe der Hierarchie (ein einzelnes Blatt hat die Tiefe 1)
+	 */
+	int depth;
+
+	/**
+	 * Primitivgrenzen je Primitivindex
+	 */
+	@NotNull
+	float[] minX = new float[0], minY = new float[0], minZ = new float[0],
+	        maxX = new float[0], maxY = new float[0], maxZ = new float[0];
+
+	/**
+	 * Primitivindizes in Blattreihenfolge
+	 */
+	@NotNull
+	int[] indices = new int[0];
+
+	/**
+	 * Knotengrenzen (minX, minY, minZ, maxX, maxY, maxZ) je Knoten
+	 */
+	@NotNull
+	float[] nodeBounds = new float[0];
+
+	/**
+	 * Innerer Knoten: Index des linken Kindes; Blatt: erster Eintrag in {@link #indices}
+	 */
+	@NotNull
+	int[] nodeStart = new int[0];
+
+	/**
+	 * Innerer Knoten: 0; Blatt: Anzahl der Primitive
+	 */
+	@NotNull
+	int[] nodeSize = new int[0];
+
+	/**
+	 * Innerer Knoten: Index des rechten Kindes
+	 */
+	@NotNull
+	int[] nodeRight = new int[0];
+
+	/**
+	 * Elternknoten je Knoten; -1 für die Wurzel
+	 */
+	@NotNull
+	int[] nodeParent = new int[0];
+
+	/**
+	 * Höhe des Teilbaumes je Knoten (Blatt: 1)
+	 */
+	@NotNull
+	int[] nodeHeight = new int[0];
+
+	/**
+	 * Blatt je Primitivindex
+	 */
+	@NotNull
+	int[] primitiveLeaf = new int[0];
+
+	/**
+	 * Markierungen je Knoten ({@link #FLAG_REFIT}, {@link #FLAG_ROTATE})
+	 */
+	@NotNull
+	private byte[] nodeFlags = new byte[0];
+
+	/**
+	 * Blätter, deren Primitive seit dem letzten {@link #refit()} verändert wurden
+	 */
+	@NotNull
+	private int[] refitQueue = new int[0];
+
+	/**
+	 * Die Anzahl der Einträge in {@link #refitQueue}
+	 */
+	private int refitCount;
+
+	/**
+	 * Innere Knoten, deren Grenzen sich seit dem letzten {@link #rotate()} geändert haben
+	 */
+	@NotNull
+	private int[] rotationQueue = new int[0];
+
+	/**
+	 * Die Anzahl der Einträge in {@link #rotationQueue}
+	 */
+	private int rotationCount;
+
+	/**
+	 * Schwerpunkte der Primitive während des Aufbaus
+	 */
+	@NotNull
+	private float[] centroids = new float[0];
+
+	/**
+	 * Bin-Daten während des Aufbaus: Anzahl und Grenzen je Bin
+	 */
+	@NotNull
+	private final int[] binCounts = new int[BIN_COUNT];
+
+	/**
+	 * Bin-Grenzen während des Aufbaus
+	 */
+	@NotNull
+	private final float[] binBounds = new float[BIN_COUNT * 6];
+
+	/**
+	 * Flächen der rechten Teilmengen während des Aufbaus
+	 */
+	@NotNull
+	private final float[] rightAreas = new float[BIN_COUNT];
+
+	/**
+	 * Threadlokaler Traversierungsstapel
+	 */
+	@NotNull
+	private final ThreadLocal<int[]> stacks = new ThreadLocal<int[]>();
+
+	/**
+	 * Threadlokaler Traversierungsstapel für Strahlbündel
+	 */
+	@NotNull
+	private final ThreadLocal<int[]> packetStacks = new ThreadLocal<int[]>();
+
+	/**
+	 * Threadlokale nächste Distanzen je Strahl eines Bündels
+	 */
+	@NotNull
+	private final ThreadLocal<float[]> packetDistances = new ThreadLocal<float[]>();
+
+	/**
+	 * Threadlokaler Strahl für die exakten Primitivtests von Strahlbündeln
+	 */
+	@NotNull
+	private final ThreadLocal<Ray3> packetRays = new ThreadLocal<Ray3>();
+
+	/**
+	 * Exakter Strahltest gegen ein Primitiv, dessen Box getroffen wurde
+	 */
+	public interface PrimitiveIntersector {
+
+		/**
+		 * Schneidet den Strahl mit einem Primitiv
+		 *
+		 * @param primitive Der Primitivindex
+		 * @param ray Der Strahl
+		 * @param nearBound Die nächste gültige Distanz
+		 * @param farBound Die weiteste gültige Distanz
+		 * @return Die Distanz des Treffers oder {@link Float#NaN}, wenn das Primitiv im Bereich nicht getroffen wird
+		 */
+		float intersect(int primitive, @NotNull Ray3 ray, float nearBound, float farBound);
+	}
+
+	/**
+	 * Erzeugt eine leere Hierarchie mit {@link #DEFAULT_MAX_LEAF_SIZE}
+	 */
+	public BoundingVolumeHierarchy() {
+		this(DEFAULT_MAX_LEAF_SIZE);
+	}
+
+	/**
+	 * Erzeugt eine leere Hierarchie
+	 *
+	 * @param maxLeafSize Die maximale Primitivanzahl je Blatt (1..n)
+	 */
+	public BoundingVolumeHierarchy(final int maxLeafSize) {
+		assert maxLeafSize > 0;
+		this.maxLeafSize = maxLeafSize;
+	}
+
+	/**
+	 * Bezieht die Anzahl der Primitive
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getPrimitiveCount() {
+		return primitiveCount;
+	}
+
+	/**
+	 * Bezieht die Anzahl der Knoten
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Bezieht die Tiefe der Hierarchie
+	 *
+	 * @return Die Tiefe; 0 für eine leere Hierarchie
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Bezieht die Grenzen der gesamten Hierarchie
+	 *
+	 * @param target Die Zielbox
+	 * @return Die Zielbox oder <code>null</code>, wenn die Hierarchie leer ist
+	 */
+	@Nullable
+	public AxisAlignedBox getBounds(@NotNull final AxisAlignedBox target) {
+		if (nodeCount == 0) return null;
+		final float[] b = nodeBounds;
+		return target.set(
+				(b[0] + b[3]) * 0.5f, (b[1] + b[4]) * 0.5f, (b[2] + b[5]) * 0.5f,
+				(b[3] - b[0]) * 0.5f, (b[4] - b[1]) * 0.5f, (b[5] - b[2]) * 0.5f);
+	}
+
+	/**
+	 * Baut die Hierarchie über Boxen auf
+	 *
+	 * @param boxes Die Boxen; der Index einer Box ist ihr Primitivindex
+	 * @param count Die Anzahl der Boxen
+	 */
+	public void build(@NotNull final AxisAlignedBox[] boxes, final int count) {
+		assert count >= 0 && count <= boxes.length;
+		allocatePrimitives(count);
+
+		for (int i = 0; i < count; ++i) {
+			final Vector3 center = boxes[i].center;
+			final Vector3 extent = boxes[i].extent;
+			minX[i] = center.x - extent.x; maxX[i] = center.x + extent.x;
+			minY[i] = center.y - extent.y; maxY[i] = center.y + extent.y;
+			minZ[i] = center.z - extent.z; maxZ[i] = center.z + extent.z;
+		}
+
+		buildNodes();
+	}
+
+	/**
+	 * Baut die Hierarchie über Boxen in flachen Feldern auf
+	 *
+	 * @param minX Die minimalen X-Koordinaten
+	 * @param minY Die minimalen Y-Koordinaten
+	 * @param minZ Die minimalen Z-Koordinaten
+	 * @param maxX Die maximalen X-Koordinaten
+	 * @param maxY Die maximalen Y-Koordinaten
+	 * @param maxZ Die maximalen Z-Koordinaten
+	 * @param count Die Anzahl der Boxen
+	 */
+	public void build(@NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                  @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                  final int count) {
+		assert count >= 0;
+		allocatePrimitives(count);
+
+		System.arraycopy(minX, 0, this.minX, 0, count);
+		System.arraycopy(minY, 0, this.minY, 0, count);
+		System.arraycopy(minZ, 0, this.minZ, 0, count);
+		System.arraycopy(maxX, 0, this.maxX, 0, count);
+		System.arraycopy(maxY, 0, this.maxY, 0, count);
+		System.arraycopy(maxZ, 0, this.maxZ, 0, count);
+
+		buildNodes();
+	}
+
+	/**
+	 * Stellt die Primitiv- und Knotenfelder bereit
+	 *
+	 * @param count Die Anzahl der Primitive
+	 */
+	void allocatePrimitives(final int count) {
+		primitiveCount = count;
+		if (minX.length < count) {
+			minX = new float[count]; minY = new float[count]; minZ = new float[count];
+			maxX = new float[count]; maxY = new float[count]; maxZ = new float[count];
+			indices = new int[count];
+			primitiveLeaf = new int[count];
+			centroids = new float[count * 3];
+		}
+
+		final int maxNodes = Math.max(1, 2 * count - 1);
+		if (nodeStart.length < maxNodes) {
+			nodeBounds = new float[maxNodes * 6];
+			nodeStart = new int[maxNodes];
+			nodeSize = new int[maxNodes];
+			nodeRight = new int[maxNodes];
+			nodeParent = new int[maxNodes];
+			nodeHeight = new int[maxNodes];
+			nodeFlags = new byte[maxNodes];
+			refitQueue = new int[maxNodes];
+			rotationQueue = new int[maxNodes];
+		}
+
+		// Ausstehende Aktualisierungen verfallen mit dem Neuaufbau
+		for (int i = 0; i < refitCount; ++i) nodeFlags[refitQueue[i]] = 0;
+		for (int i = 0; i < rotationCount; ++i) nodeFlags[rotationQueue[i]] = 0;
+		refitCount = 0;
+		rotationCount = 0;
+	}
+
+	/**
+	 * Baut die Knoten über die aktuellen Primitivgrenzen auf
+	 */
+	private void buildNodes() {
+		final int count = primitiveCount;
+		nodeCount = 0;
+		depth = 0;
+		if (count == 0) return;
+
+		for (int i = 0; i < count; ++i) {
+			indices[i] = i;
+			centroids[i * 3]     = (minX[i] + maxX[i]) * 0.5f;
+			centroids[i * 3 + 1] = (minY[i] + maxY[i]) * 0.5f;
+			centroids[i * 3 + 2] = (minZ[i] + maxZ[i]) * 0.5f;
+		}
+
+		nodeCount = 1;
+		nodeParent[0] = -1;
+		depth = buildNode(0, 0, count);
+	}
+
+	/**
+	 * Baut einen Knoten über einen Bereich der Primitivindizes auf
+	 *
+	 * @param node Der Knoten
+	 * @param start Der erste Eintrag (inklusiv)
+	 * @param end Der letzte Eintrag (exklusiv)
+	 * @return Die Höhe des Knotens
+	 */
+	private int buildNode(final int node, final int start, final int end) {
+		final int count = end - start;
+
+		// Knotengrenzen und Schwerpunktgrenzen bestimmen
+		float bMinX = Float.POSITIVE_INFINITY, bMinY = Float.POSITIVE_INFINITY, bMinZ = Float.POSITIVE_INFINITY;
+		float bMaxX = Float.NEGATIVE_INFINITY, bMaxY = Float.NEGATIVE_INFINITY, bMaxZ = Float.NEGATIVE_INFINITY;
+		float cMinX = Float.POSITIVE_INFINITY, cMinY = Float.POSITIVE_INFINITY, cMinZ = Float.POSITIVE_INFINITY;
+		float cMaxX = Float.NEGATIVE_INFINITY, cMaxY = Float.NEGATIVE_INFINITY, cMaxZ = Float.NEGATIVE_INFINITY;
+		for (int i = start; i < end; ++i) {
+			final int p = indices[i];
+			bMinX = Math.min(bMinX, minX[p]); bMaxX = Math.max(bMaxX, maxX[p]);
+			bMinY = Math.min(bMinY, minY[p]); bMaxY = Math.max(bMaxY, maxY[p]);
+			bMinZ = Math.min(bMinZ, minZ[p]); bMaxZ = Math.max(bMaxZ, maxZ[p]);
+
+			final float cx = centroids[p * 3], cy = centroids[p * 3 + 1], cz = centroids[p * 3 + 2];
+			cMinX = Math.min(cMinX, cx); cMaxX = Math.max(cMaxX, cx);
+			cMinY = Math.min(cMinY, cy); cMaxY = Math.max(cMaxY, cy);
+			cMinZ = Math.min(cMinZ, cz); cMaxZ = Math.max(cMaxZ, cz);
+		}
+		setNodeBounds(node, bMinX, bMinY, bMinZ, bMaxX, bMaxY, bMaxZ);
+
+		if (count == 1) {
+			return makeLeaf(node, start, count);
+		}
+
+		// Beste Teilung über alle Achsen suchen
+		final float leafCost = count * area(bMinX, bMinY, bMinZ, bMaxX, bMaxY, bMaxZ);
+		float bestCost = Float.POSITIVE_INFINITY;
+		int bestAxis = -1;
+		int bestBin = 0;
+		for (int axis = 0; axis < 3; ++axis) {
+			final float cMin = axis == 0 ? cMinX : axis == 1 ? cMinY : cMinZ;
+			final float cMax = axis == 0 ? cMaxX : axis == 1 ? cMaxY : cMaxZ;
+			if (cMax <= cMin) continue;
+
+			binPrimitives(start, end, axis, cMin, BIN_COUNT / (cMax - cMin));
+
+			// Flächen von rechts aufsummieren
+			float rMinX = Float.POSITIVE_INFINITY, rMinY = Float.POSITIVE_INFINITY, rMinZ = Float.POSITIVE_INFINITY;
+			float rMaxX = Float.NEGATIVE_INFINITY, rMaxY = Float.NEGATIVE_INFINITY, rMaxZ = Float.NEGATIVE_INFINITY;
+			for (int b = BIN_COUNT - 1; b > 0; --b) {
+				final int o = b * 6;
+				rMinX = Math.min(rMinX, binBounds[o]);     rMinY = Math.min(rMinY, binBounds[o + 1]); rMinZ = Math.min(rMinZ, binBounds[o + 2]);
+				rMaxX = Math.max(rMaxX, binBounds[o + 3]); rMaxY = Math.max(rMaxY, binBounds[o + 4]); rMaxZ = Math.max(rMaxZ, binBounds[o + 5]);
+				rightAreas[b] = area(rMinX, rMinY, rMinZ, rMaxX, rMaxY, rMaxZ);
+			}
+
+			// Von links sweepen; Teilung hinter Bin b
+			float lMinX = Float.POSITIVE_INFINITY, lMinY = Float.POSITIVE_INFINITY, lMinZ = Float.POSITIVE_INFINITY;
+			float lMaxX = Float.NEGATIVE_INFINITY, lMaxY = Float.NEGATIVE_INFINITY, lMaxZ = Float.NEGATIVE_INFINITY;
+			int leftCount = 0;
+			for (int b = 0; b < BIN_COUNT - 1; ++b) {
+				final int o = b * 6;
+				lMinX = Math.min(lMinX, binBounds[o]);     lMinY = Math.min(lMinY, binBounds[o + 1]); lMinZ = Math.min(lMinZ, binBounds[o + 2]);
+				lMaxX = Math.max(lMaxX, binBounds[o + 3]); lMaxY = Math.max(lMaxY, binBounds[o + 4]); lMaxZ = Math.max(lMaxZ, binBounds[o + 5]);
+				leftCount += binCounts[b];
+
+				final int rightCount = count - leftCount;
+				if (leftCount == 0 || rightCount == 0) continue;
+
+				final float cost = leftCount * area(lMinX, lMinY, lMinZ, lMaxX, lMaxY, lMaxZ) + rightCount * rightAreas[b + 1];
+				if (cost < bestCost) {
+					bestCost = cost;
+					bestAxis = axis;
+					bestBin = b;
+				}
+			}
+		}
+
+		// Blatt, wenn klein genug und eine Teilung sich nicht lohnt
+		final float splitCost = TRAVERSAL_COST * area(bMinX, bMinY, bMinZ, bMaxX, bMaxY, bMaxZ) + bestCost;
+		if (count <= maxLeafSize && splitCost >= leafCost) {
+			return makeLeaf(node, start, count);
+		}
+
+		int middle;
+		if (bestAxis < 0) {
+			// Alle Schwerpunkte fallen zusammen; nach Reihenfolge halbieren
+			middle = start + count / 2;
+		}
+		else {
+			final float cMin = bestAxis == 0 ? cMinX : bestAxis == 1 ? cMinY : cMinZ;
+			final float cMax = bestAxis == 0 ? cMaxX : bestAxis == 1 ? cMaxY : cMaxZ;
+			middle = partition(start, end, bestAxis, cMin, BIN_COUNT / (cMax - cMin), bestBin);
+		}
+
+		final int left = nodeCount;
+		nodeCount += 2;
+		nodeStart[node] = left;
+		nodeRight[node] = left + 1;
+		nodeSize[node] = 0;
+		nodeParent[left] = node;
+		nodeParent[left + 1] = node;
+
+		final int height = Math.max(buildNode(left, start, middle), buildNode(left + 1, middle, end)) + 1;
+		nodeHeight[node] = height;
+		return height;
+	}
+
+	/**
+	 * Verteilt Primitive entlang einer Achse auf die Bins
+	 *
+	 * @param start Der erste Eintrag (inklusiv)
+	 * @param end Der letzte Eintrag (exklusiv)
+	 * @param axis Die Achse
+	 * @param cMin Der minimale Schwerpunkt entlang der Achse
+	 * @param scale Der Faktor von Schwerpunkt zu Bin
+	 */
+	private void binPrimitives(final int start, final int end, final int axis, final float cMin, final float scale) {
+		final int[] counts = binCounts;
+		final float[] bounds = binBounds;
+		for (int b = 0; b < BIN_COUNT; ++b) {
+			counts[b] = 0;
+			final int o = b * 6;
+			bounds[o] = bounds[o + 1] = bounds[o + 2] = Float.POSITIVE_INFINITY;
+			bounds[o + 3] = bounds[o + 4] = bounds[o + 5] = Float.NEGATIVE_INFINITY;
+		}
+
+		for (int i = start; i < end; ++i) {
+			final int p = indices[i];
+			final int b = toBin(centroids[p * 3 + axis], cMin, scale);
+			final int o = b * 6;
+			++counts[b];
+			bounds[o]     = Math.min(bounds[o], minX[p]);
+			bounds[o + 1] = Math.min(bounds[o + 1], minY[p]);
+			bounds[o + 2] = Math.min(bounds[o + 2], minZ[p]);
+			bounds[o + 3] = Math.max(bounds[o + 3], maxX[p]);
+			bounds[o + 4] = Math.max(bounds[o + 4], maxY[p]);
+			bounds[o + 5] = Math.max(bounds[o + 5], maxZ[p]);
+		}
+	}
+
+	/**
+	 * Teilt einen Bereich der Primitivindizes an einer Bin-Grenze
+	 *
+	 * @param start Der erste Eintrag (inklusiv)
+	 * @param end Der letzte Eintrag (exklusiv)
+	 * @param axis Die Achse
+	 * @param cMin Der minimale Schwerpunkt entlang der Achse
+	 * @param scale Der Faktor von Schwerpunkt zu Bin
+	 * @param splitBin Der letzte Bin der linken Hälfte
+	 * @return Der erste Eintrag der rechten Hälfte
+	 */
+	private int partition(final int start, final int end, final int axis, final float cMin, final float scale, final int splitBin) {
+		int left = start;
+		int right = end - 1;
+		while (left <= right) {
+			final int p = indices[left];
+			if (toBin(centroids[p * 3 + axis], cMin, scale) <= splitBin) {
+				++left;
+			}
+			else {
+				indices[left] = indices[right];
+				indices[right--] = p;
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * Bestimmt den Bin eines Schwerpunktes
+	 *
+	 * @param centroid Der Schwerpunkt entlang der Achse
+	 * @param cMin Der minimale Schwerpunkt entlang der Achse
+	 * @param scale Der Faktor von Schwerpunkt zu Bin
+	 * @return Der Bin
+	 */
+	private static int toBin(final float centroid, final float cMin, final float scale) {
+		return Math.min(BIN_COUNT - 1, (int) ((centroid - cMin) * scale));
+	}
+
+	/**
+	 * Berechnet die halbe Oberfläche einer Box
+	 *
+	 * @return Die halbe Oberfläche
+	 */
+	private static float area(final float minX, final float minY, final float minZ, final float maxX, final float maxY, final float maxZ) {
+		final float dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+		return dx * dy + dy * dz + dz * dx;
+	}
+
+	/**
+	 * Setzt die Grenzen eines Knotens
+	 */
+	private void setNodeBounds(final int node, final float minX, final float minY, final float minZ, final float maxX, final float maxY, final float maxZ) {
+		final int o = node * 6;
+		nodeBounds[o]     = minX;
+		nodeBounds[o + 1] = minY;
+		nodeBounds[o + 2] = minZ;
+		nodeBounds[o + 3] = maxX;
+		nodeBounds[o + 4] = maxY;
+		nodeBounds[o + 5] = maxZ;
+	}
+
+	/**
+	 * Macht einen Knoten zum Blatt
+	 *
+	 * @param node Der Knoten
+	 * @param start Der erste Eintrag in {@link #indices}
+	 * @param count Die Anzahl der Primitive
+	 * @return Die Höhe des Blattes (1)
+	 */
+	private int makeLeaf(final int node, final int start, final int count) {
+		nodeStart[node] = start;
+		nodeSize[node] = count;
+		nodeHeight[node] = 1;
+		for (int i = start, end = start + count; i < end; ++i) {
+			primitiveLeaf[indices[i]] = node;
+		}
+		return 1;
+	}
+
+	/**
+	 * Setzt die Grenzen eines Primitivs
+	 * <p/>
+	 * Die Knotengrenzen werden erst mit {@link #refit()} nachgeführt; bis dahin liefern Anfragen für das
+	 * Primitiv möglicherweise veraltete Ergebnisse.
+	 *
+	 * @param primitive Der Primitivindex
+	 * @param box Die neue Box
+	 */
+	public void updatePrimitive(final int primitive, @NotNull final AxisAlignedBox box) {
+		final Vector3 center = box.center;
+		final Vector3 extent = box.extent;
+		updatePrimitive(primitive,
+				center.x - extent.x, center.y - extent.y, center.z - extent.z,
+				center.x + extent.x, center.y + extent.y, center.z + extent.z);
+	}
+
+	/**
+	 * Setzt die Grenzen eines Primitivs
+	 * <p/>
+	 * Die Knotengrenzen werden erst mit {@link #refit()} nachgeführt.
+	 *
+	 * @param primitive Der Primitivindex
+	 * @param minX Die minimale X-Koordinate
+	 * @param minY Die minimale Y-Koordinate
+	 * @param minZ Die minimale Z-Koordinate
+	 * @param maxX Die maximale X-Koordinate
+	 * @param maxY Die maximale Y-Koordinate
+	 * @param maxZ Die maximale Z-Koordinate
+	 */
+	public void updatePrimitive(final int primitive, final float minX, final float minY, final float minZ,
+	                            final float maxX, final float maxY, final float maxZ) {
+		assert primitive >= 0 && primitive < primitiveCount;
+		this.minX[primitive] = minX;
+		this.minY[primitive] = minY;
+		this.minZ[primitive] = minZ;
+		this.maxX[primitive] = maxX;
+		this.maxY[primitive] = maxY;
+		this.maxZ[primitive] = maxZ;
+
+		final int leaf = primitiveLeaf[primitive];
+		if ((nodeFlags[leaf] & FLAG_REFIT) != 0) return;
+		nodeFlags[leaf] |= FLAG_REFIT;
+		refitQueue[refitCount++] = leaf;
+	}
+
+	/**
+	 * Führt die Knotengrenzen nach veränderten Primitiven nach
+	 * <p/>
+	 * Ausgehend von jedem betroffenen Blatt werden die Grenzen aufwärts neu berechnet, bis ein Knoten
+	 * unverändert bleibt. Die Kosten sind damit proportional zur Anzahl der bewegten Objekte. Die Topologie
+	 * bleibt erhalten; bei großen Bewegungen sinkt daher die Qualität der Hierarchie, siehe {@link #rotate()}.
+	 *
+	 * @return Die Anzahl der neu berechneten Knoten
+	 */
+	public int refit() {
+		int updated = 0;
+		for (int q = 0; q < refitCount; ++q) {
+			int node = refitQueue[q];
+			nodeFlags[node] &= ~FLAG_REFIT;
+
+			// Blatt aus seinen Primitiven
+			float bMinX = Float.POSITIVE_INFINITY, bMinY = Float.POSITIVE_INFINITY, bMinZ = Float.POSITIVE_INFINITY;
+			float bMaxX = Float.NEGATIVE_INFINITY, bMaxY = Float.NEGATIVE_INFINITY, bMaxZ = Float.NEGATIVE_INFINITY;
+			for (int i = nodeStart[node], end = i + nodeSize[node]; i < end; ++i) {
+				final int p = indices[i];
+				bMinX = Math.min(bMinX, minX[p]); bMaxX = Math.max(bMaxX, maxX[p]);
+				bMinY = Math.min(bMinY, minY[p]); bMaxY = Math.max(bMaxY, maxY[p]);
+				bMinZ = Math.min(bMinZ, minZ[p]); bMaxZ = Math.max(bMaxZ, maxZ[p]);
+			}
+			boolean changed = setNodeBoundsIfChanged(node, bMinX, bMinY, bMinZ, bMaxX, bMaxY, bMaxZ);
+			++updated;
+
+			// Aufwärts, solange sich etwas ändert
+			while (changed && (node = nodeParent[node]) >= 0) {
+				changed = updateInnerBounds(node);
+				++updated;
+				if (changed && (nodeFlags[node] & FLAG_ROTATE) == 0) {
+					nodeFlags[node] |= FLAG_ROTATE;
+					rotationQueue[rotationCount++] = node;
+				}
+			}
+		}
+		refitCount = 0;
+		return updated;
+	}
+
+	/**
+	 * Verbessert die Hierarchie lokal durch Baumrotationen
+	 * <p/>
+	 * Betrachtet werden alle inneren Knoten, deren Grenzen sich seit dem letzten Aufruf durch {@link #refit()}
+	 * geändert haben. Je Knoten wird ein Kind mit einem Enkel des anderen Kindes vertauscht, wenn dies die
+	 * Oberfläche des betroffenen Kindes verringert (Kopta et al., "Fast, Effective BVH Updates for Animated
+	 * Scenes", 2012). Sollte periodisch nach {@link #refit()} aufgerufen werden, wenn Objekte über längere
+	 * Zeit driften.
+	 *
+	 * @return Die Anzahl der durchgeführten Rotationen
+	 */
+	public int rotate() {
+		int rotations = 0;
+		for (int q = 0; q < rotationCount; ++q) {
+			final int node = rotationQueue[q];
+			nodeFlags[node] &= ~FLAG_ROTATE;
+			if (rotateNode(node)) ++rotations;
+		}
+		rotationCount = 0;
+		depth = nodeCount > 0 ? nodeHeight[0] : 0;
+		return rotations;
+	}
+
+	/**
+	 * Führt die beste Rotation an einem Knoten durch
+	 *
+	 * @param node Der innere Knoten
+	 * @return <code>true</code>, wenn rotiert wurde
+	 */
+	private boolean rotateNode(final int node) {
+		final int left = nodeStart[node];
+		final int right = nodeRight[node];
+
+		// Kandidaten: linkes Kind gegen einen Enkel rechts oder rechtes Kind gegen einen Enkel links
+		float bestDelta = 0;
+		int bestChild = -1, bestGrandchild = -1;
+		if (nodeSize[right] == 0) {
+			final float current = nodeArea(right);
+			final int rl = nodeStart[right], rr = nodeRight[right];
+			float delta = unionArea(left, rr) - current;
+			if (delta < bestDelta) { bestDelta = delta; bestChild = left; bestGrandchild = rl; }
+			delta = unionArea(rl, left) - current;
+			if (delta < bestDelta) { bestDelta = delta; bestChild = left; bestGrandchild = rr; }
+		}
+		if (nodeSize[left] == 0) {
+			final float current = nodeArea(left);
+			final int ll = nodeStart[left], lr = nodeRight[left];
+			float delta = unionArea(right, lr) - current;
+			if (delta < bestDelta) { bestDelta = delta; bestChild = right; bestGrandchild = ll; }
+			delta = unionArea(ll, right) - current;
+			if (delta < bestDelta) { bestDelta = delta; bestChild = right; bestGrandchild = lr; }
+		}
+		if (bestChild < 0) return false;
+
+		// Vertauschen: Enkel wird Kind von node, Kind wird Kind des bisherigen Elternteils des Enkels
+		final int sibling = nodeParent[bestGrandchild];
+		if (nodeStart[node] == bestChild) nodeStart[node] = bestGrandchild;
+		else nodeRight[node] = bestGrandchild;
+		if (nodeStart[sibling] == bestGrandchild) nodeStart[sibling] = bestChild;
+		else nodeRight[sibling] = bestChild;
+		nodeParent[bestGrandchild] = node;
+		nodeParent[bestChild] = sibling;
+
+		updateInnerBounds(sibling);
+		nodeHeight[sibling] = Math.max(nodeHeight[nodeStart[sibling]], nodeHeight[nodeRight[sibling]]) + 1;
+
+		// Höhen aufwärts nachführen; die Grenzen von node und seinen Vorfahren ändern sich nicht
+		for (int n = node; n >= 0; n = nodeParent[n]) {
+			final int height = Math.max(nodeHeight[nodeStart[n]], nodeHeight[nodeRight[n]]) + 1;
+			if (height == nodeHeight[n]) break;
+			nodeHeight[n] = height;
+		}
+		return true;
+	}
+
+	/**
+	 * Berechnet die Grenzen eines inneren Knotens aus seinen Kindern
+	 *
+	 * @param node Der Knoten
+	 * @return <code>true</code>, wenn sich die Grenzen geändert haben
+	 */
+	private boolean updateInnerBounds(final int node) {
+		final float[] b = nodeBounds;
+		final int l = nodeStart[node] * 6, r = nodeRight[node] * 6;
+		return setNodeBoundsIfChanged(node,
+				Math.min(b[l], b[r]), Math.min(b[l + 1], b[r + 1]), Math.min(b[l + 2], b[r + 2]),
+				Math.max(b[l + 3], b[r + 3]), Math.max(b[l + 4], b[r + 4]), Math.max(b[l + 5], b[r + 5]));
+	}
+
+	/**
+	 * Setzt die Grenzen eines Knotens
+	 *
+	 * @return <code>true</code>, wenn sich die Grenzen geändert haben
+	 */
+	private boolean setNodeBoundsIfChanged(final int node, final float minX, final float minY, final float minZ, final float maxX, final float maxY, final float maxZ) {
+		final float[] b = nodeBounds;
+		final int o = node * 6;
+		if (b[o] == minX && b[o + 1] == minY && b[o + 2] == minZ && b[o + 3] == maxX && b[o + 4] == maxY && b[o + 5] == maxZ) return false;
+		setNodeBounds(node, minX, minY, minZ, maxX, maxY, maxZ);
+		return true;
+	}
+
+	/**
+	 * Berechnet die halbe Oberfläche eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @return Die halbe Oberfläche
+	 */
+	private float nodeArea(final int node) {
+		final float[] b = nodeBounds;
+		final int o = node * 6;
+		return area(b[o], b[o + 1], b[o + 2], b[o + 3], b[o + 4], b[o + 5]);
+	}
+
+	/**
+	 * Berechnet die halbe Oberfläche der Vereinigung zweier Knoten
+	 *
+	 * @param a Der erste Knoten
+	 * @param b Der zweite Knoten
+	 * @return Die halbe Oberfläche
+	 */
+	private float unionArea(final int a, final int b) {
+		final float[] n = nodeBounds;
+		final int i = a * 6, j = b * 6;
+		return area(
+				Math.min(n[i], n[j]), Math.min(n[i + 1], n[j + 1]), Math.min(n[i + 2], n[j + 2]),
+				Math.max(n[i + 3], n[j + 3]), Math.max(n[i + 4], n[j + 4]), Math.max(n[i + 5], n[j + 5]));
+	}
+
+	/**
+	 * Bezieht den Traversierungsstapel des aktuellen Threads
+	 *
+	 * @return Der Stapel
+	 */
+	@NotNull
+	private int[] getStack() {
+		int[] stack = stacks.get();
+		if (stack == null || stack.length < depth + 1) {
+			stack = new int[depth + 1];
+			stacks.set(stack);
+		}
+		return stack;
+	}
+
+	/**
+	 * Liefert den threadlokalen Stapel für Strahlbündel; je Eintrag Knoten und Strahlmaske
+	 *
+	 * @return Der Stapel
+	 */
+	@NotNull
+	private int[] getPacketStack() {
+		int[] stack = packetStacks.get();
+		if (stack == null || stack.length < 2 * (depth + 2)) {
+			stack = new int[2 * (depth + 2)];
+			packetStacks.set(stack);
+		}
+		return stack;
+	}
+
+	/**
+	 * Liefert die threadlokalen Distanzen für Strahlbündel
+	 *
+	 * @param size Die Anzahl der Strahlen
+	 * @return Die Distanzen
+	 */
+	@NotNull
+	private float[] getPacketDistances(final int size) {
+		float[] distances = packetDistances.get();
+		if (distances == null || distances.length < size) {
+			distances = new float[RayPacket.MAX_SIZE];
+			packetDistances.set(distances);
+		}
+		return distances;
+	}
+
+	/**
+	 * Liefert den threadlokalen Strahl für die Primitivtests von Strahlbündeln
+	 *
+	 * @return Der Strahl
+	 */
+	@NotNull
+	private Ray3 getPacketRay() {
+		Ray3 ray = packetRays.get();
+		if (ray == null) {
+			ray = Ray3.createNew();
+			packetRays.set(ray);
+		}
+		return ray;
+	}
+
+	/**
+	 * Schneidet einen Strahl mit einem Knoten
+	 *
+	 * @return Die Eintrittsdistanz oder {@link Float#POSITIVE_INFINITY}, wenn der Knoten verfehlt wird
+	 */
+	private float intersectNode(final int node, final float ox, final float oy, final float oz,
+	                            final float ix, final float iy, final float iz,
+	                            final float nearBound, final float farBound) {
+		final float[] b = nodeBounds;
+		final int o = node * 6;
+		final float tx1 = (b[o] - ox) * ix,     tx2 = (b[o + 3] - ox) * ix;
+		final float ty1 = (b[o + 1] - oy) * iy, ty2 = (b[o + 4] - oy) * iy;
+		final float tz1 = (b[o + 2] - oz) * iz, tz2 = (b[o + 5] - oz) * iz;
+
+		final float tNear = Math.max(Math.max(Math.min(tx1, tx2), Math.min(ty1, ty2)), Math.max(Math.min(tz1, tz2), nearBound));
+		final float tFar = Math.min(Math.min(Math.max(tx1, tx2), Math.max(ty1, ty2)), Math.min(Math.max(tz1, tz2), farBound));
+		return tNear <= tFar ? tNear : Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Schneidet einen Strahl mit einem Primitiv
+	 *
+	 * @return Die Eintrittsdistanz oder {@link Float#POSITIVE_INFINITY}, wenn das Primitiv verfehlt wird
+	 */
+	private float intersectPrimitive(final int p, final float ox, final float oy, final float oz,
+	                                 final float ix, final float iy, final float iz,
+	                                 final float nearBound, final float farBound) {
+		final float tx1 = (minX[p] - ox) * ix, tx2 = (maxX[p] - ox) * ix;
+		final float ty1 = (minY[p] - oy) * iy, ty2 = (maxY[p] - oy) * iy;
+		final float tz1 = (minZ[p] - oz) * iz, tz2 = (maxZ[p] - oz) * iz;
+
+		final float tNear = Math.max(Math.max(Math.min(tx1, tx2), Math.min(ty1, ty2)), Math.max(Math.min(tz1, tz2), nearBound));
+		final float tFar = Math.min(Math.min(Math.max(tx1, tx2), Math.max(ty1, ty2)), Math.min(Math.max(tz1, tz2), farBound));
+		return tNear <= tFar ? tNear : Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Sucht das nächste vom Strahl getroffene Primitiv
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @param distance Empfängt in Element 0 die Distanz des Treffers; darf <code>null</code> sein
+	 * @return Der Primitivindex oder {@link #NO_HIT}
+	 */
+	public int intersectClosest(@NotNull final Ray3 ray, final float nearBound, final float farBound, @Nullable final float[] distance) {
+		return intersectClosest(ray, nearBound, farBound, null, distance);
+	}
+
+	/**
+	 * Sucht das nächste vom Strahl getroffene Primitiv mit einem exakten Primitivtest
+	 * <p/>
+	 * Der Test wird nur für Primitive aufgerufen, deren Box innerhalb des bisher gültigen Bereiches getroffen wird.
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @param intersector Der exakte Primitivtest oder <code>null</code>, um nur die Boxen zu testen
+	 * @param distance Empfängt in Element 0 die Distanz des Treffers; darf <code>null</code> sein
+	 * @return Der Primitivindex oder {@link #NO_HIT}
+	 */
+	public int intersectClosest(@NotNull final Ray3 ray, final float nearBound, final float farBound,
+	                            @Nullable final PrimitiveIntersector intersector, @Nullable final float[] distance) {
+		if (nodeCount == 0) return NO_HIT;
+
+		final float ox = ray.origin.x, oy = ray.origin.y, oz = ray.origin.z;
+		final float ix = ray.invDirection.x, iy = ray.invDirection.y, iz = ray.invDirection.z;
+		final int[] stack = getStack();
+		int top = 0;
+
+		int closest = NO_HIT;
+		float closestT = farBound;
+
+		int node = 0;
+		if (intersectNode(0, ox, oy, oz, ix, iy, iz, nearBound, closestT) == Float.POSITIVE_INFINITY) return NO_HIT;
+
+		while (true) {
+			final int size = nodeSize[node];
+			if (size > 0) {
+				for (int i = nodeStart[node], end = i + size; i < end; ++i) {
+					final int p = indices[i];
+					float t = intersectPrimitive(p, ox, oy, oz, ix, iy, iz, nearBound, closestT);
+					if (t == Float.POSITIVE_INFINITY) continue;
+					if (intersector != null) {
+						t = intersector.intersect(p, ray, nearBound, closestT);
+						if (Float.isNaN(t) || t > closestT) continue;
+					}
+					if (t < closestT || closest == NO_HIT) {
+						closestT = t;
+						closest = p;
+					}
+				}
+			}
+			else {
+				// Näheres Kind zuerst, das fernere merken
+				final int left = nodeStart[node];
+				final int right = nodeRight[node];
+				final float tLeft = intersectNode(left, ox, oy, oz, ix, iy, iz, nearBound, closestT);
+				final float tRight = intersectNode(right, ox, oy, oz, ix, iy, iz, nearBound, closestT);
+				if (tLeft != Float.POSITIVE_INFINITY) {
+					if (tRight != Float.POSITIVE_INFINITY) {
+						if (tLeft <= tRight) {
+							stack[top++] = right;
+							node = left;
+						}
+						else {
+							stack[top++] = left;
+							node = right;
+						}
+					}
+					else {
+						node = left;
+					}
+					continue;
+				}
+				if (tRight != Float.POSITIVE_INFINITY) {
+					node = right;
+					continue;
+				}
+			}
+
+			// Nächsten gemerkten Knoten holen, der noch vor dem bisherigen Treffer liegt
+			do {
+				if (top == 0) {
+					if (distance != null && closest != NO_HIT) distance[0] = closestT;
+					return closest;
+				}
+				node = stack[--top];
+			} while (intersectNode(node, ox, oy, oz, ix, iy, iz, nearBound, closestT) == Float.POSITIVE_INFINITY);
+		}
+	}
+
+	/**
+	 * Ermittelt, ob der Strahl irgendein Primitiv trifft (z.B. für Sichtlinien)
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @return <code>true</code>, sobald ein Treffer gefunden wurde
+	 */
+	public boolean intersectsAny(@NotNull final Ray3 ray, final float nearBound, final float farBound) {
+		return intersectsAny(ray, nearBound, farBound, null);
+	}
+
+	/**
+	 * Ermittelt mit einem exakten Primitivtest, ob der Strahl irgendein Primitiv trifft
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @param intersector Der exakte Primitivtest oder <code>null</code>, um nur die Boxen zu testen
+	 * @return <code>true</code>, sobald ein Treffer gefunden wurde
+	 */
+	public boolean intersectsAny(@NotNull final Ray3 ray, final float nearBound, final float farBound,
+	                             @Nullable final PrimitiveIntersector intersector) {
+		if (nodeCount == 0) return false;
+
+		final float ox = ray.origin.x, oy = ray.origin.y, oz = ray.origin.z;
+		final float ix = ray.invDirection.x, iy = ray.invDirection.y, iz = ray.invDirection.z;
+		final int[] stack = getStack();
+		int top = 0;
+		stack[top++] = 0;
+
+		while (top > 0) {
+			final int node = stack[--top];
+			if (intersectNode(node, ox, oy, oz, ix, iy, iz, nearBound, farBound) == Float.POSITIVE_INFINITY) continue;
+
+			final int size = nodeSize[node];
+			if (size == 0) {
+				stack[top++] = nodeRight[node];
+				stack[top++] = nodeStart[node];
+				continue;
+			}
+
+			for (int i = nodeStart[node], end = i + size; i < end; ++i) {
+				final int p = indices[i];
+				if (intersectPrimitive(p, ox, oy, oz, ix, iy, iz, nearBound, farBound) == Float.POSITIVE_INFINITY) continue;
+				if (intersector == null) return true;
+
+				final float t = intersector.intersect(p, ray, nearBound, farBound);
+				if (!Float.isNaN(t) && t <= farBound) return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sucht für jeden Strahl eines Bündels das nächste getroffene Primitiv
+	 * <p/>
+	 * Jeder Knoten wird einmal für alle noch aktiven Strahlen getestet und für das gesamte Bündel übersprungen,
+	 * sobald kein Strahl ihn innerhalb seiner bisher nächsten Distanz trifft. Kinder werden in der Reihenfolge
+	 * des ersten aktiven Strahls besucht. Für kohärente Strahlen (z.B. benachbarte Pixel) teilen sich die
+	 * Strahlen so die Knotenzugriffe; für divergente Strahlen ist der Einzeltest schneller.
+	 *
+	 * @param packet Das Strahlbündel
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @param intersector Der exakte Primitivtest oder <code>null</code>, um nur die Boxen zu testen
+	 * @param primitives Empfängt je Strahl den Primitivindex oder {@link #NO_HIT}
+	 * @param distances Empfängt je Strahl die Distanz des Treffers; darf <code>null</code> sein
+	 * @return Die Anzahl der Strahlen mit Treffer
+	 * @see #intersectClosest(Ray3, float, float, PrimitiveIntersector, float[])
+	 */
+	public int intersectClosest(@NotNull final RayPacket packet, final float nearBound, final float farBound,
+	                            @Nullable final PrimitiveIntersector intersector,
+	                            @NotNull final int[] primitives, @Nullable final float[] distances) {
+		final int size = packet.getSize();
+		final float[] closestT = getPacketDistances(size);
+		for (int r = 0; r < size; ++r) {
+			primitives[r] = NO_HIT;
+			closestT[r] = farBound;
+		}
+		if (nodeCount == 0 || size == 0) return 0;
+
+		final float[] b = nodeBounds;
+		final float[] entry = packet.entry;
+		final int[] stack = getPacketStack();
+		final Ray3 ray = intersector != null ? getPacketRay() : null;
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = packet.getActiveMask();
+
+		while (top > 0) {
+			final int mask = stack[--top];
+			final int node = stack[--top];
+
+			// Knoten gegen die verbleibenden Distanzen testen
+			final int o = node * 6;
+			final int active = packet.intersect(b[o], b[o + 1], b[o + 2], b[o + 3], b[o + 4], b[o + 5],
+					nearBound, farBound, closestT, mask, null);
+			if (active == 0) continue;
+
+			final int count = nodeSize[node];
+			if (count == 0) {
+				final int left = nodeStart[node], right = nodeRight[node];
+				final boolean leftFirst = isCloser(packet, Integer.numberOfTrailingZeros(active), left, right);
+				stack[top++] = leftFirst ? right : left;
+				stack[top++] = active;
+				stack[top++] = leftFirst ? left : right;
+				stack[top++] = active;
+				continue;
+			}
+
+			for (int i = nodeStart[node], end = i + count; i < end; ++i) {
+				final int p = indices[i];
+				int hits = packet.intersect(minX[p], minY[p], minZ[p], maxX[p], maxY[p], maxZ[p],
+						nearBound, farBound, closestT, active, entry);
+				while (hits != 0) {
+					final int r = Integer.numberOfTrailingZeros(hits);
+					hits &= hits - 1;
+
+					float t = entry[r];
+					if (ray != null) {
+						t = intersector.intersect(p, packet.getRay(r, ray), nearBound, closestT[r]);
+						if (Float.isNaN(t) || t > closestT[r]) continue;
+					}
+					if (t < closestT[r] || primitives[r] == NO_HIT) {
+						closestT[r] = t;
+						primitives[r] = p;
+					}
+				}
+			}
+		}
+
+		int found = 0;
+		for (int r = 0; r < size; ++r) {
+			if (primitives[r] == NO_HIT) continue;
+			if (distances != null) distances[r] = closestT[r];
+			++found;
+		}
+		return found;
+	}
+
+	/**
+	 * Ermittelt für jeden Strahl eines Bündels, ob er irgendein Primitiv trifft (z.B. für Sichtbarkeitstests)
+	 * <p/>
+	 * Strahlen mit Treffer werden aus der Maske entfernt; die Traversierung endet, sobald alle Strahlen
+	 * einen Treffer haben.
+	 *
+	 * @param packet Das Strahlbündel
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @param intersector Der exakte Primitivtest oder <code>null</code>, um nur die Boxen zu testen
+	 * @return Die Maske der Strahlen mit Treffer
+	 * @see #intersectsAny(Ray3, float, float, PrimitiveIntersector)
+	 */
+	public int intersectsAny(@NotNull final RayPacket packet, final float nearBound, final float farBound,
+	                         @Nullable final PrimitiveIntersector intersector) {
+		if (nodeCount == 0 || packet.getSize() == 0) return 0;
+
+		final float[] b = nodeBounds;
+		final float[] entry = packet.entry;
+		final int[] stack = getPacketStack();
+		final Ray3 ray = intersector != null ? getPacketRay() : null;
+		final int all = packet.getActiveMask();
+		int pending = all;
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = all;
+
+		while (top > 0 && pending != 0) {
+			final int mask = stack[--top] & pending;
+			final int node = stack[--top];
+			if (mask == 0) continue;
+
+			final int o = node * 6;
+			final int active = packet.intersect(b[o], b[o + 1], b[o + 2], b[o + 3], b[o + 4], b[o + 5],
+					nearBound, farBound, null, mask, null);
+			if (active == 0) continue;
+
+			final int count = nodeSize[node];
+			if (count == 0) {
+				stack[top++] = nodeRight[node];
+				stack[top++] = active;
+				stack[top++] = nodeStart[node];
+				stack[top++] = active;
+				continue;
+			}
+
+			for (int i = nodeStart[node], end = i + count; i < end && (pending & active) != 0; ++i) {
+				final int p = indices[i];
+				int hits = packet.intersect(minX[p], minY[p], minZ[p], maxX[p], maxY[p], maxZ[p],
+						nearBound, farBound, null, active & pending, entry);
+				if (ray != null) {
+					for (int remaining = hits; remaining != 0; remaining &= remaining - 1) {
+						final int r = Integer.numberOfTrailingZeros(remaining);
+						final float t = intersector.intersect(p, packet.getRay(r, ray), nearBound, farBound);
+						if (Float.isNaN(t) || t > farBound) hits &= ~(1 << r);
+					}
+				}
+				pending &= ~hits;
+			}
+		}
+		return all & ~pending;
+	}
+
+	/**
+	 * Ermittelt, ob der linke Knoten entlang eines Strahls vor dem rechten liegt
+	 *
+	 * @param packet Das Strahlbündel
+	 * @param r Der Strahl
+	 * @param left Der linke Knoten
+	 * @param right Der rechte Knoten
+	 * @return <code>true</code>, wenn der Mittelpunkt des linken Knotens näher liegt
+	 */
+	private boolean isCloser(@NotNull final RayPacket packet, final int r, final int left, final int right) {
+		final float[] b = nodeBounds;
+		final int l = left * 6, o = right * 6;
+		final float dx = (b[l] + b[l + 3]) - (b[o] + b[o + 3]);
+		final float dy = (b[l + 1] + b[l + 4]) - (b[o + 1] + b[o + 4]);
+		final float dz = (b[l + 2] + b[l + 5]) - (b[o + 2] + b[o + 5]);
+		return dx * packet.directionX[r] + dy * packet.directionY[r] + dz * packet.directionZ[r] <= 0;
+	}
+
+	/**
+	 * Sucht alle Primitive, die eine Box überlappen
+	 *
+	 * @param box Die Box
+	 * @param results Empfängt die Primitivindizes; überzählige Treffer werden nur gezählt
+	 * @return Die Anzahl aller überlappenden Primitive
+	 */
+	public int query(@NotNull final AxisAlignedBox box, @NotNull final int[] results) {
+		final float qMinX = box.center.x - box.extent.x, qMaxX = box.center.x + box.extent.x;
+		final float qMinY = box.center.y - box.extent.y, qMaxY = box.center.y + box.extent.y;
+		final float qMinZ = box.center.z - box.extent.z, qMaxZ = box.center.z + box.extent.z;
+		if (nodeCount == 0) return 0;
+
+		final float[] b = nodeBounds;
+		final int[] stack = getStack();
+		int top = 0;
+		stack[top++] = 0;
+
+		int found = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			final int o = node * 6;
+			if (b[o] > qMaxX || b[o + 3] < qMinX || b[o + 1] > qMaxY || b[o + 4] < qMinY || b[o + 2] > qMaxZ || b[o + 5] < qMinZ) continue;
+
+			final int size = nodeSize[node];
+			if (size == 0) {
+				stack[top++] = nodeRight[node];
+				stack[top++] = nodeStart[node];
+				continue;
+			}
+
+			for (int i = nodeStart[node], end = i + size; i < end; ++i) {
+				final int p = indices[i];
+				if (minX[p] > qMaxX || maxX[p] < qMinX || minY[p] > qMaxY || maxY[p] < qMinY || minZ[p] > qMaxZ || maxZ[p] < qMinZ) continue;
+				if (found < results.length) results[found] = p;
+				++found;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Sucht alle Primitive, die eine Kugel überlappen
+	 *
+	 * @param sphere Die Kugel
+	 * @param results Empfängt die Primitivindizes; überzählige Treffer werden nur gezählt
+	 * @return Die Anzahl aller überlappenden Primitive
+	 */
+	public int query(@NotNull final Sphere sphere, @NotNull final int[] results) {
+		if (nodeCount == 0) return 0;
+		final float cx = sphere.getX(), cy = sphere.getY(), cz = sphere.getZ();
+		final float radiusSq = sphere.getRadiusSq();
+
+		final float[] b = nodeBounds;
+		final int[] stack = getStack();
+		int top = 0;
+		stack[top++] = 0;
+
+		int found = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			final int o = node * 6;
+			if (distanceSq(cx, cy, cz, b[o], b[o + 1], b[o + 2], b[o + 3], b[o + 4], b[o + 5]) > radiusSq) continue;
+
+			final int size = nodeSize[node];
+			if (size == 0) {
+				stack[top++] = nodeRight[node];
+				stack[top++] = nodeStart[node];
+				continue;
+			}
+
+			for (int i = nodeStart[node], end = i + size; i < end; ++i) {
+				final int p = indices[i];
+				if (distanceSq(cx, cy, cz, minX[p], minY[p], minZ[p], maxX[p], maxY[p], maxZ[p]) > radiusSq) continue;
+				if (found < results.length) results[found] = p;
+				++found;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Berechnet den quadrierten Abstand eines Punktes zu einer Box
+	 *
+	 * @return Der quadrierte Abstand; 0, wenn der Punkt in der Box liegt
+	 */
+	private static float distanceSq(final float x, final float y, final float z,
+	                                final float minX, final float minY, final float minZ,
+	                                final float maxX, final float maxY, final float maxZ) {
+		final float dx = Math.max(0, Math.max(minX - x, x - maxX));
+		final float dy = Math.max(0, Math.max(minY - y, y - maxY));
+		final float dz = Math.max(0, Math.max(minZ - z, z - maxZ));
+		return dx * dx + dy * dy + dz * dz;
+	}
+}
@@ -0,0 +1,278 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.cache.IObjectCache;
+import de.widemeadows.projectcore.cache.ObjectFactory;
+import de.widemeadows.projectcore.cache.ThreadLocalObjectCache;
+import de.widemeadows.projectcore.cache.annotations.ReturnsCachedValue;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Duales Quaternion zur Darstellung starrer Transformationen (Rotation und Translation)
+ * <p>
+ *     Neue Objekte werden erzeugt mittels {@link #createNew()}; Nicht länger benötigte Objekte sollten per
+ *     {@link #recycle(DualQuaternion)} zurückgegeben werden.
+ * </p>
+ *
+ * <h3>Aufbau</h3>
+ * <code>q = real + ε * dual</code> mit <code>dual = 0.5 * t * real</code>, wobei <code>t</code> die
+ * Translation als reines Quaternion ist. Die Transformation rotiert zuerst und verschiebt anschließend.
+ *
+ * @see Quaternion
+ */
+public final class DualQuaternion {
+
+	/**
+	 * Instanz, die die Verwaltung nicht länger benötigter Instanzen übernimmt
+	 */
+	public static final IObjectCache<DualQuaternion> Cache = new ThreadLocalObjectCache<DualQuaternion>(new ObjectFactory<DualQuaternion>() {
+		@NotNull
+		@Override
+		public DualQuaternion createNew() {
+			return new DualQuaternion();
+		}
+	});
+
+	/**
+	 * Erzeugt eine neue Instanz und initialisiert sie auf die Identität
+	 *
+	 * @return Die neue oder aufbereitete Instanz
+	 * @see #Cache
+	 */
+	@NotNull
+	public static DualQuaternion createNew() {
+		return Cache.getOrCreate().toIdentity();
+	}
+
+	/**
+	 * Erzeugt eine neue Instanz aus Rotation und Translation
+	 *
+	 * @param rotation Die (normierte) Rotation
+	 * @param translation Die Translation
+	 * @return Die neue oder aufbereitete Instanz
+	 * @see #Cache
+	 */
+	@NotNull
+	public static DualQuaternion createNew(@NotNull final Quaternion rotation, @NotNull final Vector3 translation) {
+		return Cache.getOrCreate().set(rotation, translation.x, translation.y, translation.z);
+	}
+
+	/**
+	 * Registriert eine Instanz für das spätere Cache
+	 *
+	 * @param dq Die zu registrierende Instanz
+	 * @see #Cache
+	 * @see DualQuaternion#recycle()
+	 */
+	public static void recycle(@NotNull final DualQuaternion dq) {
+		Cache.registerElement(dq);
+	}
+
+	/**
+	 * Registriert diese Instanz für das spätere Cache
+	 *
+	 * @see #Cache
+	 * @see DualQuaternion#recycle(DualQuaternion)
+	 */
+	public void recycle() {
+		Cache.registerElement(this);
+	}
+
+	/**
+	 * Der Realteil (Rotation)
+	 */
+	@NotNull
+	public final Quaternion real = Quaternion.createNew();
+
+	/**
+	 * Der Dualteil (halbe Translation, mit der Rotation verknüpft)
+	 */
+	@NotNull
+	public final Quaternion dual = Quaternion.createNew().set(0, 0, 0, 0);
+
+	/**
+	 * Erzeugt eine neue Identität
+	 *
+	 * @see #createNew()
+	 */
+	private DualQuaternion() {
+	}
+
+	/**
+	 * Setzt dieses Objekt auf die Identität
+	 *
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public DualQuaternion toIdentity() {
+		real.toIdentity();
+		dual.set(0, 0, 0, 0);
+		return this;
+	}
+
+	/**
+	 * Übernimmt die Werte eines anderen dualen Quaternions
+	 *
+	 * @param other Das zu kopierende Objekt
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public DualQuaternion set(@NotNull final DualQuaternion other) {
+		real.set(other.real);
+		dual.set(other.dual);
+		return this;
+	}
+
+	/**
+	 * Setzt Rotation und Translation
+	 *
+	 * @param rotation Die (normierte) Rotation
+	 * @param tx Die Translation (X-Komponente)
+	 * @param ty Die Translation (Y-Komponente)
+	 * @param tz Die Translation (Z-Komponente)
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public DualQuaternion set(@NotNull final Quaternion rotation, final float tx, final float ty, final float tz) {
+		real.set(rotation);
+
+		// dual = 0.5 * (t, 0) * real
+		final float qx = rotation.x, qy = rotation.y, qz = rotation.z, qw = rotation.w;
+		dual.set(
+				0.5f * ( tx * qw + ty * qz - tz * qy),
+				0.5f * (-tx * qz + ty * qw + tz * qx),
+				0.5f * ( tx * qy - ty * qx + tz * qw),
+				0.5f * (-tx * qx - ty * qy - tz * qz));
+		return this;
+	}
+
+	/**
+	 * Setzt das duale Quaternion aus einer starren Transformationsmatrix (ohne Skalierung und Scherung)
+	 *
+	 * @param matrix Die Matrix
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public DualQuaternion set(@NotNull final Matrix4 matrix) {
+		final Quaternion rotation = Quaternion.createNew().set(matrix);
+		set(rotation, matrix.values[Matrix4.M41], matrix.values[Matrix4.M42], matrix.values[Matrix4.M43]);
+		rotation.recycle();
+		return this;
+	}
+
+	/**
+	 * Bezieht die Translation
+	 *
+	 * @param target Der Zielvektor
+	 * @return Der Zielvektor für method chaining
+	 */
+	@NotNull
+	public Vector3 getTranslation(@NotNull final Vector3 target) {
+		// t = 2 * dual * conj(real)
+		final float rx = real.x, ry = real.y, rz = real.z, rw = real.w;
+		final float dx = dual.x, dy = dual.y, dz = dual.z, dw = dual.w;
+		return target.set(
+				2.0f * (rw * dx - dw * rx + (ry * dz - rz * dy)),
+				2.0f * (rw * dy - dw * ry + (rz * dx - rx * dz)),
+				2.0f * (rw * dz - dw * rz + (rx * dy - ry * dx)));
+	}
+
+	/**
+	 * Verkettet dieses duale Quaternion von rechts mit einem zweiten (<code>this = this * b</code>),
+	 * so dass zuerst <code>b</code> und anschließend <code>this</code> angewandt wird.
+	 *
+	 * @param b Der rechte Operand
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public DualQuaternion mulInPlace(@NotNull final DualQuaternion b) {
+		// dual' = real * b.dual + dual * b.real
+		final float ax = real.x, ay = real.y, az = real.z, aw = real.w;
+		final float dx = dual.x, dy = dual.y, dz = dual.z, dw = dual.w;
+		final Quaternion br = b.real, bd = b.dual;
+
+		dual.set(
+				(aw * bd.x + ax * bd.w + ay * bd.z - az * bd.y) + (dw * br.x + dx * br.w + dy * br.z - dz * br.y),
+				(aw * bd.y - ax * bd.z + ay * bd.w + az * bd.x) + (dw * br.y - dx * br.z + dy * br.w + dz * br.x),
+				(aw * bd.z + ax * bd.y - ay * bd.x + az * bd.w) + (dw * br.z + dx * br.y - dy * br.x + dz * br.w),
+				(aw * bd.w - ax * bd.x - ay * bd.y - az * bd.z) + (dw * br.w - dx * br.x - dy * br.y - dz * br.z));
+		real.mulInPlace(br);
+		return this;
+	}
+
+	/**
+	 * Normiert das duale Quaternion, z.B. nach einer gewichteten Überblendung
+	 *
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public DualQuaternion normalize() {
+		final float invLength = 1.0f / real.getLength();
+		real.set(real.x * invLength, real.y * invLength, real.z * invLength, real.w * invLength);
+		dual.set(dual.x * invLength, dual.y * invLength, dual.z * invLength, dual.w * invLength);
+		return this;
+	}
+
+	/**
+	 * Transformiert einen Punkt (Rotation und Translation)
+	 *
+	 * @param point Der zu transformierende Punkt
+	 */
+	public void transformPointInPlace(@NotNull final Vector3 point) {
+		final float rx = real.x, ry = real.y, rz = real.z, rw = real.w;
+		final float dx = dual.x, dy = dual.y, dz = dual.z, dw = dual.w;
+
+		real.transformInPlace(point);
+		point.addInPlace(
+				2.0f * (rw * dx - dw * rx + (ry * dz - rz * dy)),
+				2.0f * (rw * dy - dw * ry + (rz * dx - rx * dz)),
+				2.0f * (rw * dz - dw * rz + (rx * dy - ry * dx)));
+	}
+
+	/**
+	 * Transformiert einen Vektor (nur Rotation)
+	 *
+	 * @param vector Der zu transformierende Vektor
+	 */
+	public void transformVectorInPlace(@NotNull final Vector3 vector) {
+		real.transformInPlace(vector);
+	}
+
+	/**
+	 * Schreibt die Transformation in eine {@link Matrix4}
+	 *
+	 * @param matrix Die Zielmatrix
+	 * @return Die Zielmatrix für method chaining
+	 */
+	@NotNull
+	public Matrix4 toMatrix4(@NotNull final Matrix4 matrix) {
+		real.toMatrix4(matrix);
+
+		final Vector3 translation = getTranslation(Vector3.createNew(false));
+		matrix.values[Matrix4.M41] = translation.x;
+		matrix.values[Matrix4.M42] = translation.y;
+		matrix.values[Matrix4.M43] = translation.z;
+		translation.recycle();
+		return matrix;
+	}
+
+	/**
+	 * Erzeugt eine {@link Matrix4} aus dieser Transformation
+	 *
+	 * @return Die Transformationsmatrix
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Matrix4 toMatrix4() {
+		return toMatrix4(Matrix4.createNew(false));
+	}
+
+	/**
+	 * Stringify
+	 *
+	 * @return Der String
+	 */
+	@Override
+	public String toString() {
+		return "{real: " + real + ", dual: " + dual + "}";
+	}
+}
@@ -3,10 +3,64 @@ package de.widemeadows.projectcore.math;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Work in progress
+ * Sichtkegel einer perspektivischen Kamera
+ * <p/>
+ * Der Sichtkegel wird durch sechs {@link Plane3} beschrieben, deren Normalen nach innen zeigen. Die Ebenen
+ * werden bei jeder Änderung der Kamera oder der Projektionsparameter neu berechnet und zusätzlich als flaches
+ * Feld gehalten, sodass alle Tests ohne Objektanforderung auskommen.
+ * <p/>
+ * Neben den booleschen {@link #intersects}-Tests liefern die {@link #classify}-Tests ein dreiwertiges
+ * {@link Intersection}-Ergebnis. Für hierarchisches Culling nehmen die Box- und Kugeltests zusätzlich eine
+ * Ebenenmaske entgegen und liefern die Maske der Ebenen, die das Objekt noch schneidet: Liegt ein Knoten
+ * vollständig innerhalb einer Ebene, müssen seine Kinder gegen diese Ebene nicht mehr getestet werden.
  */
 public final class Frustum {
 
+	/**
+	 * Index der nahen Ebene
+	 */
+	public static final int PLANE_NEAR = 0;
+
+	/**
+	 * Index der fernen Ebene
+	 */
+	public static final int PLANE_FAR = 1;
+
+	/**
+	 * Index der linken Ebene
+	 */
+	public static final int PLANE_LEFT = 2;
+
+	/**
+	 * Index der rechten Ebene
+	 */
+	public static final int PLANE_RIGHT = 3;
+
+	/**
+	 * Index der oberen Ebene
+	 */
+	public static final int PLANE_TOP = 4;
+
+	/**
+	 * Index der unteren Ebene
+	 */
+	public static final int PLANE_BOTTOM = 5;
+
+	/**
+	 * Die Anzahl der Ebenen
+	 */
+	public static final int PLANE_COUNT = 6;
+
+	/**
+	 * Ebenenmaske, die alle Ebenen einschließt
+	 */
+	public static final int ALL_PLANES = (1 << PLANE_COUNT) - 1;
+
+	/**
+	 * Ergebnis eines maskierten Tests für Objekte außerhalb des Sichtkegels
+	 */
+	public static final int CULLED = -1;
+
 	/**
 	 * Entfernung der nahen Plane
 	 */
@@ -58,18 +112,25 @@ public final class Frustum {
 	 * Kameraposition, ...
 	 */
 	@NotNull
-	private Vector3 eye, target, _up;
+	private final Vector3 eye = Vector3.createNew(), target = Vector3.createNew(0, 0, -1), _up = Vector3.createNew(0, 1, 0);
 
 	/**
 	 * Kamerareferenzvektoren
 	 */
     @NotNull
-    private Vector3 _X,_Y,_Z;
-	
+    private final Vector3 _X = Vector3.createNew(1, 0, 0), _Y = Vector3.createNew(0, 1, 0), _Z = Vector3.createNew(0, 0, -1);
+
 	/**
-	 * Kugel-Faktoren
+	 * Die Ebenen des Sichtkegels in der Reihenfolge der <code>PLANE_*</code>-Indizes
 	 */
-	private float _sphereFactorY, _sphereFactorX;
+	@NotNull
+	private final Plane3[] planes = new Plane3[PLANE_COUNT];
+
+	/**
+	 * Die Ebenen als flaches Feld (nx, ny, nz, d) je Ebene
+	 */
+	@NotNull
+	private final float[] planeData = new float[PLANE_COUNT * 4];
 
     /**
      * Bezieht die Kameraposition
@@ -142,6 +203,9 @@ public final class Frustum {
      * @param farDistance  Die Entfernung zur fernen Ebene
      */
     public Frustum(float aspectRatio, float fov, float zoomFactor, float nearDistance, float farDistance) {
+        for (int i = 0; i < PLANE_COUNT; ++i) {
+            planes[i] = Plane3.createNew();
+        }
 
         set(aspectRatio, fov, zoomFactor, nearDistance, farDistance);
     }
@@ -283,13 +347,94 @@ public final class Frustum {
 	private void calculatePlaneSizes() {
 		_tangens = (float)Math.tan(_fieldOfView * _inverseZoomFactor); // TODO: Noch weiter vorberechnen?
 		_height = _nearDistance * _tangens;
-		_width = _height * _ratio; 
-		
-		_sphereFactorY = 1.0f/(float)Math.cos(_fieldOfView);
+		_width = _height * _ratio;
+
+		updatePlanes();
+	}
+
+	/**
+	 * Berechnet die Ebenen aus Kameraposition, Kameraachsen und Öffnung
+	 */
+	private void updatePlanes() {
+		final float t = _tangens;
+		final float w = _tangens * _ratio;
+		final Vector3 x = _X, y = _Y, z = _Z;
+
+		setPlane(PLANE_NEAR, z.x, z.y, z.z, -z.dot(eye) - _nearDistance);
+		setPlane(PLANE_FAR, -z.x, -z.y, -z.z, z.dot(eye) + _farDistance);
+
+		// Seitenebenen verlaufen durch das Auge; Normalen zeigen zur Blickachse
+		setPlane(PLANE_LEFT, z.x * w + x.x, z.y * w + x.y, z.z * w + x.z, Float.NaN);
+		setPlane(PLANE_RIGHT, z.x * w - x.x, z.y * w - x.y, z.z * w - x.z, Float.NaN);
+		setPlane(PLANE_TOP, z.x * t - y.x, z.y * t - y.y, z.z * t - y.z, Float.NaN);
+		setPlane(PLANE_BOTTOM, z.x * t + y.x, z.y * t + y.y, z.z * t + y.z, Float.NaN);
+	}
+
+	/**
+	 * Setzt eine Ebene
+	 *
+	 * @param index Der Ebenenindex
+	 * @param nx Die X-Komponente der Normalen
+	 * @param ny Die Y-Komponente der Normalen
+	 * @param nz Die Z-Komponente der Normalen
+	 * @param d Der Abstandsterm oder {@link Float#NaN} für Ebenen durch die Kameraposition
+	 */
+	private void setPlane(final int index, final float nx, final float ny, final float nz, final float d) {
+		final Vector3 eye = this.eye;
+		final float distance = Float.isNaN(d) ? -(nx * eye.x + ny * eye.y + nz * eye.z) : d;
+		final Plane3 plane = planes[index];
+		plane.set(nx, ny, nz, distance);
+
+		final Vector3 normal = plane.getNormal();
+		final int o = index * 4;
+		planeData[o] = normal.x;
+		planeData[o + 1] = normal.y;
+		planeData[o + 2] = normal.z;
+		planeData[o + 3] = plane.getDistanceFromOrigin();
+	}
+
+	/**
+	 * Übernimmt die Ebenen aus einer kombinierten View-Projektionsmatrix (Gribb/Hartmann)
+	 * <p/>
+	 * Für Zeilenvektoren gilt <code>clip = (x, y, z, 1) * viewProjection</code>; ein Punkt liegt im Sichtkegel,
+	 * wenn <code>-w &lt;= x, y, z &lt;= w</code>. Jede Ebene ergibt sich damit als Summe bzw. Differenz der
+	 * vierten und einer weiteren Spalte der Matrix. Perspektivische und orthographische Projektionen aus
+	 * {@link MatrixFactory} werden gleichermaßen unterstützt.
+	 * <p/>
+	 * Die Kamera- und Projektionsparameter dieser Instanz bleiben unverändert; ein späterer Aufruf von
+	 * {@link #setCamera(Vector3, Vector3, Vector3)} oder {@link #set(float, float, float, float, float)}
+	 * berechnet die Ebenen wieder aus diesen.
+	 *
+	 * @param viewProjection Die View-Projektionsmatrix, z.B. <code>view.mul(projection)</code>
+	 * @see MatrixFactory#getPerspective(float, float, float, float)
+	 * @see MatrixFactory#getLookAt(Vector3, Vector3, Vector3)
+	 */
+	public void set(@NotNull final Matrix4 viewProjection) {
+		final float[] m = viewProjection.values;
+
+		// Spalten der Matrix
+		final float c1x = m[Matrix4.M11], c1y = m[Matrix4.M21], c1z = m[Matrix4.M31], c1w = m[Matrix4.M41];
+		final float c2x = m[Matrix4.M12], c2y = m[Matrix4.M22], c2z = m[Matrix4.M32], c2w = m[Matrix4.M42];
+		final float c3x = m[Matrix4.M13], c3y = m[Matrix4.M23], c3z = m[Matrix4.M33], c3w = m[Matrix4.M43];
+		final float c4x = m[Matrix4.M14], c4y = m[Matrix4.M24], c4z = m[Matrix4.M34], c4w = m[Matrix4.M44];
+
+		setPlane(PLANE_NEAR, c4x + c3x, c4y + c3y, c4z + c3z, c4w + c3w);
+		setPlane(PLANE_FAR, c4x - c3x, c4y - c3y, c4z - c3z, c4w - c3w);
+		setPlane(PLANE_LEFT, c4x + c1x, c4y + c1y, c4z + c1z, c4w + c1w);
+		setPlane(PLANE_RIGHT, c4x - c1x, c4y - c1y, c4z - c1z, c4w - c1w);
+		setPlane(PLANE_TOP, c4x - c2x, c4y - c2y, c4z - c2z, c4w - c2w);
+		setPlane(PLANE_BOTTOM, c4x + c2x, c4y + c2y, c4z + c2z, c4w + c2w);
+	}
 
-		// compute half of the the horizontal field of view and sphereFactorX 
-		float anglex = (float)Math.atan(_tangens*_ratio);
-		_sphereFactorX = 1.0f/(float)Math.cos(anglex);
+	/**
+	 * Liefert eine Ebene des Sichtkegels
+	 *
+	 * @param index Der Ebenenindex, z.B. {@link #PLANE_NEAR}
+	 * @return Die Ebene; die Normale zeigt nach innen. Darf nicht verändert werden.
+	 */
+	@NotNull
+	public Plane3 getPlane(final int index) {
+		return planes[index];
 	}
 
 	/**
@@ -301,23 +446,39 @@ public final class Frustum {
 	public void setCamera(@NotNull Vector3 position, @NotNull Vector3 lookAt, @NotNull Vector3 up) {
 		// http://www.lighthouse3d.com/opengl/viewfrustum/index.php?gimp
 
-        // TODO: cc.set, wenn nicht null
-		eye = position.clone();
-		target = lookAt.clone();
-		_up = up.clone();
-		
+		eye.set(position);
+		target.set(lookAt);
+		_up.set(up);
+
 		// compute the Z axis of the camera referential
-		// this axis points in the same direction from 
+		// this axis points in the same direction from
 		// the looking direction
-		_Z = lookAt.sub(position);
+		_Z.set(lookAt).subInPlace(position);
 		_Z.normalize();
 
 		// X axis of camera with given "up" vector and Z axis
-		_X = _Z.cross(up);
+		_Z.cross(up, _X);
 		_X.normalize();
 
 		// the real "up" vector is the dot product of X and Z
-		_Y = _X.cross(_Z);
+		_X.cross(_Z, _Y);
+
+		updatePlanes();
+	}
+
+	/**
+	 * Kopiert die Ebenen als flaches Feld
+	 * <p/>
+	 * Je Ebene werden <code>(nx, ny, nz, d)</code> in der Reihenfolge der <code>PLANE_*</code>-Indizes geschrieben,
+	 * insgesamt <code>4 * {@link #PLANE_COUNT}</code> Werte.
+	 *
+	 * @param target Das Ziel
+	 * @return Das Ziel
+	 */
+	@NotNull
+	public float[] getPlanes(@NotNull final float[] target) {
+		System.arraycopy(planeData, 0, target, 0, PLANE_COUNT * 4);
+		return target;
 	}
 
 	/**
@@ -326,75 +487,175 @@ public final class Frustum {
 	 * @return Testergebnis
 	 */
 	public boolean intersects(@NotNull Vector3 point) {
-
-		float pcz,pcx,pcy,aux;
-
-		// compute vector from camera position to p
-		Vector3 v = point.sub(eye);
-
-		// compute and test the Z coordinate
-		pcz = v.dot(_Z);
-		if (pcz > _farDistance || pcz < _nearDistance)
-			return false; //return Intersection.OUTSIDE;
-
-		// compute and test the Y coordinate
-		pcy = v.dot(_Y);
-		aux = pcz * _tangens;
-		if (pcy > aux || pcy < -aux)
-			return false; // return Intersection.OUTSIDE;
-			
-		// compute and test the X coordinate
-		pcx = v.dot(_X);
-		aux = aux * _ratio;
-		if (pcx > aux || pcx < -aux)
-			return false; // return Intersection.OUTSIDE;
-
-		return true; // return Intersection.INSIDE;
+		return classify(point) != Intersection.OUTSIDE;
 	}
 
 	/**
-	 * Ermittelt, ob eine Kugel vom Sichtfeld eingeschlossen ist
+	 * Ermittelt, ob eine Kugel den Sichtkegel schneidet oder in ihm liegt
 	 * @param sphere Die Kugel
 	 * @return Testergebnis
 	 */
 	public boolean intersects(@NotNull Sphere sphere) {
+		return classify(sphere, ALL_PLANES) != CULLED;
+	}
 
-		boolean result = true; // Intersection result = Intersection.INSIDE;
-
-		Vector3 position = sphere.getPosition();
-		float radius = sphere.getRadius();
-		
-		float d;
-		float az,ax,ay;
-
-		Vector3 v = position.sub(eye);
-
-		az = v.dot(_Z);
-		if (az > _farDistance + radius || az < _nearDistance-radius)
-			return false; // return(Intersection.OUTSIDE);
-		if (az > _farDistance - radius || az < _nearDistance+radius)
-			result = true; // result = Intersection.INTERSECTS;
-
-		ay = v.dot(_Y);
-		d = _sphereFactorY * radius;
-		az *= _tangens;
-		if (ay > az+d || ay < -az-d)
-			return false; // return(Intersection.OUTSIDE);
-		if (ay > az-d || ay < -az+d)
-			result = true; // result = Intersection.INTERSECTS;
-
-		ax = v.dot(_X);
-		az *= _ratio;
-		d = _sphereFactorX * radius;
-		if (ax > az+d || ax < -az-d)
-			return false; // return(Intersection.OUTSIDE);
-		if (ax > az-d || ax < -az+d)
-			result = true; // result = Intersection.INTERSECTS;
+	/**
+	 * Ermittelt, ob eine Box den Sichtkegel schneidet oder in ihm liegt
+	 *
+	 * @param box Die Box
+	 * @return Testergebnis
+	 */
+	public boolean intersects(@NotNull AxisAlignedBox box) {
+		return classify(box, ALL_PLANES) != CULLED;
+	}
 
+	/**
+	 * Bestimmt die Lage eines Punktes
+	 *
+	 * @param point Der Punkt
+	 * @return {@link Intersection#INSIDE} für Punkte innerhalb, {@link Intersection#INTERSECTS} für Punkte auf einer Ebene
+	 */
+	@NotNull
+	public Intersection classify(@NotNull final Vector3 point) {
+		final float[] p = planeData;
+		final float x = point.x, y = point.y, z = point.z;
+
+		Intersection result = Intersection.INSIDE;
+		for (int o = 0; o < PLANE_COUNT * 4; o += 4) {
+			final float distance = p[o] * x + p[o + 1] * y + p[o + 2] * z + p[o + 3];
+			if (distance < 0) return Intersection.OUTSIDE;
+			if (distance == 0) result = Intersection.INTERSECTS;
+		}
 		return result;
 	}
 
+	/**
+	 * Bestimmt die Lage einer Kugel
+	 *
+	 * @param sphere Die Kugel
+	 * @return Das Testergebnis
+	 */
+	@NotNull
+	public Intersection classify(@NotNull final Sphere sphere) {
+		return toIntersection(classify(sphere, ALL_PLANES));
+	}
+
+	/**
+	 * Bestimmt die Lage einer Box
+	 *
+	 * @param box Die Box
+	 * @return Das Testergebnis
+	 */
+	@NotNull
+	public Intersection classify(@NotNull final AxisAlignedBox box) {
+		return toIntersection(classify(box, ALL_PLANES));
+	}
+
+	/**
+	 * Testet eine Kugel gegen die Ebenen einer Maske
+	 *
+	 * @param sphere Die Kugel
+	 * @param planeMask Die zu testenden Ebenen (Bit <code>i</code> für Ebene <code>i</code>)
+	 * @return {@link #CULLED}, wenn die Kugel außerhalb liegt, sonst die Maske der geschnittenen Ebenen
+	 * (0, wenn die Kugel vollständig innerhalb aller getesteten Ebenen liegt)
+	 */
+	public int classify(@NotNull final Sphere sphere, final int planeMask) {
+		return classify(sphere.getX(), sphere.getY(), sphere.getZ(), sphere.getRadius(), planeMask);
+	}
+
+	/**
+	 * Testet eine Kugel gegen die Ebenen einer Maske
+	 *
+	 * @param x Die X-Koordinate des Mittelpunktes
+	 * @param y Die Y-Koordinate des Mittelpunktes
+	 * @param z Die Z-Koordinate des Mittelpunktes
+	 * @param radius Der Radius
+	 * @param planeMask Die zu testenden Ebenen (Bit <code>i</code> für Ebene <code>i</code>)
+	 * @return {@link #CULLED}, wenn die Kugel außerhalb liegt, sonst die Maske der geschnittenen Ebenen
+	 * @see #classify(Sphere, int)
+	 */
+	public int classify(final float x, final float y, final float z, final float radius, final int planeMask) {
+		final float[] p = planeData;
+
+		int result = 0;
+		for (int i = 0, o = 0; i < PLANE_COUNT; ++i, o += 4) {
+			final int bit = 1 << i;
+			if ((planeMask & bit) == 0) continue;
+
+			final float distance = p[o] * x + p[o + 1] * y + p[o + 2] * z + p[o + 3];
+			if (distance < -radius) return CULLED;
+			if (distance < radius) result |= bit;
+		}
+		return result;
+	}
+
+	/**
+	 * Testet eine Box gegen die Ebenen einer Maske
+	 * <p/>
+	 * Je Ebene werden nur der am weitesten in Normalenrichtung liegende Eckpunkt (p-vertex) und sein
+	 * Gegenüber (n-vertex) betrachtet. In Mittelpunkt-Ausdehnung-Form ist das der Abstand des Mittelpunktes
+	 * plus bzw. minus der auf die Normale projizierten Ausdehnung.
+	 *
+	 * @param box Die Box
+	 * @param planeMask Die zu testenden Ebenen (Bit <code>i</code> für Ebene <code>i</code>)
+	 * @return {@link #CULLED}, wenn die Box außerhalb liegt, sonst die Maske der geschnittenen Ebenen
+	 * (0, wenn die Box vollständig innerhalb aller getesteten Ebenen liegt)
+	 */
+	public int classify(@NotNull final AxisAlignedBox box, final int planeMask) {
+		return classify(box.center.x, box.center.y, box.center.z, box.extent.x, box.extent.y, box.extent.z, planeMask);
+	}
+
+	/**
+	 * Testet eine Box in Mittelpunkt-Ausdehnung-Form gegen die Ebenen einer Maske
+	 *
+	 * @param centerX Die X-Koordinate des Mittelpunktes
+	 * @param centerY Die Y-Koordinate des Mittelpunktes
+	 * @param centerZ Die Z-Koordinate des Mittelpunktes
+	 * @param extentX Die halbe Ausdehnung in X
+	 * @param extentY Die halbe Ausdehnung in Y
+	 * @param extentZ Die halbe Ausdehnung in Z
+	 * @param planeMask Die zu testenden Ebenen (Bit <code>i</code> für Ebene <code>i</code>)
+	 * @return {@link #CULLED}, wenn die Box außerhalb liegt, sonst die Maske der geschnittenen Ebenen
+	 * @see #classify(AxisAlignedBox, int)
+	 */
+	public int classify(final float centerX, final float centerY, final float centerZ,
+	                    final float extentX, final float extentY, final float extentZ, final int planeMask) {
+		final float[] p = planeData;
+
+		int result = 0;
+		for (int i = 0, o = 0; i < PLANE_COUNT; ++i, o += 4) {
+			final int bit = 1 << i;
+			if ((planeMask & bit) == 0) continue;
+
+			final float nx = p[o], ny = p[o + 1], nz = p[o + 2];
+			final float distance = nx * centerX + ny * centerY + nz * centerZ + p[o + 3];
+			final float radius = Math.abs(nx) * extentX + Math.abs(ny) * extentY + Math.abs(nz) * extentZ;
+			if (distance + radius < 0) return CULLED;
+			if (distance - radius < 0) result |= bit;
+		}
+		return result;
+	}
+
+	/**
+	 * Wandelt das Ergebnis eines maskierten Tests in ein {@link Intersection}-Ergebnis
+	 *
+	 * @param mask Das Ergebnis des maskierten Tests
+	 * @return Das dreiwertige Ergebnis
+	 */
+	@NotNull
+	private static Intersection toIntersection(final int mask) {
+		if (mask == CULLED) return Intersection.OUTSIDE;
+		return mask == 0 ? Intersection.INSIDE : Intersection.INTERSECTS;
+	}
+
+	/**
+	 * Setzt das Aspektverhältnis und berechnet den Sichtkegel neu
+	 *
+	 * @param aspectRatio Das Aspektverhältnis
+	 */
     public void setAspectRatio(float aspectRatio) {
+        assert aspectRatio > 0;
         _ratio = aspectRatio;
+        calculatePlaneSizes();
     }
 }
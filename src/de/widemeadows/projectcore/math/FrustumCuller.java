@@ -0,0 +1,479 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.utils.ChunkDispatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Sichtbarkeitstest vieler Objekte gegen einen {@link Frustum} in einem Durchlauf
+ * <p/>
+ * Statt je Objekt {@link Frustum#intersects(Sphere)} bzw. {@link Frustum#intersects(AxisAlignedBox)} aufzurufen,
+ * werden die Hüllkörper wie in {@link BatchMath} als Structure of Arrays übergeben. Die sechs Ebenen werden
+ * einmal je Aufruf in lokale Variablen geladen; der Schleifenrumpf enthält keine Verzweigungen, sondern
+ * verknüpft die Ebenentests bitweise und setzt das Ergebnis als Bit eines Wortes.
+ *
+ * <h3>Ergebnis</h3>
+ * Die Sichtbarkeit wird als Bitmenge geschrieben: Objekt <code>i</code> ist sichtbar, wenn in
+ * <code>visible[i &gt;&gt;&gt; 6]</code> das Bit <code>i &amp; 63</code> gesetzt ist. Das Feld muss mindestens
+ * {@link #getWordCount(int)} Einträge haben. {@link #getIndices(long[], int, int[])} wandelt die Bitmenge in
+ * eine kompakte Indexliste.
+ * <p/>
+ * Das Kriterium entspricht den Einzeltests von {@link Frustum}; das Ergebnis ist konservativ, d.h. Objekte
+ * nahe einer Kante des Sichtkegels können als sichtbar gemeldet werden.
+ *
+ * <h3>Mehrere Sichtkegel</h3>
+ * Werden dieselben Objekte gegen mehrere Kameras getestet (Hauptkamera, Schattenkaskaden, Spiegelungen), testen
+ * die Varianten mit einem <code>Frustum[]</code> jedes Objekt in einem einzigen Durchlauf gegen bis zu
+ * {@link #MAX_FRUSTUM_COUNT} Sichtkegel. Ergebnis ist je Objekt eine Maske, in der Bit <code>f</code> für die
+ * Sichtbarkeit in Sichtkegel <code>f</code> steht; die Hüllkörper werden damit nur einmal gelesen.
+ *
+ * <h3>Parallelisierung</h3>
+ * Wird ein {@link ExecutorService} übergeben, werden die Objekte ab {@link #getMinimumChunkSize()} Einträgen in
+ * Blöcke zerlegt, deren Grenzen auf Vielfache von 64 fallen. Jeder Block schreibt damit eigene Wörter der
+ * Bitmenge; das Ergebnis ist unabhängig von der Parallelisierung. Eine Instanz darf nicht gleichzeitig aus
+ * mehreren Threads verwendet werden.
+ */
+public final class FrustumCuller {
+
+	/**
+	 * Standardgröße eines parallel verarbeiteten Blocks in Objekten
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+	/**
+	 * Die maximale Anzahl der Sichtkegel eines gemeinsamen Durchlaufs
+	 */
+	public static final int MAX_FRUSTUM_COUNT = 32;
+
+	/**
+	 * Die Anzahl der Objekte je Wort der Bitmenge
+	 */
+	private static final int WORD_SIZE = 64;
+
+	/**
+	 * Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 */
+	@Nullable
+	private final ExecutorService executor;
+
+	/**
+	 * Die Mindestanzahl an Objekten je Block (Vielfaches von 64)
+	 */
+	private final int minimumChunkSize;
+
+	/**
+	 * Die Ebenen des aktuellen Aufrufs
+	 */
+	@NotNull
+	private final float[] planes = new float[Frustum.PLANE_COUNT * 4];
+
+	/**
+	 * Die Ebenen aller Sichtkegel eines gemeinsamen Durchlaufs
+	 */
+	@NotNull
+	private float[] multiPlanes = new float[0];
+
+	/**
+	 * Die Beträge der Normalen aller Sichtkegel eines gemeinsamen Durchlaufs
+	 */
+	@NotNull
+	private float[] multiAbsNormals = new float[0];
+
+	/**
+	 * Erzeugt einen Culler, der ausschließlich im aufrufenden Thread arbeitet
+	 */
+	public FrustumCuller() {
+		this(null, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Erzeugt einen Culler
+	 *
+	 * @param executor Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 * @param minimumChunkSize Die Mindestanzahl an Objekten je Block; wird auf ein Vielfaches von 64 aufgerundet
+	 */
+	public FrustumCuller(@Nullable final ExecutorService executor, final int minimumChunkSize) {
+		assert minimumChunkSize > 0;
+		this.executor = executor;
+		this.minimumChunkSize = (minimumChunkSize + WORD_SIZE - 1) & ~(WORD_SIZE - 1);
+	}
+
+	/**
+	 * Liefert die Mindestanzahl an Objekten je parallel verarbeitetem Block
+	 *
+	 * @return Die Blockgröße
+	 */
+	public int getMinimumChunkSize() {
+		return minimumChunkSize;
+	}
+
+	/**
+	 * Liefert die Anzahl der Wörter einer Bitmenge für eine Objektanzahl
+	 *
+	 * @param count Die Anzahl der Objekte
+	 * @return Die Anzahl der Wörter
+	 */
+	public static int getWordCount(final int count) {
+		return (count + WORD_SIZE - 1) >>> 6;
+	}
+
+	/**
+	 * Testet eine Reihe von Kugeln
+	 *
+	 * @param frustum Der Sichtkegel
+	 * @param x Die X-Koordinaten der Mittelpunkte
+	 * @param y Die Y-Koordinaten der Mittelpunkte
+	 * @param z Die Z-Koordinaten der Mittelpunkte
+	 * @param radius Die Radien
+	 * @param count Die Anzahl der Kugeln
+	 * @param visible Die Bitmenge der sichtbaren Kugeln
+	 * @return Die Anzahl der sichtbaren Kugeln
+	 * @see Frustum#intersects(Sphere)
+	 */
+	public int cullSpheres(@NotNull final Frustum frustum,
+	                       @NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                       @NotNull final float[] radius, final int count, @NotNull final long[] visible) {
+		assert visible.length >= getWordCount(count);
+		final float[] planes = frustum.getPlanes(this.planes);
+		return dispatch(count, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				return cullSpheres(planes, x, y, z, radius, visible, from, to);
+			}
+		});
+	}
+
+	/**
+	 * Testet eine Reihe von Boxen
+	 *
+	 * @param frustum Der Sichtkegel
+	 * @param minX Die minimalen X-Koordinaten der Boxen
+	 * @param minY Die minimalen Y-Koordinaten der Boxen
+	 * @param minZ Die minimalen Z-Koordinaten der Boxen
+	 * @param maxX Die maximalen X-Koordinaten der Boxen
+	 * @param maxY Die maximalen Y-Koordinaten der Boxen
+	 * @param maxZ Die maximalen Z-Koordinaten der Boxen
+	 * @param count Die Anzahl der Boxen
+	 * @param visible Die Bitmenge der sichtbaren Boxen
+	 * @return Die Anzahl der sichtbaren Boxen
+	 * @see Frustum#intersects(AxisAlignedBox)
+	 */
+	public int cullBoxes(@NotNull final Frustum frustum,
+	                     @NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                     @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                     final int count, @NotNull final long[] visible) {
+		assert visible.length >= getWordCount(count);
+		final float[] planes = frustum.getPlanes(this.planes);
+		return dispatch(count, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				return cullBoxes(planes, minX, minY, minZ, maxX, maxY, maxZ, visible, from, to);
+			}
+		});
+	}
+
+	/**
+	 * Testet eine Reihe von Kugeln gegen mehrere Sichtkegel in einem Durchlauf
+	 *
+	 * @param frusta Die Sichtkegel
+	 * @param frustumCount Die Anzahl der Sichtkegel (1..{@link #MAX_FRUSTUM_COUNT})
+	 * @param x Die X-Koordinaten der Mittelpunkte
+	 * @param y Die Y-Koordinaten der Mittelpunkte
+	 * @param z Die Z-Koordinaten der Mittelpunkte
+	 * @param radius Die Radien
+	 * @param count Die Anzahl der Kugeln
+	 * @param masks Empfängt je Kugel die Maske der Sichtkegel, in denen sie sichtbar ist
+	 * @return Die Anzahl der Kugeln, die in mindestens einem Sichtkegel sichtbar sind
+	 * @see Frustum#intersects(Sphere)
+	 */
+	public int cullSpheres(@NotNull final Frustum[] frusta, final int frustumCount,
+	                       @NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                       @NotNull final float[] radius, final int count, @NotNull final int[] masks) {
+		final float[] planes = loadPlanes(frusta, frustumCount);
+		return dispatch(count, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				return cullSpheres(planes, frustumCount, x, y, z, radius, masks, from, to);
+			}
+		});
+	}
+
+	/**
+	 * Testet eine Reihe von Boxen gegen mehrere Sichtkegel in einem Durchlauf
+	 *
+	 * @param frusta Die Sichtkegel
+	 * @param frustumCount Die Anzahl der Sichtkegel (1..{@link #MAX_FRUSTUM_COUNT})
+	 * @param minX Die minimalen X-Koordinaten der Boxen
+	 * @param minY Die minimalen Y-Koordinaten der Boxen
+	 * @param minZ Die minimalen Z-Koordinaten der Boxen
+	 * @param maxX Die maximalen X-Koordinaten der Boxen
+	 * @param maxY Die maximalen Y-Koordinaten der Boxen
+	 * @param maxZ Die maximalen Z-Koordinaten der Boxen
+	 * @param count Die Anzahl der Boxen
+	 * @param masks Empfängt je Box die Maske der Sichtkegel, in denen sie sichtbar ist
+	 * @return Die Anzahl der Boxen, die in mindestens einem Sichtkegel sichtbar sind
+	 * @see Frustum#intersects(AxisAlignedBox)
+	 */
+	public int cullBoxes(@NotNull final Frustum[] frusta, final int frustumCount,
+	                     @NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                     @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                     final int count, @NotNull final int[] masks) {
+		final float[] planes = loadPlanes(frusta, frustumCount);
+		final float[] absNormals = multiAbsNormals;
+		return dispatch(count, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				return cullBoxes(planes, absNormals, frustumCount, minX, minY, minZ, maxX, maxY, maxZ, masks, from, to);
+			}
+		});
+	}
+
+	/**
+	 * Schreibt die Indizes der gesetzten Bits in aufsteigender Reihenfolge
+	 *
+	 * @param visible Die Bitmenge
+	 * @param count Die Anzahl der Objekte
+	 * @param target Das Ziel; muss Platz für alle gesetzten Bits bieten
+	 * @return Die Anzahl der geschriebenen Indizes
+	 */
+	public static int getIndices(@NotNull final long[] visible, final int count, @NotNull final int[] target) {
+		int written = 0;
+		for (int word = 0, words = getWordCount(count); word < words; ++word) {
+			long bits = visible[word];
+			final int base = word << 6;
+			while (bits != 0) {
+				target[written++] = base + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Testet die Kugeln eines Bereiches
+	 *
+	 * @param p Die Ebenen
+	 * @param x Die X-Koordinaten der Mittelpunkte
+	 * @param y Die Y-Koordinaten der Mittelpunkte
+	 * @param z Die Z-Koordinaten der Mittelpunkte
+	 * @param radius Die Radien
+	 * @param visible Die Bitmenge
+	 * @param from Der erste Index (Vielfaches von 64)
+	 * @param to Der Index hinter dem letzten Objekt
+	 * @return Die Anzahl der sichtbaren Kugeln
+	 */
+	private static int cullSpheres(@NotNull final float[] p,
+	                               @NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                               @NotNull final float[] radius, @NotNull final long[] visible,
+	                               final int from, final int to) {
+		final float n0x = p[0], n0y = p[1], n0z = p[2], d0 = p[3];
+		final float n1x = p[4], n1y = p[5], n1z = p[6], d1 = p[7];
+		final float n2x = p[8], n2y = p[9], n2z = p[10], d2 = p[11];
+		final float n3x = p[12], n3y = p[13], n3z = p[14], d3 = p[15];
+		final float n4x = p[16], n4y = p[17], n4z = p[18], d4 = p[19];
+		final float n5x = p[20], n5y = p[21], n5z = p[22], d5 = p[23];
+
+		int found = 0;
+		for (int base = from; base < to; base += WORD_SIZE) {
+			final int end = Math.min(base + WORD_SIZE, to);
+			long bits = 0;
+			for (int i = base; i < end; ++i) {
+				final float cx = x[i], cy = y[i], cz = z[i], r = -radius[i];
+				final boolean inside = (n0x * cx + n0y * cy + n0z * cz + d0 >= r)
+						& (n1x * cx + n1y * cy + n1z * cz + d1 >= r)
+						& (n2x * cx + n2y * cy + n2z * cz + d2 >= r)
+						& (n3x * cx + n3y * cy + n3z * cz + d3 >= r)
+						& (n4x * cx + n4y * cy + n4z * cz + d4 >= r)
+						& (n5x * cx + n5y * cy + n5z * cz + d5 >= r);
+				bits |= (inside ? 1L : 0L) << (i - base);
+			}
+			visible[base >>> 6] = bits;
+			found += Long.bitCount(bits);
+		}
+		return found;
+	}
+
+	/**
+	 * Testet die Boxen eines Bereiches
+	 * <p/>
+	 * Je Ebene wird nur der am weitesten in Normalenrichtung liegende Eckpunkt (p-vertex) getestet. Da die
+	 * Vorzeichen der Normalen für alle Boxen gleich sind, wird die Auswahl zwischen Minimum und Maximum einmal
+	 * je Aufruf über die Arrays getroffen.
+	 *
+	 * @param p Die Ebenen
+	 * @param minX Die minimalen X-Koordinaten der Boxen
+	 * @param minY Die minimalen Y-Koordinaten der Boxen
+	 * @param minZ Die minimalen Z-Koordinaten der Boxen
+	 * @param maxX Die maximalen X-Koordinaten der Boxen
+	 * @param maxY Die maximalen Y-Koordinaten der Boxen
+	 * @param maxZ Die maximalen Z-Koordinaten der Boxen
+	 * @param visible Die Bitmenge
+	 * @param from Der erste Index (Vielfaches von 64)
+	 * @param to Der Index hinter dem letzten Objekt
+	 * @return Die Anzahl der sichtbaren Boxen
+	 */
+	private static int cullBoxes(@NotNull final float[] p,
+	                             @NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                             @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                             @NotNull final long[] visible, final int from, final int to) {
+		final float n0x = p[0], n0y = p[1], n0z = p[2], d0 = p[3];
+		final float n1x = p[4], n1y = p[5], n1z = p[6], d1 = p[7];
+		final float n2x = p[8], n2y = p[9], n2z = p[10], d2 = p[11];
+		final float n3x = p[12], n3y = p[13], n3z = p[14], d3 = p[15];
+		final float n4x = p[16], n4y = p[17], n4z = p[18], d4 = p[19];
+		final float n5x = p[20], n5y = p[21], n5z = p[22], d5 = p[23];
+
+		// p-vertex je Ebene
+		final float[] p0x = n0x >= 0 ? maxX : minX, p0y = n0y >= 0 ? maxY : minY, p0z = n0z >= 0 ? maxZ : minZ;
+		final float[] p1x = n1x >= 0 ? maxX : minX, p1y = n1y >= 0 ? maxY : minY, p1z = n1z >= 0 ? maxZ : minZ;
+		final float[] p2x = n2x >= 0 ? maxX : minX, p2y = n2y >= 0 ? maxY : minY, p2z = n2z >= 0 ? maxZ : minZ;
+		final float[] p3x = n3x >= 0 ? maxX : minX, p3y = n3y >= 0 ? maxY : minY, p3z = n3z >= 0 ? maxZ : minZ;
+		final float[] p4x = n4x >= 0 ? maxX : minX, p4y = n4y >= 0 ? maxY : minY, p4z = n4z >= 0 ? maxZ : minZ;
+		final float[] p5x = n5x >= 0 ? maxX : minX, p5y = n5y >= 0 ? maxY : minY, p5z = n5z >= 0 ? maxZ : minZ;
+
+		int found = 0;
+		for (int base = from; base < to; base += WORD_SIZE) {
+			final int end = Math.min(base + WORD_SIZE, to);
+			long bits = 0;
+			for (int i = base; i < end; ++i) {
+				final boolean inside = (n0x * p0x[i] + n0y * p0y[i] + n0z * p0z[i] + d0 >= 0)
+						& (n1x * p1x[i] + n1y * p1y[i] + n1z * p1z[i] + d1 >= 0)
+						& (n2x * p2x[i] + n2y * p2y[i] + n2z * p2z[i] + d2 >= 0)
+						& (n3x * p3x[i] + n3y * p3y[i] + n3z * p3z[i] + d3 >= 0)
+						& (n4x * p4x[i] + n4y * p4y[i] + n4z * p4z[i] + d4 >= 0)
+						& (n5x * p5x[i] + n5y * p5y[i] + n5z * p5z[i] + d5 >= 0);
+				bits |= (inside ? 1L : 0L) << (i - base);
+			}
+			visible[base >>> 6] = bits;
+			found += Long.bitCount(bits);
+		}
+		return found;
+	}
+
+	/**
+	 * Lädt die Ebenen mehrerer Sichtkegel und die Beträge ihrer Normalen
+	 *
+	 * @param frusta Die Sichtkegel
+	 * @param frustumCount Die Anzahl der Sichtkegel
+	 * @return Die Ebenen, je Sichtkegel <code>4 * {@link Frustum#PLANE_COUNT}</code> Werte
+	 */
+	@NotNull
+	private float[] loadPlanes(@NotNull final Frustum[] frusta, final int frustumCount) {
+		if (frustumCount < 1 || frustumCount > MAX_FRUSTUM_COUNT) throw new IllegalArgumentException("frustumCount must be in 1.." + MAX_FRUSTUM_COUNT);
+
+		final int stride = Frustum.PLANE_COUNT * 4;
+		if (multiPlanes.length < frustumCount * stride) {
+			multiPlanes = new float[MAX_FRUSTUM_COUNT * stride];
+			multiAbsNormals = new float[MAX_FRUSTUM_COUNT * stride];
+		}
+
+		final float[] planes = multiPlanes, absNormals = multiAbsNormals;
+		for (int f = 0; f < frustumCount; ++f) {
+			frusta[f].getPlanes(this.planes);
+			System.arraycopy(this.planes, 0, planes, f * stride, stride);
+		}
+		for (int i = 0, end = frustumCount * stride; i < end; ++i) {
+			absNormals[i] = Math.abs(planes[i]);
+		}
+		return planes;
+	}
+
+	/**
+	 * Testet die Kugeln eines Bereiches gegen mehrere Sichtkegel
+	 *
+	 * @param p Die Ebenen aller Sichtkegel
+	 * @param frustumCount Die Anzahl der Sichtkegel
+	 * @param x Die X-Koordinaten der Mittelpunkte
+	 * @param y Die Y-Koordinaten der Mittelpunkte
+	 * @param z Die Z-Koordinaten der Mittelpunkte
+	 * @param radius Die Radien
+	 * @param masks Die Sichtbarkeitsmasken
+	 * @param from Der erste Index
+	 * @param to Der Index hinter dem letzten Objekt
+	 * @return Die Anzahl der in mindestens einem Sichtkegel sichtbaren Kugeln
+	 */
+	private static int cullSpheres(@NotNull final float[] p, final int frustumCount,
+	                               @NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                               @NotNull final float[] radius, @NotNull final int[] masks,
+	                               final int from, final int to) {
+		int found = 0;
+		for (int i = from; i < to; ++i) {
+			final float cx = x[i], cy = y[i], cz = z[i], r = -radius[i];
+			int mask = 0;
+			for (int f = 0, o = 0; f < frustumCount; ++f, o += Frustum.PLANE_COUNT * 4) {
+				final boolean inside = (p[o] * cx + p[o + 1] * cy + p[o + 2] * cz + p[o + 3] >= r)
+						& (p[o + 4] * cx + p[o + 5] * cy + p[o + 6] * cz + p[o + 7] >= r)
+						& (p[o + 8] * cx + p[o + 9] * cy + p[o + 10] * cz + p[o + 11] >= r)
+						& (p[o + 12] * cx + p[o + 13] * cy + p[o + 14] * cz + p[o + 15] >= r)
+						& (p[o + 16] * cx + p[o + 17] * cy + p[o + 18] * cz + p[o + 19] >= r)
+						& (p[o + 20] * cx + p[o + 21] * cy + p[o + 22] * cz + p[o + 23] >= r);
+				mask |= (inside ? 1 : 0) << f;
+			}
+			masks[i] = mask;
+			found += mask != 0 ? 1 : 0;
+		}
+		return found;
+	}
+
+	/**
+	 * Testet die Boxen eines Bereiches gegen mehrere Sichtkegel
+	 * <p/>
+	 * Die Boxen werden in Mittelpunkt-Ausdehnung-Form getestet; der p-vertex-Test ergibt sich aus dem Abstand
+	 * des Mittelpunktes plus der mit den Normalenbeträgen projizierten Ausdehnung.
+	 *
+	 * @param p Die Ebenen aller Sichtkegel
+	 * @param a Die Beträge der Ebenenkoeffizienten
+	 * @param frustumCount Die Anzahl der Sichtkegel
+	 * @param minX Die minimalen X-Koordinaten der Boxen
+	 * @param minY Die minimalen Y-Koordinaten der Boxen
+	 * @param minZ Die minimalen Z-Koordinaten der Boxen
+	 * @param maxX Die maximalen X-Koordinaten der Boxen
+	 * @param maxY Die maximalen Y-Koordinaten der Boxen
+	 * @param maxZ Die maximalen Z-Koordinaten der Boxen
+	 * @param masks Die Sichtbarkeitsmasken
+	 * @param from Der erste Index
+	 * @param to Der Index hinter dem letzten Objekt
+	 * @return Die Anzahl der in mindestens einem Sichtkegel sichtbaren Boxen
+	 */
+	private static int cullBoxes(@NotNull final float[] p, @NotNull final float[] a, final int frustumCount,
+	                             @NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                             @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                             @NotNull final int[] masks, final int from, final int to) {
+		int found = 0;
+		for (int i = from; i < to; ++i) {
+			final float cx = (minX[i] + maxX[i]) * 0.5f, cy = (minY[i] + maxY[i]) * 0.5f, cz = (minZ[i] + maxZ[i]) * 0.5f;
+			final float ex = (maxX[i] - minX[i]) * 0.5f, ey = (maxY[i] - minY[i]) * 0.5f, ez = (maxZ[i] - minZ[i]) * 0.5f;
+			int mask = 0;
+			for (int f = 0, o = 0; f < frustumCount; ++f, o += Frustum.PLANE_COUNT * 4) {
+				boolean inside = true;
+				for (int k = o, end = o + Frustum.PLANE_COUNT * 4; k < end; k += 4) {
+					final float distance = p[k] * cx + p[k + 1] * cy + p[k + 2] * cz + p[k + 3];
+					final float extent = a[k] * ex + a[k + 1] * ey + a[k + 2] * ez;
+					inside &= distance + extent >= 0;
+				}
+				mask |= (inside ? 1 : 0) << f;
+			}
+			masks[i] = mask;
+			found += mask != 0 ? 1 : 0;
+		}
+		return found;
+	}
+
+	/**
+	 * Verteilt einen Kernel auf Blöcke aus ganzen Wörtern der Bitmenge
+	 *
+	 * @param count Die Anzahl der Objekte
+	 * @param kernel Der Kernel; liefert die Anzahl der sichtbaren Objekte eines Blocks
+	 * @return Die Anzahl der sichtbaren Objekte
+	 */
+	private int dispatch(final int count, @NotNull final ChunkDispatcher.RangeKernel kernel) {
+		final int chunks = executor == null ? 1 : Math.max(1, count / minimumChunkSize);
+		if (chunks == 1) return kernel.run(0, 0, count);
+
+		final int words = getWordCount(count);
+		final int chunkSize = ((words + chunks - 1) / chunks) * WORD_SIZE;
+		return ChunkDispatcher.dispatch(executor, count, chunks, chunkSize, kernel, "culling");
+	}
+}
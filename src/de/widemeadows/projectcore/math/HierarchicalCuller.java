@@ -0,0 +1,176 @@
+package de.widemeadows.projectcore.math;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Sichtbarkeitstest gegen einen {@link Frustum} über eine {@link BoundingVolumeHierarchy}
+ * <p/>
+ * Die Traversierung reicht die Maske der Ebenen nach unten weiter, die einen Knoten noch schneiden
+ * (siehe {@link Frustum#classify(AxisAlignedBox, int)}). Liegt ein Knoten vollständig innerhalb einer Ebene,
+ * wird diese für den gesamten Teilbaum nicht mehr getestet; liegt er vollständig im Sichtkegel, werden seine
+ * Primitive ohne weitere Tests gemeldet.
+ *
+ * <h3>Zeitliche Kohärenz</h3>
+ * Je Knoten wird die Ebene gespeichert, die ihn zuletzt verworfen hat. Im nächsten Aufruf beginnen die
+ * Ebenentests dieses Knotens mit dieser Ebene, sodass ein weiterhin unsichtbarer Knoten bei geringer
+ * Kamerabewegung meist mit einem einzigen Ebenentest verworfen wird. Der Speicher wächst mit der Hierarchie;
+ * nach einem Neuaufbau beeinflussen veraltete Einträge nur die Testreihenfolge, nicht das Ergebnis.
+ * <p/>
+ * Eine Instanz darf nicht gleichzeitig aus mehreren Threads verwendet werden; für parallele Anfragen
+ * benötigt jeder Thread einen eigenen Culler.
+ */
+public final class HierarchicalCuller {
+
+	/**
+	 * Die Hierarchie
+	 */
+	@NotNull
+	private final BoundingVolumeHierarchy hierarchy;
+
+	/**
+	 * Die Ebenen des aktuellen Aufrufs
+	 */
+	@NotNull
+	private final float[] planes = new float[Frustum.PLANE_COUNT * 4];
+
+	/**
+	 * Die Ebene, die den Knoten zuletzt verworfen hat, je Knoten
+	 */
+	@NotNull
+	private byte[] lastPlane = new byte[0];
+
+	/**
+	 * Traversierungsstapel; je Eintrag Knotenindex und Ebenenmaske des Elternknotens
+	 */
+	@NotNull
+	private int[] stack = new int[0];
+
+	/**
+	 * Die Anzahl der Ebenentests des letzten Aufrufs
+	 */
+	private int planeTests;
+
+	/**
+	 * Erzeugt einen Culler
+	 *
+	 * @param hierarchy Die Hierarchie
+	 */
+	public HierarchicalCuller(@NotNull final BoundingVolumeHierarchy hierarchy) {
+		this.hierarchy = hierarchy;
+	}
+
+	/**
+	 * Liefert die Anzahl der Ebenentests des letzten Aufrufs von {@link #cull(Frustum, int[])}
+	 *
+	 * @return Die Anzahl der Ebenentests
+	 */
+	public int getPlaneTestCount() {
+		return planeTests;
+	}
+
+	/**
+	 * Verwirft die gespeicherten Ebenen, z.B. nach einem Kameraschnitt
+	 */
+	public void reset() {
+		Arrays.fill(lastPlane, (byte)0);
+	}
+
+	/**
+	 * Sucht alle Primitive, die den Sichtkegel schneiden oder in ihm liegen
+	 *
+	 * @param frustum Der Sichtkegel
+	 * @param results Empfängt die Primitivindizes; überzählige Treffer werden nur gezählt
+	 * @return Die Anzahl aller sichtbaren Primitive
+	 * @see Frustum#intersects(AxisAlignedBox)
+	 */
+	public int cull(@NotNull final Frustum frustum, @NotNull final int[] results) {
+		final BoundingVolumeHierarchy hierarchy = this.hierarchy;
+		planeTests = 0;
+		if (hierarchy.nodeCount == 0) return 0;
+		ensureCapacity(hierarchy.nodeCount, hierarchy.depth);
+		frustum.getPlanes(planes);
+
+		final float[] b = hierarchy.nodeBounds;
+		final int[] nodeStart = hierarchy.nodeStart, nodeSize = hierarchy.nodeSize, nodeRight = hierarchy.nodeRight;
+		final int[] indices = hierarchy.indices;
+		final float[] minX = hierarchy.minX, minY = hierarchy.minY, minZ = hierarchy.minZ;
+		final float[] maxX = hierarchy.maxX, maxY = hierarchy.maxY, maxZ = hierarchy.maxZ;
+		final byte[] lastPlane = this.lastPlane;
+		final int[] stack = this.stack;
+
+		int top = 0;
+		stack[top++] = Frustum.ALL_PLANES;
+
+		int found = 0;
+		while (top > 0) {
+			final int entry = stack[--top];
+			final int node = entry >>> Frustum.PLANE_COUNT;
+			int mask = entry & Frustum.ALL_PLANES;
+			if (mask != 0) {
+				final int o = node * 6;
+				mask = classify(b[o], b[o + 1], b[o + 2], b[o + 3], b[o + 4], b[o + 5], mask, lastPlane[node]);
+				if (mask < 0) {
+					lastPlane[node] = (byte)(-mask - 1);
+					continue;
+				}
+			}
+
+			final int size = nodeSize[node];
+			if (size == 0) {
+				stack[top++] = (nodeRight[node] << Frustum.PLANE_COUNT) | mask;
+				stack[top++] = (nodeStart[node] << Frustum.PLANE_COUNT) | mask;
+				continue;
+			}
+
+			for (int i = nodeStart[node], end = i + size; i < end; ++i) {
+				final int p = indices[i];
+				if (mask != 0 && classify(minX[p], minY[p], minZ[p], maxX[p], maxY[p], maxZ[p], mask, 0) < 0) continue;
+				if (found < results.length) results[found] = p;
+				++found;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Testet eine Box gegen die Ebenen einer Maske, beginnend mit einer gegebenen Ebene
+	 *
+	 * @param first Die zuerst zu testende Ebene
+	 * @return <code>-(Ebene + 1)</code> der verwerfenden Ebene, sonst die Maske der geschnittenen Ebenen
+	 */
+	private int classify(final float minX, final float minY, final float minZ,
+	                     final float maxX, final float maxY, final float maxZ,
+	                     final int mask, final int first) {
+		final float[] p = planes;
+		final float cx = (minX + maxX) * 0.5f, cy = (minY + maxY) * 0.5f, cz = (minZ + maxZ) * 0.5f;
+		final float ex = (maxX - minX) * 0.5f, ey = (maxY - minY) * 0.5f, ez = (maxZ - minZ) * 0.5f;
+
+		int result = 0;
+		for (int k = 0, plane = first; k < Frustum.PLANE_COUNT; ++k, plane = plane == Frustum.PLANE_COUNT - 1 ? 0 : plane + 1) {
+			final int bit = 1 << plane;
+			if ((mask & bit) == 0) continue;
+			++planeTests;
+
+			final int o = plane * 4;
+			final float nx = p[o], ny = p[o + 1], nz = p[o + 2];
+			final float distance = nx * cx + ny * cy + nz * cz + p[o + 3];
+			final float radius = Math.abs(nx) * ex + Math.abs(ny) * ey + Math.abs(nz) * ez;
+			if (distance + radius < 0) return -plane - 1;
+			if (distance - radius < 0) result |= bit;
+		}
+		return result;
+	}
+
+	/**
+	 * Stellt die Größe der Felder für eine Hierarchie sicher
+	 *
+	 * @param nodeCount Die Anzahl der Knoten
+	 * @param depth Die Tiefe der Hierarchie
+	 */
+	private void ensureCapacity(final int nodeCount, final int depth) {
+		if (lastPlane.length < nodeCount) lastPlane = Arrays.copyOf(lastPlane, Math.max(16, nodeCount + (nodeCount >> 1)));
+		if (stack.length < depth + 1) stack = new int[depth + 1];
+	}
+}
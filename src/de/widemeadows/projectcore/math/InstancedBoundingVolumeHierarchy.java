@@ -0,0 +1,380 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.transformation.TransformationState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Zweistufige Beschleunigungsstruktur über instanziierte Hierarchien
+ * <p/>
+ * Jede Instanz verweist auf eine gemeinsam genutzte {@link BoundingVolumeHierarchy} in Objektkoordinaten
+ * (untere Ebene) und besitzt eine eigene Transformation. Die obere Ebene ist eine
+ * {@link BoundingVolumeHierarchy} über die Weltgrenzen der Instanzen. Strahlen werden beim Erreichen einer
+ * Instanz mit deren inverser Matrix in Objektkoordinaten überführt; da die Richtung dabei nicht normiert wird,
+ * bleiben die Distanzen in beiden Räumen gleich.
+ *
+ * <h3>Aktualisierung</h3>
+ * Bewegte Instanzen werden über {@link #setTransform} gesetzt und mit {@link #update()} in die obere Ebene
+ * übernommen; die unteren Ebenen bleiben unberührt. Wurden Instanzen hinzugefügt, wird die obere Ebene neu
+ * aufgebaut, ansonsten nur nachgeführt. Ändert sich eine untere Ebene selbst, muss die Transformation aller
+ * betroffenen Instanzen erneut gesetzt werden.
+ *
+ * <h3>Nebenläufigkeit</h3>
+ * Strahlanfragen dürfen aus mehreren Threads gleichzeitig gestellt werden, Änderungen nicht.
+ */
+public final class InstancedBoundingVolumeHierarchy {
+
+	/**
+	 * Die obere Ebene über die Instanzgrenzen
+	 */
+	@NotNull
+	private final BoundingVolumeHierarchy top = new BoundingVolumeHierarchy(2);
+
+	/**
+	 * Die Anzahl der Instanzen
+	 */
+	private int instanceCount;
+
+	/**
+	 * Gibt an, ob die obere Ebene neu aufgebaut werden muss
+	 */
+	private boolean rebuildRequired;
+
+	/**
+	 * Die untere Ebene je Instanz
+	 */
+	@NotNull
+	private BoundingVolumeHierarchy[] meshes;
+
+	/**
+	 * Die Transformation von Objekt- in Weltkoordinaten je Instanz
+	 */
+	@NotNull
+	private Matrix4[] transforms;
+
+	/**
+	 * Die Transformation von Welt- in Objektkoordinaten je Instanz
+	 */
+	@NotNull
+	private Matrix4[] inverseTransforms;
+
+	/**
+	 * Die Weltgrenzen je Instanz
+	 */
+	@NotNull
+	private float[] minX, minY, minZ, maxX, maxY, maxZ;
+
+	/**
+	 * Hilfsbox für die Berechnung der Weltgrenzen
+	 */
+	@NotNull
+	private final AxisAlignedBox scratchBox = AxisAlignedBox.createNew();
+
+	/**
+	 * Threadlokaler Instanztest
+	 */
+	@NotNull
+	private final ThreadLocal<InstanceIntersector> intersectors = new ThreadLocal<InstanceIntersector>();
+
+	/**
+	 * Erzeugt eine leere Struktur
+	 *
+	 * @param capacity Die anfängliche Kapazität in Instanzen
+	 */
+	public InstancedBoundingVolumeHierarchy(final int capacity) {
+		assert capacity > 0;
+		meshes = new BoundingVolumeHierarchy[capacity];
+		transforms = new Matrix4[capacity];
+		inverseTransforms = new Matrix4[capacity];
+		minX = new float[capacity]; minY = new float[capacity]; minZ = new float[capacity];
+		maxX = new float[capacity]; maxY = new float[capacity]; maxZ = new float[capacity];
+	}
+
+	/**
+	 * Bezieht die Anzahl der Instanzen
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getInstanceCount() {
+		return instanceCount;
+	}
+
+	/**
+	 * Bezieht die untere Ebene einer Instanz
+	 *
+	 * @param instance Die Instanz
+	 * @return Die Hierarchie in Objektkoordinaten
+	 */
+	@NotNull
+	public BoundingVolumeHierarchy getMesh(final int instance) {
+		assert instance >= 0 && instance < instanceCount;
+		return meshes[instance];
+	}
+
+	/**
+	 * Fügt eine Instanz hinzu
+	 *
+	 * @param mesh Die bereits aufgebaute Hierarchie in Objektkoordinaten
+	 * @param transform Die Transformation von Objekt- in Weltkoordinaten (affin, invertierbar)
+	 * @return Der Index der Instanz
+	 */
+	public int add(@NotNull final BoundingVolumeHierarchy mesh, @NotNull final Matrix4 transform) {
+		final int instance = allocate(mesh);
+		setTransform(instance, transform);
+		return instance;
+	}
+
+	/**
+	 * Fügt eine Instanz hinzu
+	 *
+	 * @param mesh Die bereits aufgebaute Hierarchie in Objektkoordinaten
+	 * @param transform Die Transformation von Objekt- in Weltkoordinaten
+	 * @return Der Index der Instanz
+	 */
+	public int add(@NotNull final BoundingVolumeHierarchy mesh, @NotNull final TransformationState transform) {
+		final int instance = allocate(mesh);
+		setTransform(instance, transform);
+		return instance;
+	}
+
+	/**
+	 * Legt eine Instanz ohne Transformation an
+	 *
+	 * @param mesh Die Hierarchie in Objektkoordinaten
+	 * @return Der Index der Instanz
+	 */
+	private int allocate(@NotNull final BoundingVolumeHierarchy mesh) {
+		final int instance = instanceCount;
+		if (instance == meshes.length) {
+			final int capacity = instance * 2;
+			meshes = grow(meshes, new BoundingVolumeHierarchy[capacity]);
+			transforms = grow(transforms, new Matrix4[capacity]);
+			inverseTransforms = grow(inverseTransforms, new Matrix4[capacity]);
+			minX = grow(minX, capacity); minY = grow(minY, capacity); minZ = grow(minZ, capacity);
+			maxX = grow(maxX, capacity); maxY = grow(maxY, capacity); maxZ = grow(maxZ, capacity);
+		}
+
+		meshes[instance] = mesh;
+		transforms[instance] = Matrix4.createNew();
+		inverseTransforms[instance] = Matrix4.createNew();
+		instanceCount = instance + 1;
+		rebuildRequired = true;
+		return instance;
+	}
+
+	/**
+	 * Vergrößert ein Feld
+	 *
+	 * @param array Das Feld
+	 * @param grown Das vergrößerte Feld
+	 * @return Das vergrößerte Feld
+	 */
+	@NotNull
+	private static <T> T[] grow(@NotNull final T[] array, @NotNull final T[] grown) {
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Vergrößert ein Feld
+	 *
+	 * @param array Das Feld
+	 * @param length Die neue Länge
+	 * @return Das neue Feld
+	 */
+	@NotNull
+	private static float[] grow(@NotNull final float[] array, final int length) {
+		final float[] grown = new float[length];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Setzt die Transformation einer Instanz
+	 *
+	 * @param instance Die Instanz
+	 * @param transform Die Transformation von Objekt- in Weltkoordinaten (affin, invertierbar)
+	 */
+	public void setTransform(final int instance, @NotNull final Matrix4 transform) {
+		assert instance >= 0 && instance < instanceCount;
+		final float invDeterminant = 1.0f / transform.getDeterminant();
+		assert !Float.isInfinite(invDeterminant);
+		transforms[instance].set(transform);
+		transform.getAdjoint(inverseTransforms[instance]).mulInPlace(invDeterminant);
+		updateWorldBounds(instance);
+	}
+
+	/**
+	 * Setzt die Transformation einer Instanz
+	 * <p/>
+	 * Matrix und Inverse werden aus dem Zwischenspeicher des {@link TransformationState} übernommen.
+	 *
+	 * @param instance Die Instanz
+	 * @param transform Die Transformation von Objekt- in Weltkoordinaten
+	 */
+	public void setTransform(final int instance, @NotNull final TransformationState transform) {
+		assert instance >= 0 && instance < instanceCount;
+		transform.toMatrix4(transforms[instance]);
+		transform.toInverseMatrix4(inverseTransforms[instance]);
+		updateWorldBounds(instance);
+	}
+
+	/**
+	 * Bezieht die Transformation einer Instanz
+	 *
+	 * @param instance Die Instanz
+	 * @param target Die Zielmatrix
+	 * @return Die Zielmatrix
+	 */
+	@NotNull
+	public Matrix4 getTransform(final int instance, @NotNull final Matrix4 target) {
+		assert instance >= 0 && instance < instanceCount;
+		return target.set(transforms[instance]);
+	}
+
+	/**
+	 * Berechnet die Weltgrenzen einer Instanz und meldet sie der oberen Ebene
+	 *
+	 * @param instance Die Instanz
+	 */
+	private void updateWorldBounds(final int instance) {
+		final AxisAlignedBox box = scratchBox;
+		if (meshes[instance].getBounds(box) == null) {
+			// Leere Instanzen werden als Punkt im Ursprung ihres Objektraumes geführt; die untere Ebene liefert keine Treffer
+			final float[] m = transforms[instance].values;
+			minX[instance] = maxX[instance] = m[Matrix4.M41];
+			minY[instance] = maxY[instance] = m[Matrix4.M42];
+			minZ[instance] = maxZ[instance] = m[Matrix4.M43];
+		}
+		else {
+			box.transformInPlace(transforms[instance]);
+			minX[instance] = box.center.x - box.extent.x; maxX[instance] = box.center.x + box.extent.x;
+			minY[instance] = box.center.y - box.extent.y; maxY[instance] = box.center.y + box.extent.y;
+			minZ[instance] = box.center.z - box.extent.z; maxZ[instance] = box.center.z + box.extent.z;
+		}
+
+		if (!rebuildRequired) {
+			top.updatePrimitive(instance, minX[instance], minY[instance], minZ[instance], maxX[instance], maxY[instance], maxZ[instance]);
+		}
+	}
+
+	/**
+	 * Übernimmt alle Änderungen in die obere Ebene
+	 * <p/>
+	 * Nach dem Hinzufügen von Instanzen wird neu aufgebaut, ansonsten werden nur die bewegten Instanzen
+	 * nachgeführt und die dabei veränderten Knoten rotiert.
+	 */
+	public void update() {
+		if (rebuildRequired) {
+			top.build(minX, minY, minZ, maxX, maxY, maxZ, instanceCount);
+			rebuildRequired = false;
+			return;
+		}
+
+		top.refit();
+		top.rotate();
+	}
+
+	/**
+	 * Sucht das nächste vom Strahl getroffene Primitiv über alle Instanzen
+	 *
+	 * @param ray Der Strahl in Weltkoordinaten
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @param distance Empfängt in Element 0 die Distanz des Treffers; darf <code>null</code> sein
+	 * @param primitive Empfängt in Element 0 den Primitivindex innerhalb der unteren Ebene; darf <code>null</code> sein
+	 * @return Der Index der getroffenen Instanz oder {@link BoundingVolumeHierarchy#NO_HIT}
+	 */
+	public int intersectClosest(@NotNull final Ray3 ray, final float nearBound, final float farBound,
+	                            @Nullable final float[] distance, @Nullable final int[] primitive) {
+		assert !rebuildRequired;
+		final InstanceIntersector intersector = getIntersector();
+		final int instance = top.intersectClosest(ray, nearBound, farBound, intersector, distance);
+		if (instance != BoundingVolumeHierarchy.NO_HIT && primitive != null) {
+			// Der letzte Treffer des Tests gehört nicht zwingend zur nächsten Instanz; erneut auswerten
+			final float t = intersector.intersect(instance, ray, nearBound, farBound);
+			assert !Float.isNaN(t);
+			primitive[0] = intersector.primitive;
+		}
+		return instance;
+	}
+
+	/**
+	 * Ermittelt, ob der Strahl irgendein Primitiv einer Instanz trifft
+	 *
+	 * @param ray Der Strahl in Weltkoordinaten
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @return <code>true</code>, sobald ein Treffer gefunden wurde
+	 */
+	public boolean intersectsAny(@NotNull final Ray3 ray, final float nearBound, final float farBound) {
+		assert !rebuildRequired;
+		final InstanceIntersector intersector = getIntersector();
+		intersector.anyHit = true;
+		try {
+			return top.intersectsAny(ray, nearBound, farBound, intersector);
+		}
+		finally {
+			intersector.anyHit = false;
+		}
+	}
+
+	/**
+	 * Bezieht den Instanztest des aktuellen Threads
+	 *
+	 * @return Der Instanztest
+	 */
+	@NotNull
+	private InstanceIntersector getIntersector() {
+		InstanceIntersector intersector = intersectors.get();
+		if (intersector == null) {
+			intersector = new InstanceIntersector();
+			intersectors.set(intersector);
+		}
+		return intersector;
+	}
+
+	/**
+	 * Überführt Strahlen in Objektkoordinaten und durchsucht die untere Ebene
+	 */
+	private final class InstanceIntersector implements BoundingVolumeHierarchy.PrimitiveIntersector {
+
+		/**
+		 * Der Strahl in Objektkoordinaten
+		 */
+		@NotNull
+		private final Ray3 objectRay = Ray3.createNew();
+
+		/**
+		 * Empfängt die Distanz aus der unteren Ebene
+		 */
+		@NotNull
+		private final float[] distance = new float[1];
+
+		/**
+		 * Der zuletzt getroffene Primitivindex der unteren Ebene
+		 */
+		private int primitive;
+
+		/**
+		 * Gibt an, ob ein beliebiger Treffer genügt
+		 */
+		private boolean anyHit;
+
+		@Override
+		public float intersect(final int instance, @NotNull final Ray3 ray, final float nearBound, final float farBound) {
+			final Ray3 objectRay = this.objectRay;
+			objectRay.origin.set(ray.origin);
+			objectRay.direction.set(ray.direction);
+			objectRay.transform(inverseTransforms[instance]);
+
+			final BoundingVolumeHierarchy mesh = meshes[instance];
+			if (anyHit) {
+				return mesh.intersectsAny(objectRay, nearBound, farBound) ? nearBound : Float.NaN;
+			}
+
+			primitive = mesh.intersectClosest(objectRay, nearBound, farBound, distance);
+			return primitive == BoundingVolumeHierarchy.NO_HIT ? Float.NaN : distance[0];
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package de.widemeadows.projectcore.math;
+
+/**
+ * Ergebnis eines Lagetests gegenüber einem Volumen
+ */
+public enum Intersection {
+
+	/**
+	 * Das Objekt liegt vollständig außerhalb
+	 */
+	OUTSIDE,
+
+	/**
+	 * Das Objekt schneidet die Grenze
+	 */
+	INTERSECTS,
+
+	/**
+	 * Das Objekt liegt vollständig innerhalb
+	 */
+	INSIDE
+}
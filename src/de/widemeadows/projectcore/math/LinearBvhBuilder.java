@@ -0,0 +1,572 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.utils.ChunkDispatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Aufbau einer {@link BoundingVolumeHierarchy} als Linear BVH (LBVH) über Morton-Codes
+ * <p/>
+ * Für Szenen, deren Objekte sich in jedem Frame bewegen, ist der SAH-Aufbau zu langsam. Dieser Builder
+ * sortiert die Objektschwerpunkte entlang einer Z-Kurve und leitet die Hierarchie direkt aus den gemeinsamen
+ * Präfixen benachbarter Codes ab (Karras, "Maximizing Parallelism in the Construction of BVHs, Octrees,
+ * and k-d Trees", 2012). Die entstehende Hierarchie ist langsamer zu traversieren als eine SAH-Hierarchie,
+ * aber in linearer Zeit und vollständig parallel aufgebaut.
+ *
+ * <h3>Ablauf</h3>
+ * <ol>
+ *     <li>Grenzen übernehmen und Schwerpunktgrenzen bestimmen</li>
+ *     <li>Morton-Codes mit 30 Bit (10 je Achse) oder 63 Bit (21 je Achse) berechnen</li>
+ *     <li>LSD-Radix-Sortierung mit 8 Bit je Durchlauf über blockweise Histogramme</li>
+ *     <li>Innere Knoten nach Karras erzeugen; gleiche Codes werden über ihren Index unterschieden</li>
+ *     <li>Knotengrenzen von den Blättern aufwärts berechnen; der zweite ankommende Pfad eines Knotens
+ *     übernimmt dessen Elternknoten</li>
+ * </ol>
+ * Innere Knoten belegen die Indizes <code>0..n-2</code>, Blätter mit genau einem Primitiv die Indizes
+ * <code>n-1..2n-2</code>.
+ *
+ * <h3>Parallelisierung</h3>
+ * Wird ein {@link ExecutorService} übergeben, wird jeder Schritt ab {@link #getMinimumChunkSize()} Objekten
+ * in Blöcke zerlegt. Der aufrufende Thread bearbeitet den ersten Block selbst. Die Arbeitsfelder werden
+ * zwischen Aufbauten wiederverwendet; eine Instanz darf nicht gleichzeitig aus mehreren Threads verwendet werden.
+ */
+public final class LinearBvhBuilder {
+
+	/**
+	 * Standardgröße eines parallel verarbeiteten Blocks
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+	/**
+	 * Bits je Radix-Durchlauf
+	 */
+	private static final int RADIX_BITS = 8;
+
+	/**
+	 * Anzahl der Buckets je Radix-Durchlauf
+	 */
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	/**
+	 * Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 */
+	@Nullable
+	private final ExecutorService executor;
+
+	/**
+	 * Die Mindestanzahl an Objekten je Block
+	 */
+	private final int minimumChunkSize;
+
+	/**
+	 * Bits je Achse des Morton-Codes
+	 */
+	private final int bitsPerAxis;
+
+	/**
+	 * Sortierschlüssel und ihr Zwischenpuffer
+	 */
+	@NotNull
+	private long[] codes = new long[0], codesTemp = new long[0];
+
+	/**
+	 * Primitivindizes zu den Schlüsseln und ihr Zwischenpuffer
+	 */
+	@NotNull
+	private int[] ids = new int[0], idsTemp = new int[0];
+
+	/**
+	 * Ankunftszähler je innerem Knoten
+	 */
+	@NotNull
+	private AtomicIntegerArray visits = new AtomicIntegerArray(0);
+
+	/**
+	 * Radix-Histogramme je Block
+	 */
+	@NotNull
+	private int[] histograms = new int[0];
+
+	/**
+	 * Schwerpunktgrenzen je Block
+	 */
+	@NotNull
+	private float[] chunkBounds = new float[0];
+
+	/**
+	 * Erzeugt einen Builder mit 30-Bit-Codes, der ausschließlich im aufrufenden Thread arbeitet
+	 */
+	public LinearBvhBuilder() {
+		this(null, DEFAULT_CHUNK_SIZE, false);
+	}
+
+	/**
+	 * Erzeugt einen Builder
+	 *
+	 * @param executor Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 * @param minimumChunkSize Die Mindestanzahl an Objekten je Block (1..n)
+	 * @param wideCodes <code>true</code> für 63-Bit-Codes (feinere Auflösung großer Level), <code>false</code> für 30 Bit
+	 */
+	public LinearBvhBuilder(@Nullable final ExecutorService executor, final int minimumChunkSize, final boolean wideCodes) {
+		assert minimumChunkSize > 0;
+		this.executor = executor;
+		this.minimumChunkSize = minimumChunkSize;
+		this.bitsPerAxis = wideCodes ? 21 : 10;
+	}
+
+	/**
+	 * Liefert die Mindestanzahl an Objekten je parallel verarbeitetem Block
+	 *
+	 * @return Die Blockgröße
+	 */
+	public int getMinimumChunkSize() {
+		return minimumChunkSize;
+	}
+
+	/**
+	 * Baut eine Hierarchie über Boxen auf; sortiert wird nach {@link AxisAlignedBox#center}
+	 *
+	 * @param bvh Die Zielhierarchie
+	 * @param boxes Die Boxen; der Index einer Box ist ihr Primitivindex
+	 * @param count Die Anzahl der Boxen
+	 */
+	public void build(@NotNull final BoundingVolumeHierarchy bvh, @NotNull final AxisAlignedBox[] boxes, final int count) {
+		assert count >= 0 && count <= boxes.length;
+		bvh.allocatePrimitives(count);
+
+		final int chunks = getChunkCount(count);
+		dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				final float[] minX = bvh.minX, minY = bvh.minY, minZ = bvh.minZ;
+				final float[] maxX = bvh.maxX, maxY = bvh.maxY, maxZ = bvh.maxZ;
+				for (int i = from; i < to; ++i) {
+					final Vector3 center = boxes[i].center;
+					final Vector3 extent = boxes[i].extent;
+					minX[i] = center.x - extent.x; maxX[i] = center.x + extent.x;
+					minY[i] = center.y - extent.y; maxY[i] = center.y + extent.y;
+					minZ[i] = center.z - extent.z; maxZ[i] = center.z + extent.z;
+				}
+				return 0;
+			}
+		});
+
+		buildFromBounds(bvh, count, chunks);
+	}
+
+	/**
+	 * Baut eine Hierarchie über Kugeln auf; sortiert wird nach {@link Sphere#getPosition()}
+	 *
+	 * @param bvh Die Zielhierarchie
+	 * @param spheres Die Kugeln; der Index einer Kugel ist ihr Primitivindex
+	 * @param count Die Anzahl der Kugeln
+	 */
+	public void build(@NotNull final BoundingVolumeHierarchy bvh, @NotNull final Sphere[] spheres, final int count) {
+		assert count >= 0 && count <= spheres.length;
+		bvh.allocatePrimitives(count);
+
+		final int chunks = getChunkCount(count);
+		dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				final float[] minX = bvh.minX, minY = bvh.minY, minZ = bvh.minZ;
+				final float[] maxX = bvh.maxX, maxY = bvh.maxY, maxZ = bvh.maxZ;
+				for (int i = from; i < to; ++i) {
+					final Vector3 center = spheres[i].getPosition();
+					final float radius = spheres[i].getRadius();
+					minX[i] = center.x - radius; maxX[i] = center.x + radius;
+					minY[i] = center.y - radius; maxY[i] = center.y + radius;
+					minZ[i] = center.z - radius; maxZ[i] = center.z + radius;
+				}
+				return 0;
+			}
+		});
+
+		buildFromBounds(bvh, count, chunks);
+	}
+
+	/**
+	 * Baut die Knoten über die bereits übernommenen Primitivgrenzen auf
+	 *
+	 * @param bvh Die Zielhierarchie
+	 * @param count Die Anzahl der Primitive
+	 * @param chunks Die Anzahl der Blöcke
+	 */
+	private void buildFromBounds(@NotNull final BoundingVolumeHierarchy bvh, final int count, final int chunks) {
+		bvh.nodeCount = 0;
+		bvh.depth = 0;
+		if (count == 0) return;
+
+		if (count == 1) {
+			bvh.indices[0] = 0;
+			bvh.nodeStart[0] = 0;
+			bvh.nodeSize[0] = 1;
+			bvh.nodeParent[0] = -1;
+			bvh.nodeHeight[0] = 1;
+			bvh.primitiveLeaf[0] = 0;
+			copyPrimitiveBounds(bvh, 0, 0);
+			bvh.nodeCount = 1;
+			bvh.depth = 1;
+			return;
+		}
+
+		ensureCapacity(count, chunks);
+		computeCodes(bvh, count, chunks);
+		sortCodes(count, chunks);
+		emitNodes(bvh, count, chunks);
+		computeBounds(bvh, count, chunks);
+
+		bvh.nodeCount = 2 * count - 1;
+		bvh.depth = bvh.nodeHeight[0];
+	}
+
+	/**
+	 * Stellt die Arbeitsfelder bereit
+	 *
+	 * @param count Die Anzahl der Primitive
+	 * @param chunks Die Anzahl der Blöcke
+	 */
+	private void ensureCapacity(final int count, final int chunks) {
+		if (codes.length < count) {
+			codes = new long[count];
+			codesTemp = new long[count];
+			ids = new int[count];
+			idsTemp = new int[count];
+			visits = new AtomicIntegerArray(count - 1);
+		}
+		if (histograms.length < chunks * RADIX) {
+			histograms = new int[chunks * RADIX];
+			chunkBounds = new float[chunks * 6];
+		}
+	}
+
+	/**
+	 * Berechnet die Morton-Codes der Schwerpunkte und setzt die Ankunftszähler zurück
+	 *
+	 * @param bvh Die Zielhierarchie
+	 * @param count Die Anzahl der Primitive
+	 * @param chunks Die Anzahl der Blöcke
+	 */
+	private void computeCodes(@NotNull final BoundingVolumeHierarchy bvh, final int count, final int chunks) {
+		final float[] minX = bvh.minX, minY = bvh.minY, minZ = bvh.minZ;
+		final float[] maxX = bvh.maxX, maxY = bvh.maxY, maxZ = bvh.maxZ;
+
+		// Schwerpunktgrenzen je Block, dann zusammenführen
+		final float[] chunkBounds = this.chunkBounds;
+		dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				float cMinX = Float.POSITIVE_INFINITY, cMinY = Float.POSITIVE_INFINITY, cMinZ = Float.POSITIVE_INFINITY;
+				float cMaxX = Float.NEGATIVE_INFINITY, cMaxY = Float.NEGATIVE_INFINITY, cMaxZ = Float.NEGATIVE_INFINITY;
+				for (int i = from; i < to; ++i) {
+					final float cx = (minX[i] + maxX[i]) * 0.5f, cy = (minY[i] + maxY[i]) * 0.5f, cz = (minZ[i] + maxZ[i]) * 0.5f;
+					cMinX = Math.min(cMinX, cx); cMaxX = Math.max(cMaxX, cx);
+					cMinY = Math.min(cMinY, cy); cMaxY = Math.max(cMaxY, cy);
+					cMinZ = Math.min(cMinZ, cz); cMaxZ = Math.max(cMaxZ, cz);
+				}
+				final int o = chunk * 6;
+				chunkBounds[o] = cMinX; chunkBounds[o + 1] = cMinY; chunkBounds[o + 2] = cMinZ;
+				chunkBounds[o + 3] = cMaxX; chunkBounds[o + 4] = cMaxY; chunkBounds[o + 5] = cMaxZ;
+				return 0;
+			}
+		});
+
+		float cMinX = Float.POSITIVE_INFINITY, cMinY = Float.POSITIVE_INFINITY, cMinZ = Float.POSITIVE_INFINITY;
+		float cMaxX = Float.NEGATIVE_INFINITY, cMaxY = Float.NEGATIVE_INFINITY, cMaxZ = Float.NEGATIVE_INFINITY;
+		for (int c = 0; c < chunks; ++c) {
+			final int o = c * 6;
+			cMinX = Math.min(cMinX, chunkBounds[o]);     cMinY = Math.min(cMinY, chunkBounds[o + 1]); cMinZ = Math.min(cMinZ, chunkBounds[o + 2]);
+			cMaxX = Math.max(cMaxX, chunkBounds[o + 3]); cMaxY = Math.max(cMaxY, chunkBounds[o + 4]); cMaxZ = Math.max(cMaxZ, chunkBounds[o + 5]);
+		}
+
+		// Quantisierung auf das Gitter der Codes
+		final int cells = (1 << bitsPerAxis) - 1;
+		final float offsetX = cMinX, offsetY = cMinY, offsetZ = cMinZ;
+		final float scaleX = cMaxX > cMinX ? cells / (cMaxX - cMinX) : 0;
+		final float scaleY = cMaxY > cMinY ? cells / (cMaxY - cMinY) : 0;
+		final float scaleZ = cMaxZ > cMinZ ? cells / (cMaxZ - cMinZ) : 0;
+		final boolean wide = bitsPerAxis > 10;
+
+		final long[] codes = this.codes;
+		final int[] ids = this.ids;
+		final AtomicIntegerArray visits = this.visits;
+		dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				for (int i = from; i < to; ++i) {
+					final int x = Math.min(cells, (int) (((minX[i] + maxX[i]) * 0.5f - offsetX) * scaleX));
+					final int y = Math.min(cells, (int) (((minY[i] + maxY[i]) * 0.5f - offsetY) * scaleY));
+					final int z = Math.min(cells, (int) (((minZ[i] + maxZ[i]) * 0.5f - offsetZ) * scaleZ));
+					codes[i] = wide
+							? (expandBits21(x) << 2) | (expandBits21(y) << 1) | expandBits21(z)
+							: (expandBits10(x) << 2) | (expandBits10(y) << 1) | expandBits10(z);
+					ids[i] = i;
+					if (i < count - 1) visits.set(i, 0);
+				}
+				return 0;
+			}
+		});
+	}
+
+	/**
+	 * Spreizt die unteren 10 Bit eines Wertes, so dass zwischen je zwei Bits zwei Nullbits liegen
+	 *
+	 * @param value Der Wert (0..1023)
+	 * @return Der gespreizte Wert (30 Bit)
+	 */
+	static long expandBits10(final int value) {
+		int v = value & 0x3ff;
+		v = (v | (v << 16)) & 0x030000ff;
+		v = (v | (v << 8)) & 0x0300f00f;
+		v = (v | (v << 4)) & 0x030c30c3;
+		v = (v | (v << 2)) & 0x09249249;
+		return v;
+	}
+
+	/**
+	 * Spreizt die unteren 21 Bit eines Wertes, so dass zwischen je zwei Bits zwei Nullbits liegen
+	 *
+	 * @param value Der Wert (0..2097151)
+	 * @return Der gespreizte Wert (63 Bit)
+	 */
+	static long expandBits21(final int value) {
+		long v = value & 0x1fffffL;
+		v = (v | (v << 32)) & 0x1f00000000ffffL;
+		v = (v | (v << 16)) & 0x1f0000ff0000ffL;
+		v = (v | (v << 8)) & 0x100f00f00f00f00fL;
+		v = (v | (v << 4)) & 0x10c30c30c30c30c3L;
+		v = (v | (v << 2)) & 0x1249249249249249L;
+		return v;
+	}
+
+	/**
+	 * Sortiert die Codes samt Primitivindizes stabil per LSD-Radix-Sortierung
+	 *
+	 * @param count Die Anzahl der Primitive
+	 * @param chunks Die Anzahl der Blöcke
+	 */
+	private void sortCodes(final int count, final int chunks) {
+		final int passes = (3 * bitsPerAxis + RADIX_BITS - 1) / RADIX_BITS;
+		final int[] histograms = this.histograms;
+
+		for (int pass = 0; pass < passes; ++pass) {
+			final int shift = pass * RADIX_BITS;
+			final long[] source = codes, target = codesTemp;
+			final int[] sourceIds = ids, targetIds = idsTemp;
+
+			// Histogramm je Block
+			dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+				@Override
+				public int run(final int chunk, final int from, final int to) {
+					final int base = chunk * RADIX;
+					for (int d = 0; d < RADIX; ++d) histograms[base + d] = 0;
+					for (int i = from; i < to; ++i) {
+						++histograms[base + (int) ((source[i] >>> shift) & (RADIX - 1))];
+					}
+					return 0;
+				}
+			});
+
+			// Startpositionen: Ziffer für Ziffer, innerhalb einer Ziffer Block für Block
+			int offset = 0;
+			for (int d = 0; d < RADIX; ++d) {
+				for (int c = 0; c < chunks; ++c) {
+					final int index = c * RADIX + d;
+					final int bucket = histograms[index];
+					histograms[index] = offset;
+					offset += bucket;
+				}
+			}
+
+			// Verteilen
+			dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+				@Override
+				public int run(final int chunk, final int from, final int to) {
+					final int base = chunk * RADIX;
+					for (int i = from; i < to; ++i) {
+						final long code = source[i];
+						final int position = histograms[base + (int) ((code >>> shift) & (RADIX - 1))]++;
+						target[position] = code;
+						targetIds[position] = sourceIds[i];
+					}
+					return 0;
+				}
+			});
+
+			codes = target;
+			codesTemp = source;
+			ids = targetIds;
+			idsTemp = sourceIds;
+		}
+	}
+
+	/**
+	 * Erzeugt innere Knoten und Blätter
+	 *
+	 * @param bvh Die Zielhierarchie
+	 * @param count Die Anzahl der Primitive
+	 * @param chunks Die Anzahl der Blöcke
+	 */
+	private void emitNodes(@NotNull final BoundingVolumeHierarchy bvh, final int count, final int chunks) {
+		final long[] codes = this.codes;
+		final int[] ids = this.ids;
+		final int[] parents = bvh.nodeParent;
+		final int[] nodeStart = bvh.nodeStart, nodeRight = bvh.nodeRight, nodeSize = bvh.nodeSize;
+		final int[] indices = bvh.indices, primitiveLeaf = bvh.primitiveLeaf;
+		final int leafBase = count - 1;
+		parents[0] = -1;
+
+		dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				for (int i = from; i < to; ++i) {
+					// Blatt
+					final int leaf = leafBase + i;
+					indices[i] = ids[i];
+					primitiveLeaf[ids[i]] = leaf;
+					nodeStart[leaf] = i;
+					nodeSize[leaf] = 1;
+					copyPrimitiveBounds(bvh, leaf, ids[i]);
+					if (i == leafBase) continue;
+
+					// Innerer Knoten: Richtung des Bereiches bestimmen
+					final int direction = delta(codes, count, i, i + 1) - delta(codes, count, i, i - 1) >= 0 ? 1 : -1;
+					final int minPrefix = delta(codes, count, i, i - direction);
+
+					// Obere Schranke der Bereichslänge, dann binär das andere Ende suchen
+					int maxLength = 2;
+					while (delta(codes, count, i, i + maxLength * direction) > minPrefix) maxLength <<= 1;
+					int length = 0;
+					for (int step = maxLength >> 1; step > 0; step >>= 1) {
+						if (delta(codes, count, i, i + (length + step) * direction) > minPrefix) length += step;
+					}
+					final int j = i + length * direction;
+
+					// Teilungsposition binär suchen
+					final int nodePrefix = delta(codes, count, i, j);
+					int split = 0;
+					int step = length;
+					do {
+						step = (step + 1) >> 1;
+						if (delta(codes, count, i, i + (split + step) * direction) > nodePrefix) split += step;
+					} while (step > 1);
+					final int gamma = i + split * direction + Math.min(direction, 0);
+
+					final int left = Math.min(i, j) == gamma ? leafBase + gamma : gamma;
+					final int right = Math.max(i, j) == gamma + 1 ? leafBase + gamma + 1 : gamma + 1;
+					nodeStart[i] = left;
+					nodeRight[i] = right;
+					nodeSize[i] = 0;
+					parents[left] = i;
+					parents[right] = i;
+				}
+				return 0;
+			}
+		});
+	}
+
+	/**
+	 * Bestimmt die Länge des gemeinsamen Präfixes zweier sortierter Schlüssel
+	 * <p/>
+	 * Gleiche Codes werden über ihre Position unterschieden.
+	 *
+	 * @param codes Die sortierten Codes
+	 * @param count Die Anzahl der Codes
+	 * @param i Der erste Schlüssel
+	 * @param j Der zweite Schlüssel
+	 * @return Die Präfixlänge oder -1, wenn <code>j</code> außerhalb liegt
+	 */
+	private static int delta(@NotNull final long[] codes, final int count, final int i, final int j) {
+		if (j < 0 || j >= count) return -1;
+		final long a = codes[i], b = codes[j];
+		return a != b
+				? Long.numberOfLeadingZeros(a ^ b)
+				: 64 + Integer.numberOfLeadingZeros(i ^ j);
+	}
+
+	/**
+	 * Berechnet die Knotengrenzen von den Blättern aufwärts
+	 *
+	 * @param bvh Die Zielhierarchie
+	 * @param count Die Anzahl der Primitive
+	 * @param chunks Die Anzahl der Blöcke
+	 */
+	private void computeBounds(@NotNull final BoundingVolumeHierarchy bvh, final int count, final int chunks) {
+		final int[] parents = bvh.nodeParent;
+		final int[] heights = bvh.nodeHeight;
+		final AtomicIntegerArray visits = this.visits;
+		final int[] nodeStart = bvh.nodeStart, nodeRight = bvh.nodeRight;
+		final float[] b = bvh.nodeBounds;
+		final int leafBase = count - 1;
+
+		dispatch(count, chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				for (int i = from; i < to; ++i) {
+					int node = leafBase + i;
+					heights[node] = 1;
+
+					// Nur der zweite ankommende Pfad kennt beide Kinder und steigt weiter auf
+					while (node != 0) {
+						node = parents[node];
+						if (visits.getAndIncrement(node) == 0) break;
+
+						final int left = nodeStart[node], right = nodeRight[node];
+						final int o = node * 6, l = left * 6, r = right * 6;
+						b[o]     = Math.min(b[l], b[r]);
+						b[o + 1] = Math.min(b[l + 1], b[r + 1]);
+						b[o + 2] = Math.min(b[l + 2], b[r + 2]);
+						b[o + 3] = Math.max(b[l + 3], b[r + 3]);
+						b[o + 4] = Math.max(b[l + 4], b[r + 4]);
+						b[o + 5] = Math.max(b[l + 5], b[r + 5]);
+						heights[node] = Math.max(heights[left], heights[right]) + 1;
+					}
+				}
+				return 0;
+			}
+		});
+	}
+
+	/**
+	 * Übernimmt die Grenzen eines Primitivs in einen Knoten
+	 *
+	 * @param bvh Die Zielhierarchie
+	 * @param node Der Knoten
+	 * @param primitive Der Primitivindex
+	 */
+	private static void copyPrimitiveBounds(@NotNull final BoundingVolumeHierarchy bvh, final int node, final int primitive) {
+		final float[] b = bvh.nodeBounds;
+		final int o = node * 6;
+		b[o]     = bvh.minX[primitive];
+		b[o + 1] = bvh.minY[primitive];
+		b[o + 2] = bvh.minZ[primitive];
+		b[o + 3] = bvh.maxX[primitive];
+		b[o + 4] = bvh.maxY[primitive];
+		b[o + 5] = bvh.maxZ[primitive];
+	}
+
+	/**
+	 * Bestimmt die Anzahl der Blöcke für eine Elementanzahl
+	 *
+	 * @param count Die Anzahl der Elemente
+	 * @return Die Anzahl der Blöcke (mindestens 1)
+	 */
+	private int getChunkCount(final int count) {
+		if (executor == null) return 1;
+		return Math.max(1, count / minimumChunkSize);
+	}
+
+	/**
+	 * Verteilt die Verarbeitung auf eine feste Anzahl von Blöcken
+	 *
+	 * @param count Die Anzahl der Elemente
+	 * @param chunks Die Anzahl der Blöcke
+	 * @param kernel Die Verarbeitung
+	 */
+	private void dispatch(final int count, final int chunks, @NotNull final ChunkDispatcher.RangeKernel kernel) {
+		ChunkDispatcher.dispatch(executor, count, chunks, Math.max(1, (count + chunks - 1) / chunks), kernel, "BVH construction");
+	}
+}
@@ -0,0 +1,857 @@
+package de.widemeadows.projectcore.math;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Lockerer Octree (Loose Octree) für bewegliche Kugeln und achsenparallele Boxen
+ * <p/>
+ * Jeder Knoten deckt einen Würfel ab, dessen Grenzen für die Suche um die halbe Kantenlänge in jede Richtung
+ * erweitert sind. Ein Objekt wird anhand seiner Größe einer Ebene und anhand seines Mittelpunktes einer Zelle
+ * dieser Ebene zugeordnet; es liegt damit immer vollständig in den lockeren Grenzen seines Knotens. Bewegt sich
+ * ein Objekt innerhalb seiner Zelle und behält es seine Größenklasse, genügt das Überschreiben der Grenzen.
+ * Erst beim Verlassen der Zelle wird es aus der Objektliste des Knotens genommen und neu eingefügt.
+ * <p/>
+ * Objekte werden über ganzzahlige Handles angesprochen. Knoten und Handles liegen in flachen Feldern und werden
+ * über Freilisten wiederverwendet. Objekte außerhalb der Wurzelzelle werden im Wurzelknoten geführt, der bei
+ * Anfragen nie verworfen wird.
+ * <p/>
+ * Anfragen melden Treffer über einen {@link Visitor} und fordern nach dem ersten Aufruf je Thread keine
+ * Objekte an. Gleichzeitige Anfragen aus mehreren Threads sind zulässig, solange der Baum nicht verändert wird.
+ */
+public final class LooseOctree {
+
+	/**
+	 * Handle bzw. Knotenindex, der kein Element bezeichnet
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * Standardwert der maximalen Tiefe
+	 */
+	public static final int DEFAULT_MAX_DEPTH = 8;
+
+	/**
+	 * Empfänger der Treffer einer Anfrage
+	 */
+	public interface Visitor {
+
+		/**
+		 * Meldet ein gefundenes Objekt
+		 *
+		 * @param handle Das Handle des Objektes
+		 * @return <code>true</code>, um die Suche fortzusetzen, <code>false</code> zum Abbruch
+		 */
+		boolean visit(int handle);
+	}
+
+	/**
+	 * Die maximale Tiefe (die Wurzel hat die Ebene 0)
+	 */
+	private final int maxDepth;
+
+	/**
+	 * Untere Ecke der Wurzelzelle
+	 */
+	private final float originX, originY, originZ;
+
+	/**
+	 * Halbe Kantenlänge der Wurzelzelle
+	 */
+	private final float rootHalfSize;
+
+	/**
+	 * Die Anzahl der belegten Objekte
+	 */
+	private int objectCount;
+
+	/**
+	 * Die Anzahl der belegten Knoten
+	 */
+	private int nodeCount;
+
+	/**
+	 * Mittelpunkt und halbe Ausdehnung je Objekt
+	 */
+	@NotNull
+	private float[] centerX = new float[0], centerY = new float[0], centerZ = new float[0],
+	                extentX = new float[0], extentY = new float[0], extentZ = new float[0];
+
+	/**
+	 * Gibt je Objekt an, ob es eine Kugel (Radius in {@link #extentX}) oder eine Box ist
+	 */
+	@NotNull
+	private boolean[] sphere = new boolean[0];
+
+	/**
+	 * Knoten je Objekt; {@link #NONE} für freie Handles
+	 */
+	@NotNull
+	private int[] objectNode = new int[0];
+
+	/**
+	 * Nachfolger in der Objektliste des Knotens bzw. in der Freiliste
+	 */
+	@NotNull
+	private int[] objectNext = new int[0];
+
+	/**
+	 * Vorgänger in der Objektliste des Knotens
+	 */
+	@NotNull
+	private int[] objectPrevious = new int[0];
+
+	/**
+	 * Erstes freies Handle
+	 */
+	private int freeObject = NONE;
+
+	/**
+	 * Die Anzahl der jemals vergebenen Handles
+	 */
+	private int objectCapacityUsed;
+
+	/**
+	 * Kinder je Knoten (8 Einträge je Knoten, {@link #NONE} für fehlende Kinder)
+	 */
+	@NotNull
+	private int[] nodeChildren = new int[0];
+
+	/**
+	 * Elternknoten je Knoten
+	 */
+	@NotNull
+	private int[] nodeParent = new int[0];
+
+	/**
+	 * Ebene je Knoten
+	 */
+	@NotNull
+	private int[] nodeLevel = new int[0];
+
+	/**
+	 * Zellkoordinaten je Knoten auf seiner Ebene
+	 */
+	@NotNull
+	private int[] nodeCellX = new int[0], nodeCellY = new int[0], nodeCellZ = new int[0];
+
+	/**
+	 * Mittelpunkt und halbe Kantenlänge der lockeren Grenzen je Knoten
+	 */
+	@NotNull
+	private float[] nodeCenterX = new float[0], nodeCenterY = new float[0], nodeCenterZ = new float[0],
+	                nodeLooseHalfSize = new float[0];
+
+	/**
+	 * Erstes Objekt je Knoten
+	 */
+	@NotNull
+	private int[] nodeFirstObject = new int[0];
+
+	/**
+	 * Anzahl der Objekte im Teilbaum je Knoten
+	 */
+	@NotNull
+	private int[] nodeSubtreeCount = new int[0];
+
+	/**
+	 * Erster freier Knoten; verkettet über {@link #nodeParent}
+	 */
+	private int freeNode = NONE;
+
+	/**
+	 * Die Anzahl der jemals belegten Knoten
+	 */
+	private int nodeCapacityUsed;
+
+	/**
+	 * Threadlokaler Traversierungsstapel
+	 */
+	@NotNull
+	private final ThreadLocal<int[]> stacks = new ThreadLocal<int[]>();
+
+	/**
+	 * Erzeugt einen neuen Octree mit {@link #DEFAULT_MAX_DEPTH}
+	 *
+	 * @param center Der Mittelpunkt der Wurzelzelle
+	 * @param halfSize Die halbe Kantenlänge der Wurzelzelle
+	 */
+	public LooseOctree(@NotNull final Vector3 center, final float halfSize) {
+		this(center, halfSize, DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Erzeugt einen neuen Octree
+	 *
+	 * @param center Der Mittelpunkt der Wurzelzelle
+	 * @param halfSize Die halbe Kantenlänge der Wurzelzelle
+	 * @param maxDepth Die maximale Tiefe (0 bis 20)
+	 */
+	public LooseOctree(@NotNull final Vector3 center, final float halfSize, final int maxDepth) {
+		if (halfSize <= 0) throw new IllegalArgumentException("halfSize must be positive");
+		if (maxDepth < 0 || maxDepth > 20) throw new IllegalArgumentException("maxDepth must be between 0 and 20");
+
+		this.maxDepth = maxDepth;
+		this.rootHalfSize = halfSize;
+		this.originX = center.x - halfSize;
+		this.originY = center.y - halfSize;
+		this.originZ = center.z - halfSize;
+
+		allocateNode(NONE, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Liefert die Anzahl der Objekte
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getObjectCount() {
+		return objectCount;
+	}
+
+	/**
+	 * Liefert die Anzahl der belegten Knoten einschließlich der Wurzel
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Fügt eine Box ein
+	 *
+	 * @param box Die Box
+	 * @return Das Handle des Objektes
+	 */
+	public int insert(@NotNull final AxisAlignedBox box) {
+		final int handle = allocateObject();
+		setBounds(handle, box.center.x, box.center.y, box.center.z, box.extent.x, box.extent.y, box.extent.z, false);
+		link(handle, findNode(handle));
+		return handle;
+	}
+
+	/**
+	 * Fügt eine Kugel ein
+	 *
+	 * @param sphere Die Kugel
+	 * @return Das Handle des Objektes
+	 */
+	public int insert(@NotNull final Sphere sphere) {
+		final int handle = allocateObject();
+		final float radius = sphere.getRadius();
+		setBounds(handle, sphere.getX(), sphere.getY(), sphere.getZ(), radius, radius, radius, true);
+		link(handle, findNode(handle));
+		return handle;
+	}
+
+	/**
+	 * Entfernt ein Objekt; das Handle wird danach wiederverwendet
+	 *
+	 * @param handle Das Handle
+	 */
+	public void remove(final int handle) {
+		checkHandle(handle);
+		unlink(handle);
+
+		objectNode[handle] = NONE;
+		objectNext[handle] = freeObject;
+		freeObject = handle;
+		--objectCount;
+	}
+
+	/**
+	 * Setzt die Grenzen eines Objektes auf eine Box
+	 *
+	 * @param handle Das Handle
+	 * @param box Die neuen Grenzen
+	 * @return <code>true</code>, wenn das Objekt in einen anderen Knoten verschoben wurde
+	 */
+	public boolean move(final int handle, @NotNull final AxisAlignedBox box) {
+		checkHandle(handle);
+		setBounds(handle, box.center.x, box.center.y, box.center.z, box.extent.x, box.extent.y, box.extent.z, false);
+		return relink(handle);
+	}
+
+	/**
+	 * Setzt die Grenzen eines Objektes auf eine Kugel
+	 *
+	 * @param handle Das Handle
+	 * @param sphere Die neuen Grenzen
+	 * @return <code>true</code>, wenn das Objekt in einen anderen Knoten verschoben wurde
+	 */
+	public boolean move(final int handle, @NotNull final Sphere sphere) {
+		checkHandle(handle);
+		final float radius = sphere.getRadius();
+		setBounds(handle, sphere.getX(), sphere.getY(), sphere.getZ(), radius, radius, radius, true);
+		return relink(handle);
+	}
+
+	/**
+	 * Liefert die achsenparallelen Grenzen eines Objektes
+	 *
+	 * @param handle Das Handle
+	 * @param target Die Zielbox
+	 * @return Die Zielbox
+	 */
+	@NotNull
+	public AxisAlignedBox getBounds(final int handle, @NotNull final AxisAlignedBox target) {
+		checkHandle(handle);
+		return target.set(centerX[handle], centerY[handle], centerZ[handle], extentX[handle], extentY[handle], extentZ[handle]);
+	}
+
+	/**
+	 * Liefert den Knoten, in dem ein Objekt geführt wird
+	 *
+	 * @param handle Das Handle
+	 * @return Der Knotenindex
+	 */
+	public int getNode(final int handle) {
+		checkHandle(handle);
+		return objectNode[handle];
+	}
+
+	/**
+	 * Liefert die Ebene eines Knotens
+	 *
+	 * @param node Der Knotenindex
+	 * @return Die Ebene (0 für die Wurzel)
+	 */
+	public int getNodeLevel(final int node) {
+		return nodeLevel[node];
+	}
+
+	/**
+	 * Sucht alle Objekte, die einen Punkt enthalten
+	 *
+	 * @param point Der Punkt
+	 * @param visitor Der Empfänger der Treffer
+	 * @return Die Anzahl der gemeldeten Objekte
+	 */
+	public int query(@NotNull final Vector3 point, @NotNull final Visitor visitor) {
+		final float x = point.x, y = point.y, z = point.z;
+		final int[] stack = getStack();
+		int top = 0;
+		stack[top++] = 0;
+
+		int found = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			if (node != 0) {
+				final float h = nodeLooseHalfSize[node];
+				if (Math.abs(x - nodeCenterX[node]) > h || Math.abs(y - nodeCenterY[node]) > h || Math.abs(z - nodeCenterZ[node]) > h) continue;
+			}
+
+			for (int o = nodeFirstObject[node]; o != NONE; o = objectNext[o]) {
+				final float dx = x - centerX[o], dy = y - centerY[o], dz = z - centerZ[o];
+				if (sphere[o]) {
+					if (dx * dx + dy * dy + dz * dz > extentX[o] * extentX[o]) continue;
+				}
+				else if (Math.abs(dx) > extentX[o] || Math.abs(dy) > extentY[o] || Math.abs(dz) > extentZ[o]) continue;
+
+				++found;
+				if (!visitor.visit(o)) return found;
+			}
+			top = pushChildren(node, stack, top);
+		}
+		return found;
+	}
+
+	/**
+	 * Sucht alle Objekte, die eine Kugel überlappen
+	 *
+	 * @param query Die Kugel
+	 * @param visitor Der Empfänger der Treffer
+	 * @return Die Anzahl der gemeldeten Objekte
+	 */
+	public int query(@NotNull final Sphere query, @NotNull final Visitor visitor) {
+		final float x = query.getX(), y = query.getY(), z = query.getZ();
+		final float radius = query.getRadius(), radiusSq = query.getRadiusSq();
+		final int[] stack = getStack();
+		int top = 0;
+		stack[top++] = 0;
+
+		int found = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			if (node != 0) {
+				final float h = nodeLooseHalfSize[node];
+				if (distanceSq(x, y, z, nodeCenterX[node], nodeCenterY[node], nodeCenterZ[node], h, h, h) > radiusSq) continue;
+			}
+
+			for (int o = nodeFirstObject[node]; o != NONE; o = objectNext[o]) {
+				if (sphere[o]) {
+					final float dx = x - centerX[o], dy = y - centerY[o], dz = z - centerZ[o];
+					final float r = radius + extentX[o];
+					if (dx * dx + dy * dy + dz * dz > r * r) continue;
+				}
+				else if (distanceSq(x, y, z, centerX[o], centerY[o], centerZ[o], extentX[o], extentY[o], extentZ[o]) > radiusSq) continue;
+
+				++found;
+				if (!visitor.visit(o)) return found;
+			}
+			top = pushChildren(node, stack, top);
+		}
+		return found;
+	}
+
+	/**
+	 * Sucht alle Objekte, die eine Box überlappen
+	 *
+	 * @param box Die Box
+	 * @param visitor Der Empfänger der Treffer
+	 * @return Die Anzahl der gemeldeten Objekte
+	 */
+	public int query(@NotNull final AxisAlignedBox box, @NotNull final Visitor visitor) {
+		final float x = box.center.x, y = box.center.y, z = box.center.z;
+		final float ex = box.extent.x, ey = box.extent.y, ez = box.extent.z;
+		final int[] stack = getStack();
+		int top = 0;
+		stack[top++] = 0;
+
+		int found = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			if (node != 0) {
+				final float h = nodeLooseHalfSize[node];
+				if (Math.abs(x - nodeCenterX[node]) > ex + h || Math.abs(y - nodeCenterY[node]) > ey + h || Math.abs(z - nodeCenterZ[node]) > ez + h) continue;
+			}
+
+			for (int o = nodeFirstObject[node]; o != NONE; o = objectNext[o]) {
+				if (sphere[o]) {
+					if (distanceSq(centerX[o], centerY[o], centerZ[o], x, y, z, ex, ey, ez) > extentX[o] * extentX[o]) continue;
+				}
+				else if (Math.abs(x - centerX[o]) > ex + extentX[o] || Math.abs(y - centerY[o]) > ey + extentY[o] || Math.abs(z - centerZ[o]) > ez + extentZ[o]) continue;
+
+				++found;
+				if (!visitor.visit(o)) return found;
+			}
+			top = pushChildren(node, stack, top);
+		}
+		return found;
+	}
+
+	/**
+	 * Sucht alle Objekte, die ein Strahl im Bereich <code>[nearBound, farBound]</code> trifft
+	 * <p/>
+	 * Die Reihenfolge der Treffer ist nicht nach Distanz sortiert.
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Die nächste gültige Distanz
+	 * @param farBound Die weiteste gültige Distanz
+	 * @param visitor Der Empfänger der Treffer
+	 * @return Die Anzahl der gemeldeten Objekte
+	 */
+	public int query(@NotNull final Ray3 ray, final float nearBound, final float farBound, @NotNull final Visitor visitor) {
+		final float ox = ray.origin.x, oy = ray.origin.y, oz = ray.origin.z;
+		final float dx = ray.direction.x, dy = ray.direction.y, dz = ray.direction.z;
+		final float ix = 1.0f / dx, iy = 1.0f / dy, iz = 1.0f / dz;
+		final int[] stack = getStack();
+		int top = 0;
+		stack[top++] = 0;
+
+		int found = 0;
+		while (top > 0) {
+			final int node = stack[--top];
+			if (node != 0) {
+				final float h = nodeLooseHalfSize[node];
+				if (!intersectsBox(nodeCenterX[node], nodeCenterY[node], nodeCenterZ[node], h, h, h, ox, oy, oz, ix, iy, iz, nearBound, farBound)) continue;
+			}
+
+			for (int o = nodeFirstObject[node]; o != NONE; o = objectNext[o]) {
+				if (sphere[o]) {
+					if (!intersectsSphere(centerX[o], centerY[o], centerZ[o], extentX[o], ox, oy, oz, dx, dy, dz, nearBound, farBound)) continue;
+				}
+				else if (!intersectsBox(centerX[o], centerY[o], centerZ[o], extentX[o], extentY[o], extentZ[o], ox, oy, oz, ix, iy, iz, nearBound, farBound)) continue;
+
+				++found;
+				if (!visitor.visit(o)) return found;
+			}
+			top = pushChildren(node, stack, top);
+		}
+		return found;
+	}
+
+	/**
+	 * Sucht alle Objekte, die im Sichtkegel liegen
+	 * <p/>
+	 * Die losen Knotenboxen werden mit Ebenenmasken getestet: Ebenen, die einen Knoten vollständig enthalten,
+	 * werden für seine Objekte und Kinder übersprungen. Liegt ein Knoten vollständig im Sichtkegel, werden
+	 * seine Objekte ohne weiteren Test gemeldet.
+	 *
+	 * @param frustum Der Sichtkegel
+	 * @param visitor Der Empfänger der Treffer
+	 * @return Die Anzahl der gemeldeten Objekte
+	 */
+	public int query(@NotNull final Frustum frustum, @NotNull final Visitor visitor) {
+		final int[] stack = getStack();
+		int top = 0;
+
+		// Einträge bestehen aus Knotenindex und Ebenenmaske des Elternknotens
+		stack[top++] = Frustum.ALL_PLANES;
+
+		int found = 0;
+		while (top > 0) {
+			final int entry = stack[--top];
+			final int node = entry >>> Frustum.PLANE_COUNT;
+			int mask = entry & Frustum.ALL_PLANES;
+			if (node != 0 && mask != 0) {
+				final float h = nodeLooseHalfSize[node];
+				mask = frustum.classify(nodeCenterX[node], nodeCenterY[node], nodeCenterZ[node], h, h, h, mask);
+				if (mask == Frustum.CULLED) continue;
+			}
+
+			for (int o = nodeFirstObject[node]; o != NONE; o = objectNext[o]) {
+				if (mask != 0) {
+					final int result = sphere[o]
+							? frustum.classify(centerX[o], centerY[o], centerZ[o], extentX[o], mask)
+							: frustum.classify(centerX[o], centerY[o], centerZ[o], extentX[o], extentY[o], extentZ[o], mask);
+					if (result == Frustum.CULLED) continue;
+				}
+
+				++found;
+				if (!visitor.visit(o)) return found;
+			}
+
+			final int first = top;
+			top = pushChildren(node, stack, top);
+			for (int i = first; i < top; ++i) {
+				stack[i] = (stack[i] << Frustum.PLANE_COUNT) | mask;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Legt die Kinder eines Knotens auf den Stapel
+	 *
+	 * @return Die neue Stapelhöhe
+	 */
+	private int pushChildren(final int node, @NotNull final int[] stack, int top) {
+		if (nodeSubtreeCount[node] == 0) return top;
+		final int[] children = nodeChildren;
+		for (int c = node * 8, end = c + 8; c < end; ++c) {
+			if (children[c] != NONE) stack[top++] = children[c];
+		}
+		return top;
+	}
+
+	/**
+	 * Bezieht den Traversierungsstapel des aktuellen Threads
+	 *
+	 * @return Der Stapel
+	 */
+	@NotNull
+	private int[] getStack() {
+		int[] stack = stacks.get();
+		if (stack == null) {
+			stack = new int[7 * maxDepth + 1];
+			stacks.set(stack);
+		}
+		return stack;
+	}
+
+	/**
+	 * Ermittelt den Knoten, der ein Objekt aufnehmen muss, und legt fehlende Knoten an
+	 *
+	 * @param handle Das Handle
+	 * @return Der Knotenindex
+	 */
+	private int findNode(final int handle) {
+		final int level = getLevel(handle);
+		final int cells = 1 << level;
+		final float cellSize = 2 * rootHalfSize / cells;
+
+		final int cellX = (int)Math.floor((centerX[handle] - originX) / cellSize);
+		final int cellY = (int)Math.floor((centerY[handle] - originY) / cellSize);
+		final int cellZ = (int)Math.floor((centerZ[handle] - originZ) / cellSize);
+		if (cellX < 0 || cellY < 0 || cellZ < 0 || cellX >= cells || cellY >= cells || cellZ >= cells) return 0;
+
+		int node = 0;
+		for (int l = 1; l <= level; ++l) {
+			final int shift = level - l;
+			final int x = cellX >> shift, y = cellY >> shift, z = cellZ >> shift;
+			final int slot = node * 8 + ((x & 1) | ((y & 1) << 1) | ((z & 1) << 2));
+			int child = nodeChildren[slot];
+			if (child == NONE) {
+				child = allocateNode(node, l, x, y, z);
+				nodeChildren[slot] = child;
+			}
+			node = child;
+		}
+		return node;
+	}
+
+	/**
+	 * Ermittelt die Ebene, deren Zellen ein Objekt aufnehmen können
+	 *
+	 * @param handle Das Handle
+	 * @return Die tiefste Ebene, deren halbe Kantenlänge nicht kleiner als die größte Ausdehnung ist
+	 */
+	private int getLevel(final int handle) {
+		final float size = Math.max(extentX[handle], Math.max(extentY[handle], extentZ[handle]));
+		float halfSize = rootHalfSize * 0.5f;
+		int level = 0;
+		while (level < maxDepth && halfSize >= size) {
+			halfSize *= 0.5f;
+			++level;
+		}
+		return level;
+	}
+
+	/**
+	 * Ermittelt, ob ein Objekt in seinem bisherigen Knoten bleiben kann
+	 *
+	 * @param handle Das Handle
+	 * @param node Der bisherige Knoten
+	 * @return <code>true</code>, wenn Ebene und Zelle unverändert sind
+	 */
+	private boolean fitsNode(final int handle, final int node) {
+		final int level = nodeLevel[node];
+		if (getLevel(handle) != level) return false;
+
+		if (level == 0) return true;
+
+		final float half = nodeLooseHalfSize[node] * 0.5f;
+		return Math.abs(centerX[handle] - nodeCenterX[node]) < half
+				&& Math.abs(centerY[handle] - nodeCenterY[node]) < half
+				&& Math.abs(centerZ[handle] - nodeCenterZ[node]) < half;
+	}
+
+	/**
+	 * Ordnet ein Objekt nach einer Bewegung neu zu
+	 *
+	 * @param handle Das Handle
+	 * @return <code>true</code>, wenn das Objekt den Knoten gewechselt hat
+	 */
+	private boolean relink(final int handle) {
+		final int node = objectNode[handle];
+		if (fitsNode(handle, node)) return false;
+
+		unlink(handle);
+		final int target = findNode(handle);
+		link(handle, target);
+		return target != node;
+	}
+
+	/**
+	 * Hängt ein Objekt an die Liste eines Knotens
+	 *
+	 * @param handle Das Handle
+	 * @param node Der Knoten
+	 */
+	private void link(final int handle, final int node) {
+		final int first = nodeFirstObject[node];
+		objectNode[handle] = node;
+		objectPrevious[handle] = NONE;
+		objectNext[handle] = first;
+		if (first != NONE) objectPrevious[first] = handle;
+		nodeFirstObject[node] = handle;
+
+		for (int n = node; n != NONE; n = nodeParent[n]) {
+			++nodeSubtreeCount[n];
+		}
+	}
+
+	/**
+	 * Nimmt ein Objekt aus der Liste seines Knotens und gibt leere Knoten frei
+	 *
+	 * @param handle Das Handle
+	 */
+	private void unlink(final int handle) {
+		final int node = objectNode[handle];
+		final int previous = objectPrevious[handle], next = objectNext[handle];
+		if (previous != NONE) objectNext[previous] = next;
+		else nodeFirstObject[node] = next;
+		if (next != NONE) objectPrevious[next] = previous;
+
+		int n = node;
+		while (n != NONE) {
+			final int parent = nodeParent[n];
+			if (--nodeSubtreeCount[n] == 0 && n != 0) {
+				releaseNode(n);
+			}
+			n = parent;
+		}
+	}
+
+	/**
+	 * Setzt die Grenzen eines Objektes
+	 */
+	private void setBounds(final int handle, final float x, final float y, final float z,
+	                       final float ex, final float ey, final float ez, final boolean isSphere) {
+		centerX[handle] = x;
+		centerY[handle] = y;
+		centerZ[handle] = z;
+		extentX[handle] = ex;
+		extentY[handle] = ey;
+		extentZ[handle] = ez;
+		sphere[handle] = isSphere;
+	}
+
+	/**
+	 * Prüft, ob ein Handle belegt ist
+	 *
+	 * @param handle Das Handle
+	 */
+	private void checkHandle(final int handle) {
+		if (handle < 0 || handle >= objectCapacityUsed || objectNode[handle] == NONE) {
+			throw new IllegalArgumentException("invalid handle " + handle);
+		}
+	}
+
+	/**
+	 * Belegt ein Handle aus der Freiliste oder vergrößert die Objektfelder
+	 *
+	 * @return Das Handle
+	 */
+	private int allocateObject() {
+		++objectCount;
+		if (freeObject != NONE) {
+			final int handle = freeObject;
+			freeObject = objectNext[handle];
+			return handle;
+		}
+
+		final int handle = objectCapacityUsed++;
+		if (handle == objectNode.length) {
+			final int capacity = Math.max(16, handle * 2);
+			centerX = Arrays.copyOf(centerX, capacity);
+			centerY = Arrays.copyOf(centerY, capacity);
+			centerZ = Arrays.copyOf(centerZ, capacity);
+			extentX = Arrays.copyOf(extentX, capacity);
+			extentY = Arrays.copyOf(extentY, capacity);
+			extentZ = Arrays.copyOf(extentZ, capacity);
+			sphere = Arrays.copyOf(sphere, capacity);
+			objectNode = Arrays.copyOf(objectNode, capacity);
+			objectNext = Arrays.copyOf(objectNext, capacity);
+			objectPrevious = Arrays.copyOf(objectPrevious, capacity);
+		}
+		return handle;
+	}
+
+	/**
+	 * Belegt einen Knoten aus der Freiliste oder vergrößert die Knotenfelder
+	 *
+	 * @param parent Der Elternknoten
+	 * @param level Die Ebene
+	 * @param cellX Die Zellkoordinate auf der Ebene
+	 * @param cellY Die Zellkoordinate auf der Ebene
+	 * @param cellZ Die Zellkoordinate auf der Ebene
+	 * @return Der Knotenindex
+	 */
+	private int allocateNode(final int parent, final int level, final int cellX, final int cellY, final int cellZ) {
+		final int node;
+		if (freeNode != NONE) {
+			node = freeNode;
+			freeNode = nodeParent[node];
+		}
+		else {
+			node = nodeCapacityUsed++;
+			if (node == nodeParent.length) {
+				final int capacity = Math.max(16, node * 2);
+				nodeChildren = Arrays.copyOf(nodeChildren, capacity * 8);
+				nodeParent = Arrays.copyOf(nodeParent, capacity);
+				nodeLevel = Arrays.copyOf(nodeLevel, capacity);
+				nodeCellX = Arrays.copyOf(nodeCellX, capacity);
+				nodeCellY = Arrays.copyOf(nodeCellY, capacity);
+				nodeCellZ = Arrays.copyOf(nodeCellZ, capacity);
+				nodeCenterX = Arrays.copyOf(nodeCenterX, capacity);
+				nodeCenterY = Arrays.copyOf(nodeCenterY, capacity);
+				nodeCenterZ = Arrays.copyOf(nodeCenterZ, capacity);
+				nodeLooseHalfSize = Arrays.copyOf(nodeLooseHalfSize, capacity);
+				nodeFirstObject = Arrays.copyOf(nodeFirstObject, capacity);
+				nodeSubtreeCount = Arrays.copyOf(nodeSubtreeCount, capacity);
+			}
+		}
+		++nodeCount;
+
+		final float cellSize = 2 * rootHalfSize / (1 << level);
+		Arrays.fill(nodeChildren, node * 8, node * 8 + 8, NONE);
+		nodeParent[node] = parent;
+		nodeLevel[node] = level;
+		nodeCellX[node] = cellX;
+		nodeCellY[node] = cellY;
+		nodeCellZ[node] = cellZ;
+		nodeCenterX[node] = originX + (cellX + 0.5f) * cellSize;
+		nodeCenterY[node] = originY + (cellY + 0.5f) * cellSize;
+		nodeCenterZ[node] = originZ + (cellZ + 0.5f) * cellSize;
+		nodeLooseHalfSize[node] = cellSize;
+		nodeFirstObject[node] = NONE;
+		nodeSubtreeCount[node] = 0;
+		return node;
+	}
+
+	/**
+	 * Gibt einen leeren Knoten frei und trägt ihn beim Elternknoten aus
+	 *
+	 * @param node Der Knoten
+	 */
+	private void releaseNode(final int node) {
+		assert nodeFirstObject[node] == NONE;
+		final int parent = nodeParent[node];
+		final int slot = parent * 8 + ((nodeCellX[node] & 1) | ((nodeCellY[node] & 1) << 1) | ((nodeCellZ[node] & 1) << 2));
+		assert nodeChildren[slot] == node;
+		nodeChildren[slot] = NONE;
+
+		nodeParent[node] = freeNode;
+		freeNode = node;
+		--nodeCount;
+	}
+
+	/**
+	 * Berechnet den quadrierten Abstand eines Punktes zu einer Box
+	 *
+	 * @return Der quadrierte Abstand; 0, wenn der Punkt in der Box liegt
+	 */
+	private static float distanceSq(final float x, final float y, final float z,
+	                                final float centerX, final float centerY, final float centerZ,
+	                                final float extentX, final float extentY, final float extentZ) {
+		final float dx = Math.max(0, Math.abs(x - centerX) - extentX);
+		final float dy = Math.max(0, Math.abs(y - centerY) - extentY);
+		final float dz = Math.max(0, Math.abs(z - centerZ) - extentZ);
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Ermittelt über die Slab-Methode, ob ein Strahl eine Box trifft
+	 *
+	 * @return <code>true</code> bei einem Treffer im Bereich <code>[nearBound, farBound]</code>
+	 */
+	private static boolean intersectsBox(final float centerX, final float centerY, final float centerZ,
+	                                     final float extentX, final float extentY, final float extentZ,
+	                                     final float ox, final float oy, final float oz,
+	                                     final float ix, final float iy, final float iz,
+	                                     final float nearBound, final float farBound) {
+		final float tx1 = (centerX - extentX - ox) * ix, tx2 = (centerX + extentX - ox) * ix;
+		final float ty1 = (centerY - extentY - oy) * iy, ty2 = (centerY + extentY - oy) * iy;
+		final float tz1 = (centerZ - extentZ - oz) * iz, tz2 = (centerZ + extentZ - oz) * iz;
+
+		final float tNear = Math.max(Math.max(Math.min(tx1, tx2), Math.min(ty1, ty2)), Math.max(Math.min(tz1, tz2), nearBound));
+		final float tFar = Math.min(Math.min(Math.max(tx1, tx2), Math.max(ty1, ty2)), Math.min(Math.max(tz1, tz2), farBound));
+		return tNear <= tFar;
+	}
+
+	/**
+	 * Ermittelt, ob ein Strahl eine Kugel trifft
+	 *
+	 * @return <code>true</code> bei einem Treffer im Bereich <code>[nearBound, farBound]</code>
+	 */
+	private static boolean intersectsSphere(final float centerX, final float centerY, final float centerZ, final float radius,
+	                                        final float ox, final float oy, final float oz,
+	                                        final float dx, final float dy, final float dz,
+	                                        final float nearBound, final float farBound) {
+		final float mx = ox - centerX, my = oy - centerY, mz = oz - centerZ;
+		final float a = dx * dx + dy * dy + dz * dz;
+		final float b = mx * dx + my * dy + mz * dz;
+		final float c = mx * mx + my * my + mz * mz - radius * radius;
+		final float discriminant = b * b - a * c;
+		if (discriminant < 0) return false;
+
+		final float root = (float)Math.sqrt(discriminant);
+		final float tNear = Math.max((-b - root) / a, nearBound);
+		final float tFar = Math.min((-b + root) / a, farBound);
+		return tNear <= tFar;
+	}
+}
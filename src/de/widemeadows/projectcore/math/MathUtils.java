@@ -98,6 +98,36 @@ public class MathUtils {
 		return DEG_TO_RAD * degree;
 	}
 
+	/**
+	 * Maximaler relativer Fehler von {@link #invSqrtFast(float, boolean)} ohne Verfeinerung
+	 */
+	public static final float INV_SQRT_FAST_ERROR = 1.8e-3f;
+
+	/**
+	 * Maximaler relativer Fehler von {@link #invSqrtFast(float, boolean)} mit Verfeinerung
+	 */
+	public static final float INV_SQRT_REFINED_ERROR = 5e-6f;
+
+	/**
+	 * Berechnet eine Näherung von <code>1/sqrt(value)</code> über eine Bit-Schätzung mit anschließender
+	 * Newton-Iteration.
+	 * <p/>
+	 * Ohne Verfeinerung beträgt der relative Fehler höchstens {@link #INV_SQRT_FAST_ERROR}, mit einem
+	 * zusätzlichen Newton-Schritt höchstens {@link #INV_SQRT_REFINED_ERROR}. Für <code>value &lt;= 0</code>,
+	 * denormalisierte Werte und <code>NaN</code> ist das Ergebnis undefiniert.
+	 *
+	 * @param value Der Wert (&gt; 0)
+	 * @param refine <code>true</code>, wenn ein zweiter Newton-Schritt ausgeführt werden soll
+	 * @return Der reziproke Wurzelwert
+	 */
+	public static float invSqrtFast(final float value, final boolean refine) {
+		final float half = 0.5f * value;
+		float y = Float.intBitsToFloat(0x5f375a86 - (Float.floatToRawIntBits(value) >> 1));
+		y *= 1.5f - half * y * y;
+		if (refine) y *= 1.5f - half * y * y;
+		return y;
+	}
+
 	/**
 	 * Liefert den Vektor aus den maximalen Komponenten zweier Vektoren
 	 *
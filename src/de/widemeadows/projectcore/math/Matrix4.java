@@ -357,7 +357,20 @@ public final class Matrix4 {
 	@NotNull
 	@ReturnsCachedValue
 	public final Matrix4 mul(final float f) {
-		return createNew().set(f * values[0], f * values[1], f * values[2], f * values[3], f * values[4], f * values[5], f * values[6], f * values[7], f * values[8], f * values[9], f * values[10], f * values[11], f * values[12], f * values[13], f * values[14], f * values[15]);
+		return mul(f, createNew(false));
+	}
+
+	/**
+	 * Multipliziert die Matrix mit einem Faktor und schreibt das Ergebnis in eine Zielmatrix
+	 *
+	 * @param f Der Faktor
+	 * @param target Die Zielmatrix (darf diese Instanz sein)
+	 * @return Die Zielmatrix für method chaining
+	 * @see Matrix4#mul(float)
+	 */
+	@NotNull
+	public final Matrix4 mul(final float f, @NotNull final Matrix4 target) {
+		return target.set(f * values[0], f * values[1], f * values[2], f * values[3], f * values[4], f * values[5], f * values[6], f * values[7], f * values[8], f * values[9], f * values[10], f * values[11], f * values[12], f * values[13], f * values[14], f * values[15]);
 	}
 
 	/**
@@ -386,7 +399,20 @@ public final class Matrix4 {
 	@NotNull
 	@ReturnsCachedValue
 	public final Matrix4 mul(@NotNull final Matrix4 b) {
-		return createNew().set(
+		return mul(b, createNew(false));
+	}
+
+	/**
+	 * Multipliziert diese Matrix mit einer zweiten und schreibt das Ergebnis in eine Zielmatrix
+	 *
+	 * @param b Die zweite Matrix
+	 * @param target Die Zielmatrix (darf einer der Operanden sein)
+	 * @return Die Zielmatrix für method chaining
+	 * @see #mul(Matrix4)
+	 */
+	@NotNull
+	public final Matrix4 mul(@NotNull final Matrix4 b, @NotNull final Matrix4 target) {
+		return target.set(
 
 				values[M11] * b.values[M11] + values[M12] * b.values[M21] + values[M13] * b.values[M31] + values[M14] * b.values[M41],
 				values[M11] * b.values[M12] + values[M12] * b.values[M22] + values[M13] * b.values[M32] + values[M14] * b.values[M42],
@@ -602,6 +628,17 @@ public final class Matrix4 {
 	@NotNull
 	@ReturnsCachedValue
 	public final Matrix4 getAdjoint() {
+		return getAdjoint(createNew(false));
+	}
+
+	/**
+	 * Schreibt die Adjunkte in eine Zielmatrix
+	 *
+	 * @param target Die Zielmatrix (darf diese Instanz sein)
+	 * @return Die Zielmatrix für method chaining
+	 */
+	@NotNull
+	public final Matrix4 getAdjoint(@NotNull final Matrix4 target) {
 		/*
 		return new Matrix4D(
 			+GetSubDeterminant(0, 0), -GetSubDeterminant(0, 1), +GetSubDeterminant(0, 2), -GetSubDeterminant(0, 3),
@@ -829,7 +866,7 @@ public final class Matrix4 {
 		//    -m41, +m42, -m43, +m44).GetTransposed();
 
 		// Directly transpose the matrix by swapping the field indices
-		return createNew().set(
+		return target.set(
 			+m11, -m21, +m31, -m41,
 			-m12, +m22, -m32, +m42,
 			+m13, -m23, +m33, -m43,
@@ -889,7 +926,18 @@ public final class Matrix4 {
 	 */
 	@NotNull @ReturnsCachedValue
 	public Matrix4 getTransposed() {
-		return Matrix4.createNew(
+		return getTransposed(createNew(false));
+	}
+
+	/**
+	 * Schreibt eine transponierte Kopie dieser Matrix in eine Zielmatrix
+	 *
+	 * @param target Die Zielmatrix (darf diese Instanz sein)
+	 * @return Die Zielmatrix für method chaining
+	 */
+	@NotNull
+	public Matrix4 getTransposed(@NotNull final Matrix4 target) {
+		return target.set(
 				values[M11], values[M21], values[M31], values[M41],
 				values[M12], values[M22], values[M32], values[M42],
 				values[M13], values[M23], values[M33], values[M43],
@@ -1097,6 +1145,22 @@ public final class Matrix4 {
 		return v;
 	}
 
+	/**
+	 * Transformiert einen Vektor mittels dieser Matrix unter der Annahme w=0 und schreibt das Ergebnis in
+	 * einen Zielvektor
+	 *
+	 * @param vector Der zu transformierende Vektor
+	 * @param target Der Zielvektor (darf der Eingabevektor sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see #transformVector(Vector3)
+	 */
+	@NotNull
+	public final Vector3 transformVector(final @NotNull Vector3 vector, final @NotNull Vector3 target) {
+		target.set(vector);
+		transformVectorInPlace(target);
+		return target;
+	}
+
 	/**
 	 * Interpretiert diese Matrix als 3x3-Matrix und transformiert einen Vektor
 	 *
@@ -1111,6 +1175,22 @@ public final class Matrix4 {
 		return v;
 	}
 
+	/**
+	 * Interpretiert diese Matrix als 3x3-Matrix, transformiert einen Vektor und schreibt das Ergebnis in
+	 * einen Zielvektor
+	 *
+	 * @param vector Der zu transformierende Vektor
+	 * @param target Der Zielvektor (darf der Eingabevektor sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see #transform3x3(Vector3)
+	 */
+	@NotNull
+	public final Vector3 transform3x3(final @NotNull Vector3 vector, final @NotNull Vector3 target) {
+		target.set(vector);
+		transformInPlace3x3(target);
+		return target;
+	}
+
 	/**
 	 * Transformiert einen Vektor mittels dieser Matrix unter der Annahme w=0
 	 *
@@ -1129,6 +1209,22 @@ public final class Matrix4 {
 		return v;
 	}
 
+	/**
+	 * Transformiert einen Punkt mittels dieser Matrix unter der Annahme w=1 und schreibt das Ergebnis in
+	 * einen Zielvektor
+	 *
+	 * @param vector Der zu transformierende Punkt
+	 * @param target Der Zielvektor (darf der Eingabevektor sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see #transformPoint(Vector3)
+	 */
+	@NotNull
+	public final Vector3 transformPoint(final @NotNull Vector3 vector, final @NotNull Vector3 target) {
+		target.set(vector);
+		transformPointInPlace(target);
+		return target;
+	}
+
 	/**
 	 * Alias für {@link #transformPoint(Vector3)}
 	 *
@@ -1,7 +1,6 @@
 package de.widemeadows.projectcore.math;
 
 import de.widemeadows.projectcore.cache.annotations.ReturnsCachedValue;
-import de.widemeadows.projectcore.math.mock.FloatMath;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -41,7 +40,9 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getRotationX(final float theta) {
-		return getRotationX(FloatMath.cos(theta), FloatMath.sin(theta));
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(theta, sinCos, 0);
+		return getRotationX(sinCos[1], sinCos[0]);
 	}
 
 	/**
@@ -100,7 +101,9 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getRotationY(final float theta) {
-		return getRotationY(FloatMath.cos(theta), FloatMath.sin(theta));
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(theta, sinCos, 0);
+		return getRotationY(sinCos[1], sinCos[0]);
 	}
 
 	/**
@@ -159,7 +162,9 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getRotationZ(final float theta) {
-		return getRotationZ(FloatMath.cos(theta), FloatMath.sin(theta));
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(theta, sinCos, 0);
+		return getRotationZ(sinCos[1], sinCos[0]);
 	}
 
 	/**
@@ -208,8 +213,10 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getRotationAxisAngle(@NotNull Vector3 axis, float theta) {
-		float cos = (float) Math.cos(theta);
-		float sin = (float) Math.sin(theta);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(theta, sinCos, 0);
+		float cos = sinCos[1];
+		float sin = sinCos[0];
 		return getRotationAxisAngle(axis, cos, sin);
 	}
 
@@ -300,14 +307,18 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getRotationEulerZXZ(float z, float x1, float z2) {
-		float cz = (float) Math.cos(z);
-		float sz = (float) Math.sin(z);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(z, sinCos, 0);
+		float cz = sinCos[1];
+		float sz = sinCos[0];
 
-		float cx1 = (float) Math.cos(x1);
-		float sx1 = (float) Math.sin(x1);
+		Trigonometry.sinCos(x1, sinCos, 2);
+		float cx1 = sinCos[3];
+		float sx1 = sinCos[2];
 
-		float cz2 = (float) Math.cos(z2);
-		float sz2 = (float) Math.sin(z2);
+		Trigonometry.sinCos(z2, sinCos, 4);
+		float cz2 = sinCos[5];
+		float sz2 = sinCos[4];
 
 		return Matrix4.createNew().set(
 				cz * cz2 - sz * cx1 * sz2, -cz * sz2 - sz * cx1 * cz2, sz * sx1, 0f,
@@ -336,14 +347,18 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getRotationEulerZYZ(float z, float y1, float z2) {
-		float cz = (float) Math.cos(z);
-		float sz = (float) Math.sin(z);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(z, sinCos, 0);
+		float cz = sinCos[1];
+		float sz = sinCos[0];
 
-		float cy1 = (float) Math.cos(y1);
-		float sy1 = (float) Math.sin(y1);
+		Trigonometry.sinCos(y1, sinCos, 2);
+		float cy1 = sinCos[3];
+		float sy1 = sinCos[2];
 
-		float cz2 = (float) Math.cos(z2);
-		float sz2 = (float) Math.sin(z2);
+		Trigonometry.sinCos(z2, sinCos, 4);
+		float cz2 = sinCos[5];
+		float sz2 = sinCos[4];
 
 		return Matrix4.createNew().set(
 				-sz * sz2 + cz * cy1 * cz2, -sz * cz2 - cz * cy1 * sz2, cz * sy1, 0f,
@@ -372,14 +387,18 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getRotationEulerRPY(float rollX, float pitchY, float yawZ) {
-		float cr = (float) Math.cos(rollX); // Φ
-		float sr = (float) Math.sin(rollX);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(rollX, sinCos, 0); // Φ
+		float cr = sinCos[1];
+		float sr = sinCos[0];
 
-		float cp = (float) Math.cos(pitchY); // Θ
-		float sp = (float) Math.sin(pitchY);
+		Trigonometry.sinCos(pitchY, sinCos, 2); // Θ
+		float cp = sinCos[3];
+		float sp = sinCos[2];
 
-		float cy = (float) Math.cos(yawZ); // Ψ
-		float sy = (float) Math.sin(yawZ);
+		Trigonometry.sinCos(yawZ, sinCos, 4); // Ψ
+		float cy = sinCos[5];
+		float sy = sinCos[4];
 
 		return Matrix4.createNew().set(
 				cp * cy, cp * sy, -sp, 0f,
@@ -401,14 +420,18 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getTransformation(@NotNull Vector3 scaling, @NotNull Vector3 rotation, @NotNull Vector3 translation) {
-		float cr = (float) Math.cos(rotation.x); // Φ
-		float sr = (float) Math.sin(rotation.x);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(rotation.x, sinCos, 0); // Φ
+		float cr = sinCos[1];
+		float sr = sinCos[0];
 
-		float cp = (float) Math.cos(rotation.y); // Θ
-		float sp = (float) Math.sin(rotation.y);
+		Trigonometry.sinCos(rotation.y, sinCos, 2); // Θ
+		float cp = sinCos[3];
+		float sp = sinCos[2];
 
-		float cy = (float) Math.cos(rotation.z); // Ψ
-		float sy = (float) Math.sin(rotation.z);
+		Trigonometry.sinCos(rotation.z, sinCos, 4); // Ψ
+		float cy = sinCos[5];
+		float sy = sinCos[4];
 
 		return Matrix4.createNew().set(
 				scaling.x * cp * cy, scaling.x * cp * sy, scaling.x * (-sp), 0f,
@@ -430,14 +453,18 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getTransformation(float scaling, @NotNull Vector3 rotation, @NotNull Vector3 translation) {
-		float cr = (float) Math.cos(rotation.x); // Φ
-		float sr = (float) Math.sin(rotation.x);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(rotation.x, sinCos, 0); // Φ
+		float cr = sinCos[1];
+		float sr = sinCos[0];
 
-		float cp = (float) Math.cos(rotation.y); // Θ
-		float sp = (float) Math.sin(rotation.y);
+		Trigonometry.sinCos(rotation.y, sinCos, 2); // Θ
+		float cp = sinCos[3];
+		float sp = sinCos[2];
 
-		float cy = (float) Math.cos(rotation.z); // Ψ
-		float sy = (float) Math.sin(rotation.z);
+		Trigonometry.sinCos(rotation.z, sinCos, 4); // Ψ
+		float cy = sinCos[5];
+		float sy = sinCos[4];
 
 		return Matrix4.createNew().set(
 				scaling * cp * cy, scaling * cp * sy, scaling * (-sp), 0f,
@@ -458,14 +485,18 @@ public class MatrixFactory {
 	@NotNull
 	@ReturnsCachedValue
 	public static Matrix4 getTransformation(@NotNull Vector3 rotation, @NotNull Vector3 translation) {
-		float cr = (float) Math.cos(rotation.x); // Φ
-		float sr = (float) Math.sin(rotation.x);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(rotation.x, sinCos, 0); // Φ
+		float cr = sinCos[1];
+		float sr = sinCos[0];
 
-		float cp = (float) Math.cos(rotation.y); // Θ
-		float sp = (float) Math.sin(rotation.y);
+		Trigonometry.sinCos(rotation.y, sinCos, 2); // Θ
+		float cp = sinCos[3];
+		float sp = sinCos[2];
 
-		float cy = (float) Math.cos(rotation.z); // Ψ
-		float sy = (float) Math.sin(rotation.z);
+		Trigonometry.sinCos(rotation.z, sinCos, 4); // Ψ
+		float cy = sinCos[5];
+		float sy = sinCos[4];
 
 		return Matrix4.createNew().set(
 				cp * cy, cp * sy, (-sp), 0f,
@@ -531,4 +562,114 @@ public class MatrixFactory {
 				0.0f, 0.0f, factorZ, 0.0f,
 				0.0f, 0.0f, 0.0f, 1.0f);
 	}
+
+	/**
+	 * Erzeugt eine rechtshändige, perspektivische Projektionsmatrix (Blick entlang -Z, Tiefe in <code>[-1, 1]</code>)
+	 *
+	 * <h3>Layout</h3>
+	 * <pre>
+	 *   f/a, 0,               0,  0
+	 *     0, f,               0,  0
+	 *     0, 0,     (F+N)/(N-F), -1
+	 *     0, 0,    2*F*N/(N-F),   0
+	 * </pre>
+	 * mit <code>f = 1/tan(fovY/2)</code>. Wie alle Matrizen dieser Fabrik wirkt sie auf Zeilenvektoren; eine
+	 * View-Projektion ergibt sich daher aus <code>view.mul(projection)</code>.
+	 *
+	 * @param fovY Der vertikale Öffnungswinkel in radians
+	 * @param aspectRatio Das Verhältnis von Breite zu Höhe
+	 * @param nearDistance Die Entfernung der nahen Ebene (&gt; 0)
+	 * @param farDistance Die Entfernung der fernen Ebene
+	 * @return Die Projektionsmatrix
+	 * @see Frustum#set(Matrix4)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public static Matrix4 getPerspective(final float fovY, final float aspectRatio, final float nearDistance, final float farDistance) {
+		assert nearDistance > 0 && farDistance > nearDistance && aspectRatio > 0;
+		final float f = 1.0f / (float)Math.tan(fovY * 0.5f);
+		final float invDepth = 1.0f / (nearDistance - farDistance);
+		return Matrix4.createNew().set(
+				f / aspectRatio, 0.0f, 0.0f, 0.0f,
+				0.0f, f, 0.0f, 0.0f,
+				0.0f, 0.0f, (farDistance + nearDistance) * invDepth, -1.0f,
+				0.0f, 0.0f, 2.0f * farDistance * nearDistance * invDepth, 0.0f);
+	}
+
+	/**
+	 * Erzeugt eine rechtshändige, orthographische Projektionsmatrix (Blick entlang -Z, Tiefe in <code>[-1, 1]</code>)
+	 *
+	 * <h3>Layout</h3>
+	 * <pre>
+	 *   2/(r-l),            0,            0, 0
+	 *         0,      2/(t-b),            0, 0
+	 *         0,            0,     -2/(F-N), 0
+	 *   -(r+l)/(r-l), -(t+b)/(t-b), -(F+N)/(F-N), 1
+	 * </pre>
+	 *
+	 * @param left Die linke Grenze
+	 * @param right Die rechte Grenze
+	 * @param bottom Die untere Grenze
+	 * @param top Die obere Grenze
+	 * @param nearDistance Die Entfernung der nahen Ebene
+	 * @param farDistance Die Entfernung der fernen Ebene
+	 * @return Die Projektionsmatrix
+	 * @see Frustum#set(Matrix4)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public static Matrix4 getOrthographic(final float left, final float right, final float bottom, final float top,
+	                                      final float nearDistance, final float farDistance) {
+		assert right != left && top != bottom && farDistance != nearDistance;
+		final float invWidth = 1.0f / (right - left);
+		final float invHeight = 1.0f / (top - bottom);
+		final float invDepth = 1.0f / (farDistance - nearDistance);
+		return Matrix4.createNew().set(
+				2.0f * invWidth, 0.0f, 0.0f, 0.0f,
+				0.0f, 2.0f * invHeight, 0.0f, 0.0f,
+				0.0f, 0.0f, -2.0f * invDepth, 0.0f,
+				-(right + left) * invWidth, -(top + bottom) * invHeight, -(farDistance + nearDistance) * invDepth, 1.0f);
+	}
+
+	/**
+	 * Erzeugt eine rechtshändige Sichtmatrix, die die Welt in das Koordinatensystem einer Kamera überführt
+	 *
+	 * <h3>Layout</h3>
+	 * <pre>
+	 *    s.x,   u.x,  -f.x, 0
+	 *    s.y,   u.y,  -f.y, 0
+	 *    s.z,   u.z,  -f.z, 0
+	 *   -s*e,  -u*e,   f*e, 1
+	 * </pre>
+	 * mit der Blickrichtung <code>f</code>, <code>s = f x up</code> und <code>u = s x f</code> (jeweils normalisiert).
+	 * Die Kameraachsen entsprechen denen von {@link Frustum#setCamera(Vector3, Vector3, Vector3)}.
+	 *
+	 * @param eye Die Kameraposition
+	 * @param target Der betrachtete Punkt
+	 * @param up Der Aufwärtsvektor
+	 * @return Die Sichtmatrix
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public static Matrix4 getLookAt(@NotNull final Vector3 eye, @NotNull final Vector3 target, @NotNull final Vector3 up) {
+		float fx = target.x - eye.x, fy = target.y - eye.y, fz = target.z - eye.z;
+		final float invF = 1.0f / (float)Math.sqrt(fx * fx + fy * fy + fz * fz);
+		fx *= invF;
+		fy *= invF;
+		fz *= invF;
+
+		float sx = fy * up.z - fz * up.y, sy = fz * up.x - fx * up.z, sz = fx * up.y - fy * up.x;
+		final float invS = 1.0f / (float)Math.sqrt(sx * sx + sy * sy + sz * sz);
+		sx *= invS;
+		sy *= invS;
+		sz *= invS;
+
+		final float ux = sy * fz - sz * fy, uy = sz * fx - sx * fz, uz = sx * fy - sy * fx;
+
+		return Matrix4.createNew().set(
+				sx, ux, -fx, 0.0f,
+				sy, uy, -fy, 0.0f,
+				sz, uz, -fz, 0.0f,
+				-(sx * eye.x + sy * eye.y + sz * eye.z), -(ux * eye.x + uy * eye.y + uz * eye.z), fx * eye.x + fy * eye.y + fz * eye.z, 1.0f);
+	}
 }
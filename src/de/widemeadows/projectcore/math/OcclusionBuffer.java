@@ -0,0 +1,552 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.utils.ChunkDispatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Verdeckungstest in Software über einen Tiefenpuffer geringer Auflösung mit hierarchischer Tiefenpyramide
+ * <p/>
+ * Nach dem Sichtkegeltest verbleiben in dichten Innenräumen viele Objekte, die von Wänden verdeckt werden. Dazu
+ * werden einige wenige, große Verdecker (Wände, Böden, grobe Gebäudehüllen) in einen kleinen Tiefenpuffer
+ * gezeichnet; anschließend wird die Bildschirmprojektion der {@link AxisAlignedBox} jedes Objektes gegen diesen
+ * getestet.
+ *
+ * <h3>Ablauf je Frame</h3>
+ * <ol>
+ *     <li>{@link #begin(Matrix4)} setzt die View-Projektion (Zeilenvektoren, siehe {@link MatrixFactory#getPerspective})
+ *     und verwirft die Verdecker des letzten Frames</li>
+ *     <li>{@link #addOccluder} transformiert Dreiecksnetze in Weltkoordinaten in den Bildraum</li>
+ *     <li>{@link #rasterize()} zeichnet alle Dreiecke und baut die Pyramide aus minimaler und maximaler Tiefe</li>
+ *     <li>{@link #isOccluded} bzw. {@link #cull} testen Boxen</li>
+ * </ol>
+ *
+ * <h3>Tiefe und Genauigkeit</h3>
+ * Tiefen liegen in <code>[0, 1]</code> (0 an der nahen, 1 an der fernen Ebene). Verdecker werden an den
+ * Pixelmittelpunkten abgetastet; Dreiecke, die die nahe Ebene schneiden, werden verworfen, was nur Verdeckung
+ * verschenkt. Boxen, die die nahe Ebene schneiden oder außerhalb des Bildes liegen, gelten als nicht verdeckt;
+ * sie werden vom {@link Frustum} behandelt.
+ * <p/>
+ * Eine Box ist verdeckt, wenn ihre nächste Tiefe hinter der größten Verdeckertiefe aller von ihrem
+ * Bildschirmrechteck berührten Pixel liegt. Getestet wird auf der Pyramidenstufe, auf der das Rechteck höchstens
+ * 2x2 Texel berührt; liegt die Box vor der minimalen Tiefe, ist sie sofort sichtbar, sonst wird zwei Stufen
+ * feiner nachgeprüft.
+ *
+ * <h3>Parallelisierung</h3>
+ * Wird ein {@link ExecutorService} übergeben, wird das Bild in Streifen von {@link #getTileHeight()} Zeilen
+ * zerlegt, die unabhängig voneinander gezeichnet werden. Tests nach {@link #rasterize()} dürfen gleichzeitig aus
+ * mehreren Threads erfolgen; alle übrigen Methoden nicht.
+ */
+public final class OcclusionBuffer {
+
+	/**
+	 * Standardhöhe eines parallel gezeichneten Streifens in Zeilen
+	 */
+	public static final int DEFAULT_TILE_HEIGHT = 16;
+
+	/**
+	 * Kleinster gültiger w-Wert eines projizierten Punktes
+	 */
+	private static final float MIN_W = 1e-5f;
+
+	/**
+	 * Werte je Dreieck im Bildraum (x, y, Tiefe je Eckpunkt)
+	 */
+	private static final int TRIANGLE_STRIDE = 9;
+
+	/**
+	 * Die Breite in Pixeln
+	 */
+	private final int width;
+
+	/**
+	 * Die Höhe in Pixeln
+	 */
+	private final int height;
+
+	/**
+	 * Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 */
+	@Nullable
+	private final ExecutorService executor;
+
+	/**
+	 * Die Höhe eines Streifens in Zeilen
+	 */
+	private final int tileHeight;
+
+	/**
+	 * Die View-Projektion
+	 */
+	@NotNull
+	private final float[] viewProjection = new float[16];
+
+	/**
+	 * Die Dreiecke im Bildraum
+	 */
+	@NotNull
+	private float[] triangles = new float[0];
+
+	/**
+	 * Die Anzahl der Dreiecke
+	 */
+	private int triangleCount;
+
+	/**
+	 * Transformierte Eckpunkte (x, y, Tiefe, w) des aktuellen Verdeckers
+	 */
+	@NotNull
+	private float[] transformed = new float[0];
+
+	/**
+	 * Die Anzahl der Pyramidenstufen
+	 */
+	private final int levelCount;
+
+	/**
+	 * Breite und Höhe je Pyramidenstufe
+	 */
+	@NotNull
+	private final int[] levelWidth, levelHeight;
+
+	/**
+	 * Größte bzw. kleinste Tiefe je Texel und Pyramidenstufe; Stufe 0 ist der Tiefenpuffer
+	 */
+	@NotNull
+	private final float[][] maxDepth, minDepth;
+
+	/**
+	 * Erzeugt einen Puffer, der ausschließlich im aufrufenden Thread arbeitet
+	 *
+	 * @param width Die Breite in Pixeln
+	 * @param height Die Höhe in Pixeln
+	 */
+	public OcclusionBuffer(final int width, final int height) {
+		this(width, height, null, DEFAULT_TILE_HEIGHT);
+	}
+
+	/**
+	 * Erzeugt einen Puffer
+	 *
+	 * @param width Die Breite in Pixeln
+	 * @param height Die Höhe in Pixeln
+	 * @param executor Der Executor für das parallele Zeichnen oder <code>null</code>
+	 * @param tileHeight Die Höhe eines Streifens in Zeilen (1..n)
+	 */
+	public OcclusionBuffer(final int width, final int height, @Nullable final ExecutorService executor, final int tileHeight) {
+		if (width < 1 || height < 1) throw new IllegalArgumentException("width and height must be positive");
+		assert tileHeight > 0;
+		this.width = width;
+		this.height = height;
+		this.executor = executor;
+		this.tileHeight = tileHeight;
+
+		int levels = 1;
+		for (int w = width, h = height; w > 1 || h > 1; w = (w + 1) >> 1, h = (h + 1) >> 1) ++levels;
+		levelCount = levels;
+		levelWidth = new int[levels];
+		levelHeight = new int[levels];
+		maxDepth = new float[levels][];
+		minDepth = new float[levels][];
+
+		for (int l = 0, w = width, h = height; l < levels; ++l, w = (w + 1) >> 1, h = (h + 1) >> 1) {
+			levelWidth[l] = w;
+			levelHeight[l] = h;
+			maxDepth[l] = new float[w * h];
+			minDepth[l] = l == 0 ? maxDepth[0] : new float[w * h];
+			Arrays.fill(maxDepth[l], 1.0f);
+			Arrays.fill(minDepth[l], 1.0f);
+		}
+		System.arraycopy(Matrix4.UNIT.values, 0, viewProjection, 0, 16);
+	}
+
+	/**
+	 * Liefert die Breite
+	 *
+	 * @return Die Breite in Pixeln
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Liefert die Höhe
+	 *
+	 * @return Die Höhe in Pixeln
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Liefert die Höhe eines parallel gezeichneten Streifens
+	 *
+	 * @return Die Höhe in Zeilen
+	 */
+	public int getTileHeight() {
+		return tileHeight;
+	}
+
+	/**
+	 * Liefert die Anzahl der Pyramidenstufen
+	 *
+	 * @return Die Anzahl der Stufen; die letzte Stufe hat ein Texel
+	 */
+	public int getLevelCount() {
+		return levelCount;
+	}
+
+	/**
+	 * Liefert die Anzahl der gesammelten Verdeckerdreiecke
+	 *
+	 * @return Die Anzahl der Dreiecke
+	 */
+	public int getTriangleCount() {
+		return triangleCount;
+	}
+
+	/**
+	 * Liefert die Tiefe eines Pixels nach {@link #rasterize()}
+	 *
+	 * @param x Die Spalte (0 links)
+	 * @param y Die Zeile (0 oben)
+	 * @return Die Tiefe in <code>[0, 1]</code>
+	 */
+	public float getDepth(final int x, final int y) {
+		return maxDepth[0][y * width + x];
+	}
+
+	/**
+	 * Beginnt einen Frame
+	 *
+	 * @param viewProjection Die View-Projektion, z.B. <code>view.mul(projection)</code>
+	 */
+	public void begin(@NotNull final Matrix4 viewProjection) {
+		System.arraycopy(viewProjection.values, 0, this.viewProjection, 0, 16);
+		triangleCount = 0;
+	}
+
+	/**
+	 * Fügt ein Dreiecksnetz als Verdecker hinzu
+	 * <p/>
+	 * Die Umlaufrichtung der Dreiecke ist beliebig. Verdecker sollten geschlossen oder beidseitig undurchsichtig
+	 * sein und vollständig innerhalb der Objekte liegen, die sie darstellen.
+	 *
+	 * @param positions Die Eckpunkte in Weltkoordinaten (x, y, z je Eckpunkt)
+	 * @param vertexCount Die Anzahl der Eckpunkte
+	 * @param indices Die Eckpunktindizes, drei je Dreieck
+	 * @param triangleCount Die Anzahl der Dreiecke
+	 */
+	public void addOccluder(@NotNull final float[] positions, final int vertexCount,
+	                        @NotNull final int[] indices, final int triangleCount) {
+		if (transformed.length < vertexCount * 4) transformed = new float[vertexCount * 4];
+		final float[] m = viewProjection, t = transformed;
+		final float halfWidth = width * 0.5f, halfHeight = height * 0.5f;
+
+		// Eckpunkte in den Bildraum überführen
+		for (int v = 0, i = 0, o = 0; v < vertexCount; ++v, i += 3, o += 4) {
+			final float x = positions[i], y = positions[i + 1], z = positions[i + 2];
+			final float cx = x * m[Matrix4.M11] + y * m[Matrix4.M21] + z * m[Matrix4.M31] + m[Matrix4.M41];
+			final float cy = x * m[Matrix4.M12] + y * m[Matrix4.M22] + z * m[Matrix4.M32] + m[Matrix4.M42];
+			final float cz = x * m[Matrix4.M13] + y * m[Matrix4.M23] + z * m[Matrix4.M33] + m[Matrix4.M43];
+			final float cw = x * m[Matrix4.M14] + y * m[Matrix4.M24] + z * m[Matrix4.M34] + m[Matrix4.M44];
+			final float invW = 1.0f / cw;
+			t[o] = (cx * invW + 1.0f) * halfWidth;
+			t[o + 1] = (1.0f - cy * invW) * halfHeight;
+			t[o + 2] = (cz * invW + 1.0f) * 0.5f;
+			t[o + 3] = cw;
+		}
+
+		ensureTriangleCapacity(this.triangleCount + triangleCount);
+		final float[] triangles = this.triangles;
+		int written = this.triangleCount * TRIANGLE_STRIDE;
+		for (int i = 0, end = triangleCount * 3; i < end; i += 3) {
+			final int a = indices[i] * 4, b = indices[i + 1] * 4, c = indices[i + 2] * 4;
+
+			// Dreiecke an oder hinter der nahen Ebene verwerfen
+			if (t[a + 3] < MIN_W || t[b + 3] < MIN_W || t[c + 3] < MIN_W) continue;
+			if (t[a + 2] < 0 || t[b + 2] < 0 || t[c + 2] < 0) continue;
+
+			// Dreiecke außerhalb des Bildes verwerfen
+			if (Math.max(t[a], Math.max(t[b], t[c])) < 0 || Math.min(t[a], Math.min(t[b], t[c])) > width) continue;
+			if (Math.max(t[a + 1], Math.max(t[b + 1], t[c + 1])) < 0 || Math.min(t[a + 1], Math.min(t[b + 1], t[c + 1])) > height) continue;
+
+			triangles[written++] = t[a];
+			triangles[written++] = t[a + 1];
+			triangles[written++] = t[a + 2];
+			triangles[written++] = t[b];
+			triangles[written++] = t[b + 1];
+			triangles[written++] = t[b + 2];
+			triangles[written++] = t[c];
+			triangles[written++] = t[c + 1];
+			triangles[written++] = t[c + 2];
+		}
+		this.triangleCount = written / TRIANGLE_STRIDE;
+	}
+
+	/**
+	 * Zeichnet alle Verdecker und baut die Tiefenpyramide
+	 */
+	public void rasterize() {
+		final ExecutorService executor = this.executor;
+		final int bands = (height + tileHeight - 1) / tileHeight;
+		if (executor == null || bands == 1) {
+			rasterize(0, height);
+		}
+		else {
+			// Der aufrufende Thread zeichnet den ersten Streifen selbst
+			ChunkDispatcher.dispatch(executor, height, bands, tileHeight, new ChunkDispatcher.RangeKernel() {
+				@Override
+				public int run(final int chunk, final int from, final int to) {
+					rasterize(from, to);
+					return 0;
+				}
+			}, "rasterization");
+		}
+		buildPyramid();
+	}
+
+	/**
+	 * Zeichnet alle Dreiecke in einen Streifen
+	 *
+	 * @param rowFrom Die erste Zeile
+	 * @param rowTo Die Zeile hinter der letzten Zeile
+	 */
+	private void rasterize(final int rowFrom, final int rowTo) {
+		final float[] depth = maxDepth[0];
+		final int width = this.width;
+		Arrays.fill(depth, rowFrom * width, rowTo * width, 1.0f);
+
+		final float[] t = triangles;
+		for (int i = 0, end = triangleCount * TRIANGLE_STRIDE; i < end; i += TRIANGLE_STRIDE) {
+			final float ax = t[i], ay = t[i + 1], az = t[i + 2];
+			float bx = t[i + 3], by = t[i + 4], bz = t[i + 5];
+			float cx = t[i + 6], cy = t[i + 7], cz = t[i + 8];
+
+			// Einheitliche Umlaufrichtung herstellen
+			float area = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+			if (area == 0) continue;
+			if (area < 0) {
+				float swap = bx; bx = cx; cx = swap;
+				swap = by; by = cy; cy = swap;
+				swap = bz; bz = cz; cz = swap;
+				area = -area;
+			}
+
+			// Abgedeckte Pixelmittelpunkte im Streifen
+			final int top = Math.max(rowFrom, (int)Math.ceil(Math.min(ay, Math.min(by, cy)) - 0.5f));
+			final int bottom = Math.min(rowTo - 1, (int)Math.floor(Math.max(ay, Math.max(by, cy)) - 0.5f));
+			if (top > bottom) continue;
+			final int left = Math.max(0, (int)Math.ceil(Math.min(ax, Math.min(bx, cx)) - 0.5f));
+			final int right = Math.min(width - 1, (int)Math.floor(Math.max(ax, Math.max(bx, cx)) - 0.5f));
+			if (left > right) continue;
+
+			// Kantenfunktionen, jeweils gegenüber einem Eckpunkt, und ihre Schrittweiten in X
+			final float invArea = 1.0f / area;
+			final float stepA = -(cy - by), stepB = -(ay - cy), stepC = -(by - ay);
+			final float px = left + 0.5f;
+			for (int y = top; y <= bottom; ++y) {
+				final float py = y + 0.5f;
+				float ea = (cx - bx) * (py - by) - (cy - by) * (px - bx);
+				float eb = (ax - cx) * (py - cy) - (ay - cy) * (px - cx);
+				float ec = (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+
+				for (int x = left, o = y * width + left; x <= right; ++x, ++o, ea += stepA, eb += stepB, ec += stepC) {
+					if (ea < 0 || eb < 0 || ec < 0) continue;
+					final float z = (ea * az + eb * bz + ec * cz) * invArea;
+					if (z < depth[o]) depth[o] = z;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Baut die Pyramide aus minimaler und maximaler Tiefe
+	 */
+	private void buildPyramid() {
+		for (int l = 1; l < levelCount; ++l) {
+			final int w = levelWidth[l], h = levelHeight[l];
+			final int sw = levelWidth[l - 1], sh = levelHeight[l - 1];
+			final float[] sourceMax = maxDepth[l - 1], sourceMin = minDepth[l - 1];
+			final float[] targetMax = maxDepth[l], targetMin = minDepth[l];
+
+			for (int y = 0; y < h; ++y) {
+				final int y0 = y * 2, y1 = Math.min(y0 + 1, sh - 1);
+				for (int x = 0; x < w; ++x) {
+					final int x0 = x * 2, x1 = Math.min(x0 + 1, sw - 1);
+					final int a = y0 * sw + x0, b = y0 * sw + x1, c = y1 * sw + x0, d = y1 * sw + x1;
+					targetMax[y * w + x] = Math.max(Math.max(sourceMax[a], sourceMax[b]), Math.max(sourceMax[c], sourceMax[d]));
+					targetMin[y * w + x] = Math.min(Math.min(sourceMin[a], sourceMin[b]), Math.min(sourceMin[c], sourceMin[d]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ermittelt, ob eine Box vollständig verdeckt ist
+	 *
+	 * @param box Die Box
+	 * @return <code>true</code>, wenn die Box verdeckt ist
+	 */
+	public boolean isOccluded(@NotNull final AxisAlignedBox box) {
+		final Vector3 c = box.center, e = box.extent;
+		return isOccluded(c.x - e.x, c.y - e.y, c.z - e.z, c.x + e.x, c.y + e.y, c.z + e.z);
+	}
+
+	/**
+	 * Ermittelt, ob eine Box vollständig verdeckt ist
+	 *
+	 * @param minX Die minimale X-Koordinate
+	 * @param minY Die minimale Y-Koordinate
+	 * @param minZ Die minimale Z-Koordinate
+	 * @param maxX Die maximale X-Koordinate
+	 * @param maxY Die maximale Y-Koordinate
+	 * @param maxZ Die maximale Z-Koordinate
+	 * @return <code>true</code>, wenn die Box verdeckt ist
+	 */
+	public boolean isOccluded(final float minX, final float minY, final float minZ,
+	                          final float maxX, final float maxY, final float maxZ) {
+		final float[] m = viewProjection;
+
+		// Eckpunkte projizieren; Beiträge je Achse getrennt vorberechnen
+		final float xx0 = minX * m[Matrix4.M11], xx1 = maxX * m[Matrix4.M11];
+		final float xy0 = minX * m[Matrix4.M12], xy1 = maxX * m[Matrix4.M12];
+		final float xz0 = minX * m[Matrix4.M13], xz1 = maxX * m[Matrix4.M13];
+		final float xw0 = minX * m[Matrix4.M14], xw1 = maxX * m[Matrix4.M14];
+
+		float screenMinX = Float.POSITIVE_INFINITY, screenMaxX = Float.NEGATIVE_INFINITY;
+		float screenMinY = Float.POSITIVE_INFINITY, screenMaxY = Float.NEGATIVE_INFINITY;
+		float nearest = Float.POSITIVE_INFINITY;
+		for (int corner = 0; corner < 8; ++corner) {
+			final float y = (corner & 2) == 0 ? minY : maxY;
+			final float z = (corner & 4) == 0 ? minZ : maxZ;
+			final boolean lowX = (corner & 1) == 0;
+
+			final float cw = (lowX ? xw0 : xw1) + y * m[Matrix4.M24] + z * m[Matrix4.M34] + m[Matrix4.M44];
+			if (cw < MIN_W) return false;
+
+			final float invW = 1.0f / cw;
+			final float cx = ((lowX ? xx0 : xx1) + y * m[Matrix4.M21] + z * m[Matrix4.M31] + m[Matrix4.M41]) * invW;
+			final float cy = ((lowX ? xy0 : xy1) + y * m[Matrix4.M22] + z * m[Matrix4.M32] + m[Matrix4.M42]) * invW;
+			final float cz = ((lowX ? xz0 : xz1) + y * m[Matrix4.M23] + z * m[Matrix4.M33] + m[Matrix4.M43]) * invW;
+
+			screenMinX = Math.min(screenMinX, cx);
+			screenMaxX = Math.max(screenMaxX, cx);
+			screenMinY = Math.min(screenMinY, cy);
+			screenMaxY = Math.max(screenMaxY, cy);
+			nearest = Math.min(nearest, cz);
+		}
+
+		// Boxen vor der nahen Ebene oder außerhalb des Bildes gelten als sichtbar
+		nearest = (nearest + 1.0f) * 0.5f;
+		if (nearest < 0) return false;
+		final float halfWidth = width * 0.5f, halfHeight = height * 0.5f;
+		final float left = (screenMinX + 1.0f) * halfWidth, right = (screenMaxX + 1.0f) * halfWidth;
+		final float top = (1.0f - screenMaxY) * halfHeight, bottom = (1.0f - screenMinY) * halfHeight;
+		if (right < 0 || left >= width || bottom < 0 || top >= height) return false;
+
+		final int x0 = Math.max(0, (int)left), x1 = Math.min(width - 1, (int)right);
+		final int y0 = Math.max(0, (int)top), y1 = Math.min(height - 1, (int)bottom);
+
+		// Stufe, auf der das Rechteck höchstens 2x2 Texel berührt
+		int level = 0;
+		while ((x1 >> level) - (x0 >> level) > 1 || (y1 >> level) - (y0 >> level) > 1) ++level;
+
+		final int coarse = testLevel(level, x0, y0, x1, y1, nearest);
+		if (coarse != UNDECIDED || level == 0) return coarse == OCCLUDED;
+		return testLevel(Math.max(0, level - 2), x0, y0, x1, y1, nearest) == OCCLUDED;
+	}
+
+	/**
+	 * Ergebnis eines Stufentests: verdeckt
+	 */
+	private static final int OCCLUDED = 0;
+
+	/**
+	 * Ergebnis eines Stufentests: sichtbar
+	 */
+	private static final int VISIBLE = 1;
+
+	/**
+	 * Ergebnis eines Stufentests: auf dieser Stufe nicht entscheidbar
+	 */
+	private static final int UNDECIDED = 2;
+
+	/**
+	 * Testet ein Pixelrechteck auf einer Pyramidenstufe
+	 *
+	 * @param level Die Stufe
+	 * @param x0 Die erste Spalte (Stufe 0)
+	 * @param y0 Die erste Zeile (Stufe 0)
+	 * @param x1 Die letzte Spalte (Stufe 0)
+	 * @param y1 Die letzte Zeile (Stufe 0)
+	 * @param nearest Die nächste Tiefe des Objektes
+	 * @return {@link #OCCLUDED}, {@link #VISIBLE} oder {@link #UNDECIDED}
+	 */
+	private int testLevel(final int level, final int x0, final int y0, final int x1, final int y1, final float nearest) {
+		final float[] max = maxDepth[level], min = minDepth[level];
+		final int w = levelWidth[level];
+
+		boolean occluded = true, inFront = true;
+		for (int y = y0 >> level, yEnd = y1 >> level; y <= yEnd; ++y) {
+			for (int x = x0 >> level, xEnd = x1 >> level, o = y * w + x; x <= xEnd; ++x, ++o) {
+				if (nearest <= max[o]) {
+					if (level == 0) return VISIBLE;
+					occluded = false;
+				}
+				if (nearest > min[o]) inFront = false;
+				if (!occluded && !inFront) return UNDECIDED;
+			}
+		}
+		return occluded ? OCCLUDED : inFront ? VISIBLE : UNDECIDED;
+	}
+
+	/**
+	 * Testet eine Reihe von Boxen und löscht die Bits verdeckter Boxen
+	 * <p/>
+	 * Es werden nur Boxen getestet, deren Bit gesetzt ist, z.B. nach {@link FrustumCuller#cullBoxes}.
+	 *
+	 * @param minX Die minimalen X-Koordinaten der Boxen
+	 * @param minY Die minimalen Y-Koordinaten der Boxen
+	 * @param minZ Die minimalen Z-Koordinaten der Boxen
+	 * @param maxX Die maximalen X-Koordinaten der Boxen
+	 * @param maxY Die maximalen Y-Koordinaten der Boxen
+	 * @param maxZ Die maximalen Z-Koordinaten der Boxen
+	 * @param count Die Anzahl der Boxen
+	 * @param visible Die Bitmenge der sichtbaren Boxen (siehe {@link FrustumCuller})
+	 * @return Die Anzahl der verbleibenden sichtbaren Boxen
+	 */
+	public int cull(@NotNull final float[] minX, @NotNull final float[] minY, @NotNull final float[] minZ,
+	                @NotNull final float[] maxX, @NotNull final float[] maxY, @NotNull final float[] maxZ,
+	                final int count, @NotNull final long[] visible) {
+		int found = 0;
+		for (int word = 0, words = FrustumCuller.getWordCount(count); word < words; ++word) {
+			long bits = visible[word];
+			long remaining = bits;
+			final int base = word << 6;
+			while (remaining != 0) {
+				final int bit = Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+
+				final int i = base + bit;
+				if (isOccluded(minX[i], minY[i], minZ[i], maxX[i], maxY[i], maxZ[i])) bits &= ~(1L << bit);
+			}
+			visible[word] = bits;
+			found += Long.bitCount(bits);
+		}
+		return found;
+	}
+
+	/**
+	 * Stellt die Größe des Dreieckspuffers sicher
+	 *
+	 * @param count Die benötigte Anzahl an Dreiecken
+	 */
+	private void ensureTriangleCapacity(final int count) {
+		if (triangles.length >= count * TRIANGLE_STRIDE) return;
+		triangles = Arrays.copyOf(triangles, Math.max(count, triangles.length / TRIANGLE_STRIDE * 2) * TRIANGLE_STRIDE);
+	}
+}
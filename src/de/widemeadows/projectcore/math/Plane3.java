@@ -5,6 +5,7 @@ import de.widemeadows.projectcore.cache.ObjectFactory;
 import de.widemeadows.projectcore.cache.ThreadLocalObjectCache;
 import de.widemeadows.projectcore.cache.annotations.ReturnsCachedValue;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Eine Ebene, die durch Punkt und Normale definiert ist
@@ -236,10 +237,43 @@ public final class Plane3 {
      */
     @NotNull
     public Plane3 set(@NotNull final Plane3 plane) {
-        set(plane._normal, plane._distanceToOrigin);
+        _normal.set(plane._normal);
+        _distanceToOrigin = plane._distanceToOrigin;
         return this;
     }
 
+    /**
+     * Definiert die Plane über die Koeffizienten der Gleichung <code>a*x + b*y + c*z + d = 0</code>
+     * <p/>
+     * Die Koeffizienten werden so normiert, dass die Normale Einheitslänge hat.
+     *
+     * @param a Die X-Komponente der Normalen
+     * @param b Die Y-Komponente der Normalen
+     * @param c Die Z-Komponente der Normalen
+     * @param d Der Abstandsterm, wie ihn {@link #getDistanceFromOrigin()} liefert
+     * @return Diese Instanz für method chaining
+     */
+    @NotNull
+    public Plane3 set(final float a, final float b, final float c, final float d) {
+        final float length = (float)Math.sqrt(a * a + b * b + c * c);
+        assert length > 0;
+
+        final float invLength = 1.0f / length;
+        _normal.set(a * invLength, b * invLength, c * invLength);
+        _distanceToOrigin = d * invLength;
+        return this;
+    }
+
+	/**
+	 * Liefert die Normale dieser Plane
+	 *
+	 * @return Die Referenz auf die Normale; darf nicht verändert werden
+	 */
+	@NotNull
+	public Vector3 getNormal() {
+		return _normal;
+	}
+
 	/**
 	 * Ermittelt die Distanz eines Punktes zur Ebene
      * 
@@ -261,9 +295,51 @@ public final class Plane3 {
 		return "{dist: "+_distanceToOrigin+", normal: " + _normal+"}";
 	}
 
-	/*
+	/**
+	 * Schneidet einen Strahl mit der Ebene
+	 *
+	 * @param ray Der Strahl
+	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Ebene nicht trifft, ansonsten die Distanz vom Ursprung des Strahles
+	 * @see #getIntersectionF(Ray3, float, float, RayHit)
+	 */
 	public float getIntersectionF(@NotNull final Ray3 ray) {
+		return getIntersectionF(ray, 0, Float.POSITIVE_INFINITY, null);
+	}
+
+	/**
+	 * Schneidet einen Strahl mit der Ebene
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Ebene nicht innerhalb der Range trifft, ansonsten die Distanz vom Ursprung des Strahles
+	 * @see #getIntersectionF(Ray3, float, float, RayHit)
+	 */
+	public float getIntersectionF(@NotNull final Ray3 ray, final float nearBound, final float farBound) {
+		return getIntersectionF(ray, nearBound, farBound, null);
+	}
+
+	/**
+	 * Schneidet einen Strahl mit der Ebene
+	 * <p/>
+	 * Die Ebene wird von beiden Seiten getroffen; parallel verlaufende Strahlen treffen nie. Als Normale wird
+	 * die Normale der Ebene geliefert.
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @param hit Empfängt bei einem Treffer Distanz und Normale oder <code>null</code>
+	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Ebene nicht innerhalb der Range trifft, ansonsten die Distanz vom Ursprung des Strahles
+	 */
+	public float getIntersectionF(@NotNull final Ray3 ray, final float nearBound, final float farBound, @Nullable final RayHit hit) {
+		final Vector3 n = _normal, o = ray.origin, d = ray.direction;
+		final float denominator = n.x * d.x + n.y * d.y + n.z * d.z;
+		if (denominator == 0) return Float.NaN;
+
+		final float t = -(n.x * o.x + n.y * o.y + n.z * o.z + _distanceToOrigin) / denominator;
+		if (!(t >= nearBound && t <= farBound)) return Float.NaN;
 
+		if (hit != null) hit.set(t, t, n.x, n.y, n.z);
+		return t;
 	}
-	*/
 }
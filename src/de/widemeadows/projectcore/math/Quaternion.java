@@ -0,0 +1,763 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.cache.IObjectCache;
+import de.widemeadows.projectcore.cache.ObjectFactory;
+import de.widemeadows.projectcore.cache.ThreadLocalObjectCache;
+import de.widemeadows.projectcore.cache.annotations.ReturnsCachedValue;
+import de.widemeadows.projectcore.math.mock.FloatMath;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Einheitsquaternion zur Darstellung von Rotationen
+ * <p>
+ *     Neue Objekte werden erzeugt mittels {@link #createNew()}; Nicht länger benötigte Objekte sollten per
+ *     {@link #recycle(Quaternion)} zurückgegeben werden.
+ * </p>
+ *
+ * <h3>Konventionen</h3>
+ * Die Multiplikation <code>a * b</code> entspricht der Rotation <code>b</code>, gefolgt von der
+ * Rotation <code>a</code> (im Weltsystem), bzw. der Rotation <code>a</code>, gefolgt von der Rotation
+ * <code>b</code> um die lokalen Achsen von <code>a</code>.
+ * <p/>
+ * Das 3x3-Layout entspricht dem des {@link de.widemeadows.projectcore.transformation.TransformationState}:
+ * Zeilenweise abgelegt, Anwendung auf Spaltenvektoren (<code>v' = R * v</code>).
+ * {@link Matrix4} verwendet Zeilenvektoren und enthält daher die Transponierte.
+ */
+public final class Quaternion {
+
+	/**
+	 * Instanz, die die Verwaltung nicht länger benötigter Instanzen übernimmt
+	 */
+	public static final IObjectCache<Quaternion> Cache = new ThreadLocalObjectCache<Quaternion>(new ObjectFactory<Quaternion>() {
+		@NotNull
+		@Override
+		public Quaternion createNew() {
+			return new Quaternion();
+		}
+	});
+
+	/**
+	 * Erzeugt eine neue Quaternion-Instanz und initialisiert sie auf die Identität
+	 *
+	 * @return Das neue oder aufbereitete Quaternion
+	 * @see #Cache
+	 */
+	@NotNull
+	public static Quaternion createNew() {
+		return Cache.getOrCreate().toIdentity();
+	}
+
+	/**
+	 * Erzeugt eine neue Quaternion-Instanz.
+	 *
+	 * @param x X-Komponente (Vektoranteil)
+	 * @param y Y-Komponente (Vektoranteil)
+	 * @param z Z-Komponente (Vektoranteil)
+	 * @param w W-Komponente (Skalaranteil)
+	 * @return Das neue oder aufbereitete Quaternion
+	 * @see #Cache
+	 */
+	@NotNull
+	public static Quaternion createNew(final float x, final float y, final float z, final float w) {
+		return Cache.getOrCreate().set(x, y, z, w);
+	}
+
+	/**
+	 * Kopierkonstruktor. Erzeugt eine neue Quaternion-Instanz.
+	 *
+	 * @param other Das zu kopierende Quaternion
+	 * @return Das neue oder aufbereitete Quaternion
+	 * @see #Cache
+	 */
+	@NotNull
+	public static Quaternion createNew(@NotNull final Quaternion other) {
+		return Cache.getOrCreate().set(other);
+	}
+
+	/**
+	 * Registriert ein Quaternion für das spätere Cache
+	 *
+	 * @param quaternion Das zu registrierende Quaternion
+	 * @see #Cache
+	 * @see Quaternion#recycle()
+	 */
+	public static void recycle(@NotNull final Quaternion quaternion) {
+		Cache.registerElement(quaternion);
+	}
+
+	/**
+	 * Registriert dieses Quaternion für das spätere Cache
+	 *
+	 * @see #Cache
+	 * @see Quaternion#recycle(Quaternion)
+	 */
+	public void recycle() {
+		Cache.registerElement(this);
+	}
+
+	/**
+	 * Die Identität {0, 0, 0, 1}
+	 */
+	@NotNull
+	public static final Quaternion IDENTITY = new Quaternion();
+
+	/**
+	 * Schwellwert des Punktproduktes, ab dem {@link #slerpInPlace(Quaternion, float)} linear interpoliert
+	 */
+	private static final float SLERP_THRESHOLD = 0.9995f;
+
+	/**
+	 * X-Komponente (Vektoranteil)
+	 */
+	public float x = 0.f;
+
+	/**
+	 * Y-Komponente (Vektoranteil)
+	 */
+	public float y = 0.f;
+
+	/**
+	 * Z-Komponente (Vektoranteil)
+	 */
+	public float z = 0.f;
+
+	/**
+	 * W-Komponente (Skalaranteil)
+	 */
+	public float w = 1.f;
+
+	/**
+	 * Erzeugt ein neues Identitätsquaternion
+	 *
+	 * @see #createNew()
+	 */
+	private Quaternion() {
+	}
+
+	/**
+	 * Setzt alle Werte des Quaternions
+	 *
+	 * @param x X-Komponente (Vektoranteil)
+	 * @param y Y-Komponente (Vektoranteil)
+	 * @param z Z-Komponente (Vektoranteil)
+	 * @param w W-Komponente (Skalaranteil)
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion set(final float x, final float y, final float z, final float w) {
+		this.x = x; this.y = y; this.z = z; this.w = w;
+		return this;
+	}
+
+	/**
+	 * Übernimmt die Werte eines anderen Quaternions
+	 *
+	 * @param other Das zu kopierende Quaternion
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion set(@NotNull final Quaternion other) {
+		x = other.x; y = other.y; z = other.z; w = other.w;
+		return this;
+	}
+
+	/**
+	 * Setzt das Quaternion auf die Identität
+	 *
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion toIdentity() {
+		x = 0; y = 0; z = 0; w = 1;
+		return this;
+	}
+
+	/**
+	 * Setzt das Quaternion auf eine Rotation um eine Achse
+	 *
+	 * @param axis Die (normalisierte) Achse
+	 * @param theta Der Winkel in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion setAxisAngle(@NotNull final Vector3 axis, final float theta) {
+		final float half = theta * 0.5f;
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(half, sinCos, 0);
+		final float s = sinCos[0];
+		return set(axis.x * s, axis.y * s, axis.z * s, sinCos[1]);
+	}
+
+	/**
+	 * Setzt das Quaternion auf eine Rotation um die X-Achse
+	 *
+	 * @param theta Der Winkel in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion setRotationX(final float theta) {
+		final float half = theta * 0.5f;
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(half, sinCos, 0);
+		return set(sinCos[0], 0, 0, sinCos[1]);
+	}
+
+	/**
+	 * Setzt das Quaternion auf eine Rotation um die Y-Achse
+	 *
+	 * @param theta Der Winkel in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion setRotationY(final float theta) {
+		final float half = theta * 0.5f;
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(half, sinCos, 0);
+		return set(0, sinCos[0], 0, sinCos[1]);
+	}
+
+	/**
+	 * Setzt das Quaternion auf eine Rotation um die Z-Achse
+	 *
+	 * @param theta Der Winkel in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion setRotationZ(final float theta) {
+		final float half = theta * 0.5f;
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(half, sinCos, 0);
+		return set(0, 0, sinCos[0], sinCos[1]);
+	}
+
+	/**
+	 * Setzt das Quaternion gemäß Euler Roll-Pitch-Yaw.
+	 * <p/>
+	 * Es wird erst um X-, dann um Y- und zuletzt um Z-Achse rotiert.
+	 *
+	 * @param rollX  Der Rollwinkel (Rotation um X) in radians
+	 * @param pitchY Der Nickwinkel (Rotation um Y) in radians
+	 * @param yawZ   Der Gierwinkel (Rotation um Z) in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion setRotationRPY(final float rollX, final float pitchY, final float yawZ) {
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(rollX * 0.5f, sinCos, 0);
+		final float cr = sinCos[1];
+		final float sr = sinCos[0];
+		Trigonometry.sinCos(pitchY * 0.5f, sinCos, 2);
+		final float cp = sinCos[3];
+		final float sp = sinCos[2];
+		Trigonometry.sinCos(yawZ * 0.5f, sinCos, 4);
+		final float cy = sinCos[5];
+		final float sy = sinCos[4];
+
+		final float cpcy = cp * cy;
+		final float spsy = sp * sy;
+		final float cpsy = cp * sy;
+		final float spcy = sp * cy;
+
+		return set(
+				sr * cpcy - cr * spsy,
+				cr * spcy + sr * cpsy,
+				cr * cpsy - sr * spcy,
+				cr * cpcy + sr * spsy);
+	}
+
+	/**
+	 * Rotiert um die lokale X-Achse, entspricht <code>this * rotX(theta)</code>.
+	 * <p/>
+	 * Benötigt lediglich acht Multiplikationen.
+	 *
+	 * @param theta Der Winkel in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion rotateX(final float theta) {
+		final float half = theta * 0.5f;
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(half, sinCos, 0);
+		final float c = sinCos[1];
+		final float s = sinCos[0];
+		return set(
+				w * s + x * c,
+				y * c + z * s,
+				z * c - y * s,
+				w * c - x * s);
+	}
+
+	/**
+	 * Rotiert um die lokale Y-Achse, entspricht <code>this * rotY(theta)</code>.
+	 * <p/>
+	 * Benötigt lediglich acht Multiplikationen.
+	 *
+	 * @param theta Der Winkel in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion rotateY(final float theta) {
+		final float half = theta * 0.5f;
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(half, sinCos, 0);
+		final float c = sinCos[1];
+		final float s = sinCos[0];
+		return set(
+				x * c - z * s,
+				w * s + y * c,
+				z * c + x * s,
+				w * c - y * s);
+	}
+
+	/**
+	 * Rotiert um die lokale Z-Achse, entspricht <code>this * rotZ(theta)</code>.
+	 * <p/>
+	 * Benötigt lediglich acht Multiplikationen.
+	 *
+	 * @param theta Der Winkel in radians
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion rotateZ(final float theta) {
+		final float half = theta * 0.5f;
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(half, sinCos, 0);
+		final float c = sinCos[1];
+		final float s = sinCos[0];
+		return set(
+				x * c + y * s,
+				y * c - x * s,
+				w * s + z * c,
+				w * c - z * s);
+	}
+
+	/**
+	 * Multipliziert dieses Quaternion mit einem zweiten und liefert das Ergebnis.
+	 * Dieses Quaternion wird nicht modifiziert.
+	 *
+	 * @param b Das zweite Quaternion (rechter Operand)
+	 * @return Das Produkt <code>this * b</code> (Kopie!)
+	 * @see #mulInPlace(Quaternion)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Quaternion mul(@NotNull final Quaternion b) {
+		return createNew(this).mulInPlace(b);
+	}
+
+	/**
+	 * Multipliziert dieses Quaternion von rechts mit einem zweiten (16 Multiplikationen)
+	 *
+	 * @param b Das zweite Quaternion (rechter Operand)
+	 * @return Diese Instanz für method chaining
+	 * @see #mul(Quaternion)
+	 * @see #mulFromLeftInPlace(Quaternion)
+	 */
+	@NotNull
+	public Quaternion mulInPlace(@NotNull final Quaternion b) {
+		final float nx = w * b.x + x * b.w + y * b.z - z * b.y;
+		final float ny = w * b.y - x * b.z + y * b.w + z * b.x;
+		final float nz = w * b.z + x * b.y - y * b.x + z * b.w;
+		final float nw = w * b.w - x * b.x - y * b.y - z * b.z;
+		return set(nx, ny, nz, nw);
+	}
+
+	/**
+	 * Multipliziert dieses Quaternion von links mit einem zweiten, so dass gilt: <code>this = a * this</code>
+	 *
+	 * @param a Das zweite Quaternion (linker Operand)
+	 * @return Diese Instanz für method chaining
+	 * @see #mulInPlace(Quaternion)
+	 */
+	@NotNull
+	public Quaternion mulFromLeftInPlace(@NotNull final Quaternion a) {
+		final float nx = a.w * x + a.x * w + a.y * z - a.z * y;
+		final float ny = a.w * y - a.x * z + a.y * w + a.z * x;
+		final float nz = a.w * z + a.x * y - a.y * x + a.z * w;
+		final float nw = a.w * w - a.x * x - a.y * y - a.z * z;
+		return set(nx, ny, nz, nw);
+	}
+
+	/**
+	 * Berechnet das Punktprodukt zweier Quaternionen
+	 *
+	 * @param b Das zweite Quaternion
+	 * @return Das Punktprodukt
+	 */
+	public float dot(@NotNull final Quaternion b) {
+		return x * b.x + y * b.y + z * b.z + w * b.w;
+	}
+
+	/**
+	 * Ermittelt die quadrierte Länge des Quaternions
+	 *
+	 * @return Die quadrierte Länge
+	 * @see #getLength()
+	 */
+	public float getLengthSquared() {
+		return x * x + y * y + z * z + w * w;
+	}
+
+	/**
+	 * Ermittelt die Länge des Quaternions
+	 *
+	 * @return Die Länge
+	 * @see #getLengthSquared()
+	 */
+	public float getLength() {
+		return FloatMath.sqrt(x * x + y * y + z * z + w * w);
+	}
+
+	/**
+	 * Normalisiert dieses Quaternion
+	 *
+	 * @return Diese Instanz für method chaining
+	 * @see #normalizeFast()
+	 */
+	@NotNull
+	public Quaternion normalize() {
+		final float invLength = 1.0f / getLength();
+		x *= invLength;
+		y *= invLength;
+		z *= invLength;
+		w *= invLength;
+		return this;
+	}
+
+	/**
+	 * Renormalisiert ein nahezu normiertes Quaternion ohne Wurzel und Division.
+	 * <p/>
+	 * Verwendet die Näherung erster Ordnung <code>1/sqrt(l) ~ (3 - l) / 2</code> um <code>l = 1</code> und eignet
+	 * sich damit, um die numerische Drift nach inkrementellen Rotationen abzufangen.
+	 *
+	 * @return Diese Instanz für method chaining
+	 * @see #normalize()
+	 */
+	@NotNull
+	public Quaternion normalizeFast() {
+		final float factor = (3.0f - getLengthSquared()) * 0.5f;
+		x *= factor;
+		y *= factor;
+		z *= factor;
+		w *= factor;
+		return this;
+	}
+
+	/**
+	 * Bezieht eine normalisierte Kopie dieses Quaternions
+	 *
+	 * @return Das normalisierte Quaternion (Kopie!)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Quaternion getNormalized() {
+		return createNew(this).normalize();
+	}
+
+	/**
+	 * Konjugiert dieses Quaternion. Für Einheitsquaternionen entspricht dies der Inversen.
+	 *
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion conjugate() {
+		x = -x;
+		y = -y;
+		z = -z;
+		return this;
+	}
+
+	/**
+	 * Bezieht eine konjugierte Kopie dieses Quaternions
+	 *
+	 * @return Das konjugierte Quaternion (Kopie!)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Quaternion getConjugated() {
+		return createNew(-x, -y, -z, w);
+	}
+
+	/**
+	 * Interpoliert normalisiert-linear zwischen diesem und einem zweiten Quaternion
+	 * und liefert das Ergebnis. Dieses Quaternion wird nicht modifiziert.
+	 *
+	 * @param to Das Zielquaternion
+	 * @param t Der Interpolationsfaktor (0..1)
+	 * @return Das interpolierte Quaternion (Kopie!)
+	 * @see #nlerpInPlace(Quaternion, float)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Quaternion nlerp(@NotNull final Quaternion to, final float t) {
+		return createNew(this).nlerpInPlace(to, t);
+	}
+
+	/**
+	 * Interpoliert normalisiert-linear zwischen diesem und einem zweiten Quaternion.
+	 * <p/>
+	 * Es wird stets der kürzere Weg gewählt. Die Winkelgeschwindigkeit ist nicht konstant,
+	 * dafür ist diese Variante deutlich günstiger als {@link #slerpInPlace(Quaternion, float)}.
+	 *
+	 * @param to Das Zielquaternion
+	 * @param t Der Interpolationsfaktor (0..1)
+	 * @return Diese Instanz für method chaining
+	 * @see #slerpInPlace(Quaternion, float)
+	 */
+	@NotNull
+	public Quaternion nlerpInPlace(@NotNull final Quaternion to, final float t) {
+		final float s = 1.0f - t;
+		final float u = dot(to) < 0 ? -t : t;
+		set(s * x + u * to.x, s * y + u * to.y, s * z + u * to.z, s * w + u * to.w);
+		return normalize();
+	}
+
+	/**
+	 * Interpoliert sphärisch-linear zwischen diesem und einem zweiten Quaternion
+	 * und liefert das Ergebnis. Dieses Quaternion wird nicht modifiziert.
+	 *
+	 * @param to Das Zielquaternion
+	 * @param t Der Interpolationsfaktor (0..1)
+	 * @return Das interpolierte Quaternion (Kopie!)
+	 * @see #slerpInPlace(Quaternion, float)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Quaternion slerp(@NotNull final Quaternion to, final float t) {
+		return createNew(this).slerpInPlace(to, t);
+	}
+
+	/**
+	 * Interpoliert sphärisch-linear zwischen diesem und einem zweiten Quaternion.
+	 * <p/>
+	 * Es wird stets der kürzere Weg gewählt. Liegen beide Quaternionen sehr dicht beieinander,
+	 * wird auf {@link #nlerpInPlace(Quaternion, float)} zurückgegriffen.
+	 *
+	 * @param to Das Zielquaternion
+	 * @param t Der Interpolationsfaktor (0..1)
+	 * @return Diese Instanz für method chaining
+	 * @see #nlerpInPlace(Quaternion, float)
+	 */
+	@NotNull
+	public Quaternion slerpInPlace(@NotNull final Quaternion to, final float t) {
+		float cosTheta = dot(to);
+		float sign = 1.0f;
+		if (cosTheta < 0) {
+			cosTheta = -cosTheta;
+			sign = -1.0f;
+		}
+
+		// Nahezu identisch: linear interpolieren, um Division durch ~0 zu vermeiden
+		if (cosTheta > SLERP_THRESHOLD) {
+			return nlerpInPlace(to, t);
+		}
+
+		final float theta = (float) Math.acos(cosTheta);
+		final float invSinTheta = 1.0f / Trigonometry.sin(theta);
+		final float s = Trigonometry.sin((1.0f - t) * theta) * invSinTheta;
+		final float u = Trigonometry.sin(t * theta) * invSinTheta * sign;
+		return set(s * x + u * to.x, s * y + u * to.y, s * z + u * to.z, s * w + u * to.w);
+	}
+
+	/**
+	 * Rotiert einen Vektor mittels dieses (normierten) Quaternions
+	 *
+	 * @param vector Der zu rotierende Vektor
+	 */
+	public void transformInPlace(@NotNull final Vector3 vector) {
+		// t = 2 * (q.xyz x v); v' = v + w*t + q.xyz x t
+		final float tx = 2.0f * (y * vector.z - z * vector.y);
+		final float ty = 2.0f * (z * vector.x - x * vector.z);
+		final float tz = 2.0f * (x * vector.y - y * vector.x);
+		vector.set(
+				vector.x + w * tx + (y * tz - z * ty),
+				vector.y + w * ty + (z * tx - x * tz),
+				vector.z + w * tz + (x * ty - y * tx));
+	}
+
+	/**
+	 * Rotiert einen Vektor mittels dieses (normierten) Quaternions
+	 *
+	 * @param vector Der zu rotierende Vektor
+	 * @return Der rotierte Vektor (Kopie!)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Vector3 transform(@NotNull final Vector3 vector) {
+		final Vector3 result = Vector3.createNew(vector);
+		transformInPlace(result);
+		return result;
+	}
+
+	/**
+	 * Schreibt die Rotation in eine zeilenweise abgelegte 3x3-Matrix für Spaltenvektoren
+	 * (Layout des {@link de.widemeadows.projectcore.transformation.TransformationState}).
+	 *
+	 * @param matrix Die Zielmatrix (mindestens neun Elemente)
+	 */
+	public void toMatrix3x3(@NotNull final float[] matrix) {
+		assert matrix.length >= 9;
+
+		final float x2 = x + x, y2 = y + y, z2 = z + z;
+		final float xx = x * x2, yy = y * y2, zz = z * z2;
+		final float xy = x * y2, xz = x * z2, yz = y * z2;
+		final float wx = w * x2, wy = w * y2, wz = w * z2;
+
+		matrix[0] = 1.0f - (yy + zz);
+		matrix[1] = xy - wz;
+		matrix[2] = xz + wy;
+
+		matrix[3] = xy + wz;
+		matrix[4] = 1.0f - (xx + zz);
+		matrix[5] = yz - wx;
+
+		matrix[6] = xz - wy;
+		matrix[7] = yz + wx;
+		matrix[8] = 1.0f - (xx + yy);
+	}
+
+	/**
+	 * Schreibt die Rotation in eine {@link Matrix4}. Die Translation wird auf null gesetzt.
+	 *
+	 * @param matrix Die Zielmatrix
+	 * @return Die Zielmatrix für method chaining
+	 */
+	@NotNull
+	public Matrix4 toMatrix4(@NotNull final Matrix4 matrix) {
+		final float x2 = x + x, y2 = y + y, z2 = z + z;
+		final float xx = x * x2, yy = y * y2, zz = z * z2;
+		final float xy = x * y2, xz = x * z2, yz = y * z2;
+		final float wx = w * x2, wy = w * y2, wz = w * z2;
+
+		// Matrix4 arbeitet mit Zeilenvektoren und enthält daher die Transponierte
+		return matrix.set(
+				1.0f - (yy + zz), xy + wz, xz - wy, 0.0f,
+				xy - wz, 1.0f - (xx + zz), yz + wx, 0.0f,
+				xz + wy, yz - wx, 1.0f - (xx + yy), 0.0f,
+				0.0f, 0.0f, 0.0f, 1.0f);
+	}
+
+	/**
+	 * Erzeugt eine {@link Matrix4} aus der Rotation dieses Quaternions
+	 *
+	 * @return Die Rotationsmatrix
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Matrix4 toMatrix4() {
+		return toMatrix4(Matrix4.createNew(false));
+	}
+
+	/**
+	 * Setzt das Quaternion aus einer zeilenweise abgelegten 3x3-Rotationsmatrix für Spaltenvektoren
+	 * (Layout des {@link de.widemeadows.projectcore.transformation.TransformationState}).
+	 *
+	 * @param matrix Die orthonormale Rotationsmatrix
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion setFromMatrix3x3(@NotNull final float[] matrix) {
+		assert matrix.length >= 9;
+		return setFromRotation(
+				matrix[0], matrix[1], matrix[2],
+				matrix[3], matrix[4], matrix[5],
+				matrix[6], matrix[7], matrix[8]);
+	}
+
+	/**
+	 * Setzt das Quaternion aus dem Rotationsanteil einer {@link Matrix4}
+	 *
+	 * @param matrix Die Matrix (orthonormaler 3x3-Anteil, keine Skalierung)
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	public Quaternion set(@NotNull final Matrix4 matrix) {
+		final float[] m = matrix.values;
+
+		// Zeilenvektor-Matrix transponiert auslesen
+		return setFromRotation(
+				m[Matrix4.M11], m[Matrix4.M21], m[Matrix4.M31],
+				m[Matrix4.M12], m[Matrix4.M22], m[Matrix4.M32],
+				m[Matrix4.M13], m[Matrix4.M23], m[Matrix4.M33]);
+	}
+
+	/**
+	 * Setzt das Quaternion aus den Elementen einer Rotationsmatrix für Spaltenvektoren
+	 * (Shepperd-Verfahren, numerisch stabil für alle Spuren)
+	 *
+	 * @param r00 Zeile 1, Spalte 1
+	 * @param r01 Zeile 1, Spalte 2
+	 * @param r02 Zeile 1, Spalte 3
+	 * @param r10 Zeile 2, Spalte 1
+	 * @param r11 Zeile 2, Spalte 2
+	 * @param r12 Zeile 2, Spalte 3
+	 * @param r20 Zeile 3, Spalte 1
+	 * @param r21 Zeile 3, Spalte 2
+	 * @param r22 Zeile 3, Spalte 3
+	 * @return Diese Instanz für method chaining
+	 */
+	@NotNull
+	private Quaternion setFromRotation(final float r00, final float r01, final float r02,
+	                                   final float r10, final float r11, final float r12,
+	                                   final float r20, final float r21, final float r22) {
+		final float trace = r00 + r11 + r22;
+		if (trace > 0) {
+			final float s = 0.5f / FloatMath.sqrt(trace + 1.0f);
+			return set((r21 - r12) * s, (r02 - r20) * s, (r10 - r01) * s, 0.25f / s);
+		}
+		else if (r00 > r11 && r00 > r22) {
+			final float s = 2.0f * FloatMath.sqrt(1.0f + r00 - r11 - r22);
+			final float invS = 1.0f / s;
+			return set(0.25f * s, (r01 + r10) * invS, (r02 + r20) * invS, (r21 - r12) * invS);
+		}
+		else if (r11 > r22) {
+			final float s = 2.0f * FloatMath.sqrt(1.0f + r11 - r00 - r22);
+			final float invS = 1.0f / s;
+			return set((r01 + r10) * invS, 0.25f * s, (r12 + r21) * invS, (r02 - r20) * invS);
+		}
+		else {
+			final float s = 2.0f * FloatMath.sqrt(1.0f + r22 - r00 - r11);
+			final float invS = 1.0f / s;
+			return set((r02 + r20) * invS, (r12 + r21) * invS, 0.25f * s, (r10 - r01) * invS);
+		}
+	}
+
+	/**
+	 * Vergleicht dieses Quaternion mit einem anderen unter Beachtung eines Deltawertes.
+	 * <p/>
+	 * <code>q</code> und <code>-q</code> beschreiben dieselbe Rotation, werden hier jedoch als verschieden betrachtet.
+	 *
+	 * @param other Das Vergleichsquaternion
+	 * @param epsilon Der Deltawert
+	 * @return <code>true</code>, wenn beide Quaternionen identisch sind
+	 */
+	public boolean equals(@NotNull final Quaternion other, final float epsilon) {
+		return this == other ||
+				(Math.abs(other.x - x) <= epsilon &&
+				 Math.abs(other.y - y) <= epsilon &&
+				 Math.abs(other.z - z) <= epsilon &&
+				 Math.abs(other.w - w) <= epsilon);
+	}
+
+	/**
+	 * Erzeugt eine identische Kopie
+	 *
+	 * @return Die Kopie
+	 */
+	@NotNull
+	@Override
+	@ReturnsCachedValue
+	public Quaternion clone() {
+		return createNew(this);
+	}
+
+	/**
+	 * Stringify
+	 *
+	 * @return Der String
+	 */
+	@Override
+	public String toString() {
+		return "{" + x + "; " + y + "; " + z + "; " + w + "}";
+	}
+}
@@ -6,6 +6,7 @@ import de.widemeadows.projectcore.cache.ThreadLocalObjectCache;
 import de.widemeadows.projectcore.cache.annotations.ReturnsCachedValue;
 import de.widemeadows.projectcore.transformation.TransformationState;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Strahl im 3D-Raum, bestehend aus projectPointg und Richtung
@@ -254,10 +255,18 @@ public final class Ray3 {
 	 */
 	@NotNull @ReturnsCachedValue
 	public Ray3 getInverted() {
-		Vector3 inverted = direction.getInverted();
-		Ray3 ray = Ray3.createNew(origin, inverted);
-		inverted.recycle();
-		return ray;
+		return getInverted(Ray3.createNew());
+	}
+
+	/**
+	 * Schreibt einen Strahl, der in die entgegengesetzte Richtung zeigt, in einen Zielstrahl
+	 *
+	 * @param target Der Zielstrahl (darf diese Instanz sein)
+	 * @return Der Zielstrahl für method chaining
+	 */
+	@NotNull
+	public Ray3 getInverted(@NotNull final Ray3 target) {
+		return target.set(origin.x, origin.y, origin.z, -direction.x, -direction.y, -direction.z);
 	}
 
 	/**
@@ -298,12 +307,22 @@ public final class Ray3 {
 	 */
 	@NotNull @ReturnsCachedValue
 	public Vector3 projectPoint(@NotNull final Vector3 point) {
-		// Richtung bestimmen und auf Richtungsvektor projizieren
-		Vector3 w = point.sub(origin);
-		Vector3 projected = direction.mul(w.dot(direction)); // TODO: Als static herausziehen, damit für diesen Test das Caching der anderen Werte nicht nötig ist
+		return projectPoint(point, Vector3.createNew());
+	}
 
-		w.recycle();
-		return projected;
+	/**
+	 * Projiziert einen Punkt auf den Strahl und schreibt das Ergebnis in einen Zielvektor
+	 *
+	 * @param point Der Punkt
+	 * @param target Der Zielvektor (darf der Punkt sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see #projectPoint(Vector3)
+	 */
+	@NotNull
+	public Vector3 projectPoint(@NotNull final Vector3 point, @NotNull final Vector3 target) {
+		// Richtung bestimmen und auf Richtungsvektor projizieren
+		final float distance = projectPointF(point);
+		return direction.mul(distance, target);
 	}
 
 	/**
@@ -314,10 +333,7 @@ public final class Ray3 {
 	 */
 	public float projectPointF(@NotNull final Vector3 point) {
 		// Richtung bestimmen und auf Richtungsvektor projizieren
-		Vector3 w = point.sub(origin);
-		float distance = w.dot(direction); // TODO: Als static herausziehen, damit für diesen Test das Caching der anderen Werte nicht nötig ist
-		w.recycle();
-		return distance;
+		return (point.x - origin.x) * direction.x + (point.y - origin.y) * direction.y + (point.z - origin.z) * direction.z;
 	}
 
 	/**
@@ -332,7 +348,94 @@ public final class Ray3 {
 	 */
 	@ReturnsCachedValue @NotNull
 	public Vector3 getPoint(final float t){
-		return direction.mul(t).addInPlace(origin);
+		return getPoint(t, Vector3.createNew());
+	}
+
+	/**
+	 * Schreibt einen Punkt auf dem Strahl anhand eines Skalars <code>t</code> in einen Zielvektor
+	 *
+	 * @param t Der Skalar
+	 * @param target Der Zielvektor
+	 * @return Der Zielvektor für method chaining
+	 * @see #getPoint(float)
+	 */
+	@NotNull
+	public Vector3 getPoint(final float t, @NotNull final Vector3 target) {
+		return target.set(direction.x * t + origin.x, direction.y * t + origin.y, direction.z * t + origin.z);
+	}
+
+	/**
+	 * Schneidet den Strahl mit einem Dreieck
+	 *
+	 * @param a Der erste Eckpunkt
+	 * @param b Der zweite Eckpunkt
+	 * @param c Der dritte Eckpunkt
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @param hit Empfängt bei einem Treffer Distanz, Normale und baryzentrische Koordinaten oder <code>null</code>
+	 * @return <code>{@link Float#NaN}</code>, wenn das Dreieck nicht innerhalb der Range getroffen wird, ansonsten die Distanz vom Ursprung des Strahles
+	 * @see #getTriangleIntersectionF(float, float, float, float, float, float, float, float, float, float, float, RayHit)
+	 */
+	public float getTriangleIntersectionF(@NotNull final Vector3 a, @NotNull final Vector3 b, @NotNull final Vector3 c,
+	                                      final float nearBound, final float farBound, @Nullable final RayHit hit) {
+		return getTriangleIntersectionF(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, nearBound, farBound, hit);
+	}
+
+	/**
+	 * Schneidet den Strahl mit einem Dreieck (Möller-Trumbore)
+	 * <p/>
+	 * Das Dreieck wird von beiden Seiten getroffen. Die Normale folgt der Umlaufrichtung
+	 * <code>(b - a) x (c - a)</code>; {@link RayHit#u} und {@link RayHit#v} sind die Gewichte von
+	 * <code>b</code> und <code>c</code>.
+	 *
+	 * @param ax Der erste Eckpunkt (X-Komponente)
+	 * @param ay Der erste Eckpunkt (Y-Komponente)
+	 * @param az Der erste Eckpunkt (Z-Komponente)
+	 * @param bx Der zweite Eckpunkt (X-Komponente)
+	 * @param by Der zweite Eckpunkt (Y-Komponente)
+	 * @param bz Der zweite Eckpunkt (Z-Komponente)
+	 * @param cx Der dritte Eckpunkt (X-Komponente)
+	 * @param cy Der dritte Eckpunkt (Y-Komponente)
+	 * @param cz Der dritte Eckpunkt (Z-Komponente)
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @param hit Empfängt bei einem Treffer Distanz, Normale und baryzentrische Koordinaten oder <code>null</code>
+	 * @return <code>{@link Float#NaN}</code>, wenn das Dreieck nicht innerhalb der Range getroffen wird, ansonsten die Distanz vom Ursprung des Strahles
+	 */
+	public float getTriangleIntersectionF(final float ax, final float ay, final float az,
+	                                      final float bx, final float by, final float bz,
+	                                      final float cx, final float cy, final float cz,
+	                                      final float nearBound, final float farBound, @Nullable final RayHit hit) {
+		final float dx = direction.x, dy = direction.y, dz = direction.z;
+		final float e1x = bx - ax, e1y = by - ay, e1z = bz - az;
+		final float e2x = cx - ax, e2y = cy - ay, e2z = cz - az;
+
+		// p = d x e2; Determinante 0 bedeutet einen parallelen Strahl
+		final float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+		final float determinant = e1x * px + e1y * py + e1z * pz;
+		if (determinant == 0) return Float.NaN;
+		final float invDeterminant = 1.0f / determinant;
+
+		final float sx = origin.x - ax, sy = origin.y - ay, sz = origin.z - az;
+		final float u = (sx * px + sy * py + sz * pz) * invDeterminant;
+		if (u < 0 || u > 1) return Float.NaN;
+
+		// q = s x e1
+		final float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+		final float v = (dx * qx + dy * qy + dz * qz) * invDeterminant;
+		if (v < 0 || u + v > 1) return Float.NaN;
+
+		final float t = (e2x * qx + e2y * qy + e2z * qz) * invDeterminant;
+		if (!(t >= nearBound && t <= farBound)) return Float.NaN;
+
+		if (hit != null) {
+			final float nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+			final float invLength = 1.0f / (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+			hit.set(t, t, nx * invLength, ny * invLength, nz * invLength);
+			hit.u = u;
+			hit.v = v;
+		}
+		return t;
 	}
 
 	/**
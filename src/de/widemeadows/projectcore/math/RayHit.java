@@ -0,0 +1,103 @@
+package de.widemeadows.projectcore.math;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Wiederverwendbares Ergebnis eines Strahltests
+ * <p/>
+ * Wird von den Schnittmethoden wie {@link Sphere#getIntersectionF(Ray3, float, float, RayHit)},
+ * {@link Plane3#getIntersectionF(Ray3, float, float, RayHit)},
+ * {@link AxisAlignedBox#getIntersectionF(Ray3, float, float, RayHit)} und
+ * {@link Ray3#getTriangleIntersectionF(Vector3, Vector3, Vector3, float, float, RayHit)} nur im Falle eines
+ * Treffers beschrieben. Eine Instanz pro Anfrage bzw. Thread genügt; es findet kein Zugriff auf Objekt-Caches
+ * statt.
+ */
+public final class RayHit {
+
+	/**
+	 * Die Distanz des gelieferten Treffers entlang des Strahls
+	 */
+	public float distance = Float.NaN;
+
+	/**
+	 * Die Distanz, an der der Strahl den Körper wieder verlässt; bei Ebenen und Dreiecken gleich {@link #distance}
+	 */
+	public float exitDistance = Float.NaN;
+
+	/**
+	 * Die nach außen zeigende Normale der Oberfläche am Treffer
+	 */
+	@NotNull
+	public final Vector3 normal = Vector3.createNew();
+
+	/**
+	 * Baryzentrische Koordinate zum zweiten Eckpunkt; nur bei Dreiecken gesetzt
+	 */
+	public float u;
+
+	/**
+	 * Baryzentrische Koordinate zum dritten Eckpunkt; nur bei Dreiecken gesetzt
+	 */
+	public float v;
+
+	/**
+	 * Setzt den Treffer zurück
+	 *
+	 * @return Dieselbe Instanz für method chaining
+	 */
+	@NotNull
+	public RayHit clear() {
+		distance = Float.NaN;
+		exitDistance = Float.NaN;
+		normal.set(0, 0, 0);
+		u = 0;
+		v = 0;
+		return this;
+	}
+
+	/**
+	 * Ermittelt, ob ein Treffer gespeichert ist
+	 *
+	 * @return <code>true</code>, wenn {@link #distance} gesetzt ist
+	 */
+	public boolean isHit() {
+		return !Float.isNaN(distance);
+	}
+
+	/**
+	 * Schreibt den Trefferpunkt in einen Zielvektor
+	 *
+	 * @param ray Der getestete Strahl
+	 * @param target Der Zielvektor
+	 * @return Der Zielvektor für method chaining
+	 */
+	@NotNull
+	public Vector3 getPoint(@NotNull final Ray3 ray, @NotNull final Vector3 target) {
+		return ray.getPoint(distance, target);
+	}
+
+	/**
+	 * Setzt Distanzen und Normale
+	 *
+	 * @param distance Die Distanz des Treffers
+	 * @param exitDistance Die Austrittsdistanz
+	 * @param normalX Die Normale (X-Komponente)
+	 * @param normalY Die Normale (Y-Komponente)
+	 * @param normalZ Die Normale (Z-Komponente)
+	 */
+	void set(final float distance, final float exitDistance, final float normalX, final float normalY, final float normalZ) {
+		this.distance = distance;
+		this.exitDistance = exitDistance;
+		this.normal.set(normalX, normalY, normalZ);
+	}
+
+	/**
+	 * Stringumwandlungs-Fu
+	 *
+	 * @return Le string
+	 */
+	@Override
+	public String toString() {
+		return "{distance: " + distance + ", exit: " + exitDistance + ", normal: " + normal + "}";
+	}
+}
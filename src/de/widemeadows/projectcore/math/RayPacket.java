@@ -0,0 +1,246 @@
+package de.widemeadows.projectcore.math;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bündel kohärenter Strahlen im SoA-Layout (z.B. 4, 8 oder 16 Strahlen eines Bildausschnittes)
+ * <p/>
+ * Ursprung, Richtung und reziproke Richtung liegen je Komponente in getrennten Arrays. Die Boxtests
+ * arbeiten auf einer Maske aktiver Strahlen (Bit <code>i</code> für Strahl <code>i</code>) und liefern die
+ * Maske der Strahlen, die die Box treffen; die Grenzen der Box werden dabei einmal für alle Strahlen geladen.
+ * Siehe {@link BoundingVolumeHierarchy#intersectClosest(RayPacket, float, float, BoundingVolumeHierarchy.PrimitiveIntersector, int[], float[])}
+ * für die Traversierung, bei der ein Knoten für das gesamte Bündel übersprungen wird, sobald kein Strahl ihn trifft.
+ * <p/>
+ * Eine Instanz darf nicht gleichzeitig aus mehreren Threads verwendet werden.
+ */
+public final class RayPacket {
+
+	/**
+	 * Die maximale Anzahl an Strahlen (Bits der Maske)
+	 */
+	public static final int MAX_SIZE = 32;
+
+	/**
+	 * Die Ursprünge der Strahlen
+	 */
+	@NotNull
+	public final float[] originX, originY, originZ;
+
+	/**
+	 * Die normalisierten Richtungen der Strahlen
+	 */
+	@NotNull
+	public final float[] directionX, directionY, directionZ;
+
+	/**
+	 * Die reziproken Richtungen der Strahlen
+	 */
+	@NotNull
+	public final float[] invDirectionX, invDirectionY, invDirectionZ;
+
+	/**
+	 * Eintrittsdistanzen des letzten Boxtests je Strahl für die Traversierung
+	 */
+	@NotNull
+	final float[] entry;
+
+	/**
+	 * Die Anzahl der belegten Strahlen
+	 */
+	private int size;
+
+	/**
+	 * Erzeugt ein leeres Bündel
+	 *
+	 * @param capacity Die maximale Anzahl an Strahlen (1..{@link #MAX_SIZE})
+	 */
+	public RayPacket(final int capacity) {
+		if (capacity < 1 || capacity > MAX_SIZE) throw new IllegalArgumentException("capacity must be in 1.." + MAX_SIZE);
+		originX = new float[capacity];
+		originY = new float[capacity];
+		originZ = new float[capacity];
+		directionX = new float[capacity];
+		directionY = new float[capacity];
+		directionZ = new float[capacity];
+		invDirectionX = new float[capacity];
+		invDirectionY = new float[capacity];
+		invDirectionZ = new float[capacity];
+		entry = new float[capacity];
+	}
+
+	/**
+	 * Liefert die maximale Anzahl an Strahlen
+	 *
+	 * @return Die Kapazität
+	 */
+	public int getCapacity() {
+		return originX.length;
+	}
+
+	/**
+	 * Liefert die Anzahl der belegten Strahlen
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Setzt die Anzahl der belegten Strahlen
+	 *
+	 * @param size Die Anzahl (0..Kapazität)
+	 * @return Dieselbe Instanz für method chaining
+	 */
+	@NotNull
+	public RayPacket setSize(final int size) {
+		assert size >= 0 && size <= getCapacity();
+		this.size = size;
+		return this;
+	}
+
+	/**
+	 * Liefert die Maske aller belegten Strahlen
+	 *
+	 * @return Die Maske
+	 */
+	public int getActiveMask() {
+		return size == MAX_SIZE ? -1 : (1 << size) - 1;
+	}
+
+	/**
+	 * Übernimmt einen Strahl; die Anzahl wächst bei Bedarf
+	 *
+	 * @param index Der Index im Bündel
+	 * @param ray Der Strahl
+	 * @return Dieselbe Instanz für method chaining
+	 */
+	@NotNull
+	public RayPacket set(final int index, @NotNull final Ray3 ray) {
+		originX[index] = ray.origin.x;
+		originY[index] = ray.origin.y;
+		originZ[index] = ray.origin.z;
+		directionX[index] = ray.direction.x;
+		directionY[index] = ray.direction.y;
+		directionZ[index] = ray.direction.z;
+		invDirectionX[index] = ray.invDirection.x;
+		invDirectionY[index] = ray.invDirection.y;
+		invDirectionZ[index] = ray.invDirection.z;
+		if (index >= size) size = index + 1;
+		return this;
+	}
+
+	/**
+	 * Setzt einen Strahl; die Richtung wird normalisiert und die Anzahl wächst bei Bedarf
+	 *
+	 * @param index Der Index im Bündel
+	 * @param originX Der Ursprung (X-Komponente)
+	 * @param originY Der Ursprung (Y-Komponente)
+	 * @param originZ Der Ursprung (Z-Komponente)
+	 * @param directionX Die Richtung (X-Komponente)
+	 * @param directionY Die Richtung (Y-Komponente)
+	 * @param directionZ Die Richtung (Z-Komponente)
+	 * @return Dieselbe Instanz für method chaining
+	 */
+	@NotNull
+	public RayPacket set(final int index, final float originX, final float originY, final float originZ,
+	                     final float directionX, final float directionY, final float directionZ) {
+		final float invLength = 1.0f / (float)Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+		final float dx = directionX * invLength, dy = directionY * invLength, dz = directionZ * invLength;
+		this.originX[index] = originX;
+		this.originY[index] = originY;
+		this.originZ[index] = originZ;
+		this.directionX[index] = dx;
+		this.directionY[index] = dy;
+		this.directionZ[index] = dz;
+		invDirectionX[index] = 1.0f / dx;
+		invDirectionY[index] = 1.0f / dy;
+		invDirectionZ[index] = 1.0f / dz;
+		if (index >= size) size = index + 1;
+		return this;
+	}
+
+	/**
+	 * Schreibt einen Strahl des Bündels in einen Zielstrahl
+	 *
+	 * @param index Der Index im Bündel
+	 * @param target Der Zielstrahl
+	 * @return Der Zielstrahl für method chaining
+	 */
+	@NotNull
+	public Ray3 getRay(final int index, @NotNull final Ray3 target) {
+		target.origin.set(originX[index], originY[index], originZ[index]);
+		target.direction.set(directionX[index], directionY[index], directionZ[index]);
+		target.invDirection.set(invDirectionX[index], invDirectionY[index], invDirectionZ[index]);
+		return target;
+	}
+
+	/**
+	 * Testet die aktiven Strahlen gegen eine Box
+	 *
+	 * @param box Die Box
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @param mask Die Maske der zu testenden Strahlen
+	 * @param outT Empfängt für getroffene Strahlen die Eintrittsdistanz oder <code>null</code>
+	 * @return Die Maske der Strahlen, die die Box innerhalb der Range treffen
+	 * @see #intersect(float, float, float, float, float, float, float, float, float[], int, float[])
+	 */
+	public int intersect(@NotNull final AxisAlignedBox box, final float nearBound, final float farBound,
+	                     final int mask, @Nullable final float[] outT) {
+		final Vector3 c = box.center, e = box.extent;
+		return intersect(c.x - e.x, c.y - e.y, c.z - e.z, c.x + e.x, c.y + e.y, c.z + e.z,
+				nearBound, farBound, null, mask, outT);
+	}
+
+	/**
+	 * Testet die aktiven Strahlen gegen eine Box (Slab-Test)
+	 * <p/>
+	 * Geprüft wird wie in {@link BatchMath#intersect(Ray3, float[], float[], float[], float[], float[], float[], float, float, float[], int)}
+	 * die Überlappung des Strahlabschnittes mit der Box: Liegt der Ursprung eines Strahls in der Box, wird
+	 * <code>nearBound</code> als Eintrittsdistanz geliefert, während
+	 * {@link AxisAlignedBox#getIntersectionF(Ray3, float, float)} {@link Float#NaN} liefert. Verläuft ein Strahl in
+	 * einer Begrenzungsebene der Box, gilt sie als nicht getroffen.
+	 *
+	 * @param minX Die minimale X-Koordinate
+	 * @param minY Die minimale Y-Koordinate
+	 * @param minZ Die minimale Z-Koordinate
+	 * @param maxX Die maximale X-Koordinate
+	 * @param maxY Die maximale Y-Koordinate
+	 * @param maxZ Die maximale Z-Koordinate
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt für alle Strahlen
+	 * @param farBounds Die weitesten, gültigen Punkte je Strahl; überschreiben <code>farBound</code>, falls gesetzt
+	 * @param mask Die Maske der zu testenden Strahlen
+	 * @param outT Empfängt für getroffene Strahlen die Eintrittsdistanz oder <code>null</code>
+	 * @return Die Maske der Strahlen, die die Box innerhalb der Range treffen
+	 */
+	public int intersect(final float minX, final float minY, final float minZ,
+	                     final float maxX, final float maxY, final float maxZ,
+	                     final float nearBound, final float farBound, @Nullable final float[] farBounds,
+	                     final int mask, @Nullable final float[] outT) {
+		final float[] ox = originX, oy = originY, oz = originZ;
+		final float[] ix = invDirectionX, iy = invDirectionY, iz = invDirectionZ;
+
+		int hits = 0;
+		int remaining = mask;
+		while (remaining != 0) {
+			final int r = Integer.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+
+			final float tx1 = (minX - ox[r]) * ix[r], tx2 = (maxX - ox[r]) * ix[r];
+			final float ty1 = (minY - oy[r]) * iy[r], ty2 = (maxY - oy[r]) * iy[r];
+			final float tz1 = (minZ - oz[r]) * iz[r], tz2 = (maxZ - oz[r]) * iz[r];
+
+			final float far = farBounds == null ? farBound : farBounds[r];
+			final float tNear = Math.max(Math.max(Math.min(tx1, tx2), Math.min(ty1, ty2)), Math.max(Math.min(tz1, tz2), nearBound));
+			final float tFar = Math.min(Math.min(Math.max(tx1, tx2), Math.max(ty1, ty2)), Math.min(Math.max(tz1, tz2), far));
+			if (!(tNear <= tFar)) continue;
+
+			hits |= 1 << r;
+			if (outT != null) outT[r] = tNear;
+		}
+		return hits;
+	}
+}
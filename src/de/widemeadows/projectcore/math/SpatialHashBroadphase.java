@@ -0,0 +1,575 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.utils.ChunkDispatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Breitphase der Kollisionserkennung zwischen Kugeln über ein gehashtes, hierarchisches Gitter
+ * <p/>
+ * Statt alle Paare über {@link Sphere#intersects(Sphere)} zu testen, wird jede Kugel anhand ihres Mittelpunktes
+ * genau einer Gitterzelle zugeordnet. Getestet werden nur Kugeln derselben oder benachbarter Zellen; bei
+ * gleichmäßig verteilten Objekten ist der Aufwand damit linear in der Objektanzahl.
+ *
+ * <h3>Größenklassen</h3>
+ * Das Gitter besteht aus Stufen mit den Kantenlängen <code>cellSize * 2^L</code>. Jede Kugel liegt in der
+ * feinsten Stufe, deren Kantenlänge mindestens ihrem Durchmesser entspricht. Innerhalb einer Stufe genügt damit
+ * die Nachbarschaft von ±1 Zellen; einzelne große Kugeln verlangsamen die Suche der kleinen nicht, da jede
+ * Zelle nur die Nachbarschaft ihrer eigenen und der tatsächlich belegten gröberen Stufen durchsucht.
+ *
+ * <h3>Ablauf</h3>
+ * <ol>
+ *     <li>Stufe und Zellkoordinaten je Kugel bestimmen und in einer offen adressierten Hashtabelle (lineares
+ *     Sondieren) auf fortlaufende Zellindizes abbilden</li>
+ *     <li>Kugeln per Counting Sort nach Zelle ordnen und ihre Daten in dieser Reihenfolge ablegen</li>
+ *     <li>Je Zelle die 27 Nachbarzellen derselben Stufe nachschlagen; ein Zellpaar wird nur von der Zelle mit dem
+ *     kleineren Index bearbeitet</li>
+ *     <li>Je Zelle und belegter gröberer Stufe die 27 Nachbarzellen der übergeordneten Zelle nachschlagen; Paare
+ *     über Stufen hinweg werden so genau einmal von der feineren Kugel gefunden</li>
+ * </ol>
+ * Gemeldet werden nur Paare, die sich tatsächlich überlappen (Kriterium wie {@link Sphere#intersects(Sphere)}).
+ * Die Paare liegen als Indexpaare <code>(a, b)</code> mit <code>a &lt; b</code> in {@link #getPairs()}.
+ * Die Zellgröße sollte etwa dem Durchmesser der meisten Kugeln entsprechen.
+ *
+ * <h3>Parallelisierung</h3>
+ * Wird ein {@link ExecutorService} übergeben, wird die Paarbildung ab {@link #getMinimumChunkSize()} Zellen
+ * in Blöcke zerlegt. Jeder Block schreibt in einen eigenen Puffer; die Puffer werden in Blockreihenfolge
+ * zusammengefügt, das Ergebnis ist daher unabhängig von der Parallelisierung. Alle Felder werden zwischen
+ * Aufrufen wiederverwendet; eine Instanz darf nicht gleichzeitig aus mehreren Threads verwendet werden.
+ */
+public final class SpatialHashBroadphase {
+
+	/**
+	 * Standardgröße eines parallel verarbeiteten Blocks in Zellen
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 512;
+
+	/**
+	 * Markierung eines freien Eintrags in der Hashtabelle
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * Die gröbste Stufe des Gitters
+	 */
+	private static final int MAX_LEVEL = 30;
+
+	/**
+	 * Die Kantenlänge einer Zelle
+	 */
+	private final float cellSize;
+
+	/**
+	 * Der Kehrwert der Kantenlänge
+	 */
+	private final float inverseCellSize;
+
+	/**
+	 * Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 */
+	@Nullable
+	private final ExecutorService executor;
+
+	/**
+	 * Die Mindestanzahl an Zellen je Block
+	 */
+	private final int minimumChunkSize;
+
+	/**
+	 * Die Anzahl der belegten Zellen
+	 */
+	private int cellCount;
+
+	/**
+	 * Die Anzahl der gefundenen Paare
+	 */
+	private int pairCount;
+
+	/**
+	 * Bitmaske der belegten Stufen
+	 */
+	private int usedLevels;
+
+	/**
+	 * Die Anzahl der nachgeschlagenen Zellen der letzten Suche
+	 */
+	private int visitedCells;
+
+	/**
+	 * Eingabedaten je Kugel (Mittelpunkt und Radius)
+	 */
+	@NotNull
+	private float[] inputX = new float[0], inputY = new float[0], inputZ = new float[0], inputRadius = new float[0];
+
+	/**
+	 * Zellindex je Kugel
+	 */
+	@NotNull
+	private int[] objectCell = new int[0];
+
+	/**
+	 * Kugeldaten in Zellreihenfolge
+	 */
+	@NotNull
+	private float[] sortedX = new float[0], sortedY = new float[0], sortedZ = new float[0], sortedRadius = new float[0];
+
+	/**
+	 * Ursprüngliche Indizes in Zellreihenfolge
+	 */
+	@NotNull
+	private int[] sortedIds = new int[0];
+
+	/**
+	 * Zellkoordinaten und Stufe je Zellindex
+	 */
+	@NotNull
+	private int[] cellX = new int[0], cellY = new int[0], cellZ = new int[0], cellLevel = new int[0];
+
+	/**
+	 * Erster Eintrag je Zelle in den sortierten Feldern; <code>cellStart[cellCount]</code> ist das Ende
+	 */
+	@NotNull
+	private int[] cellStart = new int[0];
+
+	/**
+	 * Zellindex je Eintrag der Hashtabelle oder {@link #EMPTY}
+	 */
+	@NotNull
+	private int[] table = new int[0];
+
+	/**
+	 * Die gefundenen Paare
+	 */
+	@NotNull
+	private int[] pairs = new int[0];
+
+	/**
+	 * Paarpuffer je Block
+	 */
+	@NotNull
+	private int[][] chunkPairs = new int[0][];
+
+	/**
+	 * Anzahl der Paare je Block
+	 */
+	@NotNull
+	private int[] chunkPairCounts = new int[0];
+
+	/**
+	 * Anzahl der nachgeschlagenen Zellen je Block
+	 */
+	@NotNull
+	private int[] chunkVisits = new int[0];
+
+	/**
+	 * Erzeugt eine Breitphase, die ausschließlich im aufrufenden Thread arbeitet
+	 *
+	 * @param cellSize Die Kantenlänge einer Zelle
+	 */
+	public SpatialHashBroadphase(final float cellSize) {
+		this(cellSize, null, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Erzeugt eine Breitphase
+	 *
+	 * @param cellSize Die Kantenlänge einer Zelle
+	 * @param executor Der Executor für die parallele Paarbildung oder <code>null</code>
+	 * @param minimumChunkSize Die Mindestanzahl an Zellen je Block (1..n)
+	 */
+	public SpatialHashBroadphase(final float cellSize, @Nullable final ExecutorService executor, final int minimumChunkSize) {
+		if (!(cellSize > 0)) throw new IllegalArgumentException("cellSize must be positive");
+		assert minimumChunkSize > 0;
+
+		this.cellSize = cellSize;
+		this.inverseCellSize = 1.0f / cellSize;
+		this.executor = executor;
+		this.minimumChunkSize = minimumChunkSize;
+	}
+
+	/**
+	 * Liefert die Kantenlänge einer Zelle
+	 *
+	 * @return Die Kantenlänge
+	 */
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Liefert die Mindestanzahl an Zellen je parallel verarbeitetem Block
+	 *
+	 * @return Die Blockgröße
+	 */
+	public int getMinimumChunkSize() {
+		return minimumChunkSize;
+	}
+
+	/**
+	 * Liefert die Anzahl der belegten Zellen der letzten Suche
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Liefert die Anzahl der Zellen, die bei der letzten Suche nachgeschlagen wurden
+	 * <p/>
+	 * Je Zelle sind dies 27 Nachbarn der eigenen Stufe und 27 je belegter gröberer Stufe.
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getVisitedCellCount() {
+		return visitedCells;
+	}
+
+	/**
+	 * Liefert die Anzahl der Paare der letzten Suche
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getPairCount() {
+		return pairCount;
+	}
+
+	/**
+	 * Liefert den Paarpuffer der letzten Suche
+	 * <p/>
+	 * Paar <code>i</code> besteht aus den Indizes <code>pairs[2i]</code> und <code>pairs[2i + 1]</code>.
+	 * Der Puffer wird bei der nächsten Suche überschrieben und kann länger als nötig sein.
+	 *
+	 * @return Der Puffer
+	 */
+	@NotNull
+	public int[] getPairs() {
+		return pairs;
+	}
+
+	/**
+	 * Sucht alle überlappenden Kugelpaare
+	 *
+	 * @param spheres Die Kugeln
+	 * @param count Die Anzahl der Kugeln
+	 * @return Die Anzahl der Paare
+	 * @see #getPairs()
+	 */
+	public int findPairs(@NotNull final Sphere[] spheres, final int count) {
+		ensureInputCapacity(count);
+		final float[] x = inputX, y = inputY, z = inputZ, radius = inputRadius;
+		for (int i = 0; i < count; ++i) {
+			final Sphere sphere = spheres[i];
+			x[i] = sphere.getX();
+			y[i] = sphere.getY();
+			z[i] = sphere.getZ();
+			radius[i] = sphere.getRadius();
+		}
+		return findPairs(x, y, z, radius, count);
+	}
+
+	/**
+	 * Sucht alle überlappenden Kugelpaare
+	 *
+	 * @param x Die X-Koordinaten der Mittelpunkte
+	 * @param y Die Y-Koordinaten der Mittelpunkte
+	 * @param z Die Z-Koordinaten der Mittelpunkte
+	 * @param radius Die Radien
+	 * @param count Die Anzahl der Kugeln
+	 * @return Die Anzahl der Paare
+	 * @see #getPairs()
+	 */
+	public int findPairs(@NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                     @NotNull final float[] radius, final int count) {
+		pairCount = 0;
+		cellCount = 0;
+		visitedCells = 0;
+		if (count < 2) return 0;
+
+		assignCells(x, y, z, radius, count);
+		sortByCell(x, y, z, radius, count);
+
+		final int chunks = getChunkCount(cellCount);
+		if (chunkPairs.length < chunks) {
+			chunkPairs = Arrays.copyOf(chunkPairs, chunks);
+			chunkPairCounts = new int[chunks];
+			chunkVisits = new int[chunks];
+		}
+		dispatch(cellCount, chunks);
+
+		// Blockpuffer zusammenfügen
+		int total = 0;
+		for (int c = 0; c < chunks; ++c) {
+			total += chunkPairCounts[c];
+			visitedCells += chunkVisits[c];
+		}
+		if (pairs.length < total * 2) pairs = new int[total * 2];
+		int offset = 0;
+		for (int c = 0; c < chunks; ++c) {
+			final int length = chunkPairCounts[c] * 2;
+			System.arraycopy(chunkPairs[c], 0, pairs, offset, length);
+			offset += length;
+		}
+		pairCount = total;
+		return total;
+	}
+
+	/**
+	 * Ordnet jede Kugel einer Zelle ihrer Stufe zu und legt dabei fehlende Zellen an
+	 */
+	private void assignCells(@NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                          @NotNull final float[] radius, final int count) {
+		int capacity = Integer.highestOneBit(Math.max(16, count * 2 - 1)) << 1;
+		if (table.length != capacity) table = new int[capacity];
+		Arrays.fill(table, EMPTY);
+		if (objectCell.length < count) objectCell = new int[count];
+		if (cellX.length < count) {
+			cellX = new int[count];
+			cellY = new int[count];
+			cellZ = new int[count];
+			cellLevel = new int[count];
+			cellStart = new int[count + 1];
+		}
+
+		final float inverse = inverseCellSize;
+		int levels = 0;
+		int cells = 0;
+		for (int i = 0; i < count; ++i) {
+			// Feinste Stufe, deren Zellen den Durchmesser aufnehmen; Skalierung mit 2^-L ist exakt
+			final float diameter = 2 * radius[i] * inverse;
+			int level = 0;
+			float scale = 1.0f;
+			while (level < MAX_LEVEL && diameter * scale > 1.0f) {
+				++level;
+				scale *= 0.5f;
+			}
+			levels |= 1 << level;
+
+			final int cx = (int)Math.floor(x[i] * inverse * scale);
+			final int cy = (int)Math.floor(y[i] * inverse * scale);
+			final int cz = (int)Math.floor(z[i] * inverse * scale);
+
+			final int slot = lookupSlot(cx, cy, cz, level);
+			final int cell;
+			if (slot >= 0) {
+				cell = table[slot];
+			}
+			else {
+				cell = cells++;
+				cellX[cell] = cx;
+				cellY[cell] = cy;
+				cellZ[cell] = cz;
+				cellLevel[cell] = level;
+				cellStart[cell] = 0;
+				table[-slot - 1] = cell;
+			}
+			objectCell[i] = cell;
+			++cellStart[cell];
+		}
+		cellCount = cells;
+		usedLevels = levels;
+	}
+
+	/**
+	 * Ordnet die Kugeldaten per Counting Sort nach Zellen
+	 */
+	private void sortByCell(@NotNull final float[] x, @NotNull final float[] y, @NotNull final float[] z,
+	                        @NotNull final float[] radius, final int count) {
+		if (sortedIds.length < count) {
+			sortedIds = new int[count];
+			sortedX = new float[count];
+			sortedY = new float[count];
+			sortedZ = new float[count];
+			sortedRadius = new float[count];
+		}
+
+		// Anzahlen in Startindizes umwandeln; cellStart[c] zeigt danach auf das Ende von Zelle c
+		final int[] start = cellStart;
+		int sum = 0;
+		for (int c = 0; c < cellCount; ++c) {
+			sum += start[c];
+			start[c] = sum;
+		}
+		start[cellCount] = sum;
+
+		// Rückwärts einsortieren; danach zeigt cellStart[c] auf den Anfang von Zelle c
+		for (int i = count - 1; i >= 0; --i) {
+			final int slot = --start[objectCell[i]];
+			sortedIds[slot] = i;
+			sortedX[slot] = x[i];
+			sortedY[slot] = y[i];
+			sortedZ[slot] = z[i];
+			sortedRadius[slot] = radius[i];
+		}
+	}
+
+	/**
+	 * Sucht den Zellindex zu Zellkoordinaten
+	 *
+	 * @return Der Zellindex oder {@link #EMPTY}
+	 */
+	private int lookup(final int cx, final int cy, final int cz, final int level) {
+		final int slot = lookupSlot(cx, cy, cz, level);
+		return slot >= 0 ? table[slot] : EMPTY;
+	}
+
+	/**
+	 * Sucht den Eintrag der Hashtabelle zu Zellkoordinaten
+	 *
+	 * @return Der belegte Eintrag oder <code>-(freier Eintrag) - 1</code>
+	 */
+	private int lookupSlot(final int cx, final int cy, final int cz, final int level) {
+		final int[] table = this.table;
+		final int mask = table.length - 1;
+		int slot = hash(cx, cy, cz, level) & mask;
+		while (true) {
+			final int cell = table[slot];
+			if (cell == EMPTY) return -slot - 1;
+			if (cellX[cell] == cx && cellY[cell] == cy && cellZ[cell] == cz && cellLevel[cell] == level) return slot;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Streut Zellkoordinaten über die Hashtabelle
+	 *
+	 * @return Der Hashwert
+	 */
+	private static int hash(final int cx, final int cy, final int cz, final int level) {
+		final int h = cx * 73856093 ^ cy * 19349663 ^ cz * 83492791 ^ level * 1640531527;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Bildet die Paare eines Bereiches von Zellen
+	 *
+	 * @param chunk Der Index des Blocks
+	 * @param from Die erste Zelle (inklusiv)
+	 * @param to Die letzte Zelle (exklusiv)
+	 */
+	private void findPairs(final int chunk, final int from, final int to) {
+		final int[] start = cellStart;
+		final int levels = usedLevels;
+		int visits = 0;
+		int found = 0;
+
+		for (int cell = from; cell < to; ++cell) {
+			final int cx = cellX[cell], cy = cellY[cell], cz = cellZ[cell], level = cellLevel[cell];
+			final int begin = start[cell], end = start[cell + 1];
+
+			// Nachbarn derselben Stufe; ein Zellpaar bearbeitet die Zelle mit dem kleineren Index
+			for (int dz = -1; dz <= 1; ++dz) {
+				for (int dy = -1; dy <= 1; ++dy) {
+					for (int dx = -1; dx <= 1; ++dx) {
+						final int other = (dx | dy | dz) == 0 ? cell : lookup(cx + dx, cy + dy, cz + dz, level);
+						if (other < cell) continue;
+						found = testCells(chunk, found, begin, end, other == cell ? -1 : start[other], start[other + 1]);
+					}
+				}
+			}
+			visits += 27;
+
+			// Nachbarn der übergeordneten Zelle in jeder belegten gröberen Stufe
+			for (int coarser = levels & -(2 << level); coarser != 0; coarser &= coarser - 1) {
+				final int target = Integer.numberOfTrailingZeros(coarser);
+				final int shift = target - level;
+				final int px = cx >> shift, py = cy >> shift, pz = cz >> shift;
+				for (int dz = -1; dz <= 1; ++dz) {
+					for (int dy = -1; dy <= 1; ++dy) {
+						for (int dx = -1; dx <= 1; ++dx) {
+							final int other = lookup(px + dx, py + dy, pz + dz, target);
+							if (other == EMPTY) continue;
+							found = testCells(chunk, found, begin, end, start[other], start[other + 1]);
+						}
+					}
+				}
+				visits += 27;
+			}
+		}
+
+		chunkPairCounts[chunk] = found;
+		chunkVisits[chunk] = visits;
+	}
+
+	/**
+	 * Testet die Kugeln zweier Zellen gegeneinander und hängt überlappende Paare an den Blockpuffer an
+	 *
+	 * @param chunk Der Index des Blocks
+	 * @param found Die Anzahl der bisherigen Paare des Blocks
+	 * @param begin Der erste Eintrag der ersten Zelle
+	 * @param end Das Ende der ersten Zelle
+	 * @param otherBegin Der erste Eintrag der zweiten Zelle oder <code>-1</code>, wenn beide Zellen gleich sind
+	 * @param otherEnd Das Ende der zweiten Zelle
+	 * @return Die neue Anzahl der Paare des Blocks
+	 */
+	private int testCells(final int chunk, int found, final int begin, final int end, final int otherBegin, final int otherEnd) {
+		final float[] x = sortedX, y = sortedY, z = sortedZ, radius = sortedRadius;
+		final int[] ids = sortedIds;
+		int[] buffer = chunkPairs[chunk];
+		if (buffer == null) buffer = chunkPairs[chunk] = new int[64];
+
+		for (int a = begin; a < end; ++a) {
+			final float ax = x[a], ay = y[a], az = z[a], ar = radius[a];
+			for (int b = otherBegin < 0 ? a + 1 : otherBegin; b < otherEnd; ++b) {
+				final float ex = x[b] - ax, ey = y[b] - ay, ez = z[b] - az;
+				final float r = ar + radius[b];
+				if (ex * ex + ey * ey + ez * ez > r * r) continue;
+
+				if (found * 2 + 2 > buffer.length) buffer = chunkPairs[chunk] = Arrays.copyOf(buffer, buffer.length * 2);
+				final int ia = ids[a], ib = ids[b];
+				buffer[found * 2] = Math.min(ia, ib);
+				buffer[found * 2 + 1] = Math.max(ia, ib);
+				++found;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Vergrößert die Eingabefelder bei Bedarf
+	 *
+	 * @param count Die benötigte Anzahl
+	 */
+	private void ensureInputCapacity(final int count) {
+		if (inputX.length >= count) return;
+		inputX = new float[count];
+		inputY = new float[count];
+		inputZ = new float[count];
+		inputRadius = new float[count];
+	}
+
+	/**
+	 * Bestimmt die Anzahl der Blöcke für eine Zellanzahl
+	 *
+	 * @param count Die Anzahl der Zellen
+	 * @return Die Anzahl der Blöcke (mindestens 1)
+	 */
+	private int getChunkCount(final int count) {
+		if (executor == null) return 1;
+		return Math.max(1, count / minimumChunkSize);
+	}
+
+	/**
+	 * Verteilt die Paarbildung auf eine feste Anzahl von Blöcken
+	 *
+	 * @param count Die Anzahl der Zellen
+	 * @param chunks Die Anzahl der Blöcke
+	 */
+	private void dispatch(final int count, final int chunks) {
+		if (chunks == 1) {
+			findPairs(0, 0, count);
+			return;
+		}
+
+		ChunkDispatcher.dispatch(executor, count, chunks, (count + chunks - 1) / chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int from, final int to) {
+				findPairs(chunk, from, to);
+				return 0;
+			}
+		}, "pair generation");
+	}
+}
@@ -4,6 +4,7 @@ import de.widemeadows.projectcore.cache.IObjectCache;
 import de.widemeadows.projectcore.cache.ObjectFactory;
 import de.widemeadows.projectcore.cache.ThreadLocalObjectCache;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Definiert eine Kugel
@@ -313,21 +314,75 @@ public final class Sphere {
 	}
 
 	/**
-	 * Ermittelt, ob der Ray innerhalb oder auf der Kugel liegt
+	 * Ermittelt, ob der Strahl die Kugel trifft oder in ihr beginnt
 	 *
 	 * @param ray Der zu testende Ray
-	 * @return <code>true</code>, wenn der Ray innerhalb der Kugel liegt
+	 * @return <code>true</code>, wenn der Strahl die Kugel trifft
+	 * @see #getIntersectionF(Ray3, float, float, RayHit)
 	 */
 	public boolean intersects(@NotNull final Ray3 ray) {
-		// Projektion des Kugel-Mittelpunktes auf den Strahl
-		Vector3 projected = ray.projectPoint(this._origin);
-		
-		// Distanz von projiziertem Punkt zu Mittelpunkt berechnen
-		final float distSq = projected.getDistanceSquared(_origin);
-		projected.recycle();
-
-		// Wenn Distanz < Radius - Treffer
-		return distSq <= _radiusSq;
+		return !Float.isNaN(getIntersectionF(ray, 0, Float.POSITIVE_INFINITY, null));
+	}
+
+	/**
+	 * Schneidet einen Strahl mit der Kugel
+	 *
+	 * @param ray Der Strahl
+	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Kugel nicht trifft, ansonsten die Distanz vom Ursprung des Strahles
+	 * @see #getIntersectionF(Ray3, float, float, RayHit)
+	 */
+	public float getIntersectionF(@NotNull final Ray3 ray) {
+		return getIntersectionF(ray, 0, Float.POSITIVE_INFINITY, null);
+	}
+
+	/**
+	 * Schneidet einen Strahl mit der Kugel
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Kugel nicht innerhalb der Range trifft, ansonsten die Distanz vom Ursprung des Strahles
+	 * @see #getIntersectionF(Ray3, float, float, RayHit)
+	 */
+	public float getIntersectionF(@NotNull final Ray3 ray, final float nearBound, final float farBound) {
+		return getIntersectionF(ray, nearBound, farBound, null);
+	}
+
+	/**
+	 * Schneidet einen Strahl mit der Kugel
+	 * <p/>
+	 * Geliefert wird der erste Durchgang durch die Oberfläche innerhalb von <code>[nearBound, farBound]</code>:
+	 * der Eintritt oder, wenn der Strahl dort bereits in der Kugel liegt, der Austritt. Die Distanzen beziehen sich
+	 * wie bei {@link Ray3#getPoint(float)} auf die Länge der Richtung, die nicht normalisiert sein muss.
+	 *
+	 * @param ray Der Strahl
+	 * @param nearBound Der nähste, gültige Punkt
+	 * @param farBound Der weiteste, gültige Punkt
+	 * @param hit Empfängt bei einem Treffer Distanzen und Normale oder <code>null</code>
+	 * @return <code>{@link Float#NaN}</code>, wenn der Strahl die Kugel nicht innerhalb der Range trifft, ansonsten die Distanz vom Ursprung des Strahles
+	 */
+	public float getIntersectionF(@NotNull final Ray3 ray, final float nearBound, final float farBound, @Nullable final RayHit hit) {
+		final Vector3 o = ray.origin, d = ray.direction;
+		final float ox = o.x - _origin.x, oy = o.y - _origin.y, oz = o.z - _origin.z;
+
+		// at² + 2bt + c = 0; die Richtung ist z.B. nach Ray3#transform(Matrix4) nicht normalisiert
+		final float a = d.x * d.x + d.y * d.y + d.z * d.z;
+		final float b = ox * d.x + oy * d.y + oz * d.z;
+		final float c = ox * ox + oy * oy + oz * oz - _radiusSq;
+		final float discriminant = b * b - a * c;
+		if (discriminant < 0) return Float.NaN;
+
+		final float root = (float)Math.sqrt(discriminant);
+		final float invA = 1.0f / a;
+		final float entry = (-b - root) * invA, exit = (-b + root) * invA;
+		final float t = entry >= nearBound ? entry : exit;
+		if (!(t >= nearBound && t <= farBound)) return Float.NaN;
+
+		if (hit != null) {
+			final float invRadius = 1.0f / _radius;
+			hit.set(t, exit, (ox + d.x * t) * invRadius, (oy + d.y * t) * invRadius, (oz + d.z * t) * invRadius);
+		}
+		return t;
 	}
 
 	/**
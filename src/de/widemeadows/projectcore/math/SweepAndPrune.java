@@ -0,0 +1,574 @@
+package de.widemeadows.projectcore.math;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Inkrementelle Breitphase (Sweep and Prune) über achsenparallele Boxen
+ * <p/>
+ * Je Achse werden die Anfangs- und Endpunkte aller Boxen in einem sortierten Feld gehalten. Zwischen zwei
+ * Frames ändert sich die Reihenfolge bei kohärenter Bewegung kaum, sodass die Felder mit Insertion Sort
+ * in nahezu linearer Zeit neu sortiert werden. Jede Vertauschung eines Anfangs- mit einem Endpunkt zeigt
+ * den Beginn oder das Ende der Überlappung zweier Boxen auf dieser Achse an:
+ * <ul>
+ *     <li>Ein Anfangspunkt wandert links an einem Endpunkt vorbei: die Boxen überlappen auf dieser Achse.
+ *     Überlappen sie nach den neuen Grenzen auf allen Achsen, wird das Paar aufgenommen.</li>
+ *     <li>Ein Endpunkt wandert links an einem Anfangspunkt vorbei: die Boxen sind getrennt, ein bestehendes
+ *     Paar wird entfernt.</li>
+ * </ul>
+ * Die überlappenden Paare werden dauerhaft in einer offen adressierten Hashmenge geführt. Aufgenommene und
+ * entfernte Paare werden zusätzlich als Ereignisse gesammelt, bis sie über {@link #clearEvents()} verworfen
+ * werden. Innerhalb eines Aufrufs von {@link #update()}, {@link #insert(AxisAlignedBox)} oder {@link #remove(int)}
+ * erscheint jedes Paar höchstens einmal; wer die genaue Reihenfolge über mehrere Aufrufe benötigt, verwirft die
+ * Ereignisse nach jedem Aufruf. Der Aufwand je Frame ist etwa <code>O(n + Änderungen)</code>. Berührende Boxen
+ * gelten als überlappend.
+ * <p/>
+ * Neue Grenzen über {@link #setBounds(int, AxisAlignedBox)} werden erst mit {@link #update()} wirksam;
+ * {@link #insert(AxisAlignedBox)} und {@link #remove(int)} führen ausstehende Änderungen zuvor selbst nach.
+ * Eine Instanz darf nicht gleichzeitig aus mehreren Threads verwendet werden.
+ */
+public final class SweepAndPrune {
+
+	/**
+	 * Markierung eines freien Eintrags in der Paarmenge
+	 */
+	private static final long EMPTY = -1L;
+
+	/**
+	 * Endpunktwerte je Achse in sortierter Reihenfolge
+	 */
+	@NotNull
+	private final float[][] values = new float[3][0];
+
+	/**
+	 * Endpunkte je Achse: <code>handle &lt;&lt; 1</code> für Anfangs-, <code>handle &lt;&lt; 1 | 1</code> für Endpunkte
+	 */
+	@NotNull
+	private final int[][] endpoints = new int[3][0];
+
+	/**
+	 * Position des Anfangspunktes je Achse und Handle
+	 */
+	@NotNull
+	private final int[][] minIndex = new int[3][0];
+
+	/**
+	 * Position des Endpunktes je Achse und Handle
+	 */
+	@NotNull
+	private final int[][] maxIndex = new int[3][0];
+
+	/**
+	 * Gibt je Handle an, ob es belegt ist
+	 */
+	@NotNull
+	private boolean[] used = new boolean[0];
+
+	/**
+	 * Freie Handles
+	 */
+	@NotNull
+	private int[] freeHandles = new int[0];
+
+	/**
+	 * Die Anzahl der freien Handles
+	 */
+	private int freeCount;
+
+	/**
+	 * Die Anzahl der jemals vergebenen Handles
+	 */
+	private int handleCount;
+
+	/**
+	 * Die Anzahl der Objekte
+	 */
+	private int objectCount;
+
+	/**
+	 * Gibt an, ob Grenzen seit der letzten Sortierung verändert wurden
+	 */
+	private boolean dirty;
+
+	/**
+	 * Offen adressierte Paarmenge; Schlüssel <code>(a &lt;&lt; 32) | b</code> mit <code>a &lt; b</code>
+	 */
+	@NotNull
+	private long[] pairKeys = new long[0];
+
+	/**
+	 * Die Anzahl der Paare
+	 */
+	private int pairCount;
+
+	/**
+	 * Aufgenommene Paare seit dem letzten {@link #clearEvents()}
+	 */
+	@NotNull
+	private int[] addedPairs = new int[0];
+
+	/**
+	 * Die Anzahl der aufgenommenen Paare
+	 */
+	private int addedCount;
+
+	/**
+	 * Entfernte Paare seit dem letzten {@link #clearEvents()}
+	 */
+	@NotNull
+	private int[] removedPairs = new int[0];
+
+	/**
+	 * Die Anzahl der entfernten Paare
+	 */
+	private int removedCount;
+
+	/**
+	 * Erzeugt eine leere Breitphase
+	 */
+	public SweepAndPrune() {
+		allocatePairs(16);
+	}
+
+	/**
+	 * Liefert die Anzahl der Objekte
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getObjectCount() {
+		return objectCount;
+	}
+
+	/**
+	 * Liefert die Anzahl der überlappenden Paare
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getPairCount() {
+		return pairCount;
+	}
+
+	/**
+	 * Ermittelt, ob zwei Objekte ein überlappendes Paar bilden
+	 *
+	 * @param a Das erste Handle
+	 * @param b Das zweite Handle
+	 * @return <code>true</code>, wenn das Paar in der Menge liegt
+	 */
+	public boolean containsPair(final int a, final int b) {
+		return findPair(key(a, b)) >= 0;
+	}
+
+	/**
+	 * Kopiert alle überlappenden Paare
+	 *
+	 * @param target Empfängt die Paare als <code>(a, b)</code> mit <code>a &lt; b</code>; überzählige Paare werden nur gezählt
+	 * @return Die Anzahl der Paare
+	 */
+	public int getPairs(@NotNull final int[] target) {
+		final long[] keys = pairKeys;
+		int found = 0;
+		for (int i = 0; i < keys.length; ++i) {
+			final long key = keys[i];
+			if (key == EMPTY) continue;
+			if (found * 2 + 1 < target.length) {
+				target[found * 2] = (int)(key >>> 32);
+				target[found * 2 + 1] = (int)key;
+			}
+			++found;
+		}
+		return found;
+	}
+
+	/**
+	 * Liefert die Anzahl der aufgenommenen Paare seit dem letzten {@link #clearEvents()}
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getAddedCount() {
+		return addedCount;
+	}
+
+	/**
+	 * Liefert die aufgenommenen Paare als <code>(a, b)</code>; gültig sind die ersten {@link #getAddedCount()} Paare
+	 *
+	 * @return Der Ereignispuffer
+	 */
+	@NotNull
+	public int[] getAddedPairs() {
+		return addedPairs;
+	}
+
+	/**
+	 * Liefert die Anzahl der entfernten Paare seit dem letzten {@link #clearEvents()}
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getRemovedCount() {
+		return removedCount;
+	}
+
+	/**
+	 * Liefert die entfernten Paare als <code>(a, b)</code>; gültig sind die ersten {@link #getRemovedCount()} Paare
+	 *
+	 * @return Der Ereignispuffer
+	 */
+	@NotNull
+	public int[] getRemovedPairs() {
+		return removedPairs;
+	}
+
+	/**
+	 * Verwirft alle gesammelten Ereignisse
+	 */
+	public void clearEvents() {
+		addedCount = 0;
+		removedCount = 0;
+	}
+
+	/**
+	 * Fügt eine Box ein; überlappende Paare werden sofort aufgenommen
+	 *
+	 * @param box Die Box
+	 * @return Das Handle des Objektes
+	 */
+	public int insert(@NotNull final AxisAlignedBox box) {
+		update();
+
+		final int handle = allocateHandle();
+		final int position = objectCount * 2;
+		++objectCount;
+
+		// Zunächst alle Endpunkte anhängen, damit die Überlappungstests alle Achsen sehen
+		for (int axis = 0; axis < 3; ++axis) {
+			final float center = component(box.center, axis), extent = component(box.extent, axis);
+			values[axis][position] = center - extent;
+			values[axis][position + 1] = center + extent;
+			endpoints[axis][position] = handle << 1;
+			endpoints[axis][position + 1] = (handle << 1) | 1;
+			minIndex[axis][handle] = position;
+			maxIndex[axis][handle] = position + 1;
+		}
+
+		for (int axis = 0; axis < 3; ++axis) {
+			siftDown(axis, position);
+			siftDown(axis, position + 1);
+		}
+		return handle;
+	}
+
+	/**
+	 * Entfernt ein Objekt samt aller seiner Paare; das Handle wird danach wiederverwendet
+	 *
+	 * @param handle Das Handle
+	 */
+	public void remove(final int handle) {
+		checkHandle(handle);
+		update();
+
+		// Endpunkte ans Ende schieben; jede Trennung entfernt ein Paar
+		for (int axis = 0; axis < 3; ++axis) {
+			moveToEnd(axis, maxIndex[axis][handle]);
+			moveToEnd(axis, minIndex[axis][handle]);
+		}
+
+		--objectCount;
+		used[handle] = false;
+		freeHandles[freeCount++] = handle;
+	}
+
+	/**
+	 * Setzt neue Grenzen eines Objektes; wirksam mit dem nächsten {@link #update()}
+	 *
+	 * @param handle Das Handle
+	 * @param box Die Box
+	 */
+	public void setBounds(final int handle, @NotNull final AxisAlignedBox box) {
+		checkHandle(handle);
+		for (int axis = 0; axis < 3; ++axis) {
+			final float center = component(box.center, axis), extent = component(box.extent, axis);
+			values[axis][minIndex[axis][handle]] = center - extent;
+			values[axis][maxIndex[axis][handle]] = center + extent;
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Liefert die Grenzen eines Objektes
+	 *
+	 * @param handle Das Handle
+	 * @param target Die Zielbox
+	 * @return Die Zielbox
+	 */
+	@NotNull
+	public AxisAlignedBox getBounds(final int handle, @NotNull final AxisAlignedBox target) {
+		checkHandle(handle);
+		final float minX = values[0][minIndex[0][handle]], maxX = values[0][maxIndex[0][handle]];
+		final float minY = values[1][minIndex[1][handle]], maxY = values[1][maxIndex[1][handle]];
+		final float minZ = values[2][minIndex[2][handle]], maxZ = values[2][maxIndex[2][handle]];
+		return target.set((minX + maxX) * 0.5f, (minY + maxY) * 0.5f, (minZ + maxZ) * 0.5f,
+				(maxX - minX) * 0.5f, (maxY - minY) * 0.5f, (maxZ - minZ) * 0.5f);
+	}
+
+	/**
+	 * Sortiert alle Achsen nach und aktualisiert die Paarmenge
+	 */
+	public void update() {
+		if (!dirty) return;
+		dirty = false;
+
+		final int count = objectCount * 2;
+		for (int axis = 0; axis < 3; ++axis) {
+			for (int i = 1; i < count; ++i) {
+				siftDown(axis, i);
+			}
+		}
+	}
+
+	/**
+	 * Schiebt einen Endpunkt nach links an seine sortierte Position und meldet dabei Paaränderungen
+	 *
+	 * @param axis Die Achse
+	 * @param position Die aktuelle Position des Endpunktes
+	 */
+	private void siftDown(final int axis, final int position) {
+		final float[] v = values[axis];
+		final int[] e = endpoints[axis];
+		final int[] mins = minIndex[axis], maxs = maxIndex[axis];
+
+		final float value = v[position];
+		final int endpoint = e[position];
+		final int handle = endpoint >> 1;
+		final boolean isMax = (endpoint & 1) != 0;
+
+		int j = position - 1;
+		while (j >= 0) {
+			final float otherValue = v[j];
+			final int other = e[j];
+			final boolean otherIsMax = (other & 1) != 0;
+
+			// Bei gleichen Werten stehen Anfangspunkte vor Endpunkten
+			if (otherValue < value || (otherValue == value && (!otherIsMax || isMax))) break;
+
+			final int otherHandle = other >> 1;
+			if (otherHandle != handle && isMax != otherIsMax) {
+				if (isMax) removePair(handle, otherHandle);
+				else if (v[mins[otherHandle]] <= v[maxs[handle]] && overlapsOtherAxes(axis, handle, otherHandle)) addPair(handle, otherHandle);
+			}
+
+			v[j + 1] = otherValue;
+			e[j + 1] = other;
+			if (otherIsMax) maxs[otherHandle] = j + 1;
+			else mins[otherHandle] = j + 1;
+			--j;
+		}
+
+		v[j + 1] = value;
+		e[j + 1] = endpoint;
+		if (isMax) maxs[handle] = j + 1;
+		else mins[handle] = j + 1;
+	}
+
+	/**
+	 * Schiebt einen Endpunkt an das Ende des Feldes und entfernt dabei getrennte Paare
+	 *
+	 * @param axis Die Achse
+	 * @param position Die aktuelle Position des Endpunktes
+	 */
+	private void moveToEnd(final int axis, final int position) {
+		final float[] v = values[axis];
+		final int[] e = endpoints[axis];
+		final int[] mins = minIndex[axis], maxs = maxIndex[axis];
+		final int last = objectCount * 2 - 1;
+
+		final float value = v[position];
+		final int endpoint = e[position];
+		final int handle = endpoint >> 1;
+		final boolean isMax = (endpoint & 1) != 0;
+
+		for (int j = position; j < last; ++j) {
+			final int other = e[j + 1];
+			final int otherHandle = other >> 1;
+			final boolean otherIsMax = (other & 1) != 0;
+			if (!isMax && otherIsMax && otherHandle != handle) removePair(handle, otherHandle);
+
+			v[j] = v[j + 1];
+			e[j] = other;
+			if (otherIsMax) maxs[otherHandle] = j;
+			else mins[otherHandle] = j;
+		}
+
+		v[last] = value;
+		e[last] = endpoint;
+		if (isMax) maxs[handle] = last;
+		else mins[handle] = last;
+	}
+
+	/**
+	 * Ermittelt, ob zwei Objekte auf den beiden übrigen Achsen überlappen
+	 *
+	 * @param axis Die Achse, deren Überlappung bereits feststeht
+	 * @param a Das erste Handle
+	 * @param b Das zweite Handle
+	 * @return <code>true</code> bei Überlappung
+	 */
+	private boolean overlapsOtherAxes(final int axis, final int a, final int b) {
+		for (int other = 0; other < 3; ++other) {
+			if (other == axis) continue;
+			final float[] v = values[other];
+			final int[] mins = minIndex[other], maxs = maxIndex[other];
+			if (v[mins[a]] > v[maxs[b]] || v[mins[b]] > v[maxs[a]]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Liefert eine Komponente eines Vektors
+	 *
+	 * @param vector Der Vektor
+	 * @param axis Die Achse (0 bis 2)
+	 * @return Der Wert
+	 */
+	private static float component(@NotNull final Vector3 vector, final int axis) {
+		return axis == 0 ? vector.x : axis == 1 ? vector.y : vector.z;
+	}
+
+	/**
+	 * Bildet den Schlüssel eines Paares
+	 *
+	 * @return Der Schlüssel
+	 */
+	private static long key(final int a, final int b) {
+		return a < b ? ((long)a << 32) | b : ((long)b << 32) | a;
+	}
+
+	/**
+	 * Streut einen Schlüssel über die Paarmenge
+	 *
+	 * @return Der Startindex
+	 */
+	private int slot(final long key) {
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32)) & (pairKeys.length - 1);
+	}
+
+	/**
+	 * Sucht ein Paar
+	 *
+	 * @param key Der Schlüssel
+	 * @return Der Eintrag oder <code>-(freier Eintrag) - 1</code>
+	 */
+	private int findPair(final long key) {
+		final long[] keys = pairKeys;
+		final int mask = keys.length - 1;
+		int slot = slot(key);
+		while (true) {
+			final long current = keys[slot];
+			if (current == key) return slot;
+			if (current == EMPTY) return -slot - 1;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Nimmt ein Paar auf und meldet es, falls es neu ist
+	 */
+	private void addPair(final int a, final int b) {
+		final long key = key(a, b);
+		final int slot = findPair(key);
+		if (slot >= 0) return;
+
+		pairKeys[-slot - 1] = key;
+		if (++pairCount * 2 > pairKeys.length) allocatePairs(pairKeys.length * 2);
+
+		if (addedCount * 2 + 2 > addedPairs.length) addedPairs = Arrays.copyOf(addedPairs, Math.max(16, addedPairs.length * 2));
+		addedPairs[addedCount * 2] = (int)(key >>> 32);
+		addedPairs[addedCount * 2 + 1] = (int)key;
+		++addedCount;
+	}
+
+	/**
+	 * Entfernt ein Paar und meldet es, falls es vorhanden war
+	 */
+	private void removePair(final int a, final int b) {
+		final long key = key(a, b);
+		int slot = findPair(key);
+		if (slot < 0) return;
+
+		// Rückwärtsverschiebung statt Grabsteinen
+		final long[] keys = pairKeys;
+		final int mask = keys.length - 1;
+		int next = slot;
+		while (true) {
+			next = (next + 1) & mask;
+			final long current = keys[next];
+			if (current == EMPTY) break;
+			final int home = slot(current);
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				keys[slot] = current;
+				slot = next;
+			}
+		}
+		keys[slot] = EMPTY;
+		--pairCount;
+
+		if (removedCount * 2 + 2 > removedPairs.length) removedPairs = Arrays.copyOf(removedPairs, Math.max(16, removedPairs.length * 2));
+		removedPairs[removedCount * 2] = (int)(key >>> 32);
+		removedPairs[removedCount * 2 + 1] = (int)key;
+		++removedCount;
+	}
+
+	/**
+	 * Legt die Paarmenge mit neuer Kapazität an und übernimmt vorhandene Paare
+	 *
+	 * @param capacity Die Kapazität (Zweierpotenz)
+	 */
+	private void allocatePairs(final int capacity) {
+		final long[] old = pairKeys;
+		pairKeys = new long[capacity];
+		Arrays.fill(pairKeys, EMPTY);
+		for (int i = 0; i < old.length; ++i) {
+			if (old[i] != EMPTY) pairKeys[-findPair(old[i]) - 1] = old[i];
+		}
+	}
+
+	/**
+	 * Prüft, ob ein Handle belegt ist
+	 *
+	 * @param handle Das Handle
+	 */
+	private void checkHandle(final int handle) {
+		if (handle < 0 || handle >= handleCount || !used[handle]) {
+			throw new IllegalArgumentException("invalid handle " + handle);
+		}
+	}
+
+	/**
+	 * Belegt ein Handle und vergrößert die Felder bei Bedarf
+	 *
+	 * @return Das Handle
+	 */
+	private int allocateHandle() {
+		final int handle;
+		if (freeCount > 0) {
+			handle = freeHandles[--freeCount];
+		}
+		else {
+			handle = handleCount++;
+			if (handle == used.length) {
+				final int capacity = Math.max(16, handle * 2);
+				used = Arrays.copyOf(used, capacity);
+				freeHandles = Arrays.copyOf(freeHandles, capacity);
+				for (int axis = 0; axis < 3; ++axis) {
+					values[axis] = Arrays.copyOf(values[axis], capacity * 2);
+					endpoints[axis] = Arrays.copyOf(endpoints[axis], capacity * 2);
+					minIndex[axis] = Arrays.copyOf(minIndex[axis], capacity);
+					maxIndex[axis] = Arrays.copyOf(maxIndex[axis], capacity);
+				}
+			}
+		}
+		used[handle] = true;
+		return handle;
+	}
+}
@@ -0,0 +1,377 @@
+package de.widemeadows.projectcore.math;
+
+import de.widemeadows.projectcore.AndroidHelper;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Trigonometrische Funktionen in einfacher Genauigkeit
+ * <p>
+ *     Die Berechnungsvariante wird einmalig beim Laden der Klasse über die System Property
+ *     {@link #PRECISION_PROPERTY} bestimmt ({@code exact}, {@code polynomial} oder {@code table}) und
+ *     danach nicht mehr geprüft. Standard ist {@link Precision#POLYNOMIAL}.
+ * </p>
+ *
+ * <h3>Varianten</h3>
+ * <ul>
+ *     <li>{@link Precision#EXACT} - {@link Math} bzw. <code>android.util.FloatMath</code></li>
+ *     <li>{@link Precision#POLYNOMIAL} - Reduktion auf [-π/4, π/4] und Minimax-Polynome; Fehler im Bereich
+ *     weniger ULP für |x| &lt; {@link #POLYNOMIAL_RANGE}, darüber wird exakt gerechnet.</li>
+ *     <li>{@link Precision#TABLE} - Reduktion auf [-π/4, π/4] und Tabelle mit {@link #TABLE_SIZE} Stützstellen
+ *     und linearer Interpolation; absoluter Fehler unter 2e-6 für |x| &lt; {@link #POLYNOMIAL_RANGE}, darüber wird
+ *     exakt gerechnet.</li>
+ * </ul>
+ */
+public final class Trigonometry {
+
+	/**
+	 * Name der System Property zur Auswahl der Variante
+	 */
+	public static final String PRECISION_PROPERTY = "projectcore.trigonometry";
+
+	/**
+	 * Betrag, bis zu dem die Polynom- und die Tabellenvariante verwendet werden
+	 */
+	public static final float POLYNOMIAL_RANGE = 8192.0f;
+
+	/**
+	 * Anzahl der Tabelleneinträge je Periode (Zweierpotenz)
+	 */
+	public static final int TABLE_SIZE = 4096;
+
+	/**
+	 * 2/π
+	 */
+	private static final float TWO_OVER_PI = (float) (2.0 / Math.PI);
+
+	/**
+	 * π/2, in drei Teile zerlegt für eine exakte Reduktion (Cody-Waite); höchstwertiger Teil
+	 */
+	private static final float HALF_PI_1 = 1.5703125f;
+
+	/**
+	 * π/2, mittlerer Teil
+	 */
+	private static final float HALF_PI_2 = 4.837512969970703125e-4f;
+
+	/**
+	 * π/2, niederwertigster Teil
+	 */
+	private static final float HALF_PI_3 = 7.54978995489188216e-8f;
+
+	/**
+	 * Umrechnung von Radians in Tabellenindizes
+	 */
+	private static final float RAD_TO_INDEX = (float) (TABLE_SIZE / (2.0 * Math.PI));
+
+	/**
+	 * Sinustabelle über eine volle Periode; der letzte Eintrag wiederholt den ersten
+	 */
+	private static final float[] SIN_TABLE = new float[TABLE_SIZE + 1];
+
+	static {
+		for (int i = 0; i <= TABLE_SIZE; ++i) {
+			SIN_TABLE[i] = (float) Math.sin(i * 2.0 * Math.PI / TABLE_SIZE);
+		}
+	}
+
+	/**
+	 * Die Berechnungsvarianten
+	 */
+	public enum Precision {
+
+		/**
+		 * Berechnung über die Laufzeitbibliothek
+		 */
+		EXACT {
+			@Override
+			public float sin(final float angle) {
+				return AndroidHelper.IsAndroidSdk ? android.util.FloatMath.sin(angle) : (float) Math.sin(angle);
+			}
+
+			@Override
+			public float cos(final float angle) {
+				return AndroidHelper.IsAndroidSdk ? android.util.FloatMath.cos(angle) : (float) Math.cos(angle);
+			}
+		},
+
+		/**
+		 * Berechnung über Minimax-Polynome
+		 */
+		POLYNOMIAL {
+			@Override
+			public float sin(final float angle) {
+				if (!(Math.abs(angle) < POLYNOMIAL_RANGE)) return EXACT.sin(angle);
+
+				final int quadrant = Math.round(angle * TWO_OVER_PI);
+				final float x = reduce(angle, quadrant);
+				switch (quadrant & 3) {
+					case 0: return sinPolynomial(x);
+					case 1: return cosPolynomial(x);
+					case 2: return -sinPolynomial(x);
+					default: return -cosPolynomial(x);
+				}
+			}
+
+			@Override
+			public float cos(final float angle) {
+				if (!(Math.abs(angle) < POLYNOMIAL_RANGE)) return EXACT.cos(angle);
+
+				final int quadrant = Math.round(angle * TWO_OVER_PI);
+				final float x = reduce(angle, quadrant);
+				switch (quadrant & 3) {
+					case 0: return cosPolynomial(x);
+					case 1: return -sinPolynomial(x);
+					case 2: return -cosPolynomial(x);
+					default: return sinPolynomial(x);
+				}
+			}
+
+			@Override
+			public void sinCos(final float angle, @NotNull final float[] target, final int offset) {
+				if (!(Math.abs(angle) < POLYNOMIAL_RANGE)) {
+					EXACT.sinCos(angle, target, offset);
+					return;
+				}
+
+				final int quadrant = Math.round(angle * TWO_OVER_PI);
+				final float x = reduce(angle, quadrant);
+				final float s = sinPolynomial(x);
+				final float c = cosPolynomial(x);
+				switch (quadrant & 3) {
+					case 0: target[offset] = s; target[offset + 1] = c; break;
+					case 1: target[offset] = c; target[offset + 1] = -s; break;
+					case 2: target[offset] = -s; target[offset + 1] = -c; break;
+					default: target[offset] = -c; target[offset + 1] = s; break;
+				}
+			}
+		},
+
+		/**
+		 * Berechnung über eine interpolierte Tabelle
+		 */
+		TABLE {
+			@Override
+			public float sin(final float angle) {
+				if (!(Math.abs(angle) < POLYNOMIAL_RANGE)) return EXACT.sin(angle);
+
+				final int quadrant = Math.round(angle * TWO_OVER_PI);
+				return lookup(tableIndex(angle, quadrant));
+			}
+
+			@Override
+			public float cos(final float angle) {
+				if (!(Math.abs(angle) < POLYNOMIAL_RANGE)) return EXACT.cos(angle);
+
+				final int quadrant = Math.round(angle * TWO_OVER_PI);
+				return lookup(tableIndex(angle, quadrant) + TABLE_SIZE / 4);
+			}
+
+			@Override
+			public void sinCos(final float angle, @NotNull final float[] target, final int offset) {
+				if (!(Math.abs(angle) < POLYNOMIAL_RANGE)) {
+					EXACT.sinCos(angle, target, offset);
+					return;
+				}
+
+				final int quadrant = Math.round(angle * TWO_OVER_PI);
+				final float index = tableIndex(angle, quadrant);
+				target[offset] = lookup(index);
+				target[offset + 1] = lookup(index + TABLE_SIZE / 4);
+			}
+		};
+
+		/**
+		 * Berechnet den Sinus
+		 *
+		 * @param angle Der Winkel in radians
+		 * @return Der Sinus
+		 */
+		public abstract float sin(float angle);
+
+		/**
+		 * Berechnet den Kosinus
+		 *
+		 * @param angle Der Winkel in radians
+		 * @return Der Kosinus
+		 */
+		public abstract float cos(float angle);
+
+		/**
+		 * Berechnet Sinus und Kosinus eines Winkels
+		 *
+		 * @param angle Der Winkel in radians
+		 * @param target Das Zielarray; erhält den Sinus an <code>offset</code> und den Kosinus an <code>offset + 1</code>
+		 * @param offset Der Index im Zielarray
+		 */
+		public void sinCos(final float angle, @NotNull final float[] target, final int offset) {
+			target[offset] = sin(angle);
+			target[offset + 1] = cos(angle);
+		}
+	}
+
+	/**
+	 * Die beim Laden der Klasse gewählte Variante
+	 */
+	@NotNull
+	public static final Precision PRECISION = resolvePrecision();
+
+	/**
+	 * Zwischenspeicher je Thread für bis zu drei Sinus-Kosinus-Paare
+	 */
+	@NotNull
+	private static final ThreadLocal<float[]> scratch = new ThreadLocal<float[]>();
+
+	/**
+	 * Versteckter Konstruktor
+	 */
+	private Trigonometry() {}
+
+	/**
+	 * Bestimmt die Variante aus der System Property
+	 *
+	 * @return Die Variante
+	 */
+	@NotNull
+	private static Precision resolvePrecision() {
+		try {
+			final String value = System.getProperty(PRECISION_PROPERTY);
+			if (value != null) return Precision.valueOf(value.trim().toUpperCase());
+		}
+		catch (SecurityException e) {
+			// Standard verwenden
+		}
+		catch (IllegalArgumentException e) {
+			// Standard verwenden
+		}
+		return Precision.POLYNOMIAL;
+	}
+
+	/**
+	 * Berechnet den Sinus
+	 *
+	 * @param angle Der Winkel in radians
+	 * @return Der Sinus
+	 * @see #PRECISION
+	 */
+	public static float sin(final float angle) {
+		return PRECISION.sin(angle);
+	}
+
+	/**
+	 * Berechnet den Kosinus
+	 *
+	 * @param angle Der Winkel in radians
+	 * @return Der Kosinus
+	 * @see #PRECISION
+	 */
+	public static float cos(final float angle) {
+		return PRECISION.cos(angle);
+	}
+
+	/**
+	 * Berechnet Sinus und Kosinus eines Winkels
+	 *
+	 * @param angle Der Winkel in radians
+	 * @param target Das Zielarray; erhält den Sinus an <code>offset</code> und den Kosinus an <code>offset + 1</code>
+	 * @param offset Der Index im Zielarray
+	 * @see #PRECISION
+	 */
+	public static void sinCos(final float angle, @NotNull final float[] target, final int offset) {
+		PRECISION.sinCos(angle, target, offset);
+	}
+
+	/**
+	 * Berechnet Sinus und Kosinus einer Reihe von Winkeln
+	 *
+	 * @param angles Die Winkel in radians
+	 * @param sin Die Sinuswerte
+	 * @param cos Die Kosinuswerte
+	 * @param count Die Anzahl der Winkel
+	 * @see #PRECISION
+	 */
+	public static void sinCos(@NotNull final float[] angles, @NotNull final float[] sin, @NotNull final float[] cos, final int count) {
+		final Precision precision = PRECISION;
+		final float[] pair = getScratch();
+		for (int i = 0; i < count; ++i) {
+			precision.sinCos(angles[i], pair, 0);
+			sin[i] = pair[0];
+			cos[i] = pair[1];
+		}
+	}
+
+	/**
+	 * Liefert den Zwischenspeicher des aktuellen Threads für {@link #sinCos(float, float[], int)}
+	 * <p/>
+	 * Das Array hat sechs Einträge (drei Paare) und darf nur bis zum Ende der aufrufenden Methode verwendet werden.
+	 *
+	 * @return Der Zwischenspeicher
+	 */
+	@NotNull
+	static float[] getScratch() {
+		float[] pairs = scratch.get();
+		if (pairs == null) {
+			pairs = new float[6];
+			scratch.set(pairs);
+		}
+		return pairs;
+	}
+
+	/**
+	 * Reduziert einen Winkel auf [-π/4, π/4]
+	 *
+	 * @param angle Der Winkel in radians
+	 * @param quadrant Der Quadrant, <code>round(angle * 2/π)</code>
+	 * @return Der reduzierte Winkel
+	 */
+	private static float reduce(final float angle, final int quadrant) {
+		return ((angle - quadrant * HALF_PI_1) - quadrant * HALF_PI_2) - quadrant * HALF_PI_3;
+	}
+
+	/**
+	 * Bestimmt den Tabellenindex eines Winkels nach Reduktion auf [-π/4, π/4]
+	 *
+	 * @param angle Der Winkel in radians
+	 * @param quadrant Der Quadrant, <code>round(angle * 2/π)</code>
+	 * @return Der Tabellenindex in [-TABLE_SIZE/8, TABLE_SIZE * 7/8]
+	 */
+	private static float tableIndex(final float angle, final int quadrant) {
+		return reduce(angle, quadrant) * RAD_TO_INDEX + (quadrant & 3) * (TABLE_SIZE / 4);
+	}
+
+	/**
+	 * Sinuspolynom für x in [-π/4, π/4]
+	 *
+	 * @param x Der reduzierte Winkel
+	 * @return Der Sinus
+	 */
+	private static float sinPolynomial(final float x) {
+		final float x2 = x * x;
+		return x + x * x2 * (-1.6666654611e-1f + x2 * (8.3321608736e-3f + x2 * -1.9515295891e-4f));
+	}
+
+	/**
+	 * Kosinuspolynom für x in [-π/4, π/4]
+	 *
+	 * @param x Der reduzierte Winkel
+	 * @return Der Kosinus
+	 */
+	private static float cosPolynomial(final float x) {
+		final float x2 = x * x;
+		return 1.0f - 0.5f * x2 + x2 * x2 * (4.166664568298827e-2f + x2 * (-1.388731625493765e-3f + x2 * 2.443315711809948e-5f));
+	}
+
+	/**
+	 * Liest einen interpolierten Wert aus der Sinustabelle
+	 *
+	 * @param index Der (gebrochene, ggf. negative) Tabellenindex
+	 * @return Der Sinus
+	 */
+	private static float lookup(final float index) {
+		int i = (int) index;
+		if (index < i) --i;
+		final float fraction = index - i;
+		i &= TABLE_SIZE - 1;
+		final float a = SIN_TABLE[i];
+		return a + (SIN_TABLE[i + 1] - a) * fraction;
+	}
+}
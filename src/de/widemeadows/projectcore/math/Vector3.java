@@ -269,8 +269,19 @@ public final class Vector3 {
 	@NotNull
 	@ReturnsCachedValue
 	public Vector3 getNormalized() {
+		return getNormalized(createNew());
+	}
+
+	/**
+	 * Schreibt eine normalisierte Kopie dieses Vektors in einen Zielvektor
+	 *
+	 * @param target Der Zielvektor (darf diese Instanz sein)
+	 * @return Der Zielvektor für method chaining
+	 */
+	@NotNull
+	public Vector3 getNormalized(@NotNull final Vector3 target) {
 		final float invLength = 1.0f / getLength();
-		return createNew().set(x*invLength, y*invLength, z*invLength);
+		return target.set(x*invLength, y*invLength, z*invLength);
 	}
 	
 	/**
@@ -282,6 +293,36 @@ public final class Vector3 {
 		y *= invLength;
 		z *= invLength;
 	}
+
+	/**
+	 * Bezieht eine genähert normalisierte Kopie dieses Vektors
+	 *
+	 * @param refine <code>true</code>, wenn die Näherung um einen Newton-Schritt verfeinert werden soll
+	 * @return Der normalisierte Vektor (Kopie!)
+	 * @see MathUtils#invSqrtFast(float, boolean)
+	 */
+	@NotNull
+	@ReturnsCachedValue
+	public Vector3 getNormalizedFast(final boolean refine) {
+		final float invLength = MathUtils.invSqrtFast(x*x + y*y + z*z, refine);
+		return createNew().set(x*invLength, y*invLength, z*invLength);
+	}
+
+	/**
+	 * Normalisiert diesen Vektor genähert über eine reziproke Quadratwurzel.
+	 * <p/>
+	 * Die Länge des Ergebnisses weicht um höchstens {@link MathUtils#INV_SQRT_FAST_ERROR} bzw.
+	 * {@link MathUtils#INV_SQRT_REFINED_ERROR} von 1 ab. Der Nullvektor wird nicht unterstützt.
+	 *
+	 * @param refine <code>true</code>, wenn die Näherung um einen Newton-Schritt verfeinert werden soll
+	 * @see MathUtils#invSqrtFast(float, boolean)
+	 */
+	public void normalizeFast(final boolean refine) {
+		final float invLength = MathUtils.invSqrtFast(x*x + y*y + z*z, refine);
+		x *= invLength;
+		y *= invLength;
+		z *= invLength;
+	}
 		
 	/**
 	 * Addiert einen Vektor auf diesen Vektor und liefert das Ergebnis zurück.
@@ -293,7 +334,21 @@ public final class Vector3 {
 	 */
 	@ReturnsCachedValue
 	public Vector3 add(@NotNull final Vector3 b) {
-		return createNew().set(x+b.x, y+b.y, z+b.z);
+		return add(b, createNew());
+	}
+
+	/**
+	 * Addiert einen Vektor auf diesen Vektor und schreibt das Ergebnis in einen Zielvektor.
+	 * Dieser Vektor wird nicht modifiziert, sofern er nicht selbst das Ziel ist.
+	 *
+	 * @param b Der zu addierende Vektor
+	 * @param target Der Zielvektor (darf einer der Operanden sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see Vector3#add(Vector3)
+	 */
+	@NotNull
+	public Vector3 add(@NotNull final Vector3 b, @NotNull final Vector3 target) {
+		return target.set(x+b.x, y+b.y, z+b.z);
 	}
 	
 	/**
@@ -338,7 +393,21 @@ public final class Vector3 {
 	 */
 	@ReturnsCachedValue
 	public Vector3 sub(@NotNull final Vector3 b) {
-		return createNew().set(x-b.x, y-b.y, z-b.z);
+		return sub(b, createNew());
+	}
+
+	/**
+	 * Subtrahiert einen Vektor von diesem Vektor und schreibt das Ergebnis in einen Zielvektor.
+	 * Dieser Vektor wird nicht modifiziert, sofern er nicht selbst das Ziel ist.
+	 *
+	 * @param b Der zu subtrahierende Vektor
+	 * @param target Der Zielvektor (darf einer der Operanden sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see Vector3#sub(Vector3)
+	 */
+	@NotNull
+	public Vector3 sub(@NotNull final Vector3 b, @NotNull final Vector3 target) {
+		return target.set(x-b.x, y-b.y, z-b.z);
 	}
 	
 	/**
@@ -384,7 +453,21 @@ public final class Vector3 {
 	@NotNull
 	@ReturnsCachedValue
 	public Vector3 mul(final float f) {
-		return createNew().set(x*f, y*f, z*f);
+		return mul(f, createNew());
+	}
+
+	/**
+	 * Skaliert einen Vektor und schreibt das Ergebnis in einen Zielvektor.
+	 * Dieser Vektor wird nicht modifiziert, sofern er nicht selbst das Ziel ist.
+	 *
+	 * @param f Skalierungsfaktor
+	 * @param target Der Zielvektor (darf diese Instanz sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see Vector3#mul(float)
+	 */
+	@NotNull
+	public Vector3 mul(final float f, @NotNull final Vector3 target) {
+		return target.set(x*f, y*f, z*f);
 	}
 	
 	/**
@@ -449,10 +532,23 @@ public final class Vector3 {
 	@NotNull
 	@ReturnsCachedValue
 	public Vector3 cross(@NotNull final Vector3 b) {
-		float nx = y*b.z - z*b.y;
-		float ny = z*b.x - x*b.z;
-		float nz = x*b.y - y*b.x;
-		return createNew().set(nx, ny, nz);
+		return cross(b, createNew());
+	}
+
+	/**
+	 * Berechnet das Kreuzprodukt zweier Vektoren und schreibt das Ergebnis in einen Zielvektor
+	 *
+	 * @param b Der zweite Vektor
+	 * @param target Der Zielvektor (darf einer der Operanden sein)
+	 * @return Der Zielvektor für method chaining
+	 * @see Vector3#cross(Vector3)
+	 */
+	@NotNull
+	public Vector3 cross(@NotNull final Vector3 b, @NotNull final Vector3 target) {
+		final float nx = y*b.z - z*b.y;
+		final float ny = z*b.x - x*b.z;
+		final float nz = x*b.y - y*b.x;
+		return target.set(nx, ny, nz);
 	}
 	
 	/**
@@ -488,7 +584,18 @@ public final class Vector3 {
 	@NotNull
 	@ReturnsCachedValue
 	public final Vector3 getInverted() {
-		return createNew().set(-x, -y, -z);
+		return getInverted(createNew());
+	}
+
+	/**
+	 * Schreibt eine invertierte Kopie dieses Vektors in einen Zielvektor
+	 *
+	 * @param target Der Zielvektor (darf diese Instanz sein)
+	 * @return Der Zielvektor für method chaining
+	 */
+	@NotNull
+	public final Vector3 getInverted(@NotNull final Vector3 target) {
+		return target.set(-x, -y, -z);
 	}
 
 	/**
@@ -602,7 +709,18 @@ public final class Vector3 {
 	 */
 	@ReturnsCachedValue @NotNull
 	public final Vector3 getAbsolute() {
-		return Vector3.createNew(Math.abs(x), Math.abs(y), Math.abs(z));
+		return getAbsolute(createNew());
+	}
+
+	/**
+	 * Schreibt den Absolutbetrag des Vektors in einen Zielvektor
+	 *
+	 * @param target Der Zielvektor (darf diese Instanz sein)
+	 * @return Der Zielvektor für method chaining
+	 */
+	@NotNull
+	public final Vector3 getAbsolute(@NotNull final Vector3 target) {
+		return target.set(Math.abs(x), Math.abs(y), Math.abs(z));
 	}
 
 	/**
@@ -705,8 +823,10 @@ public final class Vector3 {
 	 *
 	 */
 	public void rotateX(float angle) {
-		final float c = FloatMath.cos(angle);
-		final float s = FloatMath.sin(angle);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(angle, sinCos, 0);
+		final float c = sinCos[1];
+		final float s = sinCos[0];
 		rotateX(c, s);
 	}
 
@@ -736,8 +856,10 @@ public final class Vector3 {
 	 *
 	 */
 	public void rotateY(float angle) {
-		final float c = FloatMath.cos(angle);
-		final float s = FloatMath.sin(angle);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(angle, sinCos, 0);
+		final float c = sinCos[1];
+		final float s = sinCos[0];
 		rotateY(c, s);
 	}
 
@@ -766,8 +888,10 @@ public final class Vector3 {
 	 * @param angle Winkel in Grad, um den rotiert wird.
 	 */
 	public void rotateZ(float angle) {
-		final float c = FloatMath.cos(angle);
-		final float s = FloatMath.sin(angle);
+		final float[] sinCos = Trigonometry.getScratch();
+		Trigonometry.sinCos(angle, sinCos, 0);
+		final float c = sinCos[1];
+		final float s = sinCos[0];
 		rotateZ(c, s);
 	}
 
@@ -0,0 +1,392 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.widemeadows.projectcore.math.MathUtils.deg2rad;
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link BatchMath}
+ */
+public class BatchMathTests {
+
+	/**
+	 * Deltawert für Vergleiche
+	 */
+	private static final float EPSILON = 0.0001f;
+
+	/**
+	 * Erzeugt eine affine Testmatrix
+	 *
+	 * @param random Der Zufallsgenerator
+	 * @return Die Matrix
+	 */
+	private static Matrix4 createMatrix(Random random) {
+		Matrix4 rotation = MatrixFactory.getRotationEulerRPY(random.nextFloat(), random.nextFloat(), random.nextFloat());
+		Matrix4 translation = MatrixFactory.getTranslation(random.nextFloat() * 10, random.nextFloat() * 10, random.nextFloat() * 10);
+		return rotation.mul(translation);
+	}
+
+	/**
+	 * Paarweise Matrixmultiplikation entspricht {@link Matrix4#mul(Matrix4)}
+	 */
+	@Test
+	public void matrixMultiplication() {
+		final int count = 7;
+		Random random = new Random(1);
+
+		Matrix4[] left = new Matrix4[count];
+		Matrix4[] right = new Matrix4[count];
+		float[] a = new float[count * BatchMath.MATRIX_STRIDE];
+		float[] b = new float[count * BatchMath.MATRIX_STRIDE];
+		for (int i = 0; i < count; ++i) {
+			left[i] = createMatrix(random);
+			right[i] = createMatrix(random);
+			System.arraycopy(left[i].values, 0, a, i * BatchMath.MATRIX_STRIDE, BatchMath.MATRIX_STRIDE);
+			System.arraycopy(right[i].values, 0, b, i * BatchMath.MATRIX_STRIDE, BatchMath.MATRIX_STRIDE);
+		}
+
+		float[] pairwise = new float[a.length];
+		BatchMath.mul(a, b, pairwise, count);
+
+		float[] shared = a.clone();
+		BatchMath.mul(shared, right[0], shared, count);
+
+		for (int i = 0; i < count; ++i) {
+			Matrix4 expected = left[i].mul(right[i]);
+			Matrix4 expectedShared = left[i].mul(right[0]);
+			for (int j = 0; j < BatchMath.MATRIX_STRIDE; ++j) {
+				assertEquals(expected.values[j], pairwise[i * BatchMath.MATRIX_STRIDE + j], EPSILON);
+				assertEquals(expectedShared.values[j], shared[i * BatchMath.MATRIX_STRIDE + j], EPSILON);
+			}
+		}
+	}
+
+	/**
+	 * Transformation von Punkten und Richtungen entspricht den Methoden von {@link Matrix4}
+	 */
+	@Test
+	public void pointAndVectorTransformation() {
+		final int count = 9;
+		Random random = new Random(2);
+		Matrix4 matrix = createMatrix(random);
+
+		float[] x = new float[count], y = new float[count], z = new float[count];
+		for (int i = 0; i < count; ++i) {
+			x[i] = random.nextFloat() * 4 - 2;
+			y[i] = random.nextFloat() * 4 - 2;
+			z[i] = random.nextFloat() * 4 - 2;
+		}
+
+		float[] px = new float[count], py = new float[count], pz = new float[count];
+		BatchMath.transformPoints(matrix, x, y, z, px, py, pz, count);
+		float[] vx = new float[count], vy = new float[count], vz = new float[count];
+		BatchMath.transformVectors(matrix, x, y, z, vx, vy, vz, count);
+
+		for (int i = 0; i < count; ++i) {
+			Vector3 point = matrix.transformPoint(Vector3.createNew(x[i], y[i], z[i]));
+			assertEquals(point.x, px[i], EPSILON);
+			assertEquals(point.y, py[i], EPSILON);
+			assertEquals(point.z, pz[i], EPSILON);
+
+			Vector3 vector = matrix.transformVector(Vector3.createNew(x[i], y[i], z[i]));
+			assertEquals(vector.x, vx[i], EPSILON);
+			assertEquals(vector.y, vy[i], EPSILON);
+			assertEquals(vector.z, vz[i], EPSILON);
+		}
+	}
+
+	/**
+	 * Skalarprodukt und Normalisierung entsprechen den Methoden von {@link Vector3}
+	 */
+	@Test
+	public void dotAndNormalize() {
+		float[] ax = { 1, 0, 3 }, ay = { 2, 0, 4 }, az = { 3, 5, 0 };
+		float[] bx = { 4, 1, 1 }, by = { 5, 1, 1 }, bz = { 6, 1, 1 };
+		float[] dots = new float[3];
+
+		BatchMath.dot(ax, ay, az, bx, by, bz, dots, 3);
+		assertEquals(32, dots[0], EPSILON);
+		assertEquals(5, dots[1], EPSILON);
+		assertEquals(7, dots[2], EPSILON);
+
+		BatchMath.normalize(ax, ay, az, 3);
+		for (int i = 0; i < 3; ++i) {
+			assertEquals(1, ax[i] * ax[i] + ay[i] * ay[i] + az[i] * az[i], EPSILON);
+		}
+		assertEquals(0.6f, ax[2], EPSILON);
+		assertEquals(0.8f, ay[2], EPSILON);
+	}
+
+	/**
+	 * Genäherte Normalisierung hält die dokumentierten Fehlerschranken ein
+	 */
+	@Test
+	public void normalizeFast() {
+		final int count = 1000;
+		Random random = new Random(3);
+		float[] x = new float[count], y = new float[count], z = new float[count];
+		for (int i = 0; i < count; ++i) {
+			x[i] = random.nextFloat() * 200 - 100;
+			y[i] = random.nextFloat() * 200 - 100;
+			z[i] = random.nextFloat() * 200 - 100;
+		}
+
+		float[] fx = x.clone(), fy = y.clone(), fz = z.clone();
+		BatchMath.normalizeFast(fx, fy, fz, count, false);
+		float[] rx = x.clone(), ry = y.clone(), rz = z.clone();
+		BatchMath.normalizeFast(rx, ry, rz, count, true);
+
+		for (int i = 0; i < count; ++i) {
+			assertEquals(1, (float) Math.sqrt(fx[i] * fx[i] + fy[i] * fy[i] + fz[i] * fz[i]), MathUtils.INV_SQRT_FAST_ERROR);
+			assertEquals(1, (float) Math.sqrt(rx[i] * rx[i] + ry[i] * ry[i] + rz[i] * rz[i]), MathUtils.INV_SQRT_REFINED_ERROR);
+
+			Vector3 vector = Vector3.createNew(x[i], y[i], z[i]);
+			vector.normalizeFast(true);
+			assertEquals(rx[i], vector.x, 0);
+			assertEquals(ry[i], vector.y, 0);
+			assertEquals(rz[i], vector.z, 0);
+		}
+	}
+
+	/**
+	 * Slab-Test gegen mehrere Boxen
+	 */
+	@Test
+	public void rayBoxIntersection() {
+		final Ray3 ray = RayFactory.rayFromTwoPoints(Vector3.createNew(-10, 0, 0), Vector3.createNew(10, 0, 0));
+
+		// getroffen, verfehlt, hinter dem Ursprung, Ursprung innerhalb
+		float[] minX = { -1, -1, -30, -11 }, minY = { -1, 5, -1, -1 }, minZ = { -1, -1, -1, -1 };
+		float[] maxX = {  1,  1, -20,  -9 }, maxY = {  1, 6,  1,  1 }, maxZ = {  1,  1,  1,  1 };
+		float[] t = new float[4];
+
+		int hits = BatchMath.intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, 0, 100, t, 4);
+		assertEquals(2, hits);
+		assertEquals(9, t[0], EPSILON);
+		assertEquals(Float.POSITIVE_INFINITY, t[1]);
+		assertEquals(Float.POSITIVE_INFINITY, t[2]);
+		assertEquals(0, t[3], EPSILON);
+
+		AxisAlignedBox box = AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1);
+		assertEquals(box.getIntersectionF(ray, 0, 100), t[0], EPSILON);
+	}
+
+	/**
+	 * Slab-Test über einen Bereich entspricht dem Einzeltest der Box
+	 */
+	@Test
+	public void rayBoxIntersectionRange() {
+		final int count = 1000;
+		Random random = new Random(5);
+		float[] minX = new float[count], minY = new float[count], minZ = new float[count];
+		float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		for (int i = 0; i < count; ++i) {
+			float cx = random.nextFloat() * 40 - 20, cy = random.nextFloat() * 40 - 20, cz = random.nextFloat() * 40 - 20;
+			float ex = random.nextFloat() * 3, ey = random.nextFloat() * 3, ez = random.nextFloat() * 3;
+			boxes[i] = AxisAlignedBox.createNew(cx, cy, cz, ex, ey, ez);
+			minX[i] = cx - ex;
+			minY[i] = cy - ey;
+			minZ[i] = cz - ez;
+			maxX[i] = cx + ex;
+			maxY[i] = cy + ey;
+			maxZ[i] = cz + ez;
+		}
+
+		final Ray3 ray = Ray3.createNew(-30, 1, 2, 1, 0.1f, -0.05f);
+		float[] t = new float[count];
+		java.util.Arrays.fill(t, -1);
+		int hits = BatchMath.intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, 0, 100, t, 100, 800);
+
+		int expected = 0;
+		for (int i = 0; i < count; ++i) {
+			if (i < 100 || i >= 900) {
+				assertEquals(-1f, t[i]);
+				continue;
+			}
+
+			// Die Box liefert NaN, wenn der Ursprung in ihr liegt; der Stapeltest dann nearBound
+			float single = boxes[i].getIntersectionF(ray, 0, 100);
+			if (t[i] != Float.POSITIVE_INFINITY) ++expected;
+			if (!Float.isNaN(single)) assertEquals(single, t[i], EPSILON);
+			else assertTrue(t[i] == Float.POSITIVE_INFINITY || t[i] == 0);
+		}
+		assertEquals(expected, hits);
+		assertTrue(hits > 0);
+	}
+
+	/**
+	 * Ursprung in der Box und Strahlen in einer Begrenzungsebene für Einzel-, Stapel- und Bündeltest
+	 */
+	@Test
+	public void rayBoxDegenerateOrigins() {
+		AxisAlignedBox box = AxisAlignedBox.createNew(0, 0, 0, 1, 2, 3);
+		float[] minX = {-1}, minY = {-2}, minZ = {-3}, maxX = {1}, maxY = {2}, maxZ = {3};
+		float[] t = new float[1], packetT = new float[1];
+		RayHit hit = new RayHit();
+		RayPacket packet = new RayPacket(1);
+
+		// Ursprung in der Box: Einzeltest wertet nur den Eintritt, Stapel- und Bündeltest die Überlappung
+		Ray3 ray = Ray3.createNew(0, 0, 0, 1, 0, 0);
+		packet.set(0, ray);
+		assertEquals(-1, box.getIntersectionF(ray), EPSILON);
+		assertTrue(Float.isNaN(box.getIntersectionF(ray, 0, 100)));
+		assertEquals(1, box.getIntersectionF(ray, 0, 100, hit), EPSILON);
+		assertEquals(1, BatchMath.intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, 0, 100, t, 1));
+		assertEquals(0f, t[0]);
+		assertEquals(1, BatchMath.intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, 0.5f, 100, t, 1));
+		assertEquals(0.5f, t[0]);
+		assertEquals(1, packet.intersect(box, 0, 100, 1, packetT));
+		assertEquals(0f, packetT[0]);
+
+		// Strahl in einer Begrenzungsebene (Richtungskomponente 0): alle Tests werten einheitlich als Fehlschlag
+		Ray3[] grazing = {
+				Ray3.createNew(1, -10, 0, 0, 1, 0),
+				Ray3.createNew(-5, 2, 0, 1, 0, 0),
+				Ray3.createNew(0, -10, -3, 0, 1, 0),
+				Ray3.createNew(0, 0, 0, 0, 0, 1).setOrigin(-1, 0, 0)
+		};
+		for (Ray3 r : grazing) {
+			packet.set(0, r);
+			assertTrue(Float.isNaN(box.getIntersectionF(r)));
+			assertTrue(Float.isNaN(box.getIntersectionF(r, 0, 100)));
+			assertTrue(Float.isNaN(box.getIntersectionF(r, 0, 100, hit)));
+			assertEquals(0, BatchMath.intersect(r, minX, minY, minZ, maxX, maxY, maxZ, 0, 100, t, 1));
+			assertEquals(Float.POSITIVE_INFINITY, t[0]);
+			assertEquals(0, packet.intersect(box, 0, 100, 1, packetT));
+		}
+	}
+
+	/**
+	 * Vergleich der Punkttransformation über {@link Matrix4} und {@link BatchMath}
+	 */
+	// @Test
+	public void pointTransformationPerformance() {
+		final int count = 100000;
+		final int iterations = 1000;
+		final Matrix4 matrix = MatrixFactory.getRotationY(deg2rad(30));
+
+		final Vector3[] points = new Vector3[count];
+		final float[] x = new float[count], y = new float[count], z = new float[count];
+		for (int i = 0; i < count; ++i) {
+			points[i] = Vector3.createNew(i, -i, 2 * i);
+			x[i] = i;
+			y[i] = -i;
+			z[i] = 2 * i;
+		}
+
+		for (int i = 10; i >= 0; --i) {
+			for (Vector3 point : points) matrix.transformPointInPlace(point);
+			BatchMath.transformPoints(matrix, x, y, z, x, y, z, count);
+		}
+
+		long start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			for (Vector3 point : points) matrix.transformPointInPlace(point);
+		}
+		long elapsedScalar = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			BatchMath.transformPoints(matrix, x, y, z, x, y, z, count);
+		}
+		long elapsedBatch = System.nanoTime() - start;
+
+		System.out.println("Performance Matrix4.transformPointInPlace: " + elapsedScalar / (float) iterations / count + " ns");
+		System.out.println("Performance BatchMath.transformPoints: " + elapsedBatch / (float) iterations / count + " ns");
+	}
+
+	/**
+	 * Vergleich der exakten und der genäherten Normalisierung über {@link BatchMath}
+	 */
+	// @Test
+	public void normalizationPerformance() {
+		final int count = 100000;
+		final int iterations = 1000;
+
+		final float[] x = new float[count], y = new float[count], z = new float[count];
+		for (int i = 0; i < count; ++i) {
+			x[i] = i + 1;
+			y[i] = -i;
+			z[i] = 2 * i;
+		}
+
+		for (int i = 10; i >= 0; --i) {
+			BatchMath.normalize(x, y, z, count);
+			BatchMath.normalizeFast(x, y, z, count, false);
+			BatchMath.normalizeFast(x, y, z, count, true);
+		}
+
+		long start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			BatchMath.normalize(x, y, z, count);
+		}
+		long elapsedExact = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			BatchMath.normalizeFast(x, y, z, count, false);
+		}
+		long elapsedFast = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			BatchMath.normalizeFast(x, y, z, count, true);
+		}
+		long elapsedRefined = System.nanoTime() - start;
+
+		System.out.println("Performance BatchMath.normalize: " + elapsedExact / (float) iterations / count + " ns");
+		System.out.println("Performance BatchMath.normalizeFast: " + elapsedFast / (float) iterations / count + " ns");
+		System.out.println("Performance BatchMath.normalizeFast (refined): " + elapsedRefined / (float) iterations / count + " ns");
+	}
+
+	/**
+	 * Vergleich des Slab-Tests über {@link AxisAlignedBox} und {@link BatchMath}
+	 */
+	// @Test
+	public void rayBoxPerformance() {
+		final int count = 100000;
+		final int iterations = 200;
+		Random random = new Random(6);
+		float[] minX = new float[count], minY = new float[count], minZ = new float[count];
+		float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		for (int i = 0; i < count; ++i) {
+			float cx = random.nextFloat() * 200 - 100, cy = random.nextFloat() * 200 - 100, cz = random.nextFloat() * 200 - 100;
+			boxes[i] = AxisAlignedBox.createNew(cx, cy, cz, 1, 1, 1);
+			minX[i] = cx - 1;
+			minY[i] = cy - 1;
+			minZ[i] = cz - 1;
+			maxX[i] = cx + 1;
+			maxY[i] = cy + 1;
+			maxZ[i] = cz + 1;
+		}
+		final Ray3 ray = Ray3.createNew(-150, 0, 0, 1, 0.01f, 0.02f);
+		final float[] t = new float[count];
+
+		int hits = 0;
+		for (int i = 10; i >= 0; --i) {
+			hits += BatchMath.intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, 0, 1000, t, count);
+			for (int j = 0; j < count; ++j) if (!Float.isNaN(boxes[j].getIntersectionF(ray, 0, 1000))) ++hits;
+		}
+
+		long start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			hits += BatchMath.intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, 0, 1000, t, count);
+		}
+		long elapsedBatch = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			for (int j = 0; j < count; ++j) if (!Float.isNaN(boxes[j].getIntersectionF(ray, 0, 1000))) ++hits;
+		}
+		long elapsedSingle = System.nanoTime() - start;
+
+		System.out.println("Performance BatchMath.intersect: " + elapsedBatch / (float) iterations / count + " ns (" + hits + ")");
+		System.out.println("Performance AxisAlignedBox.getIntersectionF: " + elapsedSingle / (float) iterations / count + " ns");
+	}
+}
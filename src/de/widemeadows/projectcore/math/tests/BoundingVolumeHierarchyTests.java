@@ -0,0 +1,254 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link BoundingVolumeHierarchy}
+ */
+public class BoundingVolumeHierarchyTests {
+
+	/**
+	 * Deltawert für Vergleiche
+	 */
+	private static final float EPSILON = 0.0001f;
+
+	/**
+	 * Erzeugt einen zufälligen Strahl durch das Volumen
+	 *
+	 * @param random Der Zufallsgenerator
+	 * @return Der Strahl
+	 */
+	private static Ray3 createRay(Random random) {
+		return RayFactory.rayFromTwoPoints(
+				Vector3.createNew(random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150),
+				Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50));
+	}
+
+	/**
+	 * Nächster Treffer und beliebiger Treffer entsprechen der linearen Suche
+	 */
+	@Test
+	public void rayQueries() {
+		final int count = 2000;
+		Random random = new Random(1);
+		AxisAlignedBox[] boxes = TestBoxes.create(count, random);
+
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(boxes, count);
+		assertEquals(count, bvh.getPrimitiveCount());
+		assertTrue(bvh.getDepth() < 40);
+
+		float[] minX = new float[count], minY = new float[count], minZ = new float[count];
+		float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+		for (int i = 0; i < count; ++i) {
+			minX[i] = boxes[i].center.x - boxes[i].extent.x; maxX[i] = boxes[i].center.x + boxes[i].extent.x;
+			minY[i] = boxes[i].center.y - boxes[i].extent.y; maxY[i] = boxes[i].center.y + boxes[i].extent.y;
+			minZ[i] = boxes[i].center.z - boxes[i].extent.z; maxZ[i] = boxes[i].center.z + boxes[i].extent.z;
+		}
+
+		float[] t = new float[count];
+		float[] distance = new float[1];
+		int hits = 0;
+		for (int r = 0; r < 500; ++r) {
+			Ray3 ray = createRay(random);
+
+			// Referenz: lineare Suche mit derselben Slab-Semantik
+			BatchMath.intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, 0, 1000, t, count);
+			int expected = BoundingVolumeHierarchy.NO_HIT;
+			float expectedT = Float.POSITIVE_INFINITY;
+			for (int i = 0; i < count; ++i) {
+				if (t[i] < expectedT) {
+					expectedT = t[i];
+					expected = i;
+				}
+			}
+
+			int actual = bvh.intersectClosest(ray, 0, 1000, distance);
+			assertEquals(expected != BoundingVolumeHierarchy.NO_HIT, bvh.intersectsAny(ray, 0, 1000));
+			if (expected == BoundingVolumeHierarchy.NO_HIT) {
+				assertEquals(BoundingVolumeHierarchy.NO_HIT, actual);
+				continue;
+			}
+
+			++hits;
+			assertEquals(expectedT, distance[0], EPSILON);
+			assertEquals(expectedT, t[actual], EPSILON);
+		}
+		assertTrue(hits > 50);
+	}
+
+	/**
+	 * Überlappung mit Boxen und Kugeln entspricht der linearen Suche
+	 */
+	@Test
+	public void overlapQueries() {
+		final int count = 1000;
+		Random random = new Random(2);
+		AxisAlignedBox[] boxes = TestBoxes.create(count, random);
+
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(2);
+		bvh.build(boxes, count);
+
+		int[] results = new int[count];
+		for (int q = 0; q < 100; ++q) {
+			float x = random.nextFloat() * 200 - 100, y = random.nextFloat() * 200 - 100, z = random.nextFloat() * 200 - 100;
+			float size = random.nextFloat() * 20;
+
+			AxisAlignedBox box = AxisAlignedBox.createNew(x, y, z, size, size, size);
+			int found = bvh.query(box, results);
+			int expected = 0;
+			for (int i = 0; i < count; ++i) {
+				AxisAlignedBox other = boxes[i];
+				boolean overlaps = Math.abs(other.center.x - x) <= other.extent.x + size
+						&& Math.abs(other.center.y - y) <= other.extent.y + size
+						&& Math.abs(other.center.z - z) <= other.extent.z + size;
+				if (!overlaps) continue;
+				++expected;
+				assertTrue(contains(results, found, i));
+			}
+			assertEquals(expected, found);
+
+			Sphere sphere = Sphere.createNew(x, y, z, size);
+			found = bvh.query(sphere, results);
+			expected = 0;
+			for (int i = 0; i < count; ++i) {
+				AxisAlignedBox other = boxes[i];
+				float dx = Math.max(0, Math.abs(other.center.x - x) - other.extent.x);
+				float dy = Math.max(0, Math.abs(other.center.y - y) - other.extent.y);
+				float dz = Math.max(0, Math.abs(other.center.z - z) - other.extent.z);
+				if (dx * dx + dy * dy + dz * dz > size * size) continue;
+				++expected;
+				assertTrue(contains(results, found, i));
+			}
+			assertEquals(expected, found);
+		}
+	}
+
+	/**
+	 * Leere und entartete Hierarchien
+	 */
+	@Test
+	public void degenerateInput() {
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(1);
+		Ray3 ray = RayFactory.rayFromTwoPoints(Vector3.createNew(-10, 0, 0), Vector3.createNew(10, 0, 0));
+
+		bvh.build(new AxisAlignedBox[0], 0);
+		assertEquals(BoundingVolumeHierarchy.NO_HIT, bvh.intersectClosest(ray, 0, 100, null));
+		assertFalse(bvh.intersectsAny(ray, 0, 100));
+
+		// Identische Boxen können nicht über Schwerpunkte getrennt werden
+		AxisAlignedBox[] boxes = new AxisAlignedBox[9];
+		Arrays.fill(boxes, AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1));
+		bvh.build(boxes, boxes.length);
+		float[] distance = new float[1];
+		assertTrue(bvh.intersectClosest(ray, 0, 100, distance) != BoundingVolumeHierarchy.NO_HIT);
+		assertEquals(9, distance[0], EPSILON);
+		assertEquals(9, bvh.query(Sphere.createNew(0, 0, 0, 0.5f), new int[9]));
+	}
+
+	/**
+	 * Nachführen und Rotationen nach bewegten Objekten
+	 */
+	@Test
+	public void refitAndRotate() {
+		final int count = 1000;
+		Random random = new Random(4);
+		AxisAlignedBox[] boxes = TestBoxes.create(count, random);
+
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(boxes, count);
+
+		// Ein bewegtes Objekt berührt höchstens seinen Pfad zur Wurzel
+		boxes[17].center.addInPlace(0.5f, 0, 0);
+		bvh.updatePrimitive(17, boxes[17]);
+		assertTrue(bvh.refit() <= bvh.getDepth());
+		assertEquals(0, bvh.refit());
+
+		// Große Drift vieler Objekte
+		int rotations = 0;
+		for (int frame = 0; frame < 10; ++frame) {
+			for (int i = 0; i < count; i += 3) {
+				boxes[i].center.addInPlace(random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10);
+				bvh.updatePrimitive(i, boxes[i]);
+			}
+			assertTrue(bvh.refit() > 0);
+			rotations += bvh.rotate();
+		}
+		assertTrue(rotations > 0);
+
+		// Ergebnisse entsprechen einer neu aufgebauten Hierarchie
+		BoundingVolumeHierarchy reference = new BoundingVolumeHierarchy();
+		reference.build(boxes, count);
+
+		int[] expectedResults = new int[count], actualResults = new int[count];
+		float[] expectedT = new float[1], actualT = new float[1];
+		for (int q = 0; q < 200; ++q) {
+			Ray3 ray = createRay(random);
+			int expected = reference.intersectClosest(ray, 0, 1000, expectedT);
+			int actual = bvh.intersectClosest(ray, 0, 1000, actualT);
+			assertEquals(expected == BoundingVolumeHierarchy.NO_HIT, actual == BoundingVolumeHierarchy.NO_HIT);
+			if (expected != BoundingVolumeHierarchy.NO_HIT) assertEquals(expectedT[0], actualT[0], EPSILON);
+
+			Sphere sphere = Sphere.createNew(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 20);
+			int expectedCount = reference.query(sphere, expectedResults);
+			assertEquals(expectedCount, bvh.query(sphere, actualResults));
+			Arrays.sort(expectedResults, 0, expectedCount);
+			Arrays.sort(actualResults, 0, expectedCount);
+			for (int i = 0; i < expectedCount; ++i) assertEquals(expectedResults[i], actualResults[i]);
+		}
+	}
+
+	/**
+	 * Ermittelt, ob ein Index in den Ergebnissen enthalten ist
+	 */
+	private static boolean contains(int[] results, int count, int value) {
+		for (int i = 0; i < count; ++i) {
+			if (results[i] == value) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Vergleich von linearer Suche und BVH beim Picking
+	 */
+	// @Test
+	public void pickingPerformance() {
+		final int count = 100000;
+		final int rays = 10000;
+		Random random = new Random(3);
+		AxisAlignedBox[] boxes = TestBoxes.create(count, random);
+		Ray3[] queries = new Ray3[rays];
+		for (int i = 0; i < rays; ++i) queries[i] = createRay(random);
+
+		long start = System.nanoTime();
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(boxes, count);
+		long elapsedBuild = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int r = 0; r < rays / 100; ++r) {
+			float closest = Float.POSITIVE_INFINITY;
+			for (int i = 0; i < count; ++i) {
+				float t = boxes[i].getIntersectionF(queries[r], 0, 1000);
+				if (t < closest) closest = t;
+			}
+		}
+		long elapsedLinear = (System.nanoTime() - start) * 100;
+
+		start = System.nanoTime();
+		for (int r = 0; r < rays; ++r) {
+			bvh.intersectClosest(queries[r], 0, 1000, null);
+		}
+		long elapsedBvh = System.nanoTime() - start;
+
+		System.out.println("Performance BVH-Aufbau: " + elapsedBuild / 1000000f + " ms");
+		System.out.println("Performance lineares Picking: " + elapsedLinear / (float) rays + " ns");
+		System.out.println("Performance BVH-Picking: " + elapsedBvh / (float) rays + " ns");
+	}
+}
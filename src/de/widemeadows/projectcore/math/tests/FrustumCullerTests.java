@@ -0,0 +1,259 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.AxisAlignedBox;
+import de.widemeadows.projectcore.math.Frustum;
+import de.widemeadows.projectcore.math.FrustumCuller;
+import de.widemeadows.projectcore.math.Sphere;
+import de.widemeadows.projectcore.math.Vector3;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link FrustumCuller}
+ */
+public class FrustumCullerTests {
+
+	/**
+	 * Erzeugt einen schräg blickenden Sichtkegel
+	 */
+	@NotNull
+	private static Frustum createFrustum() {
+		Frustum frustum = new Frustum(1.5f, 0.5f, 1, 120);
+		frustum.setCamera(Vector3.createNew(-10, 5, 3), Vector3.createNew(20, -3, -40), Vector3.createNew(0, 1, 0));
+		return frustum;
+	}
+
+	/**
+	 * Prüft ein Bit der Bitmenge
+	 */
+	private static boolean isSet(@NotNull long[] visible, int index) {
+		return (visible[index >>> 6] & (1L << (index & 63))) != 0;
+	}
+
+	/**
+	 * Kugeln gegen den Einzeltest, seriell und parallel
+	 */
+	@Test
+	public void spheresMatchSingleTests() {
+		final int count = 5001;
+		Random random = new Random(1);
+		float[] x = new float[count], y = new float[count], z = new float[count], r = new float[count];
+		for (int i = 0; i < count; ++i) {
+			x[i] = random.nextFloat() * 300 - 150;
+			y[i] = random.nextFloat() * 300 - 150;
+			z[i] = random.nextFloat() * 300 - 150;
+			r[i] = random.nextFloat() * 5;
+		}
+
+		Frustum frustum = createFrustum();
+		long[] visible = new long[FrustumCuller.getWordCount(count)];
+		int found = new FrustumCuller().cullSpheres(frustum, x, y, z, r, count, visible);
+
+		int expected = 0;
+		for (int i = 0; i < count; ++i) {
+			boolean hit = frustum.intersects(Sphere.createNew(x[i], y[i], z[i], r[i]));
+			if (hit) ++expected;
+			assertEquals(hit, isSet(visible, i));
+		}
+		assertEquals(expected, found);
+		assertTrue(found > 50);
+		assertTrue(found < count);
+
+		// Bits hinter dem letzten Objekt bleiben leer
+		assertEquals(0, visible[visible.length - 1] >>> (count & 63));
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			long[] parallel = new long[visible.length];
+			assertEquals(found, new FrustumCuller(executor, 100).cullSpheres(frustum, x, y, z, r, count, parallel));
+			for (int i = 0; i < visible.length; ++i) {
+				assertEquals(visible[i], parallel[i]);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		// Kompakte Indexliste
+		int[] indices = new int[found];
+		assertEquals(found, FrustumCuller.getIndices(visible, count, indices));
+		for (int i = 0; i < found; ++i) {
+			assertTrue(isSet(visible, indices[i]));
+			if (i > 0) assertTrue(indices[i - 1] < indices[i]);
+		}
+	}
+
+	/**
+	 * Boxen gegen den Einzeltest, seriell und parallel
+	 */
+	@Test
+	public void boxesMatchSingleTests() {
+		final int count = 3000;
+		Random random = new Random(2);
+		float[] minX = new float[count], minY = new float[count], minZ = new float[count];
+		float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		for (int i = 0; i < count; ++i) {
+			// Viertelschritte, damit Minimum und Maximum exakt darstellbar sind
+			float cx = random.nextInt(1200) / 4f - 150, cy = random.nextInt(1200) / 4f - 150, cz = random.nextInt(1200) / 4f - 150;
+			float ex = random.nextInt(20) / 4f, ey = random.nextInt(20) / 4f, ez = random.nextInt(20) / 4f;
+			boxes[i] = AxisAlignedBox.createNew(cx, cy, cz, ex, ey, ez);
+			minX[i] = cx - ex;
+			minY[i] = cy - ey;
+			minZ[i] = cz - ez;
+			maxX[i] = cx + ex;
+			maxY[i] = cy + ey;
+			maxZ[i] = cz + ez;
+		}
+
+		Frustum frustum = createFrustum();
+		long[] visible = new long[FrustumCuller.getWordCount(count)];
+		int found = new FrustumCuller().cullBoxes(frustum, minX, minY, minZ, maxX, maxY, maxZ, count, visible);
+
+		int expected = 0;
+		for (int i = 0; i < count; ++i) {
+			boolean hit = frustum.intersects(boxes[i]);
+			if (hit) ++expected;
+			assertEquals(hit, isSet(visible, i));
+		}
+		assertEquals(expected, found);
+		assertTrue(found > 50);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			long[] parallel = new long[visible.length];
+			FrustumCuller culler = new FrustumCuller(executor, 1);
+			assertEquals(64, culler.getMinimumChunkSize());
+			assertEquals(found, culler.cullBoxes(frustum, minX, minY, minZ, maxX, maxY, maxZ, count, parallel));
+			for (int i = 0; i < visible.length; ++i) {
+				assertEquals(visible[i], parallel[i]);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Mehrere Sichtkegel in einem Durchlauf gegen die Einzeltests
+	 */
+	@Test
+	public void multipleFrusta() {
+		final int count = 2000;
+		final int frustumCount = 32;
+		Random random = new Random(4);
+
+		Frustum[] frusta = new Frustum[frustumCount];
+		for (int f = 0; f < frustumCount; ++f) {
+			frusta[f] = new Frustum(1 + random.nextFloat(), 0.2f + random.nextFloat() * 0.5f, 1, 50 + random.nextFloat() * 100);
+			frusta[f].setCamera(
+					Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50),
+					Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50),
+					Vector3.createNew(0, 1, 0));
+		}
+
+		float[] x = new float[count], y = new float[count], z = new float[count], r = new float[count];
+		float[] minX = new float[count], minY = new float[count], minZ = new float[count];
+		float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		for (int i = 0; i < count; ++i) {
+			x[i] = random.nextInt(800) / 4f - 100;
+			y[i] = random.nextInt(800) / 4f - 100;
+			z[i] = random.nextInt(800) / 4f - 100;
+			r[i] = random.nextInt(16) / 4f + 0.25f;
+			boxes[i] = AxisAlignedBox.createNew(x[i], y[i], z[i], r[i], r[i] / 2, r[i]);
+			minX[i] = x[i] - r[i];
+			minY[i] = y[i] - r[i] / 2;
+			minZ[i] = z[i] - r[i];
+			maxX[i] = x[i] + r[i];
+			maxY[i] = y[i] + r[i] / 2;
+			maxZ[i] = z[i] + r[i];
+		}
+
+		FrustumCuller culler = new FrustumCuller();
+		int[] sphereMasks = new int[count], boxMasks = new int[count];
+		int spheresFound = culler.cullSpheres(frusta, frustumCount, x, y, z, r, count, sphereMasks);
+		int boxesFound = culler.cullBoxes(frusta, frustumCount, minX, minY, minZ, maxX, maxY, maxZ, count, boxMasks);
+
+		int expectedSpheres = 0, expectedBoxes = 0;
+		for (int i = 0; i < count; ++i) {
+			Sphere sphere = Sphere.createNew(x[i], y[i], z[i], r[i]);
+			for (int f = 0; f < frustumCount; ++f) {
+				assertEquals(frusta[f].intersects(sphere), (sphereMasks[i] & (1 << f)) != 0);
+				assertEquals(frusta[f].intersects(boxes[i]), (boxMasks[i] & (1 << f)) != 0);
+			}
+			if (sphereMasks[i] != 0) ++expectedSpheres;
+			if (boxMasks[i] != 0) ++expectedBoxes;
+		}
+		assertEquals(expectedSpheres, spheresFound);
+		assertEquals(expectedBoxes, boxesFound);
+		assertTrue(spheresFound > 100);
+
+		// Teilmenge der Sichtkegel und parallele Verarbeitung
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			int[] parallel = new int[count];
+			new FrustumCuller(executor, 64).cullSpheres(frusta, 3, x, y, z, r, count, parallel);
+			for (int i = 0; i < count; ++i) {
+				assertEquals(sphereMasks[i] & 7, parallel[i]);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		try {
+			culler.cullSpheres(frusta, 33, x, y, z, r, count, sphereMasks);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Vergleich mit dem Einzeltest bei 100000 Kugeln
+	 */
+	// @Test
+	public void cullPerformance() {
+		final int count = 100000;
+		final int iterations = 50;
+		Random random = new Random(3);
+		float[] x = new float[count], y = new float[count], z = new float[count], r = new float[count];
+		Sphere[] spheres = new Sphere[count];
+		for (int i = 0; i < count; ++i) {
+			x[i] = random.nextFloat() * 400 - 200;
+			y[i] = random.nextFloat() * 400 - 200;
+			z[i] = random.nextFloat() * 400 - 200;
+			r[i] = random.nextFloat() * 3;
+			spheres[i] = Sphere.createNew(x[i], y[i], z[i], r[i]);
+		}
+
+		Frustum frustum = createFrustum();
+		FrustumCuller culler = new FrustumCuller();
+		long[] visible = new long[FrustumCuller.getWordCount(count)];
+		for (int i = 10; i >= 0; --i) culler.cullSpheres(frustum, x, y, z, r, count, visible);
+
+		long start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) culler.cullSpheres(frustum, x, y, z, r, count, visible);
+		long elapsedBatch = System.nanoTime() - start;
+
+		int found = 0;
+		start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) {
+			for (int j = 0; j < count; ++j) {
+				if (frustum.intersects(spheres[j])) ++found;
+			}
+		}
+		long elapsedSingle = System.nanoTime() - start;
+
+		System.out.println("Performance Batch-Culling: " + elapsedBatch / 1000000f / iterations + " ms");
+		System.out.println("Performance Einzeltests: " + elapsedSingle / 1000000f / iterations + " ms (" + found / iterations + " sichtbar)");
+	}
+}
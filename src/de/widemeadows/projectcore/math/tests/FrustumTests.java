@@ -0,0 +1,168 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.AxisAlignedBox;
+import de.widemeadows.projectcore.math.Frustum;
+import de.widemeadows.projectcore.math.Intersection;
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.MatrixFactory;
+import de.widemeadows.projectcore.math.Sphere;
+import de.widemeadows.projectcore.math.Vector3;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link Frustum}
+ */
+public class FrustumTests {
+
+	/**
+	 * Erzeugt einen Sichtkegel im Ursprung mit Blick entlang -Z
+	 */
+	@NotNull
+	private static Frustum createFrustum() {
+		Frustum frustum = new Frustum(1, 0.5f, 1, 100);
+		frustum.setCamera(Vector3.createNew(0, 0, 0), Vector3.createNew(0, 0, -1), Vector3.createNew(0, 1, 0));
+		return frustum;
+	}
+
+	/**
+	 * Punkte, Kugeln und Boxen mit dreiwertigem Ergebnis
+	 */
+	@Test
+	public void classification() {
+		Frustum frustum = createFrustum();
+
+		assertEquals(Intersection.INSIDE, frustum.classify(Vector3.createNew(0, 0, -10)));
+		assertEquals(Intersection.INSIDE, frustum.classify(Vector3.createNew(5, 0, -10)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(Vector3.createNew(6, 0, -10)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(Vector3.createNew(0, 0, 5)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(Vector3.createNew(0, 0, -0.5f)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(Vector3.createNew(0, 0, -101)));
+
+		assertEquals(Intersection.INSIDE, frustum.classify(Sphere.createNew(0, 0, -10, 1)));
+		assertEquals(Intersection.INTERSECTS, frustum.classify(Sphere.createNew(0, 0, -10, 100)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(Sphere.createNew(0, 0, 10, 5)));
+		assertTrue(frustum.intersects(Sphere.createNew(0, 0, 1, 2)));
+
+		assertEquals(Intersection.INSIDE, frustum.classify(AxisAlignedBox.createNew(0, 0, -50, 1, 1, 1)));
+		assertEquals(Intersection.INTERSECTS, frustum.classify(AxisAlignedBox.createNew(0, 0, -1, 0.5f, 0.5f, 0.5f)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(AxisAlignedBox.createNew(0, 0, -200, 1, 1, 1)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(AxisAlignedBox.createNew(40, 0, -10, 1, 1, 1)));
+		assertTrue(frustum.intersects(AxisAlignedBox.createNew(6, 0, -10, 1, 1, 1)));
+
+		// Aspektverhältnis erweitert den horizontalen Bereich
+		frustum.setAspectRatio(2);
+		assertEquals(Intersection.INSIDE, frustum.classify(Vector3.createNew(6, 0, -10)));
+		assertEquals(Intersection.OUTSIDE, frustum.classify(Vector3.createNew(0, 6, -10)));
+	}
+
+	/**
+	 * Ebenenmasken für hierarchisches Culling
+	 */
+	@Test
+	public void planeMasks() {
+		Frustum frustum = createFrustum();
+
+		// Box schneidet nur die nahe Ebene
+		AxisAlignedBox box = AxisAlignedBox.createNew(0, 0, -1, 0.2f, 0.2f, 0.2f);
+		assertEquals(1 << Frustum.PLANE_NEAR, frustum.classify(box, Frustum.ALL_PLANES));
+		assertEquals(0, frustum.classify(box, Frustum.ALL_PLANES & ~(1 << Frustum.PLANE_NEAR)));
+
+		// Box schneidet die rechte Ebene
+		box = AxisAlignedBox.createNew(5.5f, 0, -10, 0.5f, 0.5f, 0.5f);
+		assertEquals(1 << Frustum.PLANE_RIGHT, frustum.classify(box, Frustum.ALL_PLANES));
+
+		// Ungetestete Ebenen verwerfen nicht
+		box = AxisAlignedBox.createNew(0, 0, -200, 1, 1, 1);
+		assertEquals(Frustum.CULLED, frustum.classify(box, Frustum.ALL_PLANES));
+		assertEquals(0, frustum.classify(box, 1 << Frustum.PLANE_NEAR));
+
+		// Kindboxen innerhalb einer Elternbox
+		AxisAlignedBox parent = AxisAlignedBox.createNew(0, 0, -30, 4, 4, 4);
+		int mask = frustum.classify(parent, Frustum.ALL_PLANES);
+		assertEquals(0, mask);
+		assertEquals(0, frustum.classify(Sphere.createNew(0, 0, -30, 2), mask));
+	}
+
+	/**
+	 * Punkttest gegen die Berechnung in Kamerakoordinaten
+	 */
+	@Test
+	public void matchesCameraSpaceTest() {
+		final float ratio = 1.6f, fov = 0.4f, near = 2, far = 80;
+		Frustum frustum = new Frustum(ratio, fov, near, far);
+		Vector3 eye = Vector3.createNew(3, 2, 1), lookAt = Vector3.createNew(10, -5, 20), up = Vector3.createNew(0, 1, 0);
+		frustum.setCamera(eye, lookAt, up);
+
+		Vector3 z = lookAt.sub(eye);
+		z.normalize();
+		Vector3 x = z.cross(up);
+		x.normalize();
+		Vector3 y = x.cross(z);
+		final float tangens = (float)Math.tan(fov);
+
+		Random random = new Random(1);
+		int inside = 0;
+		for (int i = 0; i < 20000; ++i) {
+			Vector3 point = Vector3.createNew(random.nextFloat() * 120 - 40, random.nextFloat() * 120 - 60, random.nextFloat() * 120 - 20);
+			Vector3 v = point.sub(eye);
+			float pz = v.dot(z), py = v.dot(y), px = v.dot(x);
+			float limitY = pz * tangens, limitX = limitY * ratio;
+
+			// Punkte nahe der Ränder überspringen
+			float margin = Math.min(Math.min(Math.abs(pz - near), Math.abs(pz - far)),
+					Math.min(Math.abs(Math.abs(py) - limitY), Math.abs(Math.abs(px) - limitX)));
+			if (margin < 0.01f) continue;
+
+			boolean expected = pz >= near && pz <= far && Math.abs(py) <= limitY && Math.abs(px) <= limitX;
+			if (expected) ++inside;
+			assertEquals(expected, frustum.intersects(point));
+		}
+		assertTrue(inside > 100);
+
+		// Die Ebenen sind normalisiert und zeigen nach innen
+		Vector3 center = eye.add(z.mul((near + far) / 2));
+		for (int i = 0; i < Frustum.PLANE_COUNT; ++i) {
+			assertEquals(1, frustum.getPlane(i).getNormal().getLength(), 0.0001f);
+			assertTrue(frustum.getPlane(i).getDistanceFromPoint(center) > 0);
+		}
+	}
+
+	/**
+	 * Ebenen aus der View-Projektionsmatrix entsprechen den Ebenen aus den Kameraparametern
+	 */
+	@Test
+	public void planesFromViewProjection() {
+		final float ratio = 1.6f, fov = 0.4f, near = 2, far = 80;
+		Vector3 eye = Vector3.createNew(3, 2, 1), lookAt = Vector3.createNew(10, -5, 20), up = Vector3.createNew(0, 1, 0);
+
+		Frustum expected = new Frustum(ratio, fov, near, far);
+		expected.setCamera(eye, lookAt, up);
+
+		// Der Öffnungswinkel des Frustums ist der halbe vertikale Winkel
+		Matrix4 viewProjection = MatrixFactory.getLookAt(eye, lookAt, up).mul(MatrixFactory.getPerspective(2 * fov, ratio, near, far));
+		Frustum actual = new Frustum(1, 1, 1, 2);
+		actual.set(viewProjection);
+
+		for (int i = 0; i < Frustum.PLANE_COUNT; ++i) {
+			Vector3 a = expected.getPlane(i).getNormal(), b = actual.getPlane(i).getNormal();
+			assertEquals(a.x, b.x, 0.0001f);
+			assertEquals(a.y, b.y, 0.0001f);
+			assertEquals(a.z, b.z, 0.0001f);
+			assertEquals(expected.getPlane(i).getDistanceFromOrigin(), actual.getPlane(i).getDistanceFromOrigin(), 0.001f);
+		}
+
+		// Orthographische Projektion entlang -Z
+		Matrix4 ortho = MatrixFactory.getLookAt(Vector3.createNew(0, 0, 0), Vector3.createNew(0, 0, -1), up)
+				.mul(MatrixFactory.getOrthographic(-10, 10, -5, 5, 0, 50));
+		actual.set(ortho);
+		assertEquals(Intersection.INSIDE, actual.classify(AxisAlignedBox.createNew(9, -4, -25, 0.5f, 0.5f, 0.5f)));
+		assertEquals(Intersection.INTERSECTS, actual.classify(AxisAlignedBox.createNew(10, 0, -25, 1, 1, 1)));
+		assertEquals(Intersection.OUTSIDE, actual.classify(AxisAlignedBox.createNew(0, 7, -25, 1, 1, 1)));
+		assertEquals(Intersection.OUTSIDE, actual.classify(Vector3.createNew(0, 0, 1)));
+	}
+}
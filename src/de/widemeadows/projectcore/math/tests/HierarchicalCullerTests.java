@@ -0,0 +1,132 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link HierarchicalCuller}
+ */
+public class HierarchicalCullerTests {
+
+	/**
+	 * Ermittelt die sichtbaren Boxen durch Einzeltests
+	 */
+	@NotNull
+	private static int[] linear(@NotNull AxisAlignedBox[] boxes, @NotNull Frustum frustum) {
+		int[] result = new int[boxes.length];
+		int found = 0;
+		for (int i = 0; i < boxes.length; ++i) {
+			if (frustum.intersects(boxes[i])) result[found++] = i;
+		}
+		return Arrays.copyOf(result, found);
+	}
+
+	/**
+	 * Ergebnisse über mehrere Frames entsprechen den Einzeltests
+	 */
+	@Test
+	public void matchesSingleTests() {
+		final int count = 3000;
+		Random random = new Random(1);
+		AxisAlignedBox[] boxes = TestBoxes.createOnQuarterGrid(count, random);
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(boxes, count);
+
+		HierarchicalCuller culler = new HierarchicalCuller(bvh);
+		Frustum frustum = new Frustum(1.5f, 0.5f, 1, 150);
+		int[] results = new int[count];
+		for (int frame = 0; frame < 20; ++frame) {
+			Vector3 eye = Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50);
+			Vector3 target = Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50);
+			frustum.setCamera(eye, target, Vector3.createNew(0, 1, 0));
+
+			int found = culler.cull(frustum, results);
+			int[] actual = Arrays.copyOf(results, found);
+			Arrays.sort(actual);
+			assertTrue(Arrays.equals(linear(boxes, frustum), actual));
+		}
+
+		// Überzählige Treffer werden nur gezählt
+		int expected = culler.cull(frustum, results);
+		assertEquals(expected, culler.cull(frustum, new int[1]));
+
+		// Leere Hierarchie
+		assertEquals(0, new HierarchicalCuller(new BoundingVolumeHierarchy()).cull(frustum, results));
+	}
+
+	/**
+	 * Die gespeicherten Ebenen reduzieren die Tests bei unveränderter Kamera
+	 */
+	@Test
+	public void temporalCoherency() {
+		final int count = 4000;
+		AxisAlignedBox[] boxes = TestBoxes.createOnQuarterGrid(count, new Random(2));
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(boxes, count);
+
+		// Blick zur Seite, sodass viele Knoten von Seitenebenen verworfen werden
+		Frustum frustum = new Frustum(1, 0.3f, 1, 400);
+		frustum.setCamera(Vector3.createNew(0, 0, 0), Vector3.createNew(1, 0.2f, 0), Vector3.createNew(0, 1, 0));
+
+		HierarchicalCuller culler = new HierarchicalCuller(bvh);
+		int[] results = new int[count];
+		int found = culler.cull(frustum, results);
+		int firstFrame = culler.getPlaneTestCount();
+
+		// Leicht bewegte Kamera
+		frustum.setCamera(Vector3.createNew(0.5f, 0, 0), Vector3.createNew(1.5f, 0.21f, 0), Vector3.createNew(0, 1, 0));
+		int moved = culler.cull(frustum, results);
+		int secondFrame = culler.getPlaneTestCount();
+		assertTrue(secondFrame < firstFrame);
+		assertEquals(linear(boxes, frustum).length, moved);
+
+		// Ohne gespeicherte Ebenen wieder so viele Tests wie ohne Kohärenz
+		culler.reset();
+		assertEquals(moved, culler.cull(frustum, results));
+		assertTrue(culler.getPlaneTestCount() > secondFrame);
+		assertTrue(found > 0);
+	}
+
+	/**
+	 * Ebenentests und Laufzeit bei kleinen Kamerabewegungen
+	 */
+	// @Test
+	public void cullPerformance() {
+		final int count = 100000;
+		final int frames = 200;
+		AxisAlignedBox[] boxes = TestBoxes.createOnQuarterGrid(count, new Random(3));
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(boxes, count);
+
+		Frustum frustum = new Frustum(1.5f, 0.5f, 1, 300);
+		int[] results = new int[count];
+		HierarchicalCuller coherent = new HierarchicalCuller(bvh);
+		HierarchicalCuller plain = new HierarchicalCuller(bvh);
+
+		long coherentTime = 0, plainTime = 0, coherentTests = 0, plainTests = 0;
+		for (int frame = 0; frame < frames; ++frame) {
+			float angle = frame * 0.005f;
+			frustum.setCamera(Vector3.createNew(0, 0, 0), Vector3.createNew((float)Math.cos(angle), 0, (float)Math.sin(angle)), Vector3.createNew(0, 1, 0));
+
+			long start = System.nanoTime();
+			coherent.cull(frustum, results);
+			coherentTime += System.nanoTime() - start;
+			coherentTests += coherent.getPlaneTestCount();
+
+			plain.reset();
+			start = System.nanoTime();
+			plain.cull(frustum, results);
+			plainTime += System.nanoTime() - start;
+			plainTests += plain.getPlaneTestCount();
+		}
+
+		System.out.println("Performance kohärentes Culling: " + coherentTime / 1000000f / frames + " ms, " + coherentTests / frames + " Ebenentests");
+		System.out.println("Performance ohne Kohärenz: " + plainTime / 1000000f / frames + " ms, " + plainTests / frames + " Ebenentests");
+	}
+}
@@ -0,0 +1,127 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import de.widemeadows.projectcore.transformation.TransformationState;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link InstancedBoundingVolumeHierarchy}
+ */
+public class InstancedBoundingVolumeHierarchyTests {
+
+	/**
+	 * Deltawert für Vergleiche
+	 */
+	private static final float EPSILON = 0.0001f;
+
+	/**
+	 * Treffer auf verschobene und skalierte Instanzen sowie Bewegung einer Instanz
+	 */
+	@Test
+	public void movingInstance() {
+		BoundingVolumeHierarchy mesh = new BoundingVolumeHierarchy();
+		mesh.build(new AxisAlignedBox[] { AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1), AxisAlignedBox.createNew(0, 5, 0, 1, 1, 1) }, 2);
+
+		TransformationState state = new TransformationState();
+		state.setTranslation(10, 0, 0);
+		state.setScale(2);
+
+		InstancedBoundingVolumeHierarchy scene = new InstancedBoundingVolumeHierarchy(1);
+		int first = scene.add(mesh, state);
+		int second = scene.add(mesh, MatrixFactory.getTranslation(30, 0, 0));
+		scene.update();
+		assertEquals(2, scene.getInstanceCount());
+
+		Ray3 ray = RayFactory.rayFromTwoPoints(Vector3.createNew(-10, 0, 0), Vector3.createNew(10, 0, 0));
+		float[] distance = new float[1];
+		int[] primitive = new int[1];
+
+		// Box [-1, 1] * 2 + 10 = [8, 12]
+		assertEquals(first, scene.intersectClosest(ray, 0, 100, distance, primitive));
+		assertEquals(18, distance[0], EPSILON);
+		assertEquals(0, primitive[0]);
+		assertTrue(scene.intersectsAny(ray, 0, 100));
+		assertFalse(scene.intersectsAny(ray, 0, 17));
+
+		// Erste Instanz aus dem Strahl heben; die obere Ebene wird nur nachgeführt
+		state.translate(0, -20, 0);
+		scene.setTransform(first, state);
+		scene.update();
+		assertEquals(second, scene.intersectClosest(ray, 0, 100, distance, primitive));
+		assertEquals(39, distance[0], EPSILON);
+
+		// Zweites Primitiv der ersten Instanz liegt nun bei y = 5 * 2 - 10 = 0
+		scene.setTransform(first, MatrixFactory.getTranslation(0, -5, 0));
+		scene.update();
+		assertEquals(first, scene.intersectClosest(ray, 0, 100, distance, primitive));
+		assertEquals(1, primitive[0]);
+		assertEquals(9, distance[0], EPSILON);
+	}
+
+	/**
+	 * Nächster Treffer entspricht dem Test aller Instanzen einzeln
+	 */
+	@Test
+	public void matchesPerInstanceSearch() {
+		Random random = new Random(1);
+		final int boxCount = 200;
+		AxisAlignedBox[] boxes = new AxisAlignedBox[boxCount];
+		for (int i = 0; i < boxCount; ++i) {
+			boxes[i] = AxisAlignedBox.createNew(
+					random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10,
+					0.1f + random.nextFloat(), 0.1f + random.nextFloat(), 0.1f + random.nextFloat());
+		}
+		BoundingVolumeHierarchy mesh = new BoundingVolumeHierarchy();
+		mesh.build(boxes, boxCount);
+
+		final int instanceCount = 50;
+		Matrix4[] inverse = new Matrix4[instanceCount];
+		InstancedBoundingVolumeHierarchy scene = new InstancedBoundingVolumeHierarchy(4);
+		for (int i = 0; i < instanceCount; ++i) {
+			Matrix4 transform = MatrixFactory.getRotationEulerRPY(random.nextFloat() * 3, random.nextFloat() * 3, random.nextFloat() * 3)
+					.mul(MatrixFactory.getTranslation(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100));
+			inverse[i] = transform.getInvertedNoThrow();
+			scene.add(mesh, transform);
+		}
+		scene.update();
+
+		float[] distance = new float[1], expectedDistance = new float[1];
+		int[] primitive = new int[1];
+		int hits = 0;
+		for (int r = 0; r < 300; ++r) {
+			Ray3 ray = RayFactory.rayFromTwoPoints(
+					Vector3.createNew(random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150),
+					Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50));
+
+			// Referenz: jede Instanz einzeln in Objektkoordinaten
+			int expected = BoundingVolumeHierarchy.NO_HIT;
+			float expectedT = Float.POSITIVE_INFINITY;
+			for (int i = 0; i < instanceCount; ++i) {
+				Ray3 objectRay = Ray3.createNew(ray);
+				objectRay.origin.set(ray.origin);
+				objectRay.direction.set(ray.direction);
+				objectRay.transform(inverse[i]);
+				if (mesh.intersectClosest(objectRay, 0, 1000, expectedDistance) != BoundingVolumeHierarchy.NO_HIT && expectedDistance[0] < expectedT) {
+					expectedT = expectedDistance[0];
+					expected = i;
+				}
+			}
+
+			int actual = scene.intersectClosest(ray, 0, 1000, distance, primitive);
+			assertEquals(expected != BoundingVolumeHierarchy.NO_HIT, scene.intersectsAny(ray, 0, 1000));
+			if (expected == BoundingVolumeHierarchy.NO_HIT) {
+				assertEquals(BoundingVolumeHierarchy.NO_HIT, actual);
+				continue;
+			}
+
+			++hits;
+			assertEquals(expectedT, distance[0], EPSILON);
+			assertTrue(primitive[0] >= 0 && primitive[0] < boxCount);
+		}
+		assertTrue(hits > 20);
+	}
+}
@@ -0,0 +1,183 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link LinearBvhBuilder}
+ */
+public class LinearBvhBuilderTests {
+
+	/**
+	 * Deltawert für Vergleiche
+	 */
+	private static final float EPSILON = 0.0001f;
+
+	/**
+	 * Vergleicht Anfragen einer LBVH mit denen einer SAH-Hierarchie über dieselben Boxen
+	 *
+	 * @param linear Die LBVH
+	 * @param reference Die SAH-Hierarchie
+	 * @param random Der Zufallsgenerator
+	 */
+	private static void assertSameResults(BoundingVolumeHierarchy linear, BoundingVolumeHierarchy reference, Random random) {
+		assertEquals(reference.getPrimitiveCount(), linear.getPrimitiveCount());
+		assertEquals(2 * linear.getPrimitiveCount() - 1, linear.getNodeCount());
+
+		float[] expectedT = new float[1], actualT = new float[1];
+		for (int r = 0; r < 300; ++r) {
+			Ray3 ray = RayFactory.rayFromTwoPoints(
+					Vector3.createNew(random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150),
+					Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50));
+
+			int expected = reference.intersectClosest(ray, 0, 1000, expectedT);
+			int actual = linear.intersectClosest(ray, 0, 1000, actualT);
+			assertEquals(expected == BoundingVolumeHierarchy.NO_HIT, actual == BoundingVolumeHierarchy.NO_HIT);
+			assertEquals(reference.intersectsAny(ray, 0, 1000), linear.intersectsAny(ray, 0, 1000));
+			if (expected != BoundingVolumeHierarchy.NO_HIT) assertEquals(expectedT[0], actualT[0], EPSILON);
+		}
+
+		int[] expectedResults = new int[reference.getPrimitiveCount()];
+		int[] actualResults = new int[reference.getPrimitiveCount()];
+		for (int q = 0; q < 50; ++q) {
+			Sphere sphere = Sphere.createNew(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 30);
+			int expected = reference.query(sphere, expectedResults);
+			int actual = linear.query(sphere, actualResults);
+			assertEquals(expected, actual);
+
+			Arrays.sort(expectedResults, 0, expected);
+			Arrays.sort(actualResults, 0, actual);
+			for (int i = 0; i < expected; ++i) assertEquals(expectedResults[i], actualResults[i]);
+		}
+	}
+
+	/**
+	 * Serieller Aufbau über Boxen mit 30- und 63-Bit-Codes
+	 */
+	@Test
+	public void serialBuild() {
+		final int count = 3000;
+		Random random = new Random(1);
+		AxisAlignedBox[] boxes = TestBoxes.create(count, random);
+
+		BoundingVolumeHierarchy reference = new BoundingVolumeHierarchy();
+		reference.build(boxes, count);
+
+		BoundingVolumeHierarchy narrow = new BoundingVolumeHierarchy();
+		new LinearBvhBuilder().build(narrow, boxes, count);
+		assertSameResults(narrow, reference, random);
+
+		BoundingVolumeHierarchy wide = new BoundingVolumeHierarchy();
+		new LinearBvhBuilder(null, LinearBvhBuilder.DEFAULT_CHUNK_SIZE, true).build(wide, boxes, count);
+		assertSameResults(wide, reference, random);
+	}
+
+	/**
+	 * Paralleler Aufbau über Kugeln entspricht dem seriellen Aufbau
+	 */
+	@Test
+	public void parallelBuild() {
+		final int count = 5000;
+		Random random = new Random(2);
+		Sphere[] spheres = new Sphere[count];
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		for (int i = 0; i < count; ++i) {
+			float x = random.nextFloat() * 200 - 100, y = random.nextFloat() * 200 - 100, z = random.nextFloat() * 200 - 100;
+			float radius = 0.1f + random.nextFloat() * 2;
+			spheres[i] = Sphere.createNew(x, y, z, radius);
+			boxes[i] = AxisAlignedBox.createNew(x, y, z, radius, radius, radius);
+		}
+
+		BoundingVolumeHierarchy reference = new BoundingVolumeHierarchy();
+		reference.build(boxes, count);
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			LinearBvhBuilder builder = new LinearBvhBuilder(executor, 100, false);
+			BoundingVolumeHierarchy linear = new BoundingVolumeHierarchy();
+
+			// Zweimal bauen, um die Wiederverwendung der Arbeitsfelder zu prüfen
+			builder.build(linear, spheres, count);
+			builder.build(linear, spheres, count);
+			assertSameResults(linear, reference, random);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Gleiche Codes, einzelne und keine Objekte
+	 */
+	@Test
+	public void degenerateInput() {
+		LinearBvhBuilder builder = new LinearBvhBuilder();
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		Ray3 ray = RayFactory.rayFromTwoPoints(Vector3.createNew(-10, 0, 0), Vector3.createNew(10, 0, 0));
+		float[] distance = new float[1];
+
+		builder.build(bvh, new AxisAlignedBox[0], 0);
+		assertEquals(0, bvh.getNodeCount());
+		assertEquals(BoundingVolumeHierarchy.NO_HIT, bvh.intersectClosest(ray, 0, 100, distance));
+
+		builder.build(bvh, new AxisAlignedBox[] { AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1) }, 1);
+		assertEquals(1, bvh.getNodeCount());
+		assertEquals(0, bvh.intersectClosest(ray, 0, 100, distance));
+		assertEquals(9, distance[0], EPSILON);
+
+		AxisAlignedBox[] boxes = new AxisAlignedBox[33];
+		Arrays.fill(boxes, AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1));
+		builder.build(bvh, boxes, boxes.length);
+		assertEquals(65, bvh.getNodeCount());
+		assertEquals(33, bvh.query(Sphere.createNew(0, 0, 0, 0.5f), new int[33]));
+		assertEquals(9, distance[0], EPSILON);
+	}
+
+	/**
+	 * Vergleich von SAH-Aufbau und seriellem sowie parallelem LBVH-Aufbau
+	 */
+	// @Test
+	public void buildPerformance() {
+		final int count = 100000;
+		final int iterations = 20;
+		AxisAlignedBox[] boxes = TestBoxes.create(count, new Random(3));
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			LinearBvhBuilder serial = new LinearBvhBuilder();
+			LinearBvhBuilder parallel = new LinearBvhBuilder(executor, LinearBvhBuilder.DEFAULT_CHUNK_SIZE, false);
+			for (int i = 10; i >= 0; --i) {
+				bvh.build(boxes, count);
+				serial.build(bvh, boxes, count);
+				parallel.build(bvh, boxes, count);
+			}
+
+			long start = System.nanoTime();
+			for (int i = iterations - 1; i >= 0; --i) bvh.build(boxes, count);
+			long elapsedSah = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = iterations - 1; i >= 0; --i) serial.build(bvh, boxes, count);
+			long elapsedSerial = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = iterations - 1; i >= 0; --i) parallel.build(bvh, boxes, count);
+			long elapsedParallel = System.nanoTime() - start;
+
+			System.out.println("Performance SAH-Aufbau: " + elapsedSah / 1000000f / iterations + " ms");
+			System.out.println("Performance LBVH-Aufbau (seriell): " + elapsedSerial / 1000000f / iterations + " ms");
+			System.out.println("Performance LBVH-Aufbau (parallel): " + elapsedParallel / 1000000f / iterations + " ms");
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link LooseOctree}
+ */
+public class LooseOctreeTests {
+
+	/**
+	 * Sammelt die gemeldeten Handles
+	 */
+	private static final class Collector implements LooseOctree.Visitor {
+
+		/**
+		 * Die gemeldeten Handles
+		 */
+		int[] handles = new int[1024];
+
+		/**
+		 * Die Anzahl der gemeldeten Handles
+		 */
+		int count;
+
+		/**
+		 * Die maximale Anzahl an Treffern vor dem Abbruch
+		 */
+		int limit = Integer.MAX_VALUE;
+
+		@Override
+		public boolean visit(int handle) {
+			handles[count++] = handle;
+			return count < limit;
+		}
+
+		/**
+		 * Setzt die Sammlung zurück und liefert sie sortiert
+		 *
+		 * @return Die sortierten Handles
+		 */
+		@NotNull
+		int[] drain() {
+			int[] result = Arrays.copyOf(handles, count);
+			Arrays.sort(result);
+			count = 0;
+			return result;
+		}
+	}
+
+	/**
+	 * Zufällige Objekte mit Bewegung und Entfernen gegen lineare Suche
+	 */
+	@Test
+	public void matchesLinearSearch() {
+		final int count = 500;
+		Random random = new Random(1);
+		LooseOctree tree = new LooseOctree(Vector3.createNew(0, 0, 0), 100, 6);
+
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		Sphere[] spheres = new Sphere[count];
+		int[] handles = new int[count];
+		for (int i = 0; i < count; ++i) {
+			float x = random.nextFloat() * 240 - 120, y = random.nextFloat() * 240 - 120, z = random.nextFloat() * 240 - 120;
+			if (i % 2 == 0) {
+				boxes[i] = AxisAlignedBox.createNew(x, y, z, 0.1f + random.nextFloat() * 4, 0.1f + random.nextFloat() * 4, 0.1f + random.nextFloat() * 4);
+				handles[i] = tree.insert(boxes[i]);
+			}
+			else {
+				spheres[i] = Sphere.createNew(x, y, z, 0.1f + random.nextFloat() * 4);
+				handles[i] = tree.insert(spheres[i]);
+			}
+		}
+		assertEquals(count, tree.getObjectCount());
+		assertTrue(tree.getNodeCount() > 1);
+		assertQueries(tree, boxes, spheres, handles, random);
+
+		// Kleine Bewegungen verbleiben überwiegend im Knoten
+		int relinked = 0;
+		for (int step = 0; step < 10; ++step) {
+			for (int i = 0; i < count; ++i) {
+				float dx = random.nextFloat() * 0.2f - 0.1f, dy = random.nextFloat() * 0.2f - 0.1f, dz = random.nextFloat() * 0.2f - 0.1f;
+				if (boxes[i] != null) {
+					boxes[i].center.addInPlace(dx, dy, dz);
+					if (tree.move(handles[i], boxes[i])) ++relinked;
+				}
+				else {
+					Sphere s = spheres[i];
+					s.setPosition(s.getX() + dx, s.getY() + dy, s.getZ() + dz);
+					if (tree.move(handles[i], s)) ++relinked;
+				}
+			}
+		}
+		assertTrue(relinked < count);
+		assertQueries(tree, boxes, spheres, handles, random);
+
+		// Große Sprünge und Größenänderungen
+		for (int i = 0; i < count; i += 3) {
+			float x = random.nextFloat() * 200 - 100, y = random.nextFloat() * 200 - 100, z = random.nextFloat() * 200 - 100;
+			if (boxes[i] != null) {
+				boxes[i].set(x, y, z, random.nextFloat() * 20, random.nextFloat() * 2, random.nextFloat() * 2);
+				tree.move(handles[i], boxes[i]);
+			}
+			else {
+				spheres[i].set(x, y, z, random.nextFloat() * 10);
+				tree.move(handles[i], spheres[i]);
+			}
+		}
+		assertQueries(tree, boxes, spheres, handles, random);
+
+		// Die Hälfte entfernen
+		for (int i = 0; i < count; i += 2) {
+			tree.remove(handles[i]);
+			boxes[i] = null;
+			spheres[i] = null;
+		}
+		assertEquals(count / 2, tree.getObjectCount());
+		assertQueries(tree, boxes, spheres, handles, random);
+
+		// Alle entfernen gibt alle Knoten bis auf die Wurzel frei
+		for (int i = 1; i < count; i += 2) {
+			tree.remove(handles[i]);
+		}
+		assertEquals(0, tree.getObjectCount());
+		assertEquals(1, tree.getNodeCount());
+
+		// Handles werden wiederverwendet
+		int handle = tree.insert(Sphere.createNew(1, 2, 3, 1));
+		assertTrue(handle < count);
+		assertEquals(1, tree.getObjectCount());
+	}
+
+	/**
+	 * Ebenenwahl, Verbleib im Knoten und Abbruch durch den Visitor
+	 */
+	@Test
+	public void placementAndAbort() {
+		LooseOctree tree = new LooseOctree(Vector3.createNew(0, 0, 0), 64, 4);
+
+		// Halbe Kantenlänge auf Ebene 3 ist 8, auf Ebene 4 dann 4
+		int small = tree.insert(Sphere.createNew(10, 10, 10, 3));
+		int medium = tree.insert(Sphere.createNew(10, 10, 10, 6));
+		int large = tree.insert(AxisAlignedBox.createNew(0, 0, 0, 100, 1, 1));
+		assertEquals(4, tree.getNodeLevel(tree.getNode(small)));
+		assertEquals(3, tree.getNodeLevel(tree.getNode(medium)));
+		assertEquals(0, tree.getNodeLevel(tree.getNode(large)));
+
+		// Zelle auf Ebene 4 reicht von 8 bis 16
+		assertFalse(tree.move(small, Sphere.createNew(15, 9, 8.5f, 3)));
+		assertTrue(tree.move(small, Sphere.createNew(17, 9, 8.5f, 3)));
+		assertTrue(tree.move(small, Sphere.createNew(17, 9, 8.5f, 5)));
+		assertEquals(3, tree.getNodeLevel(tree.getNode(small)));
+
+		// Außerhalb der Wurzel
+		int outside = tree.insert(Sphere.createNew(500, 0, 0, 1));
+		assertEquals(0, tree.getNode(outside));
+
+		Collector collector = new Collector();
+		assertEquals(1, tree.query(Vector3.createNew(500, 0.5f, 0), collector));
+		assertEquals(outside, collector.drain()[0]);
+
+		assertEquals(2, tree.query(Sphere.createNew(12, 10, 10, 1), collector));
+		collector.drain();
+		collector.limit = 1;
+		assertEquals(1, tree.query(Sphere.createNew(12, 10, 10, 1), collector));
+		collector.drain();
+
+		try {
+			tree.remove(outside);
+			tree.remove(outside);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Vergleicht alle Anfragearten mit einer linearen Suche
+	 */
+	private static void assertQueries(@NotNull LooseOctree tree, @NotNull AxisAlignedBox[] boxes, @NotNull Sphere[] spheres,
+	                                  @NotNull int[] handles, @NotNull Random random) {
+		Collector collector = new Collector();
+		Frustum frustum = new Frustum(1.3f, 0.6f, 1, 150);
+
+		for (int q = 0; q < 40; ++q) {
+			Vector3 point = Vector3.createNew(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100);
+			Sphere sphere = Sphere.createNew(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 20);
+			AxisAlignedBox box = AxisAlignedBox.createNew(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100,
+					random.nextFloat() * 20, random.nextFloat() * 20, random.nextFloat() * 20);
+			Ray3 ray = RayFactory.rayFromTwoPoints(
+					Vector3.createNew(random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150, random.nextFloat() * 300 - 150),
+					Vector3.createNew(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50));
+			frustum.setCamera(ray.origin, ray.origin.add(ray.direction), Vector3.createNew(0, 1, 0));
+
+			tree.query(point, collector);
+			assertArrayEquals(linear(boxes, spheres, handles, point, null, null, null, null), collector.drain());
+			tree.query(sphere, collector);
+			assertArrayEquals(linear(boxes, spheres, handles, null, sphere, null, null, null), collector.drain());
+			tree.query(box, collector);
+			assertArrayEquals(linear(boxes, spheres, handles, null, null, box, null, null), collector.drain());
+			tree.query(ray, 0, 200, collector);
+			assertArrayEquals(linear(boxes, spheres, handles, null, null, null, ray, null), collector.drain());
+			tree.query(frustum, collector);
+			assertArrayEquals(linear(boxes, spheres, handles, null, null, null, null, frustum), collector.drain());
+		}
+	}
+
+	/**
+	 * Lineare Referenzsuche über genau eine der Anfragearten
+	 */
+	@NotNull
+	private static int[] linear(@NotNull AxisAlignedBox[] boxes, @NotNull Sphere[] spheres, @NotNull int[] handles,
+	                            Vector3 point, Sphere sphere, AxisAlignedBox box, Ray3 ray, Frustum frustum) {
+		int[] result = new int[handles.length];
+		int found = 0;
+		for (int i = 0; i < handles.length; ++i) {
+			boolean hit;
+			if (boxes[i] != null) {
+				AxisAlignedBox b = boxes[i];
+				if (point != null) hit = b.intersects(point);
+				else if (sphere != null) hit = distanceSq(sphere.getPosition(), b) <= sphere.getRadiusSq();
+				else if (box != null) hit = Math.abs(b.center.x - box.center.x) <= b.extent.x + box.extent.x
+						&& Math.abs(b.center.y - box.center.y) <= b.extent.y + box.extent.y
+						&& Math.abs(b.center.z - box.center.z) <= b.extent.z + box.extent.z;
+				else if (ray != null) hit = hitsBox(ray, b, 200);
+				else hit = frustum.intersects(b);
+			}
+			else if (spheres[i] != null) {
+				Sphere s = spheres[i];
+				if (point != null) hit = s.intersects(point);
+				else if (sphere != null) hit = s.intersects(sphere);
+				else if (box != null) hit = distanceSq(s.getPosition(), box) <= s.getRadiusSq();
+				else if (ray != null) hit = hitsSphere(ray, s, 200);
+				else hit = frustum.intersects(s);
+			}
+			else continue;
+
+			if (hit) result[found++] = handles[i];
+		}
+		result = Arrays.copyOf(result, found);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Quadrierter Abstand eines Punktes zu einer Box
+	 */
+	private static float distanceSq(@NotNull Vector3 point, @NotNull AxisAlignedBox box) {
+		float dx = Math.max(0, Math.abs(point.x - box.center.x) - box.extent.x);
+		float dy = Math.max(0, Math.abs(point.y - box.center.y) - box.extent.y);
+		float dz = Math.max(0, Math.abs(point.z - box.center.z) - box.extent.z);
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Strahltest gegen eine Box im Bereich [0, far]
+	 */
+	private static boolean hitsBox(@NotNull Ray3 ray, @NotNull AxisAlignedBox box, float far) {
+		float[] t = new float[1];
+		BatchMath.intersect(ray,
+				new float[] { box.center.x - box.extent.x }, new float[] { box.center.y - box.extent.y }, new float[] { box.center.z - box.extent.z },
+				new float[] { box.center.x + box.extent.x }, new float[] { box.center.y + box.extent.y }, new float[] { box.center.z + box.extent.z },
+				0, far, t, 1);
+		return t[0] != Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Strahltest gegen eine Kugel im Bereich [0, far]
+	 */
+	private static boolean hitsSphere(@NotNull Ray3 ray, @NotNull Sphere sphere, float far) {
+		float t = ray.projectPointF(sphere.getPosition());
+		float clamped = Math.max(0, Math.min(far, t));
+		return ray.getPoint(clamped).getDistanceSquared(sphere.getPosition()) <= sphere.getRadiusSq();
+	}
+
+	/**
+	 * Vergleicht zwei sortierte Felder
+	 */
+	private static void assertArrayEquals(@NotNull int[] expected, @NotNull int[] actual) {
+		assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+	}
+}
@@ -170,4 +170,39 @@ public class MatrixFactoryTests {
 		assertEquals((a.y) * 100, vectorResult.z, MathUtils.DEFAULT_EPSILON*100);
 	}
 
+	/**
+	 * Testet Sicht- und Projektionsmatrizen
+	 */
+	@Test
+	public void viewAndProjection() {
+
+		// Die Kamera blickt von (1, 2, 10) auf (1, 2, 0)
+		Matrix4 view = MatrixFactory.getLookAt(Vector3.createNew(1, 2, 10), Vector3.createNew(1, 2, 0), Vector3.createNew(0, 1, 0));
+		Vector3 eye = view.transformPoint(Vector3.createNew(1, 2, 10));
+		assertEquals(0, eye.getLength(), MathUtils.DEFAULT_EPSILON);
+		Vector3 target = view.transformPoint(Vector3.createNew(2, 3, 0));
+		assertEquals(1, target.x, MathUtils.DEFAULT_EPSILON);
+		assertEquals(1, target.y, MathUtils.DEFAULT_EPSILON);
+		assertEquals(-10, target.z, MathUtils.DEFAULT_EPSILON);
+
+		// Nahe und ferne Ebene werden auf -1 und 1 abgebildet
+		Matrix4 projection = MatrixFactory.getPerspective(MathUtils.deg2rad(90), 2, 1, 100);
+		Vector3 near = projection.transformPoint(Vector3.createNew(2, 1, -1));
+		assertEquals(1, near.x, MathUtils.DEFAULT_EPSILON);
+		assertEquals(1, near.y, MathUtils.DEFAULT_EPSILON);
+		assertEquals(-1, near.z, MathUtils.DEFAULT_EPSILON);
+		Vector3 far = projection.transformPoint(Vector3.createNew(-200, 0, -100));
+		assertEquals(-1, far.x, MathUtils.DEFAULT_EPSILON);
+		assertEquals(1, far.z, 0.0001f);
+
+		// Orthographische Projektion
+		Matrix4 ortho = MatrixFactory.getOrthographic(-4, 4, -2, 6, 1, 11);
+		Vector3 corner = ortho.transformPoint(Vector3.createNew(4, -2, -11));
+		assertEquals(1, corner.x, MathUtils.DEFAULT_EPSILON);
+		assertEquals(-1, corner.y, MathUtils.DEFAULT_EPSILON);
+		assertEquals(1, corner.z, MathUtils.DEFAULT_EPSILON);
+		Vector3 center = ortho.transformPoint(Vector3.createNew(0, 2, -6));
+		assertEquals(0, center.getLength(), MathUtils.DEFAULT_EPSILON);
+	}
+
 }
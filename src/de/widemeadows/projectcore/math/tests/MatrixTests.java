@@ -645,4 +645,38 @@ public class MatrixTests {
 		assertEquals(zExpected, result.z, Epsilon);
 		return result;
 	}
+
+	/**
+	 * Die Überladungen mit Zielobjekt liefern dieselben Ergebnisse wie die gecachten Varianten,
+	 * auch wenn das Ziel einer der Operanden ist
+	 */
+	@Test
+	public void destinationOverloads() {
+		final Matrix4 a = MatrixFactory.getRotationEulerRPY(0.3f, -0.7f, 1.1f).mulInPlace(MatrixFactory.getTranslation(1, 2, 3));
+		final Matrix4 b = MatrixFactory.getRotationY(deg2rad(25));
+
+		final Matrix4 product = a.mul(b);
+		final Matrix4 aliased = a.clone();
+		aliased.mul(b, aliased);
+		assertTrue(product.equals(aliased, Epsilon));
+
+		final Matrix4 transposed = a.clone();
+		transposed.getTransposed(transposed);
+		assertTrue(a.getTransposed().equals(transposed, Epsilon));
+
+		final Matrix4 adjoint = a.clone();
+		adjoint.getAdjoint(adjoint);
+		assertTrue(a.getAdjoint().equals(adjoint, Epsilon));
+
+		final Vector3 point = Vector3.createNew(4, 5, 6);
+		final Vector3 expected = a.transformPoint(point);
+		a.transformPoint(point, point);
+		assertTrue(expected.equals(point, Epsilon));
+
+		final Vector3 u = Vector3.createNew(1, 2, 3);
+		final Vector3 v = Vector3.createNew(-2, 0.5f, 4);
+		final Vector3 cross = u.cross(v);
+		u.cross(v, u);
+		assertTrue(cross.equals(u, Epsilon));
+	}
 }
@@ -0,0 +1,220 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link OcclusionBuffer}
+ */
+public class OcclusionBufferTests {
+
+	/**
+	 * Eckpunkte einer Wand der halben Kantenlänge 5 bei z = -10
+	 */
+	private static final float[] WALL = {
+			-5, -5, -10,
+			5, -5, -10,
+			5, 5, -10,
+			-5, 5, -10
+	};
+
+	/**
+	 * Dreiecke der Wand mit gemischter Umlaufrichtung
+	 */
+	private static final int[] WALL_INDICES = {0, 1, 2, 0, 3, 2};
+
+	/**
+	 * Erzeugt die View-Projektion einer Kamera im Ursprung mit Blick entlang -Z und 90° Öffnungswinkel
+	 */
+	@NotNull
+	private static Matrix4 createViewProjection() {
+		Matrix4 view = MatrixFactory.getLookAt(Vector3.createNew(0, 0, 0), Vector3.createNew(0, 0, -1), Vector3.createNew(0, 1, 0));
+		return view.mul(MatrixFactory.getPerspective((float)Math.PI / 2, 1, 1, 100));
+	}
+
+	/**
+	 * Erzeugt einen Puffer mit der gezeichneten Wand
+	 */
+	@NotNull
+	private static OcclusionBuffer createBuffer(@NotNull OcclusionBuffer buffer) {
+		buffer.begin(createViewProjection());
+		buffer.addOccluder(WALL, 4, WALL_INDICES, 2);
+		buffer.rasterize();
+		return buffer;
+	}
+
+	/**
+	 * Boxen hinter, vor und neben der Wand
+	 */
+	@Test
+	public void wallOccludesBoxes() {
+		OcclusionBuffer buffer = createBuffer(new OcclusionBuffer(128, 96));
+		assertEquals(2, buffer.getTriangleCount());
+		assertEquals(8, buffer.getLevelCount());
+
+		// Die Wand bedeckt die Bildmitte, die Ränder bleiben leer
+		assertTrue(buffer.getDepth(64, 48) < 1);
+		assertEquals(1f, buffer.getDepth(2, 48));
+
+		assertTrue(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, -20, 1, 1, 1)));
+		assertTrue(buffer.isOccluded(AxisAlignedBox.createNew(6, 2, -20, 1, 1, 1)));
+		assertTrue(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, -50, 9, 9, 9)));
+
+		// Vor der Wand, die Wand schneidend, neben der Wand
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, -5, 1, 1, 1)));
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, -10, 1, 1, 1)));
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(15, 0, -20, 1, 1, 1)));
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, -20, 12, 1, 1)));
+
+		// Die nahe Ebene schneidend, hinter der Kamera, außerhalb des Bildes
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, 0, 2, 2, 2)));
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, 20, 1, 1, 1)));
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(100, 0, -20, 1, 1, 1)));
+
+		// Ohne Verdecker ist nichts verdeckt
+		buffer.begin(createViewProjection());
+		buffer.rasterize();
+		assertEquals(0, buffer.getTriangleCount());
+		assertFalse(buffer.isOccluded(AxisAlignedBox.createNew(0, 0, -20, 1, 1, 1)));
+	}
+
+	/**
+	 * Verdeckte Boxen liegen hinter allen berührten Pixeln; parallel und seriell liefern denselben Puffer
+	 */
+	@Test
+	public void conservativeAndParallel() {
+		final int count = 2000;
+		Random random = new Random(1);
+		float[] minX = new float[count], minY = new float[count], minZ = new float[count];
+		float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+		for (int i = 0; i < count; ++i) {
+			float cx = random.nextFloat() * 40 - 20, cy = random.nextFloat() * 40 - 20, cz = -random.nextFloat() * 60 - 2;
+			float e = random.nextFloat() * 2 + 0.1f;
+			minX[i] = cx - e;
+			minY[i] = cy - e;
+			minZ[i] = cz - e;
+			maxX[i] = cx + e;
+			maxY[i] = cy + e;
+			maxZ[i] = cz + e;
+		}
+
+		// Mehrere schräge Verdecker
+		float[] occluders = new float[30 * 9];
+		int[] indices = new int[30 * 3];
+		for (int i = 0; i < occluders.length; ++i) {
+			occluders[i] = (i % 3 == 2) ? -random.nextFloat() * 30 - 5 : random.nextFloat() * 30 - 15;
+		}
+		for (int i = 0; i < indices.length; ++i) indices[i] = i;
+
+		OcclusionBuffer serial = new OcclusionBuffer(97, 61);
+		serial.begin(createViewProjection());
+		serial.addOccluder(WALL, 4, WALL_INDICES, 2);
+		serial.addOccluder(occluders, 30 * 3, indices, 30);
+		serial.rasterize();
+
+		Matrix4 viewProjection = createViewProjection();
+		int occluded = 0;
+		for (int i = 0; i < count; ++i) {
+			if (!serial.isOccluded(minX[i], minY[i], minZ[i], maxX[i], maxY[i], maxZ[i])) continue;
+			++occluded;
+
+			// Nächste Tiefe und Bildrechteck der Box
+			float nearest = 1, left = Float.MAX_VALUE, right = -Float.MAX_VALUE, top = Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+			for (int corner = 0; corner < 8; ++corner) {
+				Vector3 p = viewProjection.transformPoint(Vector3.createNew(
+						(corner & 1) == 0 ? minX[i] : maxX[i], (corner & 2) == 0 ? minY[i] : maxY[i], (corner & 4) == 0 ? minZ[i] : maxZ[i]));
+				nearest = Math.min(nearest, p.z * 0.5f + 0.5f);
+				left = Math.min(left, (p.x + 1) * 0.5f * 97);
+				right = Math.max(right, (p.x + 1) * 0.5f * 97);
+				top = Math.min(top, (1 - p.y) * 0.5f * 61);
+				bottom = Math.max(bottom, (1 - p.y) * 0.5f * 61);
+			}
+			for (int y = Math.max(0, (int)top + 1); y < Math.min(61, (int)bottom); ++y) {
+				for (int x = Math.max(0, (int)left + 1); x < Math.min(97, (int)right); ++x) {
+					assertTrue(serial.getDepth(x, y) < nearest);
+				}
+			}
+		}
+		assertTrue(occluded > 50);
+		assertTrue(occluded < count);
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			OcclusionBuffer parallel = new OcclusionBuffer(97, 61, executor, 5);
+			parallel.begin(createViewProjection());
+			parallel.addOccluder(WALL, 4, WALL_INDICES, 2);
+			parallel.addOccluder(occluders, 30 * 3, indices, 30);
+			parallel.rasterize();
+			for (int y = 0; y < 61; ++y) {
+				for (int x = 0; x < 97; ++x) {
+					assertEquals(serial.getDepth(x, y), parallel.getDepth(x, y));
+				}
+			}
+
+			// Stapeltest auf einer Bitmenge
+			long[] visible = new long[FrustumCuller.getWordCount(count)];
+			for (int i = 0; i < count; ++i) visible[i >>> 6] |= 1L << (i & 63);
+			visible[0] &= ~1L;
+			int remaining = parallel.cull(minX, minY, minZ, maxX, maxY, maxZ, count, visible);
+
+			int expected = 0;
+			for (int i = 0; i < count; ++i) {
+				boolean set = (visible[i >>> 6] & (1L << (i & 63))) != 0;
+				boolean shouldBeSet = i != 0 && !serial.isOccluded(minX[i], minY[i], minZ[i], maxX[i], maxY[i], maxZ[i]);
+				assertEquals(shouldBeSet, set);
+				if (set) ++expected;
+			}
+			assertEquals(expected, remaining);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Zeichnen und Testen von 131072 Boxen bei 256x128 Pixeln
+	 */
+	// @Test
+	public void occlusionPerformance() {
+		final int count = 1 << 17;
+		final int iterations = 50;
+		Random random = new Random(2);
+		float[] minX = new float[count], minY = new float[count], minZ = new float[count];
+		float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+		for (int i = 0; i < count; ++i) {
+			float cx = random.nextFloat() * 200 - 100, cy = random.nextFloat() * 200 - 100, cz = -random.nextFloat() * 90 - 5;
+			float e = random.nextFloat() * 2 + 0.1f;
+			minX[i] = cx - e;
+			minY[i] = cy - e;
+			minZ[i] = cz - e;
+			maxX[i] = cx + e;
+			maxY[i] = cy + e;
+			maxZ[i] = cz + e;
+		}
+		long[] visible = new long[FrustumCuller.getWordCount(count)];
+		OcclusionBuffer buffer = new OcclusionBuffer(256, 128);
+
+		long rasterTime = 0, testTime = 0;
+		int remaining = 0;
+		for (int i = 0; i < iterations; ++i) {
+			long start = System.nanoTime();
+			createBuffer(buffer);
+			rasterTime += System.nanoTime() - start;
+
+			java.util.Arrays.fill(visible, -1L);
+			start = System.nanoTime();
+			remaining = buffer.cull(minX, minY, minZ, maxX, maxY, maxZ, count, visible);
+			testTime += System.nanoTime() - start;
+		}
+
+		System.out.println("Performance Verdecker zeichnen: " + rasterTime / 1000000f / iterations + " ms");
+		System.out.println("Performance Verdeckungstest: " + testTime / 1000000f / iterations + " ms (" + remaining + " sichtbar)");
+	}
+}
@@ -78,4 +78,22 @@ public class PlaneTests {
 		assertEquals(990, plane.getDistanceFromPoint(Vector3.createNew(1000, -2, 40)), DEFAULT_EPSILON);
 	}
 
+	/**
+	 * Prüft das Kopieren und das Setzen über Koeffizienten
+	 */
+	@Test
+	public void copyAndCoefficients() {
+		Plane3 plane = Plane3.createNew(Vector3.XAXIS, 10);
+		Plane3 copy = Plane3.createNew().set(plane);
+
+		assertEquals(0, copy.getDistanceFromPoint(Vector3.createNew(10, 0, 0)), DEFAULT_EPSILON);
+		assertEquals(-10, copy.getDistanceFromPoint(Vector3.createNew(0, 0, 0)), DEFAULT_EPSILON);
+
+		// Koeffizienten werden normalisiert
+		plane.set(0, 2, 0, -4);
+		assertEquals(1, plane.getNormal().y, DEFAULT_EPSILON);
+		assertEquals(0, plane.getDistanceFromPoint(Vector3.createNew(5, 2, 5)), DEFAULT_EPSILON);
+		assertEquals(3, plane.getDistanceFromPoint(Vector3.createNew(0, 5, 0)), DEFAULT_EPSILON);
+	}
+
 }
@@ -0,0 +1,133 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.MatrixFactory;
+import de.widemeadows.projectcore.math.Quaternion;
+import de.widemeadows.projectcore.math.Vector3;
+import org.junit.Test;
+
+import static de.widemeadows.projectcore.math.MathUtils.DEFAULT_EPSILON;
+import static de.widemeadows.projectcore.math.MathUtils.deg2rad;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests für {@link Quaternion}
+ */
+public class QuaternionTests {
+
+	/**
+	 * Deltawert für Vergleiche nach mehreren Rechenschritten
+	 */
+	private static final float EPSILON = 0.0001f;
+
+	/**
+	 * Prüft die Rotation von Vektoren um die Hauptachsen
+	 */
+	@Test
+	public void axisRotation() {
+		Vector3 point = Vector3.createNew(1, 2, 3);
+		Quaternion.createNew().setRotationX(deg2rad(90)).transformInPlace(point);
+		assertTrue(point.equals(1, -3, 2, EPSILON));
+
+		point = Vector3.createNew(1, 2, 3);
+		Quaternion.createNew().setRotationY(deg2rad(90)).transformInPlace(point);
+		assertTrue(point.equals(3, 2, -1, EPSILON));
+
+		point = Vector3.createNew(1, 2, 3);
+		Quaternion.createNew().setRotationZ(deg2rad(90)).transformInPlace(point);
+		assertTrue(point.equals(-2, 1, 3, EPSILON));
+	}
+
+	/**
+	 * Prüft, dass die inkrementellen Rotationen der Multiplikation von rechts entsprechen
+	 */
+	@Test
+	public void incrementalRotation() {
+		Quaternion base = Quaternion.createNew().setRotationRPY(0.3f, -0.7f, 1.1f);
+
+		Quaternion rotX = Quaternion.createNew().setRotationX(0.4f);
+		assertTrue(base.mul(rotX).equals(Quaternion.createNew(base).rotateX(0.4f), EPSILON));
+
+		Quaternion rotY = Quaternion.createNew().setRotationY(-1.2f);
+		assertTrue(base.mul(rotY).equals(Quaternion.createNew(base).rotateY(-1.2f), EPSILON));
+
+		Quaternion rotZ = Quaternion.createNew().setRotationZ(2.5f);
+		assertTrue(base.mul(rotZ).equals(Quaternion.createNew(base).rotateZ(2.5f), EPSILON));
+
+		// RPY entspricht Z * Y * X
+		Quaternion rpy = Quaternion.createNew().setRotationZ(1.1f).rotateY(-0.7f).rotateX(0.3f);
+		assertTrue(rpy.equals(base, EPSILON));
+	}
+
+	/**
+	 * Prüft die Umwandlung in und aus {@link Matrix4}
+	 */
+	@Test
+	public void matrixConversion() {
+		Matrix4 expected = MatrixFactory.getRotationEulerRPY(0.3f, -0.7f, 1.1f);
+		Quaternion q = Quaternion.createNew().setRotationRPY(0.3f, -0.7f, 1.1f);
+		assertTrue(q.toMatrix4().equals(expected, EPSILON));
+
+		// Rückweg, auch für Rotationen mit negativer Spur
+		Quaternion back = Quaternion.createNew().set(expected);
+		assertTrue(back.equals(q, EPSILON));
+
+		q.setRotationRPY(deg2rad(180), deg2rad(10), deg2rad(170));
+		back.set(q.toMatrix4());
+		assertEquals(1, Math.abs(back.dot(q)), EPSILON);
+	}
+
+	/**
+	 * Prüft die Umwandlung in und aus dem 3x3-Layout
+	 */
+	@Test
+	public void matrix3x3Conversion() {
+		Quaternion q = Quaternion.createNew().setRotationRPY(-2.3f, 0.4f, 2.9f);
+		float[] matrix = new float[9];
+		q.toMatrix3x3(matrix);
+
+		Vector3 viaMatrix = Vector3.createNew(
+				matrix[0] * 1 + matrix[1] * 2 + matrix[2] * 3,
+				matrix[3] * 1 + matrix[4] * 2 + matrix[5] * 3,
+				matrix[6] * 1 + matrix[7] * 2 + matrix[8] * 3);
+		assertTrue(viaMatrix.equals(q.transform(Vector3.createNew(1, 2, 3)), EPSILON));
+
+		Quaternion back = Quaternion.createNew().setFromMatrix3x3(matrix);
+		assertEquals(1, Math.abs(back.dot(q)), EPSILON);
+	}
+
+	/**
+	 * Prüft die Interpolation
+	 */
+	@Test
+	public void interpolation() {
+		Quaternion from = Quaternion.createNew();
+		Quaternion to = Quaternion.createNew().setRotationY(deg2rad(90));
+
+		assertTrue(from.slerp(to, 0).equals(from, EPSILON));
+		assertTrue(from.slerp(to, 1).equals(to, EPSILON));
+		assertTrue(from.slerp(to, 0.5f).equals(Quaternion.createNew().setRotationY(deg2rad(45)), EPSILON));
+
+		// nlerp ist normiert und trifft die Mitte bei symmetrischer Lage exakt
+		Quaternion half = from.nlerp(to, 0.5f);
+		assertEquals(1, half.getLength(), DEFAULT_EPSILON);
+		assertTrue(half.equals(Quaternion.createNew().setRotationY(deg2rad(45)), EPSILON));
+
+		// Kürzerer Weg bei negiertem Ziel
+		Quaternion negated = Quaternion.createNew(-to.x, -to.y, -to.z, -to.w);
+		assertEquals(1, Math.abs(from.slerp(negated, 0.5f).dot(half)), EPSILON);
+	}
+
+	/**
+	 * Prüft die Renormalisierung nach vielen inkrementellen Rotationen
+	 */
+	@Test
+	public void drift() {
+		Quaternion q = Quaternion.createNew();
+		for (int i = 0; i < 100000; ++i) {
+			q.rotateX(0.01f).rotateY(0.02f).normalizeFast();
+		}
+		assertEquals(1, q.getLength(), DEFAULT_EPSILON);
+	}
+}
@@ -0,0 +1,165 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.widemeadows.projectcore.math.MathUtils.DEFAULT_EPSILON;
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für die Strahltests mit {@link RayHit}
+ */
+public class RayHitTests {
+
+	/**
+	 * Strahl gegen Kugel
+	 */
+	@Test
+	public void sphere() {
+		Sphere sphere = Sphere.createNew(10, 5, 0, 2);
+		Ray3 ray = Ray3.createNew(0, 5, 0, 1, 0, 0);
+		RayHit hit = new RayHit();
+
+		assertEquals(8, sphere.getIntersectionF(ray, 0, 100, hit), DEFAULT_EPSILON);
+		assertEquals(8, hit.distance, DEFAULT_EPSILON);
+		assertEquals(12, hit.exitDistance, DEFAULT_EPSILON);
+		assertTrue(hit.normal.equals(-1, 0, 0, DEFAULT_EPSILON));
+		assertTrue(hit.getPoint(ray, Vector3.createNew()).equals(8, 5, 0, DEFAULT_EPSILON));
+
+		// Ursprung in der Kugel: Austritt
+		ray.setOrigin(10, 5, 0);
+		assertEquals(2, sphere.getIntersectionF(ray, 0, 100, hit), DEFAULT_EPSILON);
+		assertTrue(hit.normal.equals(1, 0, 0, DEFAULT_EPSILON));
+
+		// Hinter dem Strahl, außerhalb der Range, vorbei
+		ray.setOrigin(20, 5, 0);
+		assertTrue(Float.isNaN(sphere.getIntersectionF(ray)));
+		assertFalse(sphere.intersects(ray));
+		ray.setOrigin(0, 5, 0);
+		assertTrue(Float.isNaN(sphere.getIntersectionF(ray, 0, 7)));
+		ray.setOrigin(0, 7.5f, 0);
+		assertTrue(Float.isNaN(sphere.getIntersectionF(ray, 0, 100, hit)));
+		assertEquals(2, hit.exitDistance, DEFAULT_EPSILON);
+
+		// Strahl außerhalb des Koordinatenursprungs
+		ray.setOrigin(0, 6, 0);
+		assertTrue(sphere.intersects(ray));
+		ray.setOrigin(0, 6, 3);
+		assertFalse(sphere.intersects(ray));
+
+		// Nicht normalisierte Richtung nach Transformation, z.B. in den Objektraum
+		Sphere unit = Sphere.createNew(0, 0, 0, 1);
+		Ray3 scaled = Ray3.createNew(-5, 0.75f, 0, 1, 0, 0).transform(MatrixFactory.getScaling(2, 2, 2));
+		assertTrue(scaled.direction.equals(2, 0, 0, DEFAULT_EPSILON));
+		assertTrue(Float.isNaN(unit.getIntersectionF(scaled)));
+		assertFalse(unit.intersects(scaled));
+
+		scaled = Ray3.createNew(-5, 0, 0, 1, 0, 0).transform(MatrixFactory.getScaling(2, 2, 2));
+		assertEquals(4.5f, unit.getIntersectionF(scaled, 0, 100, hit), DEFAULT_EPSILON);
+		assertEquals(5.5f, hit.exitDistance, DEFAULT_EPSILON);
+		assertTrue(hit.normal.equals(-1, 0, 0, DEFAULT_EPSILON));
+		assertTrue(hit.getPoint(scaled, Vector3.createNew()).equals(-1, 0, 0, DEFAULT_EPSILON));
+		assertTrue(unit.intersects(scaled));
+	}
+
+	/**
+	 * Strahl gegen Ebene
+	 */
+	@Test
+	public void plane() {
+		Plane3 plane = Plane3.createNew(Vector3.createNew(0, 1, 0), 3);
+		float offset = plane.getDistanceFromPoint(Vector3.createNew(0, 0, 0));
+		Ray3 ray = Ray3.createNew(0, 10, 0, 0, -1, 0);
+		RayHit hit = new RayHit();
+
+		assertEquals(10 + offset, plane.getIntersectionF(ray, 0, 100, hit), DEFAULT_EPSILON);
+		assertEquals(hit.distance, hit.exitDistance);
+		assertTrue(hit.normal.equals(0, 1, 0, DEFAULT_EPSILON));
+		assertEquals(0, plane.getDistanceFromPoint(hit.getPoint(ray, Vector3.createNew())), DEFAULT_EPSILON);
+
+		// Von unten, parallel, abgewandt
+		ray.set(0, -10, 0, 0, 1, 0);
+		assertEquals(10 - offset, plane.getIntersectionF(ray), DEFAULT_EPSILON);
+		ray.set(0, 10, 0, 1, 0, 0);
+		assertTrue(Float.isNaN(plane.getIntersectionF(ray)));
+		ray.set(0, 10, 0, 0, 1, 0);
+		assertTrue(Float.isNaN(plane.getIntersectionF(ray, 0, 1000)));
+	}
+
+	/**
+	 * Strahl gegen Box, inklusive Vergleich mit dem bestehenden Test
+	 */
+	@Test
+	public void box() {
+		AxisAlignedBox box = AxisAlignedBox.createNew(0, 0, 0, 1, 2, 3);
+		Ray3 ray = Ray3.createNew(0, -10, 0, 0, 1, 0);
+		RayHit hit = new RayHit();
+
+		assertEquals(8, box.getIntersectionF(ray, 0, 100, hit), DEFAULT_EPSILON);
+		assertEquals(12, hit.exitDistance, DEFAULT_EPSILON);
+		assertTrue(hit.normal.equals(0, -1, 0, DEFAULT_EPSILON));
+
+		// Ursprung in der Box: Austritt auf der Seite der Richtung
+		ray.set(0, 0, 0, 0, 0, -1);
+		assertEquals(3, box.getIntersectionF(ray, 0, 100, hit), DEFAULT_EPSILON);
+		assertTrue(hit.normal.equals(0, 0, -1, DEFAULT_EPSILON));
+
+		ray.set(5, 0, 0, 1, 0, 0);
+		assertTrue(Float.isNaN(box.getIntersectionF(ray, 0, 100, hit)));
+
+		Random random = new Random(1);
+		for (int i = 0; i < 1000; ++i) {
+			ray.set(random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10,
+					random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+			if (box.intersects(ray.origin)) continue;
+
+			float expected = box.getIntersectionF(ray, 0, 100);
+			float actual = box.getIntersectionF(ray, 0, 100, hit);
+			assertEquals(Float.isNaN(expected), Float.isNaN(actual));
+			if (Float.isNaN(actual)) continue;
+			assertEquals(expected, actual, DEFAULT_EPSILON);
+
+			// Die Normale zeigt gegen den Strahl und liegt auf der getroffenen Seite
+			assertTrue(hit.normal.dot(ray.direction) < 0);
+			Vector3 point = hit.getPoint(ray, Vector3.createNew());
+			assertEquals(1, hit.normal.x * point.x + hit.normal.y * point.y / 2 + hit.normal.z * point.z / 3, 1E-3f);
+		}
+	}
+
+	/**
+	 * Strahl gegen Dreieck
+	 */
+	@Test
+	public void triangle() {
+		Vector3 a = Vector3.createNew(0, 0, 0), b = Vector3.createNew(4, 0, 0), c = Vector3.createNew(0, 4, 0);
+		Ray3 ray = Ray3.createNew(1, 2, 5, 0, 0, -1);
+		RayHit hit = new RayHit();
+
+		assertEquals(5, ray.getTriangleIntersectionF(a, b, c, 0, 100, hit), DEFAULT_EPSILON);
+		assertTrue(hit.normal.equals(0, 0, 1, DEFAULT_EPSILON));
+		assertEquals(0.25f, hit.u, DEFAULT_EPSILON);
+		assertEquals(0.5f, hit.v, DEFAULT_EPSILON);
+
+		// Rückseite, Normale nach Umlaufrichtung
+		ray.set(1, 2, -5, 0, 0, 1);
+		assertEquals(5, ray.getTriangleIntersectionF(a, b, c, 0, 100, hit), DEFAULT_EPSILON);
+		assertTrue(hit.normal.equals(0, 0, 1, DEFAULT_EPSILON));
+
+		// Außerhalb, parallel, außerhalb der Range
+		ray.set(3, 3, 5, 0, 0, -1);
+		assertTrue(Float.isNaN(ray.getTriangleIntersectionF(a, b, c, 0, 100, hit)));
+		ray.set(1, 1, 5, 1, 0, 0);
+		assertTrue(Float.isNaN(ray.getTriangleIntersectionF(a, b, c, 0, 100, null)));
+		ray.set(1, 1, 5, 0, 0, -1);
+		assertTrue(Float.isNaN(ray.getTriangleIntersectionF(a, b, c, 0, 4, null)));
+
+		// Ein Treffer wird nur bei Erfolg geschrieben
+		hit.clear();
+		assertFalse(hit.isHit());
+		ray.set(3, 3, 5, 0, 0, -1);
+		ray.getTriangleIntersectionF(a, b, c, 0, 100, hit);
+		assertFalse(hit.isHit());
+	}
+}
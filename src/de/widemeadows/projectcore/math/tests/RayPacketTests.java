@@ -0,0 +1,192 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link RayPacket}
+ */
+public class RayPacketTests {
+
+	/**
+	 * Füllt ein Bündel mit kohärenten Strahlen durch ein Raster um einen Zielpunkt
+	 */
+	private static void fillPacket(@NotNull RayPacket packet, int size, @NotNull Random random) {
+		float ox = random.nextFloat() * 300 - 150, oy = random.nextFloat() * 300 - 150, oz = random.nextFloat() * 300 - 150;
+		float tx = random.nextFloat() * 100 - 50, ty = random.nextFloat() * 100 - 50, tz = random.nextFloat() * 100 - 50;
+		packet.setSize(0);
+		for (int r = 0; r < size; ++r) {
+			packet.set(r, ox, oy, oz, tx + (r % 4) * 2 - ox, ty + (r / 4) * 2 - oy, tz - oz);
+		}
+	}
+
+	/**
+	 * Exakter Primitivtest gegen die Inkugel der Box
+	 */
+	private static final class SphereIntersector implements BoundingVolumeHierarchy.PrimitiveIntersector {
+
+		/**
+		 * Die Kugeln je Primitiv
+		 */
+		@NotNull
+		private final Sphere[] spheres;
+
+		/**
+		 * Erzeugt den Test
+		 */
+		SphereIntersector(@NotNull AxisAlignedBox[] boxes) {
+			spheres = new Sphere[boxes.length];
+			for (int i = 0; i < boxes.length; ++i) {
+				Vector3 e = boxes[i].extent;
+				spheres[i] = Sphere.createNew(boxes[i].center, Math.min(e.x, Math.min(e.y, e.z)));
+			}
+		}
+
+		@Override
+		public float intersect(int primitive, @NotNull Ray3 ray, float nearBound, float farBound) {
+			return spheres[primitive].getIntersectionF(ray, nearBound, farBound);
+		}
+	}
+
+	/**
+	 * Der Bündeltest entspricht dem Slab-Test je Strahl
+	 */
+	@Test
+	public void packetBoxTest() {
+		Random random = new Random(1);
+		RayPacket packet = new RayPacket(16);
+		assertEquals(16, packet.getCapacity());
+		assertEquals(0, packet.getActiveMask());
+
+		float[] t = new float[16], single = new float[1];
+		AxisAlignedBox[] boxes = TestBoxes.create(200, random);
+		Ray3 ray = Ray3.createNew();
+		for (int p = 0; p < 20; ++p) {
+			fillPacket(packet, 16, random);
+			assertEquals(0xFFFF, packet.getActiveMask());
+
+			for (AxisAlignedBox box : boxes) {
+				final int mask = random.nextInt(0x10000);
+				int hits = packet.intersect(box, 0, 1000, mask, t);
+				assertEquals(0, hits & ~mask);
+
+				float[] minX = {box.center.x - box.extent.x}, minY = {box.center.y - box.extent.y}, minZ = {box.center.z - box.extent.z};
+				float[] maxX = {box.center.x + box.extent.x}, maxY = {box.center.y + box.extent.y}, maxZ = {box.center.z + box.extent.z};
+				for (int r = 0; r < 16; ++r) {
+					if ((mask & (1 << r)) == 0) continue;
+					boolean expected = BatchMath.intersect(packet.getRay(r, ray), minX, minY, minZ, maxX, maxY, maxZ, 0, 1000, single, 1) == 1;
+					assertEquals(expected, (hits & (1 << r)) != 0);
+					if (expected) assertEquals(single[0], t[r]);
+				}
+			}
+		}
+
+		// Volle Maske bei 32 Strahlen
+		assertEquals(-1, new RayPacket(32).setSize(32).getActiveMask());
+		try {
+			new RayPacket(33);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Traversierung mit Bündeln entspricht der Traversierung je Strahl
+	 */
+	@Test
+	public void hierarchyTraversal() {
+		final int count = 3000;
+		Random random = new Random(2);
+		AxisAlignedBox[] boxes = TestBoxes.create(count, random);
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(boxes, count);
+		SphereIntersector spheres = new SphereIntersector(boxes);
+
+		RayPacket packet = new RayPacket(16);
+		int[] primitives = new int[16];
+		float[] distances = new float[16], distance = new float[1];
+		Ray3 ray = Ray3.createNew();
+		int totalHits = 0;
+		for (int p = 0; p < 50; ++p) {
+			final int size = 1 + random.nextInt(16);
+			fillPacket(packet, size, random);
+
+			for (int pass = 0; pass < 2; ++pass) {
+				BoundingVolumeHierarchy.PrimitiveIntersector intersector = pass == 0 ? null : spheres;
+				int found = bvh.intersectClosest(packet, 0, 1000, intersector, primitives, distances);
+				int anyMask = bvh.intersectsAny(packet, 0, 1000, intersector);
+
+				int expectedFound = 0;
+				for (int r = 0; r < size; ++r) {
+					packet.getRay(r, ray);
+					int expected = bvh.intersectClosest(ray, 0, 1000, intersector, distance);
+					assertEquals(expected != BoundingVolumeHierarchy.NO_HIT, primitives[r] != BoundingVolumeHierarchy.NO_HIT);
+					assertEquals(bvh.intersectsAny(ray, 0, 1000, intersector), (anyMask & (1 << r)) != 0);
+					if (expected == BoundingVolumeHierarchy.NO_HIT) continue;
+
+					++expectedFound;
+					assertEquals(distance[0], distances[r], 1E-4f);
+				}
+				assertEquals(expectedFound, found);
+				totalHits += found;
+			}
+		}
+		assertTrue(totalHits > 50);
+
+		// Leeres Bündel und leere Hierarchie
+		packet.setSize(0);
+		assertEquals(0, bvh.intersectClosest(packet, 0, 1000, null, primitives, distances));
+		fillPacket(packet, 4, random);
+		assertEquals(0, new BoundingVolumeHierarchy().intersectClosest(packet, 0, 1000, null, primitives, distances));
+		assertEquals(BoundingVolumeHierarchy.NO_HIT, primitives[0]);
+		assertEquals(0, new BoundingVolumeHierarchy().intersectsAny(packet, 0, 1000, null));
+	}
+
+	/**
+	 * Vergleich von Bündeln aus 16 Strahlen und Einzelstrahlen beim Picking
+	 */
+	// @Test
+	public void packetPerformance() {
+		final int count = 100000;
+		final int packets = 2000;
+		Random random = new Random(3);
+		BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy();
+		bvh.build(TestBoxes.create(count, random), count);
+
+		RayPacket[] queries = new RayPacket[packets];
+		for (int i = 0; i < packets; ++i) {
+			queries[i] = new RayPacket(16);
+			fillPacket(queries[i], 16, random);
+		}
+		int[] primitives = new int[16];
+		float[] distances = new float[16];
+		Ray3 ray = Ray3.createNew();
+
+		for (int i = 0; i < packets; ++i) {
+			bvh.intersectClosest(queries[i], 0, 1000, null, primitives, distances);
+			for (int r = 0; r < 16; ++r) bvh.intersectClosest(queries[i].getRay(r, ray), 0, 1000, null);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < packets; ++i) {
+			bvh.intersectClosest(queries[i], 0, 1000, null, primitives, distances);
+		}
+		long elapsedPacket = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < packets; ++i) {
+			for (int r = 0; r < 16; ++r) bvh.intersectClosest(queries[i].getRay(r, ray), 0, 1000, null);
+		}
+		long elapsedSingle = System.nanoTime() - start;
+
+		System.out.println("Performance Bündel-Picking: " + elapsedPacket / (float) (packets * 16) + " ns je Strahl");
+		System.out.println("Performance Einzel-Picking: " + elapsedSingle / (float) (packets * 16) + " ns je Strahl");
+	}
+}
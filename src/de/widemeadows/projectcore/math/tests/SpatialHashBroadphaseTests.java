@@ -0,0 +1,185 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.Sphere;
+import de.widemeadows.projectcore.math.SpatialHashBroadphase;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link SpatialHashBroadphase}
+ */
+public class SpatialHashBroadphaseTests {
+
+	/**
+	 * Erzeugt zufällige Kugeln
+	 *
+	 * @param count Die Anzahl
+	 * @param size Die Kantenlänge des Verteilungswürfels
+	 * @param maxRadius Der größte Radius
+	 * @param random Der Zufallsgenerator
+	 * @return Die Kugeln
+	 */
+	@NotNull
+	private static Sphere[] createSpheres(int count, float size, float maxRadius, @NotNull Random random) {
+		Sphere[] spheres = new Sphere[count];
+		for (int i = 0; i < count; ++i) {
+			spheres[i] = Sphere.createNew(random.nextFloat() * size - size / 2, random.nextFloat() * size - size / 2,
+					random.nextFloat() * size - size / 2, 0.01f + random.nextFloat() * maxRadius);
+		}
+		return spheres;
+	}
+
+	/**
+	 * Kodiert die Paare als sortierte Liste von <code>a * n + b</code>
+	 */
+	@NotNull
+	private static long[] encode(@NotNull int[] pairs, int pairCount, int count) {
+		long[] result = new long[pairCount];
+		for (int i = 0; i < pairCount; ++i) {
+			assertTrue(pairs[2 * i] < pairs[2 * i + 1]);
+			result[i] = (long)pairs[2 * i] * count + pairs[2 * i + 1];
+		}
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Referenz über alle Paare
+	 */
+	@NotNull
+	private static long[] bruteForce(@NotNull Sphere[] spheres, int count) {
+		long[] result = new long[16];
+		int found = 0;
+		for (int a = 0; a < count; ++a) {
+			for (int b = a + 1; b < count; ++b) {
+				if (!spheres[a].intersects(spheres[b])) continue;
+				if (found == result.length) result = Arrays.copyOf(result, found * 2);
+				result[found++] = (long)a * count + b;
+			}
+		}
+		return Arrays.copyOf(result, found);
+	}
+
+	/**
+	 * Serielle Suche mit passenden und zu kleinen Zellen
+	 */
+	@Test
+	public void serialPairs() {
+		final int count = 2000;
+		Sphere[] spheres = createSpheres(count, 60, 2, new Random(1));
+		long[] expected = bruteForce(spheres, count);
+		assertTrue(expected.length > 100);
+
+		// Zellgröße entspricht dem größten Durchmesser
+		SpatialHashBroadphase broadphase = new SpatialHashBroadphase(4);
+		int pairs = broadphase.findPairs(spheres, count);
+		assertEquals(pairs, broadphase.getPairCount());
+		assertTrue(Arrays.equals(expected, encode(broadphase.getPairs(), pairs, count)));
+
+		// Zu kleine Zellen verschieben größere Kugeln in gröbere Stufen
+		broadphase = new SpatialHashBroadphase(0.7f);
+		pairs = broadphase.findPairs(spheres, count);
+		assertTrue(Arrays.equals(expected, encode(broadphase.getPairs(), pairs, count)));
+
+		// Wiederverwendung mit weniger Kugeln
+		pairs = broadphase.findPairs(spheres, 100);
+		assertTrue(Arrays.equals(bruteForce(spheres, 100), encode(broadphase.getPairs(), pairs, 100)));
+
+		assertEquals(0, broadphase.findPairs(spheres, 1));
+	}
+
+	/**
+	 * Parallele Suche liefert dieselben Paare in derselben Reihenfolge
+	 */
+	@Test
+	public void parallelPairs() {
+		final int count = 5000;
+		Sphere[] spheres = createSpheres(count, 200, 1.5f, new Random(2));
+
+		SpatialHashBroadphase serial = new SpatialHashBroadphase(3);
+		int expected = serial.findPairs(spheres, count);
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			SpatialHashBroadphase parallel = new SpatialHashBroadphase(3, executor, 64);
+			parallel.findPairs(spheres, count);
+			int actual = parallel.findPairs(spheres, count);
+			assertEquals(expected, actual);
+			for (int i = 0; i < 2 * expected; ++i) {
+				assertEquals(serial.getPairs()[i], parallel.getPairs()[i]);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertTrue(Arrays.equals(bruteForce(spheres, count), encode(serial.getPairs(), expected, count)));
+	}
+
+	/**
+	 * Gemischte Radien über mehrere Stufen des Gitters
+	 */
+	@Test
+	public void mixedRadii() {
+		final int count = 2000;
+		Random random = new Random(4);
+		Sphere[] spheres = createSpheres(count, 80, 0.5f, random);
+		for (int i = 0; i < count; i += 97) spheres[i].setRadius(2 + random.nextFloat() * 15);
+		long[] expected = bruteForce(spheres, count);
+
+		SpatialHashBroadphase broadphase = new SpatialHashBroadphase(1);
+		int pairs = broadphase.findPairs(spheres, count);
+		assertTrue(Arrays.equals(expected, encode(broadphase.getPairs(), pairs, count)));
+	}
+
+	/**
+	 * Eine einzelne große Kugel vergrößert die Suche der übrigen nicht
+	 */
+	@Test
+	public void outlierDoesNotWidenSearch() {
+		final int count = 20000;
+		Sphere[] spheres = createSpheres(count, 100, 0, new Random(5));
+		for (Sphere sphere : spheres) sphere.setRadius(0.5f);
+
+		SpatialHashBroadphase broadphase = new SpatialHashBroadphase(1);
+		int basePairs = broadphase.findPairs(spheres, count);
+		int baseCells = broadphase.getVisitedCellCount();
+		assertTrue(baseCells > 0);
+
+		// Höchstens eine weitere Nachbarschaft je Zelle für die gröbere Stufe
+		spheres[0].setRadius(10);
+		int pairs = broadphase.findPairs(spheres, count);
+		assertTrue(pairs > basePairs);
+		assertTrue(broadphase.getVisitedCellCount() <= 2 * baseCells + 27);
+	}
+
+	/**
+	 * Vergleich mit dem Test aller Paare bei 20000 Partikeln
+	 */
+	// @Test
+	public void pairPerformance() {
+		final int count = 20000;
+		final int iterations = 20;
+		Sphere[] spheres = createSpheres(count, 400, 1, new Random(3));
+		SpatialHashBroadphase broadphase = new SpatialHashBroadphase(2);
+
+		for (int i = 10; i >= 0; --i) broadphase.findPairs(spheres, count);
+
+		long start = System.nanoTime();
+		for (int i = iterations - 1; i >= 0; --i) broadphase.findPairs(spheres, count);
+		long elapsedHash = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		bruteForce(spheres, count);
+		long elapsedBruteForce = System.nanoTime() - start;
+
+		System.out.println("Performance Spatial Hash: " + elapsedHash / 1000000f / iterations + " ms");
+		System.out.println("Performance alle Paare: " + elapsedBruteForce / 1000000f + " ms");
+	}
+}
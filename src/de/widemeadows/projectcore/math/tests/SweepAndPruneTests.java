@@ -0,0 +1,202 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.AxisAlignedBox;
+import de.widemeadows.projectcore.math.SweepAndPrune;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link SweepAndPrune}
+ */
+public class SweepAndPruneTests {
+
+	/**
+	 * Bildet den Schlüssel eines Paares
+	 */
+	private static long key(int a, int b) {
+		return a < b ? ((long)a << 32) | b : ((long)b << 32) | a;
+	}
+
+	/**
+	 * Ermittelt die überlappenden Paare durch Test aller Paare
+	 */
+	@NotNull
+	private static Set<Long> bruteForce(@NotNull AxisAlignedBox[] boxes, @NotNull int[] handles) {
+		Set<Long> result = new HashSet<Long>();
+		for (int i = 0; i < boxes.length; ++i) {
+			if (boxes[i] == null) continue;
+			for (int j = i + 1; j < boxes.length; ++j) {
+				if (boxes[j] == null) continue;
+				AxisAlignedBox a = boxes[i], b = boxes[j];
+				if (Math.abs(a.center.x - b.center.x) > a.extent.x + b.extent.x) continue;
+				if (Math.abs(a.center.y - b.center.y) > a.extent.y + b.extent.y) continue;
+				if (Math.abs(a.center.z - b.center.z) > a.extent.z + b.extent.z) continue;
+				result.add(key(handles[i], handles[j]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Liest die Paarmenge aus
+	 */
+	@NotNull
+	private static Set<Long> pairs(@NotNull SweepAndPrune sap) {
+		int[] buffer = new int[sap.getPairCount() * 2];
+		int count = sap.getPairs(buffer);
+		assertEquals(sap.getPairCount(), count);
+
+		Set<Long> result = new HashSet<Long>();
+		for (int i = 0; i < count; ++i) {
+			assertTrue(buffer[2 * i] < buffer[2 * i + 1]);
+			result.add(key(buffer[2 * i], buffer[2 * i + 1]));
+		}
+		return result;
+	}
+
+	/**
+	 * Wendet die gesammelten Ereignisse auf eine Menge an und verwirft sie
+	 */
+	private static void applyEvents(@NotNull SweepAndPrune sap, @NotNull Set<Long> tracked) {
+		for (int i = 0; i < sap.getRemovedCount(); ++i) {
+			assertTrue(tracked.remove(key(sap.getRemovedPairs()[2 * i], sap.getRemovedPairs()[2 * i + 1])));
+		}
+		for (int i = 0; i < sap.getAddedCount(); ++i) {
+			assertTrue(tracked.add(key(sap.getAddedPairs()[2 * i], sap.getAddedPairs()[2 * i + 1])));
+		}
+		sap.clearEvents();
+	}
+
+	/**
+	 * Bewegte, eingefügte und entfernte Boxen gegen den Test aller Paare
+	 */
+	@Test
+	public void matchesBruteForce() {
+		final int count = 400;
+		Random random = new Random(1);
+		SweepAndPrune sap = new SweepAndPrune();
+		Set<Long> tracked = new HashSet<Long>();
+
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		int[] handles = new int[count];
+		for (int i = 0; i < count; ++i) {
+			boxes[i] = AxisAlignedBox.createNew(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 100,
+					0.5f + random.nextFloat() * 4, 0.5f + random.nextFloat() * 4, 0.5f + random.nextFloat() * 4);
+			handles[i] = sap.insert(boxes[i]);
+			applyEvents(sap, tracked);
+		}
+		assertEquals(count, sap.getObjectCount());
+		Set<Long> expected = bruteForce(boxes, handles);
+		assertTrue(expected.size() > 50);
+		assertEquals(expected, pairs(sap));
+		assertEquals(expected, tracked);
+
+		for (int frame = 0; frame < 30; ++frame) {
+			for (int i = 0; i < count; ++i) {
+				if (boxes[i] == null) continue;
+				boxes[i].center.addInPlace(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+				sap.setBounds(handles[i], boxes[i]);
+			}
+
+			// Einige Objekte entfernen und neu einfügen
+			if (frame % 5 == 4) {
+				sap.update();
+				applyEvents(sap, tracked);
+				for (int i = frame; i < count; i += 17) {
+					if (boxes[i] != null) {
+						sap.remove(handles[i]);
+						applyEvents(sap, tracked);
+						boxes[i] = null;
+					}
+					else {
+						boxes[i] = AxisAlignedBox.createNew(random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 100, 2, 2, 2);
+						handles[i] = sap.insert(boxes[i]);
+						applyEvents(sap, tracked);
+					}
+				}
+			}
+
+			sap.update();
+			applyEvents(sap, tracked);
+			expected = bruteForce(boxes, handles);
+			assertEquals(expected, pairs(sap));
+			assertEquals(expected, tracked);
+		}
+
+		// Alles entfernen
+		for (int i = 0; i < count; ++i) {
+			if (boxes[i] != null) sap.remove(handles[i]);
+		}
+		applyEvents(sap, tracked);
+		assertEquals(0, sap.getObjectCount());
+		assertEquals(0, sap.getPairCount());
+		assertTrue(tracked.isEmpty());
+	}
+
+	/**
+	 * Berührende Boxen, Grenzen und ungültige Handles
+	 */
+	@Test
+	public void touchingBoxes() {
+		SweepAndPrune sap = new SweepAndPrune();
+		int a = sap.insert(AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1));
+		int b = sap.insert(AxisAlignedBox.createNew(2, 0, 0, 1, 1, 1));
+		assertTrue(sap.containsPair(a, b));
+		assertTrue(sap.containsPair(b, a));
+
+		sap.setBounds(b, AxisAlignedBox.createNew(2.5f, 0, 0, 1, 1, 1));
+		assertTrue(sap.containsPair(a, b));
+		sap.update();
+		assertFalse(sap.containsPair(a, b));
+		assertEquals(1, sap.getRemovedCount());
+
+		AxisAlignedBox bounds = sap.getBounds(b, AxisAlignedBox.createNew());
+		assertEquals(2.5f, bounds.center.x, 0.0001f);
+		assertEquals(1, bounds.extent.y, 0.0001f);
+
+		sap.remove(a);
+		try {
+			sap.remove(a);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Aufwand eines Frames bei wenig Bewegung
+	 */
+	// @Test
+	public void updatePerformance() {
+		final int count = 20000;
+		final int iterations = 100;
+		Random random = new Random(2);
+		SweepAndPrune sap = new SweepAndPrune();
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		int[] handles = new int[count];
+		for (int i = 0; i < count; ++i) {
+			boxes[i] = AxisAlignedBox.createNew(random.nextFloat() * 400, random.nextFloat() * 400, random.nextFloat() * 400, 1, 1, 1);
+			handles[i] = sap.insert(boxes[i]);
+		}
+
+		long start = System.nanoTime();
+		for (int frame = 0; frame < iterations; ++frame) {
+			for (int i = 0; i < count; ++i) {
+				boxes[i].center.addInPlace(random.nextFloat() * 0.1f - 0.05f, random.nextFloat() * 0.1f - 0.05f, random.nextFloat() * 0.1f - 0.05f);
+				sap.setBounds(handles[i], boxes[i]);
+			}
+			sap.update();
+			sap.clearEvents();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("Performance Sweep and Prune: " + elapsed / 1000000f / iterations + " ms je Frame, " + sap.getPairCount() + " Paare");
+	}
+}
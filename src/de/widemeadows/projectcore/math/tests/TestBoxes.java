@@ -0,0 +1,54 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.AxisAlignedBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Gemeinsame Erzeugung zufälliger Boxen für die Tests der Hierarchien und Strahltests
+ */
+final class TestBoxes {
+
+	/**
+	 * Versteckter Konstruktor
+	 */
+	private TestBoxes() {}
+
+	/**
+	 * Erzeugt zufällige Boxen im Würfel [-100, 100]³ mit halben Kantenlängen von 0.1 bis 3.1
+	 *
+	 * @param count Die Anzahl
+	 * @param random Der Zufallsgenerator
+	 * @return Die Boxen
+	 */
+	@NotNull
+	static AxisAlignedBox[] create(int count, @NotNull Random random) {
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		for (int i = 0; i < count; ++i) {
+			boxes[i] = AxisAlignedBox.createNew(
+					random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100,
+					0.1f + random.nextFloat() * 3, 0.1f + random.nextFloat() * 3, 0.1f + random.nextFloat() * 3);
+		}
+		return boxes;
+	}
+
+	/**
+	 * Erzeugt zufällige Boxen auf Viertelschritten im Würfel [-200, 200]³, damit Minimum und Maximum exakt
+	 * darstellbar sind
+	 *
+	 * @param count Die Anzahl
+	 * @param random Der Zufallsgenerator
+	 * @return Die Boxen
+	 */
+	@NotNull
+	static AxisAlignedBox[] createOnQuarterGrid(int count, @NotNull Random random) {
+		AxisAlignedBox[] boxes = new AxisAlignedBox[count];
+		for (int i = 0; i < count; ++i) {
+			boxes[i] = AxisAlignedBox.createNew(
+					random.nextInt(1600) / 4f - 200, random.nextInt(1600) / 4f - 200, random.nextInt(1600) / 4f - 200,
+					random.nextInt(12) / 4f + 0.25f, random.nextInt(12) / 4f + 0.25f, random.nextInt(12) / 4f + 0.25f);
+		}
+		return boxes;
+	}
+}
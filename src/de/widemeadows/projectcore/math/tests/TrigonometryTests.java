@@ -0,0 +1,101 @@
+package de.widemeadows.projectcore.math.tests;
+
+import de.widemeadows.projectcore.math.Trigonometry;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests für {@link Trigonometry}
+ */
+public class TrigonometryTests {
+
+	/**
+	 * Vergleicht eine Variante mit der Laufzeitbibliothek
+	 *
+	 * @param precision Die Variante
+	 * @param delta Der erlaubte absolute Fehler
+	 */
+	private static void compareWithRuntime(Trigonometry.Precision precision, float delta) {
+		float[] sinCos = new float[2];
+		for (float angle = -20f; angle <= 20f; angle += 0.001f) {
+			final float sin = (float) Math.sin(angle);
+			final float cos = (float) Math.cos(angle);
+
+			assertEquals(sin, precision.sin(angle), delta);
+			assertEquals(cos, precision.cos(angle), delta);
+
+			precision.sinCos(angle, sinCos, 0);
+			assertEquals(sin, sinCos[0], delta);
+			assertEquals(cos, sinCos[1], delta);
+		}
+	}
+
+	/**
+	 * Polynomvariante
+	 */
+	@Test
+	public void polynomial() {
+		compareWithRuntime(Trigonometry.Precision.POLYNOMIAL, 2e-7f);
+
+		// Außerhalb des Polynombereiches wird exakt gerechnet
+		final float large = 1e6f;
+		assertEquals((float) Math.sin(large), Trigonometry.Precision.POLYNOMIAL.sin(large), 0);
+	}
+
+	/**
+	 * Tabellenvariante
+	 */
+	@Test
+	public void table() {
+		compareWithRuntime(Trigonometry.Precision.TABLE, 2e-6f);
+	}
+
+	/**
+	 * Große Winkel bleiben genau, nicht endliche Winkel liefern NaN
+	 */
+	@Test
+	public void largeAndNonFiniteAngles() {
+		float[] sinCos = new float[2];
+		for (Trigonometry.Precision precision : Trigonometry.Precision.values()) {
+			// Innerhalb des reduzierten Bereiches
+			for (float angle = 1000f; angle < Trigonometry.POLYNOMIAL_RANGE; angle *= 1.37f) {
+				assertEquals((float) Math.sin(angle), precision.sin(angle), 2e-6f);
+				assertEquals((float) Math.cos(-angle), precision.cos(-angle), 2e-6f);
+			}
+
+			// Außerhalb wird exakt gerechnet
+			for (float angle : new float[] { 1e7f, -1e7f, 3.4e38f }) {
+				assertEquals((float) Math.sin(angle), precision.sin(angle), 0);
+				assertEquals((float) Math.cos(angle), precision.cos(angle), 0);
+				precision.sinCos(angle, sinCos, 0);
+				assertEquals((float) Math.sin(angle), sinCos[0], 0);
+				assertEquals((float) Math.cos(angle), sinCos[1], 0);
+			}
+
+			for (float angle : new float[] { Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NaN }) {
+				assertTrue(Float.isNaN(precision.sin(angle)));
+				assertTrue(Float.isNaN(precision.cos(angle)));
+				precision.sinCos(angle, sinCos, 0);
+				assertTrue(Float.isNaN(sinCos[0]));
+				assertTrue(Float.isNaN(sinCos[1]));
+			}
+		}
+	}
+
+	/**
+	 * Stapelverarbeitung
+	 */
+	@Test
+	public void batchSinCos() {
+		float[] angles = { 0, 0.5f, -2f, 3.14159f };
+		float[] sin = new float[4], cos = new float[4];
+
+		Trigonometry.sinCos(angles, sin, cos, angles.length);
+		for (int i = 0; i < angles.length; ++i) {
+			assertEquals(Trigonometry.sin(angles[i]), sin[i], 0);
+			assertEquals(Trigonometry.cos(angles[i]), cos[i], 0);
+		}
+	}
+}
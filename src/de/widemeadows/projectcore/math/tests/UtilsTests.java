@@ -75,4 +75,16 @@ public class UtilsTests {
 		assertFalse(MathUtils.isSmallerZero(2, 1));
 		assertTrue(MathUtils.isSmallerZero(-2, 1));
 	}
+
+	/**
+	 * Überprüft die Fehlerschranken der genäherten reziproken Quadratwurzel
+	 */
+	@Test
+	public void invSqrtFast() {
+		for (float value = 1e-6f; value < 1e6f; value *= 1.01f) {
+			final double exact = 1.0 / Math.sqrt(value);
+			assertEquals(1.0, MathUtils.invSqrtFast(value, false) / exact, MathUtils.INV_SQRT_FAST_ERROR);
+			assertEquals(1.0, MathUtils.invSqrtFast(value, true) / exact, MathUtils.INV_SQRT_REFINED_ERROR);
+		}
+	}
 }
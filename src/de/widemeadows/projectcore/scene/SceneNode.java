@@ -0,0 +1,396 @@
+package de.widemeadows.projectcore.scene;
+
+import de.widemeadows.projectcore.math.AxisAlignedBox;
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.Sphere;
+import de.widemeadows.projectcore.transformation.TransformationState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+
+/**
+ * Knoten eines Szenengraphen
+ * <p/>
+ * Jeder Knoten besitzt eine lokale Transformation relativ zu seinem Elternknoten sowie optionale
+ * lokale Hüllkörper. Daraus werden Welttransformation, Welt-Hüllkörper und die Hülle des gesamten
+ * Teilbaumes abgeleitet und zwischengespeichert.
+ *
+ * <h3>Aktualisierung</h3>
+ * Änderungen markieren den Knoten als veraltet und dessen Vorfahren als Träger veralteter Nachfahren.
+ * {@link #update()} auf der Wurzel steigt nur in Teilbäume mit Änderungen ab; Kinder eines veränderten
+ * Knotens werden mitgeführt. Eine unveränderte Szene kostet damit unabhängig von ihrer Größe nur die
+ * Prüfung der Wurzel.
+ *
+ * <h3>Konvention</h3>
+ * Zeilenvektoren, <code>world = local * parent.world</code>.
+ */
+public class SceneNode {
+
+	/**
+	 * Der Elternknoten oder <code>null</code>
+	 */
+	@Nullable
+	private SceneNode parent;
+
+	/**
+	 * Die Kindknoten
+	 */
+	@NotNull
+	private final ArrayList<SceneNode> children = new ArrayList<SceneNode>();
+
+	/**
+	 * Die lokale Transformation relativ zum Elternknoten
+	 */
+	@NotNull
+	private final TransformationState local;
+
+	/**
+	 * Die zwischengespeicherte Welttransformation
+	 */
+	@NotNull
+	private final Matrix4 worldMatrix = Matrix4.createNew();
+
+	/**
+	 * Die lokale Hüllbox oder <code>null</code>
+	 */
+	@Nullable
+	private AxisAlignedBox localBox;
+
+	/**
+	 * Die lokale Hüllkugel oder <code>null</code>
+	 */
+	@Nullable
+	private Sphere localSphere;
+
+	/**
+	 * Die Hüllbox in Weltkoordinaten; nur gültig, wenn {@link #localBox} gesetzt ist
+	 */
+	@NotNull
+	private final AxisAlignedBox worldBox = AxisAlignedBox.createNew();
+
+	/**
+	 * Die Hüllkugel in Weltkoordinaten; nur gültig, wenn {@link #localSphere} gesetzt ist
+	 */
+	@NotNull
+	private final Sphere worldSphere = Sphere.createNew();
+
+	/**
+	 * Die Hüllbox des Teilbaumes in Weltkoordinaten; nur gültig, wenn {@link #hasSubtreeBox} gesetzt ist
+	 */
+	@NotNull
+	private final AxisAlignedBox subtreeBox = AxisAlignedBox.createNew();
+
+	/**
+	 * Gibt an, ob der Teilbaum eine Hüllbox besitzt
+	 */
+	private boolean hasSubtreeBox;
+
+	/**
+	 * Gibt an, ob Welttransformation und Welt-Hüllkörper dieses Knotens veraltet sind
+	 */
+	private boolean isDirty = true;
+
+	/**
+	 * Gibt an, ob sich im Teilbaum unterhalb dieses Knotens Änderungen befinden
+	 */
+	private boolean hasDirtyDescendants;
+
+	/**
+	 * Erzeugt einen neuen Knoten mit Matrix-Rotation
+	 */
+	public SceneNode() {
+		this(new TransformationState());
+	}
+
+	/**
+	 * Erzeugt einen neuen Knoten
+	 *
+	 * @param local Die lokale Transformation
+	 */
+	public SceneNode(@NotNull final TransformationState local) {
+		this.local = local;
+	}
+
+	/**
+	 * Bezieht den Elternknoten
+	 *
+	 * @return Der Elternknoten oder <code>null</code>, wenn dieser Knoten eine Wurzel ist
+	 */
+	@Nullable
+	public SceneNode getParent() {
+		return parent;
+	}
+
+	/**
+	 * Bezieht die Anzahl der Kindknoten
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getChildCount() {
+		return children.size();
+	}
+
+	/**
+	 * Bezieht einen Kindknoten
+	 *
+	 * @param index Der Index
+	 * @return Der Kindknoten
+	 */
+	@NotNull
+	public SceneNode getChild(final int index) {
+		return children.get(index);
+	}
+
+	/**
+	 * Hängt einen Knoten als Kind an; ein bestehender Elternknoten wird zuvor gelöst
+	 *
+	 * @param child Der Kindknoten
+	 */
+	public void addChild(@NotNull final SceneNode child) {
+		assert child != this;
+		if (child.parent != null) child.parent.removeChild(child);
+
+		children.add(child);
+		child.parent = this;
+		child.invalidate();
+	}
+
+	/**
+	 * Löst einen Kindknoten
+	 *
+	 * @param child Der Kindknoten
+	 * @return <code>true</code>, wenn der Knoten ein Kind dieses Knotens war
+	 */
+	public boolean removeChild(@NotNull final SceneNode child) {
+		if (!children.remove(child)) return false;
+		child.parent = null;
+		child.invalidate();
+		markDescendantsDirty();
+		return true;
+	}
+
+	/**
+	 * Bezieht die lokale Transformation zum Lesen
+	 * <p/>
+	 * Für Änderungen ist {@link #editLocalTransformation()} zu verwenden.
+	 *
+	 * @return Die lokale Transformation
+	 */
+	@NotNull
+	public TransformationState getLocalTransformation() {
+		return local;
+	}
+
+	/**
+	 * Bezieht die lokale Transformation zum Verändern und markiert den Knoten als veraltet
+	 *
+	 * @return Die lokale Transformation
+	 */
+	@NotNull
+	public TransformationState editLocalTransformation() {
+		invalidate();
+		return local;
+	}
+
+	/**
+	 * Setzt die lokale Hüllbox
+	 *
+	 * @param box Die Hüllbox (wird kopiert) oder <code>null</code>
+	 */
+	public void setLocalBounds(@Nullable final AxisAlignedBox box) {
+		if (box == null) {
+			localBox = null;
+		}
+		else if (localBox == null) {
+			localBox = AxisAlignedBox.createNew(box);
+		}
+		else {
+			localBox.set(box);
+		}
+		invalidate();
+	}
+
+	/**
+	 * Setzt die lokale Hüllkugel
+	 *
+	 * @param sphere Die Hüllkugel (wird kopiert) oder <code>null</code>
+	 */
+	public void setLocalBounds(@Nullable final Sphere sphere) {
+		if (sphere == null) {
+			localSphere = null;
+		}
+		else if (localSphere == null) {
+			localSphere = Sphere.createNew(sphere);
+		}
+		else {
+			localSphere.set(sphere);
+		}
+		invalidate();
+	}
+
+	/**
+	 * Markiert diesen Knoten als veraltet
+	 */
+	public void invalidate() {
+		isDirty = true;
+		if (parent != null) parent.markDescendantsDirty();
+	}
+
+	/**
+	 * Markiert diesen Knoten und seine Vorfahren als Träger veralteter Nachfahren
+	 */
+	private void markDescendantsDirty() {
+		for (SceneNode node = this; node != null && !node.hasDirtyDescendants; node = node.parent) {
+			node.hasDirtyDescendants = true;
+		}
+	}
+
+	/**
+	 * Ermittelt, ob dieser Knoten oder sein Teilbaum aktualisiert werden muss
+	 *
+	 * @return <code>true</code>, wenn {@link #update()} Arbeit verrichten würde
+	 */
+	public boolean needsUpdate() {
+		return isDirty || hasDirtyDescendants;
+	}
+
+	/**
+	 * Aktualisiert die Weltdaten aller veralteten Knoten dieses Teilbaumes
+	 * <p/>
+	 * Wird üblicherweise einmal je Frame auf der Wurzel aufgerufen. Ist dieser Knoten keine Wurzel,
+	 * wird die Welttransformation des Elternknotens als aktuell vorausgesetzt.
+	 */
+	public void update() {
+		update(false);
+	}
+
+	/**
+	 * Aktualisiert die Weltdaten dieses Teilbaumes
+	 *
+	 * @param parentChanged Gibt an, ob sich die Welttransformation des Elternknotens geändert hat
+	 */
+	private void update(final boolean parentChanged) {
+		final boolean changed = parentChanged || isDirty;
+		if (!changed && !hasDirtyDescendants) return;
+
+		if (changed) updateWorld();
+
+		final ArrayList<SceneNode> children = this.children;
+		for (int i = 0, count = children.size(); i < count; ++i) {
+			children.get(i).update(changed);
+		}
+
+		updateSubtreeBounds();
+		isDirty = false;
+		hasDirtyDescendants = false;
+	}
+
+	/**
+	 * Berechnet Welttransformation und Welt-Hüllkörper dieses Knotens
+	 */
+	private void updateWorld() {
+		local.toMatrix4(worldMatrix);
+		if (parent != null) worldMatrix.mulInPlace(parent.worldMatrix);
+
+		if (localBox != null) {
+			localBox.transform(worldMatrix, worldBox);
+		}
+
+		if (localSphere != null) {
+			final float[] m = worldMatrix.values;
+			final float scaleX = m[Matrix4.M11] * m[Matrix4.M11] + m[Matrix4.M12] * m[Matrix4.M12] + m[Matrix4.M13] * m[Matrix4.M13];
+			final float scaleY = m[Matrix4.M21] * m[Matrix4.M21] + m[Matrix4.M22] * m[Matrix4.M22] + m[Matrix4.M23] * m[Matrix4.M23];
+			final float scaleZ = m[Matrix4.M31] * m[Matrix4.M31] + m[Matrix4.M32] * m[Matrix4.M32] + m[Matrix4.M33] * m[Matrix4.M33];
+			final float maxScale = (float) Math.sqrt(Math.max(scaleX, Math.max(scaleY, scaleZ)));
+
+			worldSphere.setPosition(worldMatrix.transformPoint(localSphere.getPosition(), worldSphere.getPosition()));
+			worldSphere.setRadius(localSphere.getRadius() * maxScale);
+		}
+	}
+
+	/**
+	 * Vereinigt die eigene Hüllbox mit denen der Kindknoten
+	 */
+	private void updateSubtreeBounds() {
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		boolean hasBox = false;
+
+		if (localBox != null) {
+			final AxisAlignedBox box = worldBox;
+			minX = box.center.x - box.extent.x; maxX = box.center.x + box.extent.x;
+			minY = box.center.y - box.extent.y; maxY = box.center.y + box.extent.y;
+			minZ = box.center.z - box.extent.z; maxZ = box.center.z + box.extent.z;
+			hasBox = true;
+		}
+
+		final ArrayList<SceneNode> children = this.children;
+		for (int i = 0, count = children.size(); i < count; ++i) {
+			final SceneNode child = children.get(i);
+			if (!child.hasSubtreeBox) continue;
+
+			final AxisAlignedBox box = child.subtreeBox;
+			minX = Math.min(minX, box.center.x - box.extent.x); maxX = Math.max(maxX, box.center.x + box.extent.x);
+			minY = Math.min(minY, box.center.y - box.extent.y); maxY = Math.max(maxY, box.center.y + box.extent.y);
+			minZ = Math.min(minZ, box.center.z - box.extent.z); maxZ = Math.max(maxZ, box.center.z + box.extent.z);
+			hasBox = true;
+		}
+
+		hasSubtreeBox = hasBox;
+		if (hasBox) {
+			subtreeBox.set(
+					(minX + maxX) * 0.5f, (minY + maxY) * 0.5f, (minZ + maxZ) * 0.5f,
+					(maxX - minX) * 0.5f, (maxY - minY) * 0.5f, (maxZ - minZ) * 0.5f);
+		}
+	}
+
+	/**
+	 * Bezieht die Welttransformation
+	 * <p/>
+	 * Die gelieferte Instanz gehört dem Knoten und darf nicht verändert werden; sie ist nach
+	 * {@link #update()} gültig.
+	 *
+	 * @return Die Welttransformation
+	 */
+	@NotNull
+	public Matrix4 getWorldMatrix() {
+		return worldMatrix;
+	}
+
+	/**
+	 * Bezieht die Hüllbox in Weltkoordinaten
+	 * <p/>
+	 * Die gelieferte Instanz gehört dem Knoten und darf nicht verändert werden.
+	 *
+	 * @return Die Hüllbox oder <code>null</code>, wenn keine lokale Hüllbox gesetzt ist
+	 */
+	@Nullable
+	public AxisAlignedBox getWorldBox() {
+		return localBox != null ? worldBox : null;
+	}
+
+	/**
+	 * Bezieht die Hüllkugel in Weltkoordinaten
+	 * <p/>
+	 * Die gelieferte Instanz gehört dem Knoten und darf nicht verändert werden.
+	 *
+	 * @return Die Hüllkugel oder <code>null</code>, wenn keine lokale Hüllkugel gesetzt ist
+	 */
+	@Nullable
+	public Sphere getWorldSphere() {
+		return localSphere != null ? worldSphere : null;
+	}
+
+	/**
+	 * Bezieht die Hüllbox des gesamten Teilbaumes in Weltkoordinaten
+	 * <p/>
+	 * Die gelieferte Instanz gehört dem Knoten und darf nicht verändert werden.
+	 *
+	 * @return Die Hüllbox oder <code>null</code>, wenn kein Knoten des Teilbaumes eine Hüllbox besitzt
+	 */
+	@Nullable
+	public AxisAlignedBox getSubtreeBox() {
+		return hasSubtreeBox ? subtreeBox : null;
+	}
+}
@@ -0,0 +1,460 @@
+package de.widemeadows.projectcore.scene;
+
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.Quaternion;
+import de.widemeadows.projectcore.utils.ChunkDispatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Transformationshierarchie in ebenenweise abgelegten, flachen Feldern
+ * <p/>
+ * Gegenstück zu {@link SceneNode} für große Hierarchien mit vielen Änderungen je Frame. Die Knoten werden in
+ * Breitensuche-Reihenfolge angelegt, d.h. alle Knoten einer Tiefe liegen zusammenhängend hinter denen der
+ * vorherigen Tiefe. Je Knoten werden Elternindex, lokale Translation, Rotation (Quaternion), Skalierung und
+ * die Weltmatrix abgelegt.
+ *
+ * <h3>Aktualisierung</h3>
+ * {@link #update()} berechnet die Weltmatrizen Ebene für Ebene. Innerhalb einer Ebene sind die Knoten
+ * voneinander unabhängig; wird ein {@link ExecutorService} übergeben, werden Ebenen ab
+ * {@link #getMinimumChunkSize()} Knoten in Blöcke zerlegt und parallel verarbeitet. Es werden keine Objekte
+ * angefordert.
+ *
+ * <h3>Konvention</h3>
+ * Zeilenvektoren wie in {@link Matrix4}, <code>world = local * parent.world</code>. Die Weltmatrix des
+ * Knotens <code>i</code> liegt ab <code>i * 16</code> in {@link #getWorldMatrices()}.
+ *
+ * @see SceneNode
+ */
+public final class TransformHierarchy {
+
+	/**
+	 * Elternindex eines Wurzelknotens
+	 */
+	public static final int NO_PARENT = -1;
+
+	/**
+	 * Standardgröße eines parallel verarbeiteten Blocks
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+	/**
+	 * Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 */
+	@Nullable
+	private final ExecutorService executor;
+
+	/**
+	 * Die Mindestanzahl an Knoten je Block
+	 */
+	private final int minimumChunkSize;
+
+	/**
+	 * Die Anzahl der Knoten
+	 */
+	private int nodeCount;
+
+	/**
+	 * Die Anzahl der Ebenen
+	 */
+	private int levelCount;
+
+	/**
+	 * Index des ersten Knotens je Ebene; Eintrag <code>levelCount</code> ist die Knotenanzahl
+	 */
+	@NotNull
+	private int[] levelStart = new int[8];
+
+	/**
+	 * Tiefe je Knoten
+	 */
+	@NotNull
+	private int[] levels;
+
+	/**
+	 * Elternindex je Knoten oder {@link #NO_PARENT}
+	 */
+	@NotNull
+	private int[] parents;
+
+	/**
+	 * Lokale Translation (x, y, z) je Knoten
+	 */
+	@NotNull
+	private float[] translations;
+
+	/**
+	 * Lokale Rotation (x, y, z, w) je Knoten
+	 */
+	@NotNull
+	private float[] rotations;
+
+	/**
+	 * Lokale Skalierung (x, y, z) je Knoten
+	 */
+	@NotNull
+	private float[] scales;
+
+	/**
+	 * Weltmatrizen (16 Elemente) je Knoten
+	 */
+	@NotNull
+	private float[] world;
+
+	/**
+	 * Erzeugt eine neue Instanz, die ausschließlich im aufrufenden Thread arbeitet
+	 *
+	 * @param capacity Die anfängliche Kapazität in Knoten
+	 */
+	public TransformHierarchy(final int capacity) {
+		this(capacity, null, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Erzeugt eine neue Instanz
+	 *
+	 * @param capacity Die anfängliche Kapazität in Knoten
+	 * @param executor Der Executor für die parallele Verarbeitung oder <code>null</code>
+	 * @param minimumChunkSize Die Mindestanzahl an Knoten je Block (1..n)
+	 */
+	public TransformHierarchy(final int capacity, @Nullable final ExecutorService executor, final int minimumChunkSize) {
+		assert capacity > 0;
+		assert minimumChunkSize > 0;
+		this.executor = executor;
+		this.minimumChunkSize = minimumChunkSize;
+
+		levels = new int[capacity];
+		parents = new int[capacity];
+		translations = new float[capacity * 3];
+		rotations = new float[capacity * 4];
+		scales = new float[capacity * 3];
+		world = new float[capacity * 16];
+	}
+
+	/**
+	 * Liefert die Mindestanzahl an Knoten je parallel verarbeitetem Block
+	 *
+	 * @return Die Blockgröße
+	 */
+	public int getMinimumChunkSize() {
+		return minimumChunkSize;
+	}
+
+	/**
+	 * Bezieht die Anzahl der Knoten
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Bezieht die Anzahl der Ebenen
+	 *
+	 * @return Die Anzahl
+	 */
+	public int getLevelCount() {
+		return levelCount;
+	}
+
+	/**
+	 * Bezieht den Elternindex eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @return Der Elternindex oder {@link #NO_PARENT}
+	 */
+	public int getParent(final int node) {
+		assert node >= 0 && node < nodeCount;
+		return parents[node];
+	}
+
+	/**
+	 * Legt einen neuen Knoten mit Identitätstransformation an
+	 * <p/>
+	 * Knoten müssen in Breitensuche-Reihenfolge angelegt werden: die Tiefe eines neuen Knotens darf
+	 * nicht geringer sein als die des zuletzt angelegten.
+	 *
+	 * @param parent Der Elternknoten oder {@link #NO_PARENT}
+	 * @return Der Index des neuen Knotens
+	 * @throws IllegalArgumentException Der Knoten verletzt die Breitensuche-Reihenfolge
+	 */
+	public int add(final int parent) {
+		if (parent < NO_PARENT || parent >= nodeCount) throw new IllegalArgumentException("Unknown parent node " + parent);
+
+		final int level = parent == NO_PARENT ? 0 : levels[parent] + 1;
+		final int currentLevel = levelCount - 1;
+		if (level < currentLevel) throw new IllegalArgumentException("Nodes must be added in breadth-first order");
+
+		final int node = nodeCount;
+		ensureCapacity(node + 1);
+
+		if (level > currentLevel) {
+			if (levelCount + 1 >= levelStart.length) {
+				final int[] grown = new int[levelStart.length * 2];
+				System.arraycopy(levelStart, 0, grown, 0, levelStart.length);
+				levelStart = grown;
+			}
+			levelStart[levelCount++] = node;
+		}
+
+		levels[node] = level;
+		parents[node] = parent;
+		nodeCount = node + 1;
+		levelStart[levelCount] = nodeCount;
+
+		setTranslation(node, 0, 0, 0);
+		setRotation(node, 0, 0, 0, 1);
+		setScale(node, 1, 1, 1);
+		return node;
+	}
+
+	/**
+	 * Vergrößert die Felder bei Bedarf
+	 *
+	 * @param required Die benötigte Kapazität in Knoten
+	 */
+	private void ensureCapacity(final int required) {
+		final int capacity = parents.length;
+		if (required <= capacity) return;
+
+		final int grown = Math.max(required, capacity * 2);
+		levels = grow(levels, grown);
+		parents = grow(parents, grown);
+		translations = grow(translations, grown * 3);
+		rotations = grow(rotations, grown * 4);
+		scales = grow(scales, grown * 3);
+		world = grow(world, grown * 16);
+	}
+
+	/**
+	 * Vergrößert ein Feld
+	 *
+	 * @param array Das Feld
+	 * @param length Die neue Länge
+	 * @return Das neue Feld
+	 */
+	@NotNull
+	private static int[] grow(@NotNull final int[] array, final int length) {
+		final int[] grown = new int[length];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Vergrößert ein Feld
+	 *
+	 * @param array Das Feld
+	 * @param length Die neue Länge
+	 * @return Das neue Feld
+	 */
+	@NotNull
+	private static float[] grow(@NotNull final float[] array, final int length) {
+		final float[] grown = new float[length];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Setzt die lokale Translation eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @param x X-Komponente
+	 * @param y Y-Komponente
+	 * @param z Z-Komponente
+	 */
+	public void setTranslation(final int node, final float x, final float y, final float z) {
+		assert node >= 0 && node < nodeCount;
+		final int i = node * 3;
+		translations[i] = x;
+		translations[i + 1] = y;
+		translations[i + 2] = z;
+	}
+
+	/**
+	 * Setzt die lokale Rotation eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @param x X-Komponente des normierten Quaternions
+	 * @param y Y-Komponente des normierten Quaternions
+	 * @param z Z-Komponente des normierten Quaternions
+	 * @param w W-Komponente des normierten Quaternions
+	 */
+	public void setRotation(final int node, final float x, final float y, final float z, final float w) {
+		assert node >= 0 && node < nodeCount;
+		final int i = node * 4;
+		rotations[i] = x;
+		rotations[i + 1] = y;
+		rotations[i + 2] = z;
+		rotations[i + 3] = w;
+	}
+
+	/**
+	 * Setzt die lokale Rotation eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @param rotation Das normierte Quaternion
+	 */
+	public void setRotation(final int node, @NotNull final Quaternion rotation) {
+		setRotation(node, rotation.x, rotation.y, rotation.z, rotation.w);
+	}
+
+	/**
+	 * Setzt die lokale Skalierung eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @param x Skalierung entlang X
+	 * @param y Skalierung entlang Y
+	 * @param z Skalierung entlang Z
+	 */
+	public void setScale(final int node, final float x, final float y, final float z) {
+		assert node >= 0 && node < nodeCount;
+		final int i = node * 3;
+		scales[i] = x;
+		scales[i + 1] = y;
+		scales[i + 2] = z;
+	}
+
+	/**
+	 * Setzt die uniforme lokale Skalierung eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @param factor Der Skalierungsfaktor
+	 */
+	public void setScale(final int node, final float factor) {
+		setScale(node, factor, factor, factor);
+	}
+
+	/**
+	 * Bezieht die Weltmatrizen aller Knoten
+	 * <p/>
+	 * Die Matrix des Knotens <code>i</code> liegt ab <code>i * 16</code> im Layout von {@link Matrix4#values}.
+	 * Das Feld gehört der Hierarchie und wird beim Anlegen von Knoten gegebenenfalls ersetzt.
+	 *
+	 * @return Die Weltmatrizen
+	 */
+	@NotNull
+	public float[] getWorldMatrices() {
+		return world;
+	}
+
+	/**
+	 * Kopiert die Weltmatrix eines Knotens
+	 *
+	 * @param node Der Knoten
+	 * @param target Die Zielmatrix
+	 * @return Die Zielmatrix
+	 */
+	@NotNull
+	public Matrix4 getWorldMatrix(final int node, @NotNull final Matrix4 target) {
+		assert node >= 0 && node < nodeCount;
+		System.arraycopy(world, node * 16, target.values, 0, 16);
+		return target;
+	}
+
+	/**
+	 * Berechnet die Weltmatrizen aller Knoten
+	 */
+	public void update() {
+		for (int level = 0; level < levelCount; ++level) {
+			final int from = levelStart[level];
+			final int to = levelStart[level + 1];
+			dispatch(from, to);
+		}
+	}
+
+	/**
+	 * Berechnet die Weltmatrizen eines Knotenbereiches
+	 * <p/>
+	 * Die Weltmatrizen aller Elternknoten des Bereiches müssen aktuell sein.
+	 *
+	 * @param from Der erste Knoten (inklusiv)
+	 * @param to Der letzte Knoten (exklusiv)
+	 */
+	public void update(final int from, final int to) {
+		assert from >= 0 && to <= nodeCount;
+
+		final int[] parents = this.parents;
+		final float[] translations = this.translations;
+		final float[] rotations = this.rotations;
+		final float[] scales = this.scales;
+		final float[] world = this.world;
+
+		for (int node = from; node < to; ++node) {
+			final int q = node * 4;
+			final float x = rotations[q], y = rotations[q + 1], z = rotations[q + 2], w = rotations[q + 3];
+			final float x2 = x + x, y2 = y + y, z2 = z + z;
+			final float xx = x * x2, yy = y * y2, zz = z * z2;
+			final float xy = x * y2, xz = x * z2, yz = y * z2;
+			final float wx = w * x2, wy = w * y2, wz = w * z2;
+
+			// Lokale Matrix: Zeile i ist die i-te Spalte der Rotation, skaliert mit s_i
+			final int s = node * 3;
+			final float sx = scales[s], sy = scales[s + 1], sz = scales[s + 2];
+			final float l11 = sx * (1.0f - (yy + zz)), l12 = sx * (xy + wz), l13 = sx * (xz - wy);
+			final float l21 = sy * (xy - wz), l22 = sy * (1.0f - (xx + zz)), l23 = sy * (yz + wx);
+			final float l31 = sz * (xz + wy), l32 = sz * (yz - wx), l33 = sz * (1.0f - (xx + yy));
+			final float l41 = translations[s], l42 = translations[s + 1], l43 = translations[s + 2];
+
+			final int o = node * 16;
+			final int parent = parents[node];
+			if (parent == NO_PARENT) {
+				world[o]      = l11; world[o + 1]  = l12; world[o + 2]  = l13; world[o + 3]  = 0;
+				world[o + 4]  = l21; world[o + 5]  = l22; world[o + 6]  = l23; world[o + 7]  = 0;
+				world[o + 8]  = l31; world[o + 9]  = l32; world[o + 10] = l33; world[o + 11] = 0;
+				world[o + 12] = l41; world[o + 13] = l42; world[o + 14] = l43; world[o + 15] = 1;
+				continue;
+			}
+
+			// world = local * parent.world (affin)
+			final int p = parent * 16;
+			final float p11 = world[p],      p12 = world[p + 1],  p13 = world[p + 2];
+			final float p21 = world[p + 4],  p22 = world[p + 5],  p23 = world[p + 6];
+			final float p31 = world[p + 8],  p32 = world[p + 9],  p33 = world[p + 10];
+			final float p41 = world[p + 12], p42 = world[p + 13], p43 = world[p + 14];
+
+			world[o]      = l11 * p11 + l12 * p21 + l13 * p31;
+			world[o + 1]  = l11 * p12 + l12 * p22 + l13 * p32;
+			world[o + 2]  = l11 * p13 + l12 * p23 + l13 * p33;
+			world[o + 3]  = 0;
+			world[o + 4]  = l21 * p11 + l22 * p21 + l23 * p31;
+			world[o + 5]  = l21 * p12 + l22 * p22 + l23 * p32;
+			world[o + 6]  = l21 * p13 + l22 * p23 + l23 * p33;
+			world[o + 7]  = 0;
+			world[o + 8]  = l31 * p11 + l32 * p21 + l33 * p31;
+			world[o + 9]  = l31 * p12 + l32 * p22 + l33 * p32;
+			world[o + 10] = l31 * p13 + l32 * p23 + l33 * p33;
+			world[o + 11] = 0;
+			world[o + 12] = l41 * p11 + l42 * p21 + l43 * p31 + p41;
+			world[o + 13] = l41 * p12 + l42 * p22 + l43 * p32 + p42;
+			world[o + 14] = l41 * p13 + l42 * p23 + l43 * p33 + p43;
+			world[o + 15] = 1;
+		}
+	}
+
+	/**
+	 * Verteilt die Verarbeitung einer Ebene auf Blöcke
+	 *
+	 * @param from Der erste Knoten der Ebene (inklusiv)
+	 * @param to Der letzte Knoten der Ebene (exklusiv)
+	 */
+	private void dispatch(final int from, final int to) {
+		final int count = to - from;
+		final ExecutorService executor = this.executor;
+		if (executor == null || count < 2 * minimumChunkSize) {
+			update(from, to);
+			return;
+		}
+
+		final int chunks = count / minimumChunkSize;
+		ChunkDispatcher.dispatch(executor, count, chunks, (count + chunks - 1) / chunks, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(final int chunk, final int chunkFrom, final int chunkTo) {
+				update(from + chunkFrom, from + chunkTo);
+				return 0;
+			}
+		}, "hierarchy update");
+	}
+}
@@ -0,0 +1,113 @@
+package de.widemeadows.projectcore.scene.tests;
+
+import de.widemeadows.projectcore.math.AxisAlignedBox;
+import de.widemeadows.projectcore.math.Sphere;
+import de.widemeadows.projectcore.math.Vector3;
+import de.widemeadows.projectcore.scene.SceneNode;
+import org.junit.Test;
+
+import static de.widemeadows.projectcore.math.MathUtils.DEFAULT_EPSILON;
+import static de.widemeadows.projectcore.math.MathUtils.deg2rad;
+import static junit.framework.Assert.*;
+
+/**
+ * Tests des Szenengraphen
+ */
+public class SceneNodeTests {
+
+	/**
+	 * Die Welttransformation eines Kindes ist die Verkettung der lokalen Transformationen
+	 */
+	@Test
+	public void worldTransformation() {
+		SceneNode root = new SceneNode();
+		SceneNode child = new SceneNode();
+		root.addChild(child);
+
+		root.editLocalTransformation().setRotationZ(deg2rad(90));
+		root.editLocalTransformation().setTranslation(10, 0, 0);
+		child.editLocalTransformation().setTranslation(1, 0, 0);
+		root.update();
+
+		// Kind-Ursprung: (1,0,0) um 90° um Z gedreht → (0,1,0), dann verschoben → (10,1,0)
+		Vector3 origin = child.getWorldMatrix().transformPoint(Vector3.createNew(), Vector3.createNew());
+		assertEquals(10, origin.x, DEFAULT_EPSILON);
+		assertEquals(1, origin.y, DEFAULT_EPSILON);
+		assertEquals(0, origin.z, DEFAULT_EPSILON);
+	}
+
+	/**
+	 * Änderungen am Elternknoten werden an die Kinder weitergereicht, unveränderte Bäume nicht erneut berechnet
+	 */
+	@Test
+	public void dirtyPropagation() {
+		SceneNode root = new SceneNode();
+		SceneNode a = new SceneNode();
+		SceneNode b = new SceneNode();
+		root.addChild(a);
+		a.addChild(b);
+		b.editLocalTransformation().setTranslation(0, 0, 1);
+
+		root.update();
+		assertFalse(root.needsUpdate());
+		assertFalse(b.needsUpdate());
+
+		a.editLocalTransformation().setTranslation(0, 5, 0);
+		assertTrue(root.needsUpdate());
+		assertTrue(a.needsUpdate());
+		assertFalse(b.needsUpdate());
+
+		root.update();
+		assertFalse(root.needsUpdate());
+
+		Vector3 origin = b.getWorldMatrix().transformPoint(Vector3.createNew(), Vector3.createNew());
+		assertEquals(0, origin.x, DEFAULT_EPSILON);
+		assertEquals(5, origin.y, DEFAULT_EPSILON);
+		assertEquals(1, origin.z, DEFAULT_EPSILON);
+	}
+
+	/**
+	 * Welt-Hüllkörper und die Hülle des Teilbaumes
+	 */
+	@Test
+	public void bounds() {
+		SceneNode root = new SceneNode();
+		SceneNode left = new SceneNode();
+		SceneNode right = new SceneNode();
+		root.addChild(left);
+		root.addChild(right);
+		assertNull(root.getWorldBox());
+
+		left.setLocalBounds(AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1));
+		left.editLocalTransformation().setTranslation(-5, 0, 0);
+		right.setLocalBounds(Sphere.createNew(0, 0, 0, 1));
+		right.setLocalBounds(AxisAlignedBox.createNew(0, 0, 0, 1, 1, 1));
+		right.editLocalTransformation().setTranslation(5, 0, 0);
+		right.editLocalTransformation().setScale(2);
+		root.update();
+
+		AxisAlignedBox leftBox = left.getWorldBox();
+		assertNotNull(leftBox);
+		assertEquals(-5, leftBox.center.x, DEFAULT_EPSILON);
+
+		Sphere sphere = right.getWorldSphere();
+		assertNotNull(sphere);
+		assertEquals(5, sphere.getX(), DEFAULT_EPSILON);
+		assertEquals(2, sphere.getRadius(), DEFAULT_EPSILON);
+
+		AxisAlignedBox subtree = root.getSubtreeBox();
+		assertNotNull(subtree);
+		assertEquals(0.5f, subtree.center.x, DEFAULT_EPSILON);
+		assertEquals(6.5f, subtree.extent.x, DEFAULT_EPSILON);
+		assertEquals(2, subtree.extent.y, DEFAULT_EPSILON);
+
+		// Entfernen eines Kindes verkleinert die Hülle
+		root.removeChild(right);
+		assertTrue(root.needsUpdate());
+		root.update();
+		subtree = root.getSubtreeBox();
+		assertNotNull(subtree);
+		assertEquals(-5, subtree.center.x, DEFAULT_EPSILON);
+		assertEquals(1, subtree.extent.x, DEFAULT_EPSILON);
+	}
+}
@@ -0,0 +1,124 @@
+package de.widemeadows.projectcore.scene.tests;
+
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.Quaternion;
+import de.widemeadows.projectcore.scene.SceneNode;
+import de.widemeadows.projectcore.scene.TransformHierarchy;
+import de.widemeadows.projectcore.transformation.TransformationState;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests der ebenenweise abgelegten Transformationshierarchie
+ */
+public class TransformHierarchyTests {
+
+	/**
+	 * Deltawert für Vergleiche
+	 */
+	private static final float EPSILON = 0.0001f;
+
+	/**
+	 * Erzeugt eine zufällige Hierarchie in Breitensuche-Reihenfolge und spiegelt sie als {@link SceneNode}-Baum
+	 *
+	 * @param hierarchy Die Hierarchie
+	 * @param nodes Die gespiegelten Knoten (Ausgabe)
+	 * @param random Der Zufallsgenerator
+	 */
+	private static void createTree(TransformHierarchy hierarchy, SceneNode[] nodes, Random random) {
+		Quaternion rotation = Quaternion.createNew();
+		int lastParent = 0;
+		for (int i = 0; i < nodes.length; ++i) {
+			// Die ersten zwei Knoten sind Wurzeln; monoton wachsende Elternindizes ergeben eine Breitensuche-Reihenfolge
+			int parent = TransformHierarchy.NO_PARENT;
+			if (i >= 2) {
+				lastParent = Math.min(lastParent + random.nextInt(2), i - 1);
+				parent = lastParent;
+			}
+			int node = hierarchy.add(parent);
+			assertEquals(i, node);
+
+			rotation.setRotationRPY(random.nextFloat(), random.nextFloat(), random.nextFloat());
+			float x = random.nextFloat() * 4 - 2, y = random.nextFloat() * 4 - 2, z = random.nextFloat() * 4 - 2;
+			float scale = 0.5f + random.nextFloat();
+			hierarchy.setRotation(node, rotation);
+			hierarchy.setTranslation(node, x, y, z);
+			hierarchy.setScale(node, scale);
+
+			nodes[i] = new SceneNode(new TransformationState(true));
+			TransformationState local = nodes[i].editLocalTransformation();
+			local.setRotation(rotation);
+			local.setTranslation(x, y, z);
+			local.setScale(scale);
+			if (parent != TransformHierarchy.NO_PARENT) nodes[parent].addChild(nodes[i]);
+		}
+	}
+
+	/**
+	 * Die Weltmatrizen entsprechen denen des {@link SceneNode}-Baumes
+	 */
+	@Test
+	public void matchesSceneGraph() {
+		final int count = 40;
+		TransformHierarchy hierarchy = new TransformHierarchy(4);
+		SceneNode[] nodes = new SceneNode[count];
+		createTree(hierarchy, nodes, new Random(1));
+		assertTrue(hierarchy.getLevelCount() > 3);
+
+		hierarchy.update();
+		nodes[0].update();
+		nodes[1].update();
+
+		Matrix4 matrix = Matrix4.createNew();
+		for (int i = 0; i < count; ++i) {
+			hierarchy.getWorldMatrix(i, matrix);
+			float[] expected = nodes[i].getWorldMatrix().values;
+			for (int j = 0; j < 16; ++j) {
+				assertEquals(expected[j], matrix.values[j], EPSILON);
+			}
+		}
+	}
+
+	/**
+	 * Parallele und serielle Aktualisierung liefern dasselbe Ergebnis
+	 */
+	@Test
+	public void parallelUpdate() throws InterruptedException {
+		final int count = 500;
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			TransformHierarchy serial = new TransformHierarchy(count);
+			TransformHierarchy parallel = new TransformHierarchy(count, executor, 4);
+			createTree(serial, new SceneNode[count], new Random(2));
+			createTree(parallel, new SceneNode[count], new Random(2));
+
+			serial.update();
+			parallel.update();
+
+			float[] expected = serial.getWorldMatrices();
+			float[] actual = parallel.getWorldMatrices();
+			for (int i = 0; i < count * 16; ++i) {
+				assertEquals(expected[i], actual[i], 0);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Knoten außerhalb der Breitensuche-Reihenfolge werden abgelehnt
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void breadthFirstOrder() {
+		TransformHierarchy hierarchy = new TransformHierarchy(4);
+		int root = hierarchy.add(TransformHierarchy.NO_PARENT);
+		hierarchy.add(root);
+		hierarchy.add(TransformHierarchy.NO_PARENT);
+	}
+}
@@ -1,27 +1,56 @@
 package de.widemeadows.projectcore.transformation;
 
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.Quaternion;
 import de.widemeadows.projectcore.math.Ray3;
 import de.widemeadows.projectcore.math.Vector3;
 import org.jetbrains.annotations.NotNull;
 
-import static de.widemeadows.projectcore.math.mock.FloatMath.cos;
-import static de.widemeadows.projectcore.math.mock.FloatMath.sin;
+import static de.widemeadows.projectcore.math.Trigonometry.cos;
+import static de.widemeadows.projectcore.math.Trigonometry.sin;
 
 /**
  * Transformationszustand eines Objektes
+ * <p/>
+ * Die Rotation wird wahlweise als 3x3-Matrix oder als {@link Quaternion} geführt (siehe
+ * {@link #TransformationState(boolean)}). Im Quaternion-Modus kosten inkrementelle Rotationen
+ * 8 bzw. 16 Multiplikationen statt eines 3x3-Produktes, driften nicht und lassen sich günstig
+ * interpolieren; die Rotationsmatrix wird erst bei Bedarf aus dem Quaternion abgeleitet.
+ * <p/>
+ * Die Welttransformation und ihre Inverse werden als {@link Matrix4} zwischengespeichert
+ * (siehe {@link #toMatrix4(Matrix4)}, {@link #toInverseMatrix4(Matrix4)}). Jede Änderung verwirft
+ * den Cache; neu berechnet wird erst bei der nächsten Abfrage.
  */
 public class TransformationState {
 
 	// TODO: Clone
 	// TODO: Invert
 	// TODO: Chain
-	// TODO: Cache
 
 	/**
-	 * Gibt an, ob dieses Objekt einen verädnerten Zustand hat
+	 * Gibt an, ob dieses Objekt einen veränderten Zustand hat, d.h. {@link #matrix} veraltet ist
 	 */
 	private boolean isDirty = false;
 
+	/**
+	 * Gibt an, ob {@link #inverseMatrix} veraltet ist
+	 */
+	private boolean isInverseDirty = false;
+
+	/**
+	 * Die zwischengespeicherte Welttransformation (Zeilenvektor-Konvention)
+	 * @see #isDirty
+	 */
+	@NotNull
+	private final Matrix4 matrix = Matrix4.createNew();
+
+	/**
+	 * Die zwischengespeicherte inverse Welttransformation (Zeilenvektor-Konvention)
+	 * @see #isInverseDirty
+	 */
+	@NotNull
+	private final Matrix4 inverseMatrix = Matrix4.createNew();
+
 	/**
 	 * Der Skalierungsfaktor des Objektes
 	 */
@@ -50,6 +79,190 @@ public class TransformationState {
 	@NotNull
 	private final float[] translation = new float[] { 0.0f, 0.0f, 0.0f };
 
+	/**
+	 * Gibt an, ob die Rotation als Quaternion geführt wird
+	 * @see #orientation
+	 */
+	private final boolean quaternionMode;
+
+	/**
+	 * Die Rotation als Quaternion; nur im Quaternion-Modus maßgeblich
+	 * @see #quaternionMode
+	 */
+	@NotNull
+	private final Quaternion orientation = Quaternion.createNew();
+
+	/**
+	 * Gibt an, ob {@link #rotation} gegenüber {@link #orientation} veraltet ist
+	 */
+	private boolean rotationOutdated = false;
+
+	/**
+	 * Erzeugt einen neuen Transformationszustand, dessen Rotation als Matrix geführt wird
+	 */
+	public TransformationState() {
+		this(false);
+	}
+
+	/**
+	 * Erzeugt einen neuen Transformationszustand
+	 *
+	 * @param useQuaternion Gibt an, ob die Rotation als Quaternion geführt werden soll
+	 */
+	public TransformationState(final boolean useQuaternion) {
+		quaternionMode = useQuaternion;
+	}
+
+	/**
+	 * Ermittelt, ob die Rotation als Quaternion geführt wird
+	 *
+	 * @return <code>true</code>, wenn die Rotation als Quaternion geführt wird
+	 */
+	public boolean isQuaternionMode() {
+		return quaternionMode;
+	}
+
+	/**
+	 * Leitet die Rotationsmatrix aus dem Quaternion ab, sofern sie veraltet ist
+	 */
+	private void updateRotationMatrix() {
+		if (!rotationOutdated) return;
+		orientation.toMatrix3x3(rotation);
+		rotationOutdated = false;
+	}
+
+	/**
+	 * Markiert die Rotationsmatrix nach einer Änderung des Quaternions als veraltet
+	 */
+	private void orientationChanged() {
+		rotationOutdated = true;
+	}
+
+	/**
+	 * Verwirft die zwischengespeicherten Matrizen nach einer Änderung
+	 */
+	private void invalidate() {
+		isDirty = true;
+		isInverseDirty = true;
+	}
+
+	/**
+	 * Berechnet die Welttransformation neu, sofern sie veraltet ist
+	 *
+	 * @return Die aktuelle Welttransformation
+	 */
+	@NotNull
+	private Matrix4 updateMatrix() {
+		if (!isDirty) return matrix;
+		updateRotationMatrix();
+
+		// Zeile i entspricht der skalierten Spalte i der Rotationsmatrix
+		final float sx = scale[0], sy = scale[1], sz = scale[2];
+		matrix.set(
+				rotation[0] * sx, rotation[3] * sx, rotation[6] * sx, 0,
+				rotation[1] * sy, rotation[4] * sy, rotation[7] * sy, 0,
+				rotation[2] * sz, rotation[5] * sz, rotation[8] * sz, 0,
+				translation[0], translation[1], translation[2], 1);
+		isDirty = false;
+		return matrix;
+	}
+
+	/**
+	 * Berechnet die inverse Welttransformation neu, sofern sie veraltet ist
+	 *
+	 * @return Die aktuelle inverse Welttransformation
+	 */
+	@NotNull
+	private Matrix4 updateInverseMatrix() {
+		if (!isInverseDirty) return inverseMatrix;
+		updateRotationMatrix();
+
+		// Rotationsmatrix ist orthogonal --> R^-1 == R^T; Spalte i wird mit 1/s(i) skaliert
+		final float ix = invScale[0], iy = invScale[1], iz = invScale[2];
+		final float m11 = rotation[0] * ix, m12 = rotation[1] * iy, m13 = rotation[2] * iz;
+		final float m21 = rotation[3] * ix, m22 = rotation[4] * iy, m23 = rotation[5] * iz;
+		final float m31 = rotation[6] * ix, m32 = rotation[7] * iy, m33 = rotation[8] * iz;
+		final float tx = translation[0], ty = translation[1], tz = translation[2];
+
+		inverseMatrix.set(
+				m11, m12, m13, 0,
+				m21, m22, m23, 0,
+				m31, m32, m33, 0,
+				-(tx * m11 + ty * m21 + tz * m31), -(tx * m12 + ty * m22 + tz * m32), -(tx * m13 + ty * m23 + tz * m33), 1);
+		isInverseDirty = false;
+		return inverseMatrix;
+	}
+
+	/**
+	 * Bezieht die Welttransformation als Matrix (Zeilenvektor-Konvention, <code>p' = p * M</code>)
+	 *
+	 * @param target Die Zielmatrix
+	 * @return Die Zielmatrix für method chaining
+	 */
+	@NotNull
+	public Matrix4 toMatrix4(@NotNull final Matrix4 target) {
+		return target.set(updateMatrix());
+	}
+
+	/**
+	 * Bezieht die inverse Welttransformation als Matrix (Zeilenvektor-Konvention)
+	 *
+	 * @param target Die Zielmatrix
+	 * @return Die Zielmatrix für method chaining
+	 */
+	@NotNull
+	public Matrix4 toInverseMatrix4(@NotNull final Matrix4 target) {
+		return target.set(updateInverseMatrix());
+	}
+
+	/**
+	 * Bezieht die Rotation als Quaternion
+	 *
+	 * @param target Das Zielquaternion
+	 * @return Das Zielquaternion für method chaining
+	 */
+	@NotNull
+	public Quaternion getRotation(@NotNull final Quaternion target) {
+		if (quaternionMode) return target.set(orientation);
+		return target.setFromMatrix3x3(rotation);
+	}
+
+	/**
+	 * Setzt die Rotation aus einem (normierten) Quaternion
+	 *
+	 * @param value Die Rotation
+	 */
+	public void setRotation(@NotNull final Quaternion value) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.set(value);
+			orientationChanged();
+		}
+		else {
+			value.toMatrix3x3(rotation);
+		}
+	}
+
+	/**
+	 * Setzt die Rotation auf die sphärische Interpolation zweier Rotationen
+	 *
+	 * @param from Die Ausgangsrotation
+	 * @param to Die Zielrotation
+	 * @param t Der Interpolationsfaktor (0..1)
+	 */
+	public void interpolateRotation(@NotNull final Quaternion from, @NotNull final Quaternion to, final float t) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.set(from).slerpInPlace(to, t);
+			orientationChanged();
+		}
+		else {
+			final Quaternion interpolated = from.slerp(to, t);
+			interpolated.toMatrix3x3(rotation);
+			interpolated.recycle();
+		}
+	}
+
 	/**
 	 * Bezieht die X-Translation
 	 * @return Translation in X-Richtung
@@ -63,6 +276,7 @@ public class TransformationState {
 	 * @param value Der Wert
 	 */
 	public void setTranslationX(final float value) {
+		invalidate();
 		translation[0] = value;
 	}
 
@@ -72,6 +286,7 @@ public class TransformationState {
 	 * @param value Der Wert
 	 */
 	public void translateX(final float value) {
+		invalidate();
 		translation[0] += value;
 	}
 
@@ -89,6 +304,7 @@ public class TransformationState {
 	 * @param value Der Wert
 	 */
 	public void setTranslationY(final float value) {
+		invalidate();
 		translation[1] = value;
 	}
 
@@ -98,6 +314,7 @@ public class TransformationState {
 	 * @param value Der Wert
 	 */
 	public void translateY(final float value) {
+		invalidate();
 		translation[1] += value;
 	}
 
@@ -115,6 +332,7 @@ public class TransformationState {
 	 * @param value Der Wert
 	 */
 	public void setTranslationZ(final float value) {
+		invalidate();
 		translation[2] = value;
 	}
 
@@ -124,6 +342,7 @@ public class TransformationState {
 	 * @param value Der Wert
 	 */
 	public void translateZ(final float value) {
+		invalidate();
 		translation[2] += value;
 	}
 
@@ -135,6 +354,7 @@ public class TransformationState {
 	 * @param z Der Wert
 	 */
 	public void setTranslation(final float x, final float y, final float z) {
+		invalidate();
 		translation[0] = x;
 		translation[1] = y;
 		translation[2] = z;
@@ -148,6 +368,7 @@ public class TransformationState {
 	 * @param z Der Wert
 	 */
 	public void translate(final float x, final float y, final float z) {
+		invalidate();
 		translation[0] += x;
 		translation[1] += y;
 		translation[2] += z;
@@ -194,7 +415,7 @@ public class TransformationState {
 		invScale[0] = invFactor;
 		invScale[1] = invFactor;
 		invScale[2] = invFactor;
-		isDirty = true;
+		invalidate();
 	}
 
 	/**
@@ -209,10 +430,10 @@ public class TransformationState {
 		scale[2] *= factor;
 
 		final float invFactor = 1.0f / factor;
-		invScale[0] = invFactor;
-		invScale[1] = invFactor;
-		invScale[2] = invFactor;
-		isDirty = true;
+		invScale[0] *= invFactor;
+		invScale[1] *= invFactor;
+		invScale[2] *= invFactor;
+		invalidate();
 	}
 
 	/**
@@ -220,8 +441,12 @@ public class TransformationState {
 	 * @param point Der zu transformierende Punkt
 	 */
 	public void transformPoint(@NotNull Vector3 point) {
-		transformVector(point);
-		point.addInPlace(translation[0], translation[1], translation[2]);
+		final float[] m = updateMatrix().values;
+		final float px = point.x, py = point.y, pz = point.z;
+		point.set(
+				px * m[Matrix4.M11] + py * m[Matrix4.M21] + pz * m[Matrix4.M31] + m[Matrix4.M41],
+				px * m[Matrix4.M12] + py * m[Matrix4.M22] + pz * m[Matrix4.M32] + m[Matrix4.M42],
+				px * m[Matrix4.M13] + py * m[Matrix4.M23] + pz * m[Matrix4.M33] + m[Matrix4.M43]);
 	}
 
 	/**
@@ -230,14 +455,12 @@ public class TransformationState {
 	 * @param vector Der zu transformierende Vektor
 	 */
 	public void transformVector(@NotNull Vector3 vector) {
-		final float vx = vector.x * scale[0];
-		final float vy = vector.y * scale[1];
-		final float vz = vector.z * scale[2];
-		
-		final float x = (vx * rotation[0] + vy * rotation[1] + vz * rotation[2]);
-		final float y = (vx * rotation[3] + vy * rotation[4] + vz * rotation[5]);
-		final float z = (vx * rotation[6] + vy * rotation[7] + vz * rotation[8]);
-		vector.set(x, y, z);
+		final float[] m = updateMatrix().values;
+		final float vx = vector.x, vy = vector.y, vz = vector.z;
+		vector.set(
+				vx * m[Matrix4.M11] + vy * m[Matrix4.M21] + vz * m[Matrix4.M31],
+				vx * m[Matrix4.M12] + vy * m[Matrix4.M22] + vz * m[Matrix4.M32],
+				vx * m[Matrix4.M13] + vy * m[Matrix4.M23] + vz * m[Matrix4.M33]);
 	}
 
 	/**
@@ -245,20 +468,12 @@ public class TransformationState {
 	 * @param vector Der invers zu transformierende Vektor
 	 */
 	public void inverseTransformVector(@NotNull Vector3 vector) {
-		final float invScaleX = this.invScale[0]; // TODO: Most probably borked, see: Game Engine Architecture, p. 177
-		final float invScaleY = this.invScale[1];
-		final float invScaleZ = this.invScale[2];
-
-		// Vektoren sind ohne Translation
-		final float vectorX = vector.x * invScaleX;
-		final float vectorY = vector.y * invScaleY;
-		final float vectorZ = vector.z * invScaleZ;
-
-		// Rotationsmatrix ist orthogonal --> R^-1 == R^T
-		final float x = (vectorX * rotation[0] + vectorY * rotation[3] + vectorZ * rotation[6]);
-		final float y = (vectorX * rotation[1] + vectorY * rotation[4] + vectorZ * rotation[7]);
-		final float z = (vectorX * rotation[2] + vectorY * rotation[5] + vectorZ * rotation[8]);
-		vector.set(x, y, z);
+		final float[] m = updateInverseMatrix().values;
+		final float vx = vector.x, vy = vector.y, vz = vector.z;
+		vector.set(
+				vx * m[Matrix4.M11] + vy * m[Matrix4.M21] + vz * m[Matrix4.M31],
+				vx * m[Matrix4.M12] + vy * m[Matrix4.M22] + vz * m[Matrix4.M32],
+				vx * m[Matrix4.M13] + vy * m[Matrix4.M23] + vz * m[Matrix4.M33]);
 	}
 
 	/**
@@ -267,20 +482,12 @@ public class TransformationState {
 	 * @param point Der invers zu transformierende Punkt
 	 */
 	public void inverseTransformPoint(@NotNull Vector3 point) {
-		final float invScaleX = this.invScale[0]; // TODO: Most probably borked, see: Game Engine Architecture, p. 177
-		final float invScaleY = this.invScale[1];
-		final float invScaleZ = this.invScale[2];
-
-		// Vektoren sind mit Translation
-		final float pointX = (point.x - translation[0]) * invScaleX;
-		final float pointY = (point.y - translation[1]) * invScaleY;
-		final float pointZ = (point.z - translation[2]) * invScaleZ;
-
-		// Rotationsmatrix ist orthogonal --> R^-1 == R^T
-		final float x = (pointX * rotation[0] + pointY * rotation[3] + pointZ * rotation[6]);
-		final float y = (pointX * rotation[1] + pointY * rotation[4] + pointZ * rotation[7]);
-		final float z = (pointX * rotation[2] + pointY * rotation[5] + pointZ * rotation[8]);
-		point.set(x, y, z);
+		final float[] m = updateInverseMatrix().values;
+		final float px = point.x, py = point.y, pz = point.z;
+		point.set(
+				px * m[Matrix4.M11] + py * m[Matrix4.M21] + pz * m[Matrix4.M31] + m[Matrix4.M41],
+				px * m[Matrix4.M12] + py * m[Matrix4.M22] + pz * m[Matrix4.M32] + m[Matrix4.M42],
+				px * m[Matrix4.M13] + py * m[Matrix4.M23] + pz * m[Matrix4.M33] + m[Matrix4.M43]);
 	}
 
 	/**
@@ -308,6 +515,9 @@ public class TransformationState {
 	 * Setzt die Rotation zurück
 	 */
 	public void resetRotation() {
+		invalidate();
+		orientation.toIdentity();
+		rotationOutdated = false;
 		rotation[0] = 1;
 		rotation[1] = 0;
 		rotation[2] = 0;
@@ -325,6 +535,12 @@ public class TransformationState {
 	 * @param theta Der Winkel in radians
 	 */
 	public void setRotationX(final float theta) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.setRotationX(theta);
+			orientationChanged();
+			return;
+		}
 		setRotationX(cos(theta), sin(theta));
 	}
 
@@ -334,6 +550,12 @@ public class TransformationState {
 	 * @param theta Der Winkel in radians
 	 */
 	public void rotateObjectX(final float theta) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.rotateX(theta).normalizeFast();
+			orientationChanged();
+			return;
+		}
 		rotateObjectX(cos(theta), sin(theta));
 	}
 
@@ -343,6 +565,12 @@ public class TransformationState {
 	 * @param theta Der Winkel in radians
 	 */
 	public void setRotationY(final float theta) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.setRotationY(theta);
+			orientationChanged();
+			return;
+		}
 		setRotationY(cos(theta), sin(theta));
 	}
 
@@ -352,6 +580,12 @@ public class TransformationState {
 	 * @param theta Der Winkel in radians
 	 */
 	public void rotateObjectY(final float theta) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.rotateY(theta).normalizeFast();
+			orientationChanged();
+			return;
+		}
 		rotateObjectY(cos(theta), sin(theta));
 	}
 
@@ -361,6 +595,12 @@ public class TransformationState {
 	 * @param theta Der Winkel in radians
 	 */
 	public void setRotationZ(final float theta) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.setRotationZ(theta);
+			orientationChanged();
+			return;
+		}
 		setRotationZ(cos(theta), sin(theta));
 	}
 
@@ -370,6 +610,12 @@ public class TransformationState {
 	 * @param theta Der Winkel in radians
 	 */
 	public void rotateObjectZ(final float theta) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.rotateZ(theta).normalizeFast();
+			orientationChanged();
+			return;
+		}
 		rotateObjectZ(cos(theta), sin(theta));
 	}
 
@@ -559,6 +805,13 @@ public class TransformationState {
 	 * @param yawZ   Der Gierwinkel (Rotation um Z) in radians
 	 */
 	public void setRotation(final float rollX, final float pitchY, final float yawZ) {
+		invalidate();
+		if (quaternionMode) {
+			orientation.setRotationRPY(rollX, pitchY, yawZ);
+			orientationChanged();
+			return;
+		}
+
 		float cr = cos(rollX); // Φ
 		float sr = sin(rollX);
 
@@ -581,6 +834,15 @@ public class TransformationState {
 	 * @param yawZ   Der Gierwinkel (Rotation um Z) in radians
 	 */
 	public void rotate(final float rollX, final float pitchY, final float yawZ) {
+		invalidate();
+		if (quaternionMode) {
+			final Quaternion delta = Quaternion.createNew().setRotationRPY(rollX, pitchY, yawZ);
+			orientation.mulInPlace(delta).normalizeFast();
+			orientationChanged();
+			delta.recycle();
+			return;
+		}
+
 		float cr = cos(rollX); // Φ
 		float sr = sin(rollX);
 
@@ -712,14 +974,21 @@ public class TransformationState {
 	 * @param parentTransformation Die Elterntransformation
 	 */
 	public void chain(@NotNull final TransformationState parentTransformation) {
+		invalidate();
 
 		// TODO: Diese Methode total auslagern und Matrix4 verwenden?
 		// TODO: Dazu toMatrix4()- und inverseToMatrix4()-Methode erzeugen, welche die Transformationen enthalten.
 
+		updateRotationMatrix();
+		parentTransformation.updateRotationMatrix();
+
 		// Skalierung verketten
 		scale[0] *= parentTransformation.scale[0]; // TODO: Allet Kacke!
 		scale[1] *= parentTransformation.scale[1];
 		scale[2] *= parentTransformation.scale[2];
+		invScale[0] *= parentTransformation.invScale[0];
+		invScale[1] *= parentTransformation.invScale[1];
+		invScale[2] *= parentTransformation.invScale[2];
 
 		// Rotation verketten
 		final float[] multiplied = new float[9];
@@ -739,6 +1008,7 @@ public class TransformationState {
 		multiplied[8] = (left[2] * right[6]) + (left[5] * right[7]) + (left[8] * right[8]);
 
 		System.arraycopy(multiplied, 0, rotation, 0, 9);
+		if (quaternionMode) orientation.setFromMatrix3x3(rotation);
 
 		// Translation verketten
 		translation[0] += parentTransformation.translation[0] * parentTransformation.rotation[0] + // TODO: Allet Kacke!
@@ -1,5 +1,7 @@
 package de.widemeadows.projectcore.transformation.tests;
 
+import de.widemeadows.projectcore.math.Matrix4;
+import de.widemeadows.projectcore.math.Quaternion;
 import de.widemeadows.projectcore.math.Vector3;
 import de.widemeadows.projectcore.transformation.TransformationState;
 import org.junit.Test;
@@ -7,6 +9,7 @@ import org.junit.Test;
 import static de.widemeadows.projectcore.math.MathUtils.DEFAULT_EPSILON;
 import static de.widemeadows.projectcore.math.MathUtils.deg2rad;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
 
 /**
  * Tests der Transformation States
@@ -222,4 +225,88 @@ public class TransformationStateTests {
 		assertEquals(240, point.y, DEFAULT_EPSILON);
 		assertEquals(320, point.z, DEFAULT_EPSILON);
 	}
+
+	/**
+	 * Überprüft, dass der Quaternion-Modus dieselben Ergebnisse wie der Matrix-Modus liefert
+	 */
+	@Test
+	public void quaternionModeTest() {
+		TransformationState matrixState = new TransformationState();
+		TransformationState quaternionState = new TransformationState(true);
+
+		matrixState.setTranslation(1, 2, 3);
+		quaternionState.setTranslation(1, 2, 3);
+		matrixState.setScale(2);
+		quaternionState.setScale(2);
+
+		matrixState.setRotation(0.3f, -0.2f, 0.9f);
+		quaternionState.setRotation(0.3f, -0.2f, 0.9f);
+		matrixState.rotateObjectX(deg2rad(30));
+		quaternionState.rotateObjectX(deg2rad(30));
+		matrixState.rotateObjectY(deg2rad(-45));
+		quaternionState.rotateObjectY(deg2rad(-45));
+		matrixState.rotateObjectZ(deg2rad(60));
+		quaternionState.rotateObjectZ(deg2rad(60));
+		matrixState.rotate(0.1f, 0.2f, 0.3f);
+		quaternionState.rotate(0.1f, 0.2f, 0.3f);
+
+		Vector3 expected = Vector3.createNew(4, -5, 6);
+		Vector3 actual = Vector3.createNew(4, -5, 6);
+		matrixState.transformPoint(expected);
+		quaternionState.transformPoint(actual);
+		assertTrue(expected.equals(actual, 0.001f));
+
+		quaternionState.inverseTransformPoint(actual);
+		assertTrue(actual.equals(4, -5, 6, 0.001f));
+
+		// Rotation in beiden Modi auslesbar
+		Quaternion a = matrixState.getRotation(Quaternion.createNew());
+		Quaternion b = quaternionState.getRotation(Quaternion.createNew());
+		assertEquals(1, Math.abs(a.dot(b)), 0.0001f);
+
+		// Interpolation
+		quaternionState.setTranslation(0, 0, 0);
+		quaternionState.setScale(1);
+		quaternionState.interpolateRotation(Quaternion.createNew(), Quaternion.createNew().setRotationY(deg2rad(120)), 0.75f);
+		Vector3 point = Vector3.createNew(1, 2, 3);
+		quaternionState.transformPoint(point);
+		assertEquals(3, point.x, 0.0001f);
+		assertEquals(2, point.y, 0.0001f);
+		assertEquals(-1, point.z, 0.0001f);
+	}
+
+	/**
+	 * Überprüft die zwischengespeicherte Welttransformation und ihre Inverse
+	 */
+	@Test
+	public void matrixCacheTest() {
+		TransformationState state = new TransformationState();
+		state.setScale(2);
+		state.setRotation(deg2rad(10), deg2rad(20), deg2rad(30));
+		state.setTranslation(1, 2, 3);
+
+		Matrix4 matrix = state.toMatrix4(Matrix4.createNew());
+		Matrix4 inverse = state.toInverseMatrix4(Matrix4.createNew());
+		assertTrue(matrix.mul(inverse).equals(Matrix4.UNIT, 0.0001f));
+
+		Vector3 expected = Vector3.createNew(4, 5, 6);
+		state.transformPoint(expected);
+		Vector3 point = matrix.transformPoint(Vector3.createNew(4, 5, 6));
+		assertTrue(expected.equals(point, 0.0001f));
+
+		state.inverseTransformPoint(point);
+		assertTrue(point.equals(4, 5, 6, 0.0001f));
+
+		// Änderungen verwerfen den Cache
+		state.translate(1, 0, 0);
+		state.toMatrix4(matrix);
+		assertEquals(2, matrix.getAt(Matrix4.M41), DEFAULT_EPSILON);
+		state.toInverseMatrix4(inverse);
+		assertTrue(matrix.mul(inverse).equals(Matrix4.UNIT, 0.0001f));
+
+		state.scale(0.5f);
+		state.toMatrix4(matrix);
+		state.toInverseMatrix4(inverse);
+		assertTrue(matrix.mul(inverse).equals(Matrix4.UNIT, 0.0001f));
+	}
 }
@@ -0,0 +1,100 @@
+package de.widemeadows.projectcore.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Verteilt die Bearbeitung eines Indexbereiches in Blöcken auf einen {@link ExecutorService}
+ * <p/>
+ * Der aufrufende Thread bearbeitet den ersten Block selbst, die übrigen werden an den Executor übergeben;
+ * anschließend wird auf alle Blöcke gewartet. Block <code>c</code> umfasst
+ * <code>[min(c * chunkSize, count), min((c + 1) * chunkSize, count))</code>; jeder Block wird genau einmal
+ * bearbeitet, auch wenn er leer ist.
+ */
+public final class ChunkDispatcher {
+
+	/**
+	 * Bearbeitung eines Blocks
+	 */
+	public static abstract class RangeKernel {
+
+		/**
+		 * Bearbeitet einen Block
+		 *
+		 * @param chunk Der Index des Blocks
+		 * @param from Das erste Element (inklusiv)
+		 * @param to Das letzte Element (exklusiv)
+		 * @return Ein Teilergebnis (z.B. die Anzahl gefundener Elemente); wird über alle Blöcke summiert
+		 */
+		public abstract int run(int chunk, int from, int to);
+	}
+
+	/**
+	 * Versteckter Konstruktor
+	 */
+	private ChunkDispatcher() {}
+
+	/**
+	 * Bearbeitet alle Blöcke und wartet auf deren Fertigstellung
+	 * <p/>
+	 * Ohne Executor oder bei nur einem Block werden alle Blöcke der Reihe nach im aufrufenden Thread bearbeitet.
+	 * Fehler eines Blocks werden als {@link IllegalStateException} mit der ursprünglichen Ursache weitergereicht;
+	 * bei einer Unterbrechung wird das Interrupt-Flag wiederhergestellt.
+	 *
+	 * @param executor Der Executor oder <code>null</code>
+	 * @param count Die Anzahl der Elemente
+	 * @param chunks Die Anzahl der Blöcke (mindestens 1)
+	 * @param chunkSize Die Anzahl der Elemente je Block
+	 * @param kernel Die Bearbeitung
+	 * @param task Die Bezeichnung der Aufgabe für Fehlermeldungen, z.B. <code>"skinning"</code>
+	 * @return Die Summe der Teilergebnisse
+	 */
+	public static int dispatch(@Nullable final ExecutorService executor, final int count, final int chunks, final int chunkSize,
+	                           @NotNull final RangeKernel kernel, @NotNull final String task) {
+		assert chunks > 0 && chunkSize > 0;
+		if (executor == null || chunks == 1) {
+			int result = 0;
+			for (int c = 0; c < chunks; ++c) {
+				result += kernel.run(c, Math.min(c * chunkSize, count), Math.min((c + 1) * chunkSize, count));
+			}
+			return result;
+		}
+
+		// Blöcke ab dem zweiten an den Executor übergeben
+		final List<Future<Integer>> futures = new ArrayList<Future<Integer>>(chunks - 1);
+		for (int c = 1; c < chunks; ++c) {
+			final int chunk = c;
+			final int from = Math.min(c * chunkSize, count);
+			final int to = Math.min(from + chunkSize, count);
+			futures.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					return kernel.run(chunk, from, to);
+				}
+			}));
+		}
+
+		// Ersten Block selbst bearbeiten, dann auf die übrigen warten
+		int result = kernel.run(0, 0, Math.min(chunkSize, count));
+		try {
+			for (int i = 0, size = futures.size(); i < size; ++i) {
+				result += futures.get(i).get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for parallel " + task, e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Parallel " + task + " failed", e.getCause());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,81 @@
+package de.widemeadows.projectcore.utils.tests;
+
+import de.widemeadows.projectcore.utils.ChunkDispatcher;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Tests für {@link ChunkDispatcher}
+ */
+public class ChunkDispatcherTests {
+
+	/**
+	 * Bearbeitet 1000 Elemente in 7 Blöcken und prüft Abdeckung und Summe
+	 */
+	private static void coverAll(@Nullable ExecutorService executor) {
+		final AtomicIntegerArray visits = new AtomicIntegerArray(1000);
+		final AtomicIntegerArray chunks = new AtomicIntegerArray(7);
+		int sum = ChunkDispatcher.dispatch(executor, 1000, 7, 150, new ChunkDispatcher.RangeKernel() {
+			@Override
+			public int run(int chunk, int from, int to) {
+				chunks.incrementAndGet(chunk);
+				for (int i = from; i < to; ++i) visits.incrementAndGet(i);
+				return to - from;
+			}
+		}, "test");
+
+		assertEquals(1000, sum);
+		for (int i = 0; i < 1000; ++i) assertEquals(1, visits.get(i));
+
+		// Auch der leere letzte Block wird genau einmal bearbeitet
+		for (int c = 0; c < 7; ++c) assertEquals(1, chunks.get(c));
+	}
+
+	/**
+	 * Seriell und parallel wird jedes Element genau einmal bearbeitet
+	 */
+	@Test
+	public void coversAllElements() {
+		coverAll(null);
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			coverAll(executor);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Fehler eines Blocks werden mit ihrer Ursache weitergereicht
+	 */
+	@Test
+	public void propagatesFailures() {
+		final RuntimeException failure = new RuntimeException("chunk 2");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			ChunkDispatcher.dispatch(executor, 100, 4, 25, new ChunkDispatcher.RangeKernel() {
+				@Override
+				public int run(int chunk, int from, int to) {
+					if (chunk == 2) throw failure;
+					return 0;
+				}
+			}, "test");
+			fail();
+		}
+		catch (IllegalStateException e) {
+			assertEquals("Parallel test failed", e.getMessage());
+			assertSame(failure, e.getCause());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}